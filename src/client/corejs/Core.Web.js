@@ -1435,6 +1435,16 @@ Core.Web.WebSocketConnection = Core.extend({
         }
     },
 
+   /**
+    * Determines whether the WebSocket connection is open, i.e., whether data may be sent.
+    * 
+    * @return true if the connection is open
+    * @type Boolean
+    */
+    isOpen: function() {
+        return this.getState() == Core.Web.WebSocketConnection.STATE_OPEN;
+    },
+
    /**
     * Adds a event listener to be notified when a events (open, close, error, message) is received from the websocket.
     *
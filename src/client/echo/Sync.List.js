@@ -48,6 +48,12 @@ Echo.Sync.ListComponent = Core.extend(Echo.Render.ComponentSync, {
      */
     _focused: false,
     
+    /**
+     * The items currently rendered as options.
+     * @type Array
+     */
+    _renderedItems: null,
+    
     /**
      * Determines current selection state.
      * By default, the value of the "selection" property of the component is returned.
@@ -177,24 +183,10 @@ Echo.Sync.ListComponent = Core.extend(Echo.Render.ComponentSync, {
         var items = this.component.get("items");
         if (items) {
             for (var i = 0; i < items.length; ++i) {
-                var optionElement = document.createElement("option");
-                if (items[i].text == null) {
-                    optionElement.appendChild(document.createTextNode(items[i].toString()));
-                } else {
-                    optionElement.appendChild(document.createTextNode(items[i].text));
-                }
-                if (items[i].foreground) {
-                    Echo.Sync.Color.render(items[i].foreground, optionElement, "color");
-                }
-                if (items[i].background) {
-                    Echo.Sync.Color.render(items[i].background, optionElement, "backgroundColor");
-                }
-                if (items[i].font) {
-                    Echo.Sync.Font.render(items[i].font, optionElement);
-                }
-                this._element.appendChild(optionElement);
+                this._element.appendChild(this._renderItem(items[i]));
             }
         }
+        this._renderedItems = items;
 
         if (this._enabled) {
             Core.Web.Event.add(this._element, "change", Core.method(this, this._processChange), false);
@@ -213,6 +205,7 @@ Echo.Sync.ListComponent = Core.extend(Echo.Render.ComponentSync, {
     renderDispose: function(update) {
         Core.Web.Event.removeAll(this._element);
         this._element = null;
+        this._renderedItems = null;
     },
     
     /** @see Echo.Render.ComponentSync#renderFocus */
@@ -225,6 +218,71 @@ Echo.Sync.ListComponent = Core.extend(Echo.Render.ComponentSync, {
         Core.Web.DOM.focusElement(this._element);
     },
     
+    /**
+     * Renders an item.
+     * 
+     * @param item the item
+     * @return the rendered OPTION element
+     * @type Element
+     */
+    _renderItem: function(item) {
+        var optionElement = document.createElement("option");
+        if (item.text == null) {
+            optionElement.appendChild(document.createTextNode(item.toString()));
+        } else {
+            optionElement.appendChild(document.createTextNode(item.text));
+        }
+        if (item.foreground) {
+            Echo.Sync.Color.render(item.foreground, optionElement, "color");
+        }
+        if (item.background) {
+            Echo.Sync.Color.render(item.background, optionElement, "backgroundColor");
+        }
+        if (item.font) {
+            Echo.Sync.Font.render(item.font, optionElement);
+        }
+        return optionElement;
+    },
+    
+    /**
+     * Updates rendered items to reflect the current value of the "items" property, replacing only the options
+     * between the longest unchanged leading and trailing ranges of items.
+     * 
+     * @return true if the items were updated, false if they could not be updated in place
+     * @type Boolean
+     */
+    _renderItemsUpdate: function() {
+        var oldItems = this._renderedItems,
+            newItems = this.component.get("items");
+        if (!(oldItems instanceof Array && newItems instanceof Array)) {
+            return false;
+        }
+        
+        var start = 0,
+            maxCount = Math.min(oldItems.length, newItems.length);
+        while (start < maxCount && oldItems[start] === newItems[start]) {
+            ++start;
+        }
+        var endCount = 0;
+        maxCount -= start;
+        while (endCount < maxCount && 
+                oldItems[oldItems.length - 1 - endCount] === newItems[newItems.length - 1 - endCount]) {
+            ++endCount;
+        }
+        
+        var i;
+        for (i = oldItems.length - endCount - 1; i >= start; --i) {
+            this._element.removeChild(this._element.options[i]);
+        }
+        var nextOption = start < this._element.options.length ? this._element.options[start] : null;
+        for (i = start; i < newItems.length - endCount; ++i) {
+            this._element.insertBefore(this._renderItem(newItems[i]), nextOption);
+        }
+        
+        this._renderedItems = newItems;
+        return true;
+    },
+    
     /**
      * Renders the current selection state.
      */
@@ -252,6 +310,15 @@ Echo.Sync.ListComponent = Core.extend(Echo.Render.ComponentSync, {
             this._selectedIdPriority = true;            
         }
         
+        if (update.hasUpdatedProperties() && 
+                update.isUpdatedPropertySetIn({ items: true, selection: true, selectedId: true })) {
+            // Update items and selection in place.
+            if (!update.getUpdatedProperty("items") || this._renderItemsUpdate()) {
+                this._renderSelection();
+                return false;
+            }
+        }
+        
         var element = this._element;
         var containerElement = element.parentNode;
         this.renderDispose(update);
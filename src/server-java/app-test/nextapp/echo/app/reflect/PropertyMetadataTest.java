@@ -0,0 +1,136 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+
+package nextapp.echo.app.reflect;
+
+import java.beans.IndexedPropertyDescriptor;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for <code>nextapp.echo.app.reflect.PropertyMetadata</code>, verifying the property tables generated at
+ * build time by <code>PropertyMetadataGenerator</code>.
+ * Located in the <code>nextapp.echo.app.reflect</code> package as the tested class is package-private.
+ */
+public class PropertyMetadataTest extends TestCase {
+    
+    /**
+     * Returns a description of the mutable properties described by <code>PropertyDescriptor</code>s, in the form 
+     * <code>name:readMethod:writeMethod:type</code>, suffixing indexed property names with <code>[]</code>.
+     * 
+     * @param propertyDescriptors the property descriptors
+     * @return the descriptions, sorted
+     */
+    private static Set describe(PropertyDescriptor[] propertyDescriptors) {
+        Set descriptions = new TreeSet();
+        for (int i = 0; i < propertyDescriptors.length; ++i) {
+            if (propertyDescriptors[i] instanceof IndexedPropertyDescriptor) {
+                IndexedPropertyDescriptor indexedDescriptor = (IndexedPropertyDescriptor) propertyDescriptors[i];
+                if (indexedDescriptor.getIndexedWriteMethod() != null) {
+                    descriptions.add(indexedDescriptor.getName() + "[]:" + indexedDescriptor.getIndexedReadMethod() 
+                            + ":" + indexedDescriptor.getIndexedWriteMethod() + ":" 
+                            + indexedDescriptor.getIndexedPropertyType());
+                }
+            } else if (propertyDescriptors[i].getWriteMethod() != null) {
+                descriptions.add(propertyDescriptors[i].getName() + ":" + propertyDescriptors[i].getReadMethod() 
+                        + ":" + propertyDescriptors[i].getWriteMethod() + ":" 
+                        + propertyDescriptors[i].getPropertyType());
+            }
+        }
+        return descriptions;
+    }
+    
+    /**
+     * Loads the generated property table.
+     * 
+     * @return the property table
+     */
+    private Properties loadTable() 
+    throws Exception {
+        InputStream in = getClass().getClassLoader().getResourceAsStream(PropertyMetadata.RESOURCE_NAME);
+        assertNotNull("Property table not generated: " + PropertyMetadata.RESOURCE_NAME, in);
+        try {
+            Properties table = new Properties();
+            table.load(in);
+            return table;
+        } finally {
+            in.close();
+        }
+    }
+    
+    /**
+     * Test that the property descriptors created from the generated table match those of 
+     * <code>java.beans.Introspector</code> for every class in the table.
+     */
+    public void testGeneratedTable() 
+    throws Exception {
+        Properties table = loadTable();
+        assertTrue(table.containsKey("nextapp.echo.app.Label"));
+        assertTrue(table.containsKey("nextapp.echo.app.Grid"));
+        assertTrue(table.containsKey("nextapp.echo.app.layout.GridLayoutData"));
+        
+        ClassLoader classLoader = getClass().getClassLoader();
+        Iterator it = table.keySet().iterator();
+        while (it.hasNext()) {
+            String className = (String) it.next();
+            Class type = Class.forName(className, false, classLoader);
+            PropertyDescriptor[] tableDescriptors = PropertyMetadata.getPropertyDescriptors(type);
+            assertNotNull("Property table entry not usable: " + className, tableDescriptors);
+            PropertyDescriptor[] beanDescriptors = Introspector.getBeanInfo(type, Introspector.IGNORE_ALL_BEANINFO)
+                    .getPropertyDescriptors();
+            assertEquals(className, describe(beanDescriptors), describe(tableDescriptors));
+        }
+    }
+    
+    /**
+     * Test that an indexed property is described by an <code>IndexedPropertyDescriptor</code>.
+     */
+    public void testIndexedProperty() 
+    throws Exception {
+        Class gridClass = Class.forName("nextapp.echo.app.Grid", false, getClass().getClassLoader());
+        PropertyDescriptor[] propertyDescriptors = PropertyMetadata.getPropertyDescriptors(gridClass);
+        assertNotNull(propertyDescriptors);
+        boolean found = false;
+        for (int i = 0; i < propertyDescriptors.length; ++i) {
+            if ("columnWidth".equals(propertyDescriptors[i].getName())) {
+                assertTrue(propertyDescriptors[i] instanceof IndexedPropertyDescriptor);
+                found = true;
+            }
+        }
+        assertTrue(found);
+    }
+}
@@ -211,4 +211,48 @@ public class ApplicationInstanceTest extends TestCase {
         
         ApplicationInstance.setActive(null);
     }
+    
+    /**
+     * Test that components registered or removed during validation are
+     * validated (or not validated) in the same pass.
+     */
+    public void testValidationOfHierarchyChanges() {
+        final ValidatingLabel addedLabel = new ValidatingLabel();
+        final ValidatingLabel removedLabel = new ValidatingLabel();
+        final Column column = new Column() {
+            public void validate() {
+                super.validate();
+                if (addedLabel.getParent() == null) {
+                    add(addedLabel);
+                }
+            }
+        };
+        final Column removingColumn = new Column() {
+            public void validate() {
+                super.validate();
+                if (removedLabel.getParent() != null) {
+                    removedLabel.getParent().remove(removedLabel);
+                }
+            }
+        };
+        ColumnApp app = new ColumnApp() {
+            public Window init() {
+                Window window = super.init();
+                getColumn().add(removingColumn);
+                getColumn().add(column);
+                return window;
+            }
+        };
+        
+        ApplicationInstance.setActive(app);
+        app.doInit(true, "windowId");
+        assertTrue(addedLabel.valid);
+        
+        column.add(removedLabel);
+        app.getWindow(0).getUpdateManager().processClientUpdates();
+        assertNull(removedLabel.getParent());
+        assertFalse(removedLabel.valid);
+        
+        ApplicationInstance.setActive(null);
+    }
 }
@@ -31,11 +31,16 @@ package nextapp.echo.app.test;
 
 //import java.util.Locale;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
 import nextapp.echo.app.ApplicationInstance;
 import nextapp.echo.app.Color;
 import nextapp.echo.app.Component;
 import nextapp.echo.app.Extent;
 import nextapp.echo.app.Font;
+import nextapp.echo.app.MutableStyle;
 import nextapp.echo.app.layout.GridLayoutData;
 import junit.framework.TestCase;
 
@@ -481,6 +486,30 @@ public class ComponentTest extends TestCase {
         }
     }
     
+    /**
+     * Test that local style storage is allocated only when a property is set,
+     * measuring the footprint of a component by its serialized size.
+     */
+    public void testLazyStorage() 
+    throws IOException {
+        NullComponent c = new NullComponent();
+        assertFalse(c.getLocalStyle().getPropertyNames().hasNext());
+        assertFalse(c.getLocalStyle() instanceof MutableStyle);
+        assertNull(c.getBackground());
+        assertNull(c.getIndex("index", 0));
+        assertEquals(Color.RED, c.getRenderProperty(Component.PROPERTY_BACKGROUND, Color.RED));
+        c.setBackground(null);
+        
+        byte[] emptyData = serialize(c);
+        assertEquals(-1, new String(emptyData, "ISO-8859-1").indexOf("nextapp.echo.app.MutableStyle"));
+        
+        c.setBackground(Color.BLUE);
+        assertEquals(Color.BLUE, c.getLocalStyle().get(Component.PROPERTY_BACKGROUND));
+        byte[] styledData = serialize(c);
+        assertTrue(new String(styledData, "ISO-8859-1").indexOf("nextapp.echo.app.MutableStyle") != -1);
+        assertTrue(emptyData.length < styledData.length);
+    }
+    
     /**
      * Test <code>layoutData</code> property.
      */
@@ -707,4 +736,19 @@ public class ComponentTest extends TestCase {
         assertEquals(-1, parent.visibleIndexOf(c));
         assertEquals(-1, parent.visibleIndexOf(d));
     }
+    
+    /**
+     * Serializes the specified object.
+     * 
+     * @param o the object to serialize
+     * @return the serialized data
+     */
+    private static byte[] serialize(Object o)
+    throws IOException {
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        ObjectOutputStream objectOut = new ObjectOutputStream(byteOut);
+        objectOut.writeObject(o);
+        objectOut.close();
+        return byteOut.toByteArray();
+    }
 }
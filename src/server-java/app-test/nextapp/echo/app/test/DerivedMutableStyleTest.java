@@ -64,6 +64,27 @@ public class DerivedMutableStyleTest extends TestCase {
         assertFalse(derivedStyle.isIndexedPropertySet("bravo", 3));
     }
 
+    public void testModificationCount() {
+        MutableStyle baseStyle = new MutableStyle();
+        DerivedMutableStyle derivedStyle = new DerivedMutableStyle(baseStyle);
+        long count = derivedStyle.getModificationCount();
+        
+        baseStyle.set("alpha", "a");
+        assertTrue(derivedStyle.getModificationCount() > count);
+        count = derivedStyle.getModificationCount();
+
+        derivedStyle.setIndex("bravo", 1, "b");
+        assertTrue(derivedStyle.getModificationCount() > count);
+        count = derivedStyle.getModificationCount();
+        
+        derivedStyle.removeProperty("charlie");
+        assertEquals(count, derivedStyle.getModificationCount());
+        
+        // Replacing the parent with a less modified style must not reduce the count.
+        derivedStyle.setParentStyle(new MutableStyle());
+        assertTrue(derivedStyle.getModificationCount() > count);
+    }
+
     public void testSimple() {
         MutableStyle baseStyle = new MutableStyle();
         baseStyle.set("alpha", "a");
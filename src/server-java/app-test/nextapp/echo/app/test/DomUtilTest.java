@@ -0,0 +1,113 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+package nextapp.echo.app.test;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import nextapp.echo.app.util.DomUtil;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test(s) for the <code>nextapp.echo.app.util.DomUtil</code> 
+ * utility object.
+ */
+public class DomUtilTest extends TestCase {
+    
+    /**
+     * Renders a document using a JAXP <code>Transformer</code>.
+     */
+    private static String save(Document document) 
+    throws SAXException {
+        StringWriter sw = new StringWriter();
+        PrintWriter pw = new PrintWriter(sw);
+        DomUtil.save(document, pw, null);
+        pw.flush();
+        return sw.toString();
+    }
+    
+    /**
+     * Renders a document using the streaming serializer.
+     */
+    private static String write(Document document) 
+    throws IOException {
+        StringWriter sw = new StringWriter();
+        DomUtil.write(document, sw);
+        return sw.toString();
+    }
+    
+    /**
+     * Test that a server-message-style document is written identically by both serializers.
+     */
+    public void testWriteMatchesSave() 
+    throws Exception {
+        Document document = DomUtil.createDocument("smsg", null, null, "http://www.nextapp.com/products/echo/svrmsg/servermessage.3.0");
+        Element root = document.getDocumentElement();
+        root.setAttribute("u", "7");
+        root.setAttribute("i", "42");
+        Element groupElement = document.createElement("group");
+        groupElement.setAttribute("i", "init");
+        root.appendChild(groupElement);
+        root.appendChild(document.createElement("libs"));
+        
+        Element pElement = document.createElement("p");
+        pElement.setAttribute("n", "text");
+        pElement.setAttribute("v", "a&b<c>d\"e'f\ng\th\ri \u00e9\u00a0\u0085 \ud83d\ude00 \u0001");
+        pElement.appendChild(document.createTextNode("a&b<c>d\"e'f\ng\th\ri \u00e9\u00a0\u0085\u007f \ud83d\ude00 \u0001]]>"));
+        groupElement.appendChild(pElement);
+        
+        Element emptyElement = document.createElement("sr");
+        emptyElement.appendChild(document.createTextNode(""));
+        groupElement.appendChild(emptyElement);
+        
+        Element cdataElement = document.createElement("cd");
+        cdataElement.appendChild(document.createCDATASection("<x>"));
+        cdataElement.appendChild(document.createComment("comment"));
+        groupElement.appendChild(cdataElement);
+        
+        assertEquals(save(document), write(document));
+    }
+    
+    /**
+     * Test writing of an empty document element.
+     */
+    public void testWriteEmptyDocument() 
+    throws Exception {
+        Document document = DomUtil.createDocument("cmsg", null, null, null);
+        assertEquals(save(document), write(document));
+        assertTrue(write(document).endsWith("<cmsg/>"));
+    }
+}
@@ -33,6 +33,8 @@ import nextapp.echo.app.Color;
 import nextapp.echo.app.ListBox;
 import nextapp.echo.app.event.ActionEvent;
 import nextapp.echo.app.event.ActionListener;
+import nextapp.echo.app.event.ListDataEvent;
+import nextapp.echo.app.list.DefaultListModel;
 import junit.framework.TestCase;
 
 /**
@@ -98,4 +100,43 @@ public class ListBoxTest extends TestCase {
         assertEquals(TestConstants.INSETS_1234, listBox.getInsets());
         assertEquals(TestConstants.EXTENT_100_PX, listBox.getWidth());
     }
+    
+    /**
+     * Test retrieval of <code>ListDataEvent</code>s received from the model.
+     */
+    public void testListDataEvents() {
+        DefaultListModel model = new DefaultListModel();
+        ListBox listBox = new ListBox(model);
+        int eventCount = listBox.getListDataEventCount();
+        assertEquals(0, listBox.getListDataEvents(eventCount).length);
+        
+        model.add("alpha");
+        model.add("bravo");
+        model.remove(0);
+        assertEquals(eventCount + 3, listBox.getListDataEventCount());
+        
+        ListDataEvent[] events = listBox.getListDataEvents(eventCount);
+        assertEquals(3, events.length);
+        assertEquals(ListDataEvent.INTERVAL_ADDED, events[0].getType());
+        assertEquals(ListDataEvent.INTERVAL_ADDED, events[1].getType());
+        assertEquals(1, events[1].getIndex0());
+        assertEquals(ListDataEvent.INTERVAL_REMOVED, events[2].getType());
+        
+        events = listBox.getListDataEvents(eventCount + 2);
+        assertEquals(1, events.length);
+        assertEquals(ListDataEvent.INTERVAL_REMOVED, events[0].getType());
+        
+        // Only a limited number of events are retained.
+        eventCount = listBox.getListDataEventCount();
+        for (int i = 0; i < 100; ++i) {
+            model.add(Integer.toString(i));
+        }
+        assertNull(listBox.getListDataEvents(eventCount));
+        assertNotNull(listBox.getListDataEvents(eventCount + 90));
+        
+        // Events are not available across model changes.
+        eventCount = listBox.getListDataEventCount();
+        listBox.setModel(new DefaultListModel());
+        assertNull(listBox.getListDataEvents(eventCount));
+    }
 }
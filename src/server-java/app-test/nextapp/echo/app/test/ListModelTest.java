@@ -131,6 +131,17 @@ public class ListModelTest extends TestCase {
         assertEquals(0, listModel.getEventListenerCount());
     }
     
+    public void testModificationCount() {
+        DefaultListModel listModel = new DefaultListModel(new Object[]{"alpha", "bravo", "charlie"});
+        int count = listModel.getModificationCount();
+        listModel.add("delta");
+        assertEquals(count + 1, listModel.getModificationCount());
+        listModel.remove(0);
+        assertEquals(count + 2, listModel.getModificationCount());
+        listModel.get(0);
+        assertEquals(count + 2, listModel.getModificationCount());
+    }
+    
     public void testRemoveByIndex() {
         DefaultListModel listModel = new DefaultListModel(new Object[]{"alpha", "bravo", "charlie"});
         TestListDataListener testListener = new TestListDataListener();
@@ -29,6 +29,10 @@
 
 package nextapp.echo.app.test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
@@ -187,4 +191,72 @@ public class MutableStyleTest extends TestCase {
         assertEquals("hotel", style.get("golf"));
         assertEquals("bravo", style.get("alpha"));
     }
+    
+    public void testManyProperties() {
+        MutableStyle style = new MutableStyle();
+        for (int i = 0; i < 40; ++i) {
+            style.set("property" + i, new Integer(i));
+        }
+        assertEquals(40, style.size());
+        for (int i = 0; i < 40; ++i) {
+            assertTrue(style.isPropertySet("property" + i));
+            assertEquals(new Integer(i), style.get("property" + i));
+        }
+        assertFalse(style.isPropertySet("property40"));
+        
+        style.set("property7", "seven");
+        assertEquals(40, style.size());
+        assertEquals("seven", style.get("property7"));
+        
+        for (int i = 0; i < 40; i += 2) {
+            style.removeProperty("property" + i);
+        }
+        assertEquals(20, style.size());
+        for (int i = 0; i < 40; ++i) {
+            assertEquals(i % 2 == 1, style.isPropertySet("property" + i));
+        }
+        assertEquals("seven", style.get("property7"));
+        
+        Set names = new HashSet();
+        Iterator it = style.getPropertyNames();
+        while (it.hasNext()) {
+            names.add(it.next());
+        }
+        assertEquals(20, names.size());
+        assertTrue(names.contains("property39"));
+    }
+    
+    public void testIndexedPropertyIndicesOrdered() {
+        MutableStyle style = new MutableStyle();
+        style.setIndex("alpha", 5, "five");
+        style.setIndex("alpha", 1, "one");
+        style.setIndex("alpha", 3, "three");
+        style.removeIndexedProperty("alpha", 3);
+        
+        Iterator it = style.getPropertyIndices("alpha");
+        assertEquals(new Integer(1), it.next());
+        assertEquals(new Integer(5), it.next());
+        assertFalse(it.hasNext());
+    }
+    
+    public void testSerialization() 
+    throws Exception {
+        MutableStyle style = new MutableStyle();
+        for (int i = 0; i < 20; ++i) {
+            style.set("property" + i, new Integer(i));
+        }
+        style.setIndex("alpha", 2, "two");
+        
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        ObjectOutputStream objectOut = new ObjectOutputStream(byteOut);
+        objectOut.writeObject(style);
+        objectOut.close();
+        ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(byteOut.toByteArray()));
+        MutableStyle copy = (MutableStyle) objectIn.readObject();
+        
+        assertEquals(21, copy.size());
+        assertEquals(new Integer(13), copy.get("property13"));
+        assertEquals("two", copy.getIndex("alpha", 2));
+        assertFalse(copy.isIndexedPropertySet("alpha", 1));
+    }
 }
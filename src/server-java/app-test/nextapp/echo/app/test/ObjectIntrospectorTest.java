@@ -0,0 +1,123 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+
+package nextapp.echo.app.test;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+
+import nextapp.echo.app.Extent;
+import nextapp.echo.app.Grid;
+import nextapp.echo.app.Label;
+import nextapp.echo.app.reflect.IntrospectorFactory;
+import nextapp.echo.app.reflect.ObjectIntrospector;
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for <code>ObjectIntrospector</code>.
+ */
+public class ObjectIntrospectorTest extends TestCase {
+    
+    /**
+     * Object of a non-public type, the write methods of which may only be invoked if access checks are suppressed.
+     */
+    static class NonPublicObject {
+        
+        private String text;
+        
+        public String getText() {
+            return text;
+        }
+        
+        public void setText(String newValue) {
+            text = newValue;
+        }
+    }
+    
+    public void testCachedProperty() {
+        ObjectIntrospector oi = IntrospectorFactory.get(Label.class, getClass().getClassLoader());
+        assertSame(oi, IntrospectorFactory.get(Label.class, getClass().getClassLoader()));
+        
+        Method writeMethod = oi.getWriteMethod("text");
+        assertNotNull(writeMethod);
+        assertSame(writeMethod, oi.getWriteMethod("text"));
+        assertEquals(String.class, oi.getPropertyClass("text"));
+        assertFalse(oi.isIndexedProperty("text"));
+    }
+    
+    public void testIndexedProperty() 
+    throws Exception {
+        ObjectIntrospector oi = IntrospectorFactory.get(Grid.class, getClass().getClassLoader());
+        assertTrue(oi.isIndexedProperty("columnWidth"));
+        assertEquals(Extent.class, oi.getPropertyClass("columnWidth"));
+        assertEquals(2, oi.getWriteMethod("columnWidth").getParameterTypes().length);
+        
+        Grid grid = new Grid();
+        oi.setProperty(grid, "columnWidth", 2, new Extent(20));
+        assertEquals(new Extent(20), grid.getColumnWidth(2));
+        assertNull(grid.getColumnWidth(1));
+    }
+    
+    public void testMissingProperty() {
+        ObjectIntrospector oi = IntrospectorFactory.get(Label.class, getClass().getClassLoader());
+        assertNull(oi.getWriteMethod("nonExistentProperty"));
+        assertNull(oi.getPropertyDescriptor("nonExistentProperty"));
+        assertFalse(oi.isIndexedProperty("nonExistentProperty"));
+        try {
+            oi.getPropertyClass("nonExistentProperty");
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // Expected.
+        }
+    }
+    
+    public void testNonPublicType() 
+    throws Exception {
+        ObjectIntrospector oi = IntrospectorFactory.get(NonPublicObject.class, getClass().getClassLoader());
+        NonPublicObject object = new NonPublicObject();
+        oi.setProperty(object, "text", -1, "alpha");
+        assertEquals("alpha", object.getText());
+        
+        // The method shared by the java.beans property descriptor is not modified.
+        PropertyDescriptor propertyDescriptor = oi.getPropertyDescriptor("text");
+        assertFalse(propertyDescriptor.getWriteMethod().isAccessible());
+        assertTrue(oi.getWriteMethod("text").isAccessible());
+    }
+    
+    public void testSetProperty() 
+    throws Exception {
+        ObjectIntrospector oi = IntrospectorFactory.get(Label.class, getClass().getClassLoader());
+        Label label = new Label();
+        oi.setProperty(label, "text", -1, "alpha");
+        assertEquals("alpha", label.getText());
+        oi.setProperty(label, "text", -1, null);
+        assertNull(label.getText());
+    }
+}
@@ -34,6 +34,7 @@ import nextapp.echo.app.Color;
 import nextapp.echo.app.Label;
 import nextapp.echo.app.MutableStyle;
 import nextapp.echo.app.MutableStyleSheet;
+import nextapp.echo.app.button.AbstractButton;
 import junit.framework.TestCase;
 
 /**
@@ -68,4 +69,54 @@ public class StyleSheetTest extends TestCase {
         assertEquals(bravoButtonStyle, styleSheet.getStyle("bravo", Button.class, true));
         assertEquals(bravoLabelStyle, styleSheet.getStyle("bravo", Label.class, true));
     }
+    
+    public void testAddStyleSheet() {
+        MutableStyleSheet sourceStyleSheet = new MutableStyleSheet();
+        MutableStyle alphaButtonStyle = new MutableStyle();
+        alphaButtonStyle.set(Button.PROPERTY_BACKGROUND, Color.YELLOW);
+        sourceStyleSheet.addStyle(Button.class, "alpha", alphaButtonStyle);
+        
+        MutableStyleSheet styleSheet = new MutableStyleSheet();
+        styleSheet.addStyleSheet(sourceStyleSheet);
+        assertEquals(alphaButtonStyle, styleSheet.getStyle("alpha", Button.class, true));
+        assertNull(styleSheet.getStyle("alpha", Label.class, true));
+        
+        // Changes to the added style sheet are not reflected.
+        MutableStyle alphaLabelStyle = new MutableStyle();
+        alphaLabelStyle.set(Label.PROPERTY_FOREGROUND, Color.RED);
+        sourceStyleSheet.addStyle(Label.class, "alpha", alphaLabelStyle);
+        assertEquals(alphaLabelStyle, sourceStyleSheet.getStyle("alpha", Label.class, true));
+        assertNull(styleSheet.getStyle("alpha", Label.class, true));
+        
+        // Changes to the style sheet are not reflected in the added style sheet.
+        MutableStyle otherButtonStyle = new MutableStyle();
+        styleSheet.addStyle(Button.class, "alpha", otherButtonStyle);
+        assertEquals(otherButtonStyle, styleSheet.getStyle("alpha", Button.class, true));
+        assertEquals(alphaButtonStyle, sourceStyleSheet.getStyle("alpha", Button.class, true));
+    }
+    
+    public void testSuperClassResolution() {
+        MutableStyleSheet styleSheet = new MutableStyleSheet();
+        
+        MutableStyle abstractButtonStyle = new MutableStyle();
+        abstractButtonStyle.set(Button.PROPERTY_BACKGROUND, Color.YELLOW);
+        styleSheet.addStyle(AbstractButton.class, null, abstractButtonStyle);
+        
+        assertEquals(abstractButtonStyle, styleSheet.getStyle(null, Button.class, true));
+        assertEquals(abstractButtonStyle, styleSheet.getStyle(null, Button.class, true));
+        assertNull(styleSheet.getStyle(null, Button.class, false));
+        assertNull(styleSheet.getStyle(null, Label.class, true));
+        
+        MutableStyle buttonStyle = new MutableStyle();
+        buttonStyle.set(Button.PROPERTY_BACKGROUND, Color.GREEN);
+        styleSheet.addStyle(Button.class, null, buttonStyle);
+        
+        assertEquals(buttonStyle, styleSheet.getStyle(null, Button.class, true));
+        assertEquals(abstractButtonStyle, styleSheet.getStyle(null, AbstractButton.class, true));
+        
+        // Absence of a style, previously resolved for Label, is discarded when a style is added.
+        MutableStyle labelStyle = new MutableStyle();
+        styleSheet.addStyle(Label.class, null, labelStyle);
+        assertEquals(labelStyle, styleSheet.getStyle(null, Label.class, true));
+    }
 }
@@ -200,4 +200,138 @@ public class TableTest extends TestCase {
         assertTrue(components[14] instanceof CheckBox);
         assertFalse(((CheckBox) components[14]).isSelected());
     }
+    
+    /**
+     * Test that cell updates, row insertions and row deletions re-render
+     * only the affected cells.
+     */
+    public void testIncrementalRender() {
+        DefaultTableModel model = new DefaultTableModel(2, 0);
+        for (int i = 0; i < 4; ++i) {
+            model.addRow(new Object[]{"A" + i, "B" + i});
+        }
+        Table table = new Table(model);
+        table.validate();
+        Component[] components = table.getComponents();
+        assertEquals(10, components.length);
+        
+        // Update single cell.
+        model.setValueAt("X", 1, 2);
+        table.validate();
+        Component[] updatedComponents = table.getComponents();
+        assertEquals(10, updatedComponents.length);
+        for (int i = 0; i < updatedComponents.length; ++i) {
+            if (i == 7) {
+                assertNotSame(components[i], updatedComponents[i]);
+                assertEquals("X", ((Label) updatedComponents[i]).getText());
+            } else {
+                assertSame(components[i], updatedComponents[i]);
+            }
+        }
+        
+        // Append row.
+        model.addRow(new Object[]{"A4", "B4"});
+        table.validate();
+        components = table.getComponents();
+        assertEquals(12, components.length);
+        for (int i = 0; i < 10; ++i) {
+            assertSame(updatedComponents[i], components[i]);
+        }
+        assertEquals("A4", ((Label) components[10]).getText());
+        
+        // Delete row, rendering following rows again.
+        model.deleteRow(1);
+        table.validate();
+        updatedComponents = table.getComponents();
+        assertEquals(10, updatedComponents.length);
+        for (int i = 0; i < 4; ++i) {
+            assertSame(components[i], updatedComponents[i]);
+        }
+        assertEquals("A2", ((Label) updatedComponents[4]).getText());
+        assertEquals("X", ((Label) updatedComponents[5]).getText());
+        assertEquals("B4", ((Label) updatedComponents[9]).getText());
+        
+        // Multiple events before validation.
+        model.insertRow(0, new Object[]{"C0", "D0"});
+        model.insertRow(0, new Object[]{"E0", "F0"});
+        model.setValueAt("G", 0, 3);
+        table.validate();
+        components = table.getComponents();
+        assertEquals(14, components.length);
+        assertSame(updatedComponents[0], components[0]);
+        assertEquals("E0", ((Label) components[2]).getText());
+        assertEquals("C0", ((Label) components[4]).getText());
+        assertEquals("A0", ((Label) components[6]).getText());
+        assertEquals("G", ((Label) components[8]).getText());
+        assertEquals("B4", ((Label) components[13]).getText());
+    }
+    
+    /**
+     * Test that subclasses overriding <code>doRender()</code> are fully 
+     * re-rendered on cell updates.
+     */
+    public void testIncrementalRenderOverriddenDoRender() {
+        DefaultTableModel model = new DefaultTableModel(2, 2);
+        Table table = new Table(model) {
+            protected void doRender() {
+                super.doRender();
+            }
+        };
+        table.validate();
+        Component[] components = table.getComponents();
+        model.setValueAt("X", 1, 1);
+        table.validate();
+        assertNotSame(components[2], table.getComponent(2));
+        assertEquals("X", ((Label) table.getComponent(5)).getText());
+    }
+    
+    /**
+     * Test rendering of a subset of rows with row windowing enabled.
+     */
+    public void testRowWindow() {
+        DefaultTableModel model = new DefaultTableModel(2, 0);
+        for (int i = 0; i < 10; ++i) {
+            model.addRow(new Object[]{"A" + i, "B" + i});
+        }
+        Table table = new Table(model);
+        table.setRowWindowSize(3);
+        table.validate();
+        assertEquals(8, table.getComponentCount());
+        assertEquals(0, table.getRenderedRowWindowStart());
+        assertEquals("A0", ((Label) table.getComponent(2)).getText());
+        
+        // Move window, retaining overlapping rows.
+        Component[] components = table.getComponents();
+        table.setRowWindowStart(2);
+        table.validate();
+        assertEquals(8, table.getComponentCount());
+        assertEquals(2, table.getRenderedRowWindowStart());
+        assertSame(components[0], table.getComponent(0));
+        assertSame(components[6], table.getComponent(2));
+        assertEquals("A2", ((Label) table.getComponent(2)).getText());
+        assertEquals("B4", ((Label) table.getComponent(7)).getText());
+        
+        // Move window backwards.
+        components = table.getComponents();
+        table.setRowWindowStart(1);
+        table.validate();
+        assertEquals(1, table.getRenderedRowWindowStart());
+        assertEquals("A1", ((Label) table.getComponent(2)).getText());
+        assertSame(components[2], table.getComponent(4));
+        assertEquals("B3", ((Label) table.getComponent(7)).getText());
+        
+        // Move window past end via client input, bounded to last rows.
+        table.processInput(Table.INPUT_ROW_WINDOW, new Integer(100));
+        table.validate();
+        assertEquals(7, table.getRenderedRowWindowStart());
+        assertEquals(8, table.getComponentCount());
+        assertEquals("A7", ((Label) table.getComponent(2)).getText());
+        assertEquals("B9", ((Label) table.getComponent(7)).getText());
+        
+        // Disable windowing.
+        table.setRowWindowSize(0);
+        table.validate();
+        assertEquals(0, table.getRenderedRowWindowStart());
+        assertEquals(22, table.getComponentCount());
+    }
 }
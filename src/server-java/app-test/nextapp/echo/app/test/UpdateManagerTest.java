@@ -484,6 +484,48 @@ public class UpdateManagerTest extends TestCase  {
         assertTrue(zero.equals(label) || one.equals(label));
     }
 
+    /**
+     * Ensure that pending updates to descendants of removed components are 
+     * discarded, both for large removed hierarchies and for many removed
+     * children.
+     */
+    public void testRemove3() {
+        Column column1 = new Column();
+        Column column2 = new Column();
+        column1.add(column2);
+        Label[] labels = new Label[50];
+        for (int i = 0; i < labels.length; ++i) {
+            labels[i] = new Label();
+            column2.add(labels[i]);
+        }
+        columnApp.getColumn().add(column1);
+        manager.purge();
+        
+        labels[10].setBackground(Color.BLUE);
+        columnApp.getColumn().remove(column1);
+        
+        ServerComponentUpdate[] componentUpdates = manager.getServerUpdateManager().getComponentUpdates();
+        assertEquals(1, componentUpdates.length);
+        assertEquals(columnApp.getColumn(), componentUpdates[0].getParent());
+        assertEquals(51, componentUpdates[0].getRemovedDescendants().size());
+        
+        columnApp.getColumn().add(column1);
+        manager.purge();
+        
+        for (int i = 0; i < labels.length; ++i) {
+            labels[i].setBackground(Color.GREEN);
+        }
+        column1.setBackground(Color.RED);
+        assertEquals(51, manager.getServerUpdateManager().getComponentUpdates().length);
+        column2.removeAll();
+        
+        componentUpdates = manager.getServerUpdateManager().getComponentUpdates();
+        assertEquals(2, componentUpdates.length);
+        assertEquals(column1, componentUpdates[0].getParent());
+        assertEquals(column2, componentUpdates[1].getParent());
+        assertEquals(50, componentUpdates[1].getRemovedChildren().size());
+    }
+
     /**
      * Ensure updates are returned sorted by component depth.
      */
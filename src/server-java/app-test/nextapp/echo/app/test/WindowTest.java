@@ -30,9 +30,11 @@
 package nextapp.echo.app.test;
 
 import nextapp.echo.app.ApplicationInstance;
+import nextapp.echo.app.Column;
 import nextapp.echo.app.ContentPane;
 import nextapp.echo.app.IllegalChildException;
 import nextapp.echo.app.Label;
+import nextapp.echo.app.RenderState;
 import nextapp.echo.app.Window;
 import junit.framework.TestCase;
 
@@ -58,6 +60,87 @@ public class WindowTest extends TestCase {
         assertEquals(content, window.getContent());
     }
     
+    /**
+     * Tests that <code>RenderState</code>s of removed components are purged.
+     */
+    public void testPurgeRenderStates() {
+        ColumnApp columnApp = new ColumnApp();
+        ApplicationInstance.setActive(columnApp);
+        try {
+            columnApp.doInit(true, "windowId");
+            Window window = columnApp.getWindow(0);
+            RenderState renderState = new RenderState() { };
+            
+            Column column = new Column();
+            Label label = new Label();
+            column.add(label);
+            columnApp.getColumn().add(column);
+            window.getUpdateManager().purge();
+            
+            window.setRenderState(column, renderState);
+            window.setRenderState(label, renderState);
+            window.setRenderState(columnApp.getLabel(), renderState);
+            
+            columnApp.getColumn().remove(column);
+            window.purgeRenderStates();
+            assertNull(window.getRenderState(column));
+            assertNull(window.getRenderState(label));
+            assertEquals(renderState, window.getRenderState(columnApp.getLabel()));
+            
+            window.setRenderState(label, renderState);
+            window.processComponentRemovals();
+            assertNull(window.getRenderState(label));
+            assertEquals(renderState, window.getRenderState(columnApp.getLabel()));
+        } finally {
+            ApplicationInstance.setActive(null);
+        }
+    }
+    
+    /**
+     * Tests that <code>RenderState</code>s of components whose ancestor has
+     * been hidden are purged, such that they are not reused when it is shown
+     * again.
+     */
+    public void testPurgeRenderStatesHidden() {
+        ColumnApp columnApp = new ColumnApp();
+        ApplicationInstance.setActive(columnApp);
+        try {
+            columnApp.doInit(true, "windowId");
+            Window window = columnApp.getWindow(0);
+            RenderState renderState = new RenderState() { };
+            
+            Column column = new Column();
+            Column childColumn = new Column();
+            Label label = new Label();
+            childColumn.add(label);
+            column.add(childColumn);
+            columnApp.getColumn().add(column);
+            window.getUpdateManager().purge();
+            
+            window.setRenderState(column, renderState);
+            window.setRenderState(childColumn, renderState);
+            window.setRenderState(label, renderState);
+            window.setRenderState(columnApp.getLabel(), renderState);
+            
+            column.setVisible(false);
+            window.purgeRenderStates();
+            assertTrue(label.isRegistered());
+            assertNull(window.getRenderState(column));
+            assertNull(window.getRenderState(childColumn));
+            assertNull(window.getRenderState(label));
+            assertEquals(renderState, window.getRenderState(columnApp.getLabel()));
+            window.getUpdateManager().purge();
+            
+            column.setVisible(true);
+            window.purgeRenderStates();
+            assertNull(window.getRenderState(childColumn));
+            assertNull(window.getRenderState(label));
+            assertEquals(renderState, window.getRenderState(columnApp.getLabel()));
+        } finally {
+            ApplicationInstance.setActive(null);
+        }
+    }
+    
     /**
      * Attempts to illegally add more than one <code>ContentPane</code>s to a 
      * <code>Window</code>, tests for failure.
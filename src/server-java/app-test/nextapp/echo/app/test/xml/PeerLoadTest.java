@@ -63,4 +63,18 @@ public class PeerLoadTest extends TestCase {
         assertTrue(factory.getPeerForProperty(Insets.class) instanceof InsetsPeer);
         assertTrue(factory.getPeerForProperty(FillImage.class) instanceof FillImagePeer);
     }
+    
+    public void testPeerResolutionCache() {
+        SerialPeerFactory factory = SerialPeerFactory.forClassLoader(Thread.currentThread().getContextClassLoader());
+        
+        assertSame(factory, SerialPeerFactory.forClassLoader(Thread.currentThread().getContextClassLoader()));
+        
+        // Resolved peers are retrieved from cache on subsequent calls.
+        Object peer = factory.getPeerForProperty(Color.class);
+        assertSame(peer, factory.getPeerForProperty(Color.class));
+        
+        // Classes without peers are repeatedly resolved to null.
+        assertNull(factory.getPeerForProperty(PeerLoadTest.class));
+        assertNull(factory.getPeerForProperty(PeerLoadTest.class));
+    }
 }
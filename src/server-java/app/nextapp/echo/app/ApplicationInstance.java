@@ -122,13 +122,15 @@ public abstract class ApplicationInstance implements Serializable {
     
     /**
      * The active top-level <code>Window</code> instances.
+     * The array is replaced rather than modified, such that it may be read by a container synchronizing 
+     * multiple windows concurrently.
      */
-    private Window[] activeWindows;
+    private volatile Window[] activeWindows;
         
     /**
      * The top-level windows that will close on the next interaction
      */
-    private Window[] closingWindows;
+    private volatile Window[] closingWindows;
     
     /**
      * The <code>StyleSheet</code> used by the application.
@@ -234,26 +236,14 @@ public abstract class ApplicationInstance implements Serializable {
 
     /**
      * Validates all components registered with the application.
+     * Only components which override <code>Component.validate()</code> are
+     * visited.
+     * 
+     * @see Component#validate()
      */
     public final void doValidation() {
         for (int i = 0; i < activeWindows.length; i++) {
-            doValidation(activeWindows[i]);
-        }
-    }
-    
-    /**
-     * Validates a single component and then recursively validates its 
-     * children.  This is the recursive support method for
-     * the parameterless <code>doValidation()</code> method.
-     *
-     * @param c The component to be validated.
-     * @see #doValidation()
-     */
-    private void doValidation(Component c) {
-        c.validate();
-        int size = c.getComponentCount();
-        for (int index = 0; index < size; ++index) {
-            doValidation(c.getComponent(index));
+            activeWindows[i].doValidation();
         }
     }
     
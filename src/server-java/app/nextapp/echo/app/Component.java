@@ -33,6 +33,7 @@ import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -121,6 +122,79 @@ implements RenderIdSupport, Serializable, LabelProvider {
      * <code>Component</code> has no children.
      */
     private static final Component[] EMPTY_COMPONENT_ARRAY = new Component[0];
+    
+    /**
+     * Immutable <code>Style</code> containing no properties.
+     */
+    private static class EmptyStyle 
+    implements Style {
+        
+        /** Serial Version UID. */
+        private static final long serialVersionUID = 20070101L;
+
+        /**
+         * @see nextapp.echo.app.Style#get(java.lang.String)
+         */
+        public Object get(String propertyName) {
+            return null;
+        }
+
+        /**
+         * @see nextapp.echo.app.Style#getIndex(java.lang.String, int)
+         */
+        public Object getIndex(String propertyName, int index) {
+            return null;
+        }
+
+        /**
+         * @see nextapp.echo.app.Style#getIndexedProperty(java.lang.String, int)
+         */
+        public Object getIndexedProperty(String propertyName, int index) {
+            return null;
+        }
+
+        /**
+         * @see nextapp.echo.app.Style#getProperty(java.lang.String)
+         */
+        public Object getProperty(String propertyName) {
+            return null;
+        }
+
+        /**
+         * @see nextapp.echo.app.Style#getPropertyIndices(java.lang.String)
+         */
+        public Iterator getPropertyIndices(String propertyName) {
+            return Collections.EMPTY_SET.iterator();
+        }
+
+        /**
+         * @see nextapp.echo.app.Style#getPropertyNames()
+         */
+        public Iterator getPropertyNames() {
+            return Collections.EMPTY_SET.iterator();
+        }
+
+        /**
+         * @see nextapp.echo.app.Style#isIndexedPropertySet(java.lang.String, int)
+         */
+        public boolean isIndexedPropertySet(String propertyName, int index) {
+            return false;
+        }
+
+        /**
+         * @see nextapp.echo.app.Style#isPropertySet(java.lang.String)
+         */
+        public boolean isPropertySet(String propertyName) {
+            return false;
+        }
+    }
+    
+    /**
+     * Shared empty <code>Style</code> returned by <code>getLocalStyle()</code>
+     * for components on which no local properties have been set.
+     * Immutable, such that it cannot be used to modify the style of any component.
+     */
+    private static final Style EMPTY_STYLE = new EmptyStyle();
 
     /**
      * Flag indicating the <code>Component</code> is currently in the process of being disposed.
@@ -264,7 +338,10 @@ implements RenderIdSupport, Serializable, LabelProvider {
      */
     private Locale locale;
     
-    /** Local style data storage for properties directly set on component itself. */
+    /** 
+     * Local style data storage for properties directly set on component itself.
+     * This object is lazily instantiated. 
+     */
     private MutableStyle localStyle;
     
     /** The parent component. */
@@ -312,7 +389,6 @@ implements RenderIdSupport, Serializable, LabelProvider {
     public Component() {
         super();
         flags = FLAG_ENABLED | FLAG_VISIBLE;
-        localStyle = new MutableStyle();
     }
     
     /**
@@ -555,7 +631,7 @@ implements RenderIdSupport, Serializable, LabelProvider {
      * @return the property value
      */
     public final Object get(String propertyName) {
-        return localStyle.get(propertyName);
+        return localStyle == null ? null : localStyle.get(propertyName);
     }
     
     /**
@@ -578,7 +654,7 @@ implements RenderIdSupport, Serializable, LabelProvider {
      * @return the background color
      */
     public Color getBackground() {
-        return (Color) localStyle.get(PROPERTY_BACKGROUND);
+        return (Color) get(PROPERTY_BACKGROUND);
     }
     
     /**
@@ -694,7 +770,7 @@ implements RenderIdSupport, Serializable, LabelProvider {
      * @return the font
      */
     public Font getFont() {
-        return (Font) localStyle.get(PROPERTY_FONT);
+        return (Font) get(PROPERTY_FONT);
     }
     
     /**
@@ -706,7 +782,7 @@ implements RenderIdSupport, Serializable, LabelProvider {
      * @return the foreground color
      */
     public Color getForeground() {
-        return (Color) localStyle.get(PROPERTY_FOREGROUND);
+        return (Color) get(PROPERTY_FOREGROUND);
     }
     
     /**
@@ -735,7 +811,7 @@ implements RenderIdSupport, Serializable, LabelProvider {
      * @return the property value
      */
     public final Object getIndex(String propertyName, int propertyIndex) {
-        return localStyle.getIndex(propertyName, propertyIndex);
+        return localStyle == null ? null : localStyle.getIndex(propertyName, propertyIndex);
     } 
     
     /**
@@ -753,7 +829,7 @@ implements RenderIdSupport, Serializable, LabelProvider {
      * @see LayoutData
      */
     public LayoutData getLayoutData() {
-        return (LayoutData) localStyle.get(PROPERTY_LAYOUT_DATA);
+        return (LayoutData) get(PROPERTY_LAYOUT_DATA);
     }
 
     /**
@@ -785,11 +861,13 @@ implements RenderIdSupport, Serializable, LabelProvider {
      * properties are stored.  Access to this object is provided
      * solely for the purpose of allowing the enabling the application
      * container to render the state of the component to a client.
+     * The returned <code>Style</code> should not be modified: an immutable
+     * empty <code>Style</code> is returned if no local properties have been set.
      * 
      * @return the local <code>Style</code>
      */
     public Style getLocalStyle() {
-        return localStyle;
+        return localStyle == null ? EMPTY_STYLE : localStyle;
     }
     
     /**
@@ -866,7 +944,7 @@ implements RenderIdSupport, Serializable, LabelProvider {
      * @return the property state
      */ 
     public final Object getRenderIndexedProperty(String propertyName, int propertyIndex, Object defaultValue) {
-        if (localStyle.isIndexedPropertySet(propertyName, propertyIndex)) {
+        if (localStyle != null && localStyle.isIndexedPropertySet(propertyName, propertyIndex)) {
             // Return local style value.
             return localStyle.getIndex(propertyName, propertyIndex);
         } else if (sharedStyle != null && sharedStyle.isIndexedPropertySet(propertyName, propertyIndex)) {
@@ -954,7 +1032,7 @@ implements RenderIdSupport, Serializable, LabelProvider {
      * @return the property state
      */ 
     public final Object getRenderProperty(String propertyName, Object defaultValue) {
-        Object propertyValue = localStyle.get(propertyName);
+        Object propertyValue = get(propertyName);
         if (propertyValue != null) {
             return propertyValue;
         }
@@ -1423,8 +1501,14 @@ implements RenderIdSupport, Serializable, LabelProvider {
                     "Arguments to Component.set must be Serializable, call was: ["
                             + propertyName + "], [" + newValue + "]");
         }
-        Object oldValue = localStyle.get(propertyName);
-        localStyle.set(propertyName, newValue);
+        Object oldValue = null;
+        if (localStyle != null) {
+            oldValue = localStyle.get(propertyName);
+            localStyle.set(propertyName, newValue);
+        } else if (newValue != null) {
+            localStyle = new MutableStyle();
+            localStyle.set(propertyName, newValue);
+        }
         firePropertyChange(propertyName, oldValue, newValue);
     }
     
@@ -1535,6 +1619,9 @@ implements RenderIdSupport, Serializable, LabelProvider {
      * @see #getIndex(java.lang.String, int)
      */
     public void setIndex(String propertyName, int propertyIndex, Object newValue) {
+        if (localStyle == null) {
+            localStyle = new MutableStyle();
+        }
         localStyle.setIndex(propertyName, propertyIndex, newValue);
         firePropertyChange(propertyName, null, null);
     }
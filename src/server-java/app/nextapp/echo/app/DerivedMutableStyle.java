@@ -96,6 +96,20 @@ public class DerivedMutableStyle extends MutableStyle {
         }
     }
     
+    /**
+     * Returns the sum of the modification counts of this style and of the parent style, if it is a 
+     * <code>MutableStyle</code>.
+     * 
+     * @see nextapp.echo.app.MutableStyle#getModificationCount()
+     */
+    public long getModificationCount() {
+        if (parentStyle instanceof MutableStyle) {
+            return modificationCount + ((MutableStyle) parentStyle).getModificationCount();
+        } else {
+            return modificationCount;
+        }
+    }
+    
     /**
      * @see nextapp.echo.app.Style#getPropertyNames()
      */
@@ -136,6 +150,9 @@ public class DerivedMutableStyle extends MutableStyle {
      * @param parentStyle the parent style
      */
     public void setParentStyle(Style parentStyle) {
+        // Adjust local count such that the combined count increases, regardless of the count of the new parent.
+        long previousModificationCount = getModificationCount();
         this.parentStyle = parentStyle;
+        modificationCount += previousModificationCount - getModificationCount() + 1;
     }
 }
@@ -29,9 +29,14 @@
 
 package nextapp.echo.app;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
@@ -54,6 +59,12 @@ implements Style {
     
     private static final Object[] EMPTY = new Object[0];
     
+    /**
+     * Number of <code>data</code> elements (two per property) at which property names are located using a hash 
+     * index rather than by scanning <code>data</code>.
+     */
+    private static final int INDEX_THRESHOLD = 8 * 2;
+    
     /**
      * An <code>Iterator</code> which returns the names of properties which
      * are set in the style.
@@ -89,11 +100,48 @@ implements Style {
     
     /**
      * A value object which stores the indexed values of a property. 
+     * Values are stored in arrays ordered by index, such that indices need not be boxed.
      */
     public class IndexedPropertyValue
     implements Serializable {
-
+        
+        /**
+         * Mapping between <code>Integer</code> indices and values (or null if no values are set), which is
+         * only populated during serialization, the serialized form of the object being unchanged from when
+         * values were stored in this map.
+         */
         private SortedMap indicesToValues;
+
+        /** The set indices, in ascending order, in elements 0 to <code>size - 1</code>. */
+        private transient int[] indices;
+        
+        /** The values of the corresponding elements of <code>indices</code>. */
+        private transient Object[] values;
+        
+        /** The number of set indices. */
+        private transient int size;
+        
+        /**
+         * Returns the position of an index in <code>indices</code>.
+         * 
+         * @param index the index
+         * @return the position, or <code>(-(insertion point) - 1)</code> if the index is not set
+         */
+        private int find(int index) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (indices[middle] < index) {
+                    low = middle + 1;
+                } else if (indices[middle] > index) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
         
         /**
          * Returns the value at the specified index.
@@ -102,11 +150,8 @@ implements Style {
          * @return the value
          */
         public Object getValue(int index) {
-            if (indicesToValues == null) {
-                return null;
-            } else {
-                return indicesToValues.get(new Integer(index));
-            }
+            int position = find(index);
+            return position < 0 ? null : values[position];
         }
         
         /**
@@ -116,7 +161,39 @@ implements Style {
          * @return an iterator over the indices
          */
         public Iterator getIndices() {
-            return indicesToValues.keySet().iterator();
+            if (size == 0) {
+                return Collections.EMPTY_SET.iterator();
+            }
+            final int[] indices = new int[size];
+            System.arraycopy(this.indices, 0, indices, 0, size);
+            return new Iterator() {
+                
+                private int position = 0;
+                
+                /**
+                 * @see java.util.Iterator#hasNext()
+                 */
+                public boolean hasNext() {
+                    return position < indices.length;
+                }
+                
+                /**
+                 * @see java.util.Iterator#next()
+                 */
+                public Object next() {
+                    if (position >= indices.length) {
+                        throw new NoSuchElementException();
+                    }
+                    return Integer.valueOf(indices[position++]);
+                }
+                
+                /**
+                 * @see java.util.Iterator#remove()
+                 */
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
         }
         
         /**
@@ -126,7 +203,7 @@ implements Style {
          * @return true if a value is set
          */
         public boolean hasValue(int index) {
-            return indicesToValues != null && indicesToValues.containsKey(new Integer(index));
+            return find(index) >= 0;
         }
         
         /**
@@ -135,11 +212,18 @@ implements Style {
          * @param index the index
          */
         private void removeValue(int index) {
-            if (indicesToValues != null) {
-                indicesToValues.remove(new Integer(index));
-                if (indicesToValues.size() == 0) {
-                    indicesToValues = null;
-                }
+            int position = find(index);
+            if (position < 0) {
+                return;
+            }
+            --size;
+            if (size == 0) {
+                indices = null;
+                values = null;
+            } else {
+                System.arraycopy(indices, position + 1, indices, position, size - position);
+                System.arraycopy(values, position + 1, values, position, size - position);
+                values[size] = null;
             }
         }
         
@@ -150,15 +234,78 @@ implements Style {
          * @param value the new property value
          */
         private void setValue(int index, Object value) {
-            if (indicesToValues == null) {
+            int position = find(index);
+            if (position >= 0) {
+                values[position] = value;
+                return;
+            }
+            position = -(position + 1);
+            if (indices == null) {
+                indices = new int[4];
+                values = new Object[4];
+            } else if (size == indices.length) {
+                int[] newIndices = new int[size * 2];
+                Object[] newValues = new Object[size * 2];
+                System.arraycopy(indices, 0, newIndices, 0, size);
+                System.arraycopy(values, 0, newValues, 0, size);
+                indices = newIndices;
+                values = newValues;
+            }
+            System.arraycopy(indices, position, indices, position + 1, size - position);
+            System.arraycopy(values, position, values, position + 1, size - position);
+            indices[position] = index;
+            values[position] = value;
+            ++size;
+        }
+        
+        /**
+         * @see java.io.Serializable
+         */
+        private void readObject(ObjectInputStream in)
+        throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            if (indicesToValues != null) {
+                Iterator it = indicesToValues.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry entry = (Map.Entry) it.next();
+                    setValue(((Integer) entry.getKey()).intValue(), entry.getValue());
+                }
+                indicesToValues = null;
+            }
+        }
+
+        /**
+         * @see java.io.Serializable
+         */
+        private void writeObject(ObjectOutputStream out) 
+        throws IOException {
+            if (size > 0) {
                 indicesToValues = new TreeMap();
-            } 
-            indicesToValues.put(new Integer(index), value);
+                for (int i = 0; i < size; ++i) {
+                    indicesToValues.put(Integer.valueOf(indices[i]), values[i]);
+                }
+            }
+            try {
+                out.defaultWriteObject();
+            } finally {
+                indicesToValues = null;
+            }
         }
     }
     
     private Object[] data = EMPTY;
     int length = 0; // Number of items * 2;
+    
+    /**
+     * Open-addressed hash index of the property names in <code>data</code>, used once the number of properties 
+     * reaches <code>INDEX_THRESHOLD</code> (null otherwise).  Each non-zero element is one greater than the 
+     * position of a property name in <code>data</code>.  The length is a power of two, at least twice the number
+     * of properties.  Maintained only by mutators, such that styles may be safely read concurrently. 
+     */
+    private transient int[] index;
+    
+    /** Number of modifications made to the style, see <code>getModificationCount()</code>. */
+    long modificationCount = 0;
 
     /**
      * Default constructor.
@@ -216,6 +363,17 @@ implements Style {
         return getIndex(propertyName, propertyIndex);
     }
     
+    /**
+     * Returns the number of modifications which have been made to the style.  The value is incremented whenever a
+     * property is set or removed, such that a renderer which has transmitted the content of a shared style may 
+     * determine whether it must be transmitted again.
+     * 
+     * @return the modification count
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
+    
     /**
      * @see nextapp.echo.app.Style#getProperty(java.lang.String)
      * @deprecated Use {@link #get(String)} instead.
@@ -257,13 +415,79 @@ implements Style {
      * @see nextapp.echo.app.Style#isPropertySet(java.lang.String)
      */
     public boolean isPropertySet(String propertyName) {
+        return find(propertyName) != -1;
+    }
+    
+    /**
+     * Returns the position of a property name in <code>data</code>.
+     * Property names are generally constants, thus are compared by identity before equality.
+     * 
+     * @param propertyName the name of the property
+     * @return the position, or -1 if the property is not set
+     */
+    private int find(String propertyName) {
         int propertyNameHashCode = propertyName.hashCode();
-        for (int i = 0; i < length; i += 2) {
-            if (propertyNameHashCode == data[i].hashCode() && propertyName.equals(data[i])) {
-                return true;
+        if (index == null) {
+            for (int i = 0; i < length; i += 2) {
+                Object name = data[i];
+                if (name == propertyName || (propertyNameHashCode == name.hashCode() && propertyName.equals(name))) {
+                    return i;
+                }
+            }
+        } else {
+            int mask = index.length - 1;
+            for (int slot = hashSlot(propertyNameHashCode, mask); index[slot] != 0; slot = (slot + 1) & mask) {
+                Object name = data[index[slot] - 1];
+                if (name == propertyName || (propertyNameHashCode == name.hashCode() && propertyName.equals(name))) {
+                    return index[slot] - 1;
+                }
             }
         }
-        return false;
+        return -1;
+    }
+    
+    /**
+     * Returns the initial <code>index</code> slot for a property name.
+     * 
+     * @param hashCode the hash code of the property name
+     * @param mask the <code>index</code> length minus one
+     * @return the slot
+     */
+    private static int hashSlot(int hashCode, int mask) {
+        return (hashCode ^ (hashCode >>> 16)) & mask;
+    }
+    
+    /**
+     * Adds the property name at the specified position of <code>data</code> to <code>index</code>.
+     * 
+     * @param position the position
+     */
+    private void addToIndex(int position) {
+        int mask = index.length - 1;
+        int slot = hashSlot(data[position].hashCode(), mask);
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = position + 1;
+    }
+    
+    /**
+     * Recreates <code>index</code>, or discards it if the number of properties is below 
+     * <code>INDEX_THRESHOLD</code>.
+     */
+    private void rebuildIndex() {
+        if (length < INDEX_THRESHOLD) {
+            index = null;
+            return;
+        }
+        int capacity = INDEX_THRESHOLD * 2;
+        while (capacity < length * 2) {
+            capacity *= 2;
+        }
+        index = new int[capacity];
+        for (int i = 0; i < length; i += 2) {
+            addToIndex(i);
+        }
     }
     
     /**
@@ -278,6 +502,7 @@ implements Style {
             return;
         }
         ((IndexedPropertyValue) value).removeValue(propertyIndex);
+        ++modificationCount;
     }
     
     /**
@@ -286,21 +511,24 @@ implements Style {
      * @param propertyName the name of the property to remove
      */
     public void removeProperty(String propertyName) {
-        int propertyNameHashCode = propertyName.hashCode();
-        for (int i = 0; i < length; i += 2) {
-            if (propertyNameHashCode == data[i].hashCode() && propertyName.equals(data[i])) {
-                data[i] = data[length - 2];
-                data[i + 1] = data[length - 1];
-                data[length - 2] = null;
-                data[length - 1] = null;
-                length -= 2;
-                break;
-            }
+        int i = find(propertyName);
+        if (i == -1) {
+            return;
         }
+        ++modificationCount;
+        
+        data[i] = data[length - 2];
+        data[i + 1] = data[length - 1];
+        data[length - 2] = null;
+        data[length - 1] = null;
+        length -= 2;
         
         if (length == 0) {
             data = EMPTY;
         }
+        if (index != null) {
+            rebuildIndex();
+        }
     }
     
     /**
@@ -310,13 +538,8 @@ implements Style {
      * @return the value of the property
      */
     private Object retrieveProperty(String propertyName) {
-        int propertyNameHashCode = propertyName.hashCode();
-        for (int i = 0; i < length; i += 2) {
-            if (propertyNameHashCode == data[i].hashCode() && propertyName.equals(data[i])) {
-                return data[i + 1];
-            }
-        }
-        return null;
+        int i = find(propertyName);
+        return i == -1 ? null : data[i + 1];
     }
     
     /**
@@ -333,35 +556,31 @@ implements Style {
             return;
         }
         
-        if (data == EMPTY) {
-            data = new Object[GROW_RATE];
-        }
-
-        int propertyNameHashCode = propertyName.hashCode();
-        for (int i = 0; i < data.length; i += 2) {
-            if (data[i] == null) {
-                // Property is not set, space remains to set property.
-                // Add property at end.
-                data[i] = propertyName;
-                data[i + 1] = propertyValue;
-                length += 2;
-                return;
-            }
-            if (propertyNameHashCode == data[i].hashCode() && propertyName.equals(data[i])) {
-                // Found property, overwrite.
-                data[i + 1] = propertyValue;
-                return;
-            }
+        ++modificationCount;
+        int i = find(propertyName);
+        if (i != -1) {
+            // Found property, overwrite.
+            data[i + 1] = propertyValue;
+            return;
         }
         
-        // Array is full: grow array.
-        Object[] newData = new Object[data.length + GROW_RATE];
-        System.arraycopy(data, 0, newData, 0, data.length);
+        if (length == data.length) {
+            // Array is full: grow array.
+            Object[] newData = new Object[data.length + GROW_RATE];
+            System.arraycopy(data, 0, newData, 0, length);
+            data = newData;
+        }
         
-        newData[data.length] = propertyName;
-        newData[data.length + 1] = propertyValue;
+        // Add property at end.
+        data[length] = propertyName;
+        data[length + 1] = propertyValue;
         length += 2;
-        data = newData;
+        
+        if (index == null || length * 2 > index.length) {
+            rebuildIndex();
+        } else {
+            addToIndex(length - 2);
+        }
     }
     
     /**
@@ -378,6 +597,7 @@ implements Style {
             set(propertyName, value);
         }
         ((IndexedPropertyValue) value).setValue(propertyIndex, propertyValue);
+        ++modificationCount;
     }
     
     /**
@@ -434,4 +654,13 @@ implements Style {
         out.append("}");
         return out.toString();
     }
+    
+    /**
+     * @see java.io.Serializable
+     */
+    private void readObject(ObjectInputStream in)
+    throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        rebuildIndex();
+    }
 }
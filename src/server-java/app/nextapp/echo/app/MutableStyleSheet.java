@@ -33,6 +33,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A mutable implementation of a <code>StyleSheet</code>. 
@@ -43,8 +44,28 @@ implements StyleSheet {
     /** Serial Version UID. */
     private static final long serialVersionUID = 20070101L;
 
+    /** Key of the default (unnamed) style in the resolved style cache. */
+    private static final Object DEFAULT_STYLE_KEY = new Object();
+    
+    /** Value representing the absence of a style in the resolved style cache. */
+    private static final Object NO_STYLE = new Object();
+
     private Map namedStyleMap = new HashMap();
     private Map defaultStyleMap = new HashMap();
+    
+    /**
+     * Cache of styles resolved by searching superclasses, mapping style names (or <code>DEFAULT_STYLE_KEY</code>) to
+     * maps between component classes and styles (or <code>NO_STYLE</code>).  Discarded when styles are added,
+     * after the style maps have been modified.
+     * Style sheets are commonly shared between application instances, thus concurrent maps are used.
+     */
+    private transient volatile Map resolvedStyleCache;
+    
+    /** 
+     * Number of modifications made to the style sheet, used to avoid caching styles resolved while a modification 
+     * was in progress.
+     */
+    private transient volatile int modificationCount;
 
     /**
      * Adds a <code>Style</code> to the <code>StyleSheet</code>.
@@ -65,6 +86,7 @@ implements StyleSheet {
             }
             styleMap.put(componentClass, style);
         }
+        invalidateResolvedStyleCache();
     }
     
     /**
@@ -75,8 +97,14 @@ implements StyleSheet {
      * @param styleSheet the <code>StyleSheet</code> to add
      */
     public void addStyleSheet(MutableStyleSheet styleSheet) {
-        namedStyleMap.putAll(styleSheet.namedStyleMap);
+        Iterator it = styleSheet.namedStyleMap.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry entry = (Map.Entry) it.next();
+            // Copy per-class maps such that later changes to either style sheet do not affect the other.
+            namedStyleMap.put(entry.getKey(), new HashMap((Map) entry.getValue()));
+        }
         defaultStyleMap.putAll(styleSheet.defaultStyleMap);
+        invalidateResolvedStyleCache();
     }
     
     /**
@@ -95,6 +123,38 @@ implements StyleSheet {
      * @see nextapp.echo.app.StyleSheet#getStyle(java.lang.String, java.lang.Class, boolean)
      */
     public Style getStyle(String styleName, Class componentClass, boolean searchSuperClasses) {
+        if (!searchSuperClasses) {
+            return findStyle(styleName, componentClass, false);
+        }
+        
+        int cacheModificationCount = modificationCount;
+        Map cache = resolvedStyleCache;
+        if (cache == null) {
+            cache = new ConcurrentHashMap();
+            resolvedStyleCache = cache;
+        }
+        Object styleKey = styleName == null ? DEFAULT_STYLE_KEY : styleName;
+        Map classToStyleMap = (Map) cache.get(styleKey);
+        if (classToStyleMap == null) {
+            classToStyleMap = new ConcurrentHashMap();
+            cache.put(styleKey, classToStyleMap);
+        }
+        Object style = classToStyleMap.get(componentClass);
+        if (style == null) {
+            style = findStyle(styleName, componentClass, true);
+            if (cacheModificationCount == modificationCount) {
+                classToStyleMap.put(componentClass, style == null ? NO_STYLE : style);
+            }
+        }
+        return style == NO_STYLE ? null : (Style) style;
+    }
+    
+    /**
+     * Retrieves a style from the style sheet, without caching.
+     * 
+     * @see #getStyle(java.lang.String, java.lang.Class, boolean)
+     */
+    private Style findStyle(String styleName, Class componentClass, boolean searchSuperClasses) {
         if (styleName == null) {
             // Retrieve generic style.
             while (componentClass != Object.class) {
@@ -122,6 +182,15 @@ implements StyleSheet {
         }
     }
     
+    /**
+     * Discards the resolved style cache.  Invoked after the style maps have been modified, such that styles resolved
+     * concurrently with the modification are not retained.
+     */
+    private void invalidateResolvedStyleCache() {
+        ++modificationCount;
+        resolvedStyleCache = null;
+    }
+    
     /**
      * @see nextapp.echo.app.StyleSheet#getStyleNames()
      */
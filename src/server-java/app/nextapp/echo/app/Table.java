@@ -31,9 +31,14 @@ package nextapp.echo.app;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.EventListener;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import nextapp.echo.app.event.ActionEvent;
 import nextapp.echo.app.event.ActionListener;
@@ -70,8 +75,42 @@ public class Table extends BorderedComponent {
      * The default renderer for table cells. 
      */
     public static final TableCellRenderer DEFAULT_TABLE_CELL_RENDERER = new DefaultTableCellRenderer();
+    
+    /**
+     * Cache mapping <code>Table</code> classes to <code>Boolean</code>s indicating
+     * whether they may be rendered incrementally, i.e., do not override 
+     * <code>doRender()</code>.
+     */
+    private static final Map classToIncrementalMap = Collections.synchronizedMap(new WeakHashMap());
+    
+    /**
+     * Determines whether tables of the specified class may apply 
+     * <code>TableModelEvent</code>s incrementally.  Subclasses which override
+     * <code>doRender()</code> are always fully re-rendered.
+     * 
+     * @param tableClass the <code>Table</code> class
+     * @return true if incremental rendering is supported
+     */
+    private static boolean isIncrementalRenderingSupported(Class tableClass) {
+        Boolean supported = (Boolean) classToIncrementalMap.get(tableClass);
+        if (supported == null) {
+            supported = Boolean.TRUE;
+            for (Class c = tableClass; c != Table.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("doRender", (Class[]) null);
+                    supported = Boolean.FALSE;
+                    break;
+                } catch (NoSuchMethodException ex) {
+                    // Not declared by this class, continue with superclass.
+                }
+            }
+            classToIncrementalMap.put(tableClass, supported);
+        }
+        return supported.booleanValue();
+    }
 
     public static final String PROPERTY_ACTION_COMMAND = "actionCommand";
+    public static final String PROPERTY_HEIGHT = "height";
     public static final String PROPERTY_INSETS = "insets";
     public static final String PROPERTY_ROLLOVER_BACKGROUND = "rolloverBackground";
     public static final String PROPERTY_ROLLOVER_BACKGROUND_IMAGE = "rolloverBackgroundImage";
@@ -86,6 +125,7 @@ public class Table extends BorderedComponent {
     public static final String PROPERTY_WIDTH = "width";
     
     public static final String INPUT_ACTION = "action";
+    public static final String INPUT_ROW_WINDOW = "rowWindow";
 
     public static final String ACTION_LISTENERS_CHANGED_PROPERTY = "actionListeners";
     public static final String AUTO_CREATE_COLUMNS_FROM_MODEL_CHANGED_PROPERTY = "autoCreateColumnsFromModel";
@@ -94,6 +134,8 @@ public class Table extends BorderedComponent {
     public static final String DEFAULT_RENDERER_CHANGED_PROPERTY = "defaultRenderer";
     public static final String HEADER_VISIBLE_CHANGED_PROPERTY = "headerVisible";
     public static final String MODEL_CHANGED_PROPERTY = "model";
+    public static final String ROW_WINDOW_SIZE_CHANGED_PROPERTY = "rowWindowSize";
+    public static final String ROW_WINDOW_START_CHANGED_PROPERTY = "rowWindowStart";
     public static final String SELECTION_CHANGED_PROPERTY = "selection";
     public static final String SELECTION_MODEL_CHANGED_PROPERTY = "selectionModel";
     
@@ -104,12 +146,31 @@ public class Table extends BorderedComponent {
     private TableModel model;
     private TableColumnModel columnModel;
     private boolean valid;
+    
+    /**
+     * <code>TableModelEvent</code>s received since the table was last rendered,
+     * to be applied incrementally by <code>validate()</code>.  Null if the table
+     * is valid or requires a full re-render.
+     */
+    private List pendingModelEvents;
     private Map defaultRendererMap = new HashMap();
     private TableCellRenderer defaultHeaderRenderer;
     private ListSelectionModel selectionModel;
     private boolean suppressChangeNotifications;
     private boolean rendering = false;
     
+    /** 
+     * The maximum number of rows whose cells are rendered as child components,
+     * or 0 to render all rows. 
+     */
+    private int rowWindowSize;
+    
+    /** The requested index of the first row to render when row windowing is enabled. */
+    private int rowWindowStart;
+    
+    /** The index of the first row rendered by the last render operation. */
+    private int renderedRowWindowStart;
+    
     /**
      * Listener to monitor changes to model.
      */
@@ -122,7 +183,11 @@ public class Table extends BorderedComponent {
          * @see nextapp.echo.app.event.TableModelListener#tableChanged(nextapp.echo.app.event.TableModelEvent)
          */
         public void tableChanged(TableModelEvent e) {
-            invalidate();
+            if (e == null || e.getType() == TableModelEvent.STRUCTURE_CHANGED) {
+                invalidate();
+            } else {
+                invalidateRows(e);
+            }
             if ((e == null || e.getType() == TableModelEvent.STRUCTURE_CHANGED) && isAutoCreateColumnsFromModel()) {
                 createDefaultColumnsFromModel();
             }
@@ -286,6 +351,203 @@ public class Table extends BorderedComponent {
         }
     }
     
+    /**
+     * Re-renders the rows described by the specified 
+     * <code>TableModelEvent</code>s, leaving the components of all other cells
+     * in place.  Inserted or deleted rows cause all following rows to be 
+     * re-rendered, as renderers are provided with row indices.
+     * 
+     * @param events the <code>TableModelEvent</code>s received since the table
+     *        was last rendered
+     * @return true if the events were applied, false if the table must instead
+     *         be fully re-rendered
+     */
+    private boolean doRenderRows(List events) {
+        if (rowWindowSize > 0) {
+            // Model changes re-render the (bounded) row window.
+            return events.size() == 0 && doRenderRowWindow();
+        }
+        
+        int columnCount = columnModel.getColumnCount();
+        if (columnCount == 0 || getComponentCount() % columnCount != 0) {
+            return false;
+        }
+        int headerRows = isHeaderVisible() ? 1 : 0;
+        int rowCount = model.getRowCount();
+        int renderedRowCount = getComponentCount() / columnCount - headerRows;
+        
+        // Determine first row affected by an insert or delete.
+        boolean structureChanged = false;
+        int firstStructureRow = Math.min(rowCount, renderedRowCount);
+        for (int i = 0; i < events.size(); ++i) {
+            TableModelEvent e = (TableModelEvent) events.get(i);
+            if (e.getFirstRow() < 0 || e.getLastRow() == Integer.MAX_VALUE) {
+                // Header or all rows updated.
+                return false;
+            }
+            if (e.getType() != TableModelEvent.UPDATE) {
+                structureChanged = true;
+                firstStructureRow = Math.min(firstStructureRow, e.getFirstRow());
+            }
+        }
+        if (!structureChanged && rowCount != renderedRowCount) {
+            return false;
+        }
+        
+        // Determine updated cells preceding first inserted or deleted row.
+        // Indices of such rows are unaffected by all events.
+        BitSet updatedCells = new BitSet();
+        for (int i = 0; i < events.size(); ++i) {
+            TableModelEvent e = (TableModelEvent) events.get(i);
+            if (e.getType() != TableModelEvent.UPDATE) {
+                continue;
+            }
+            int lastRow = Math.min(e.getLastRow(), firstStructureRow - 1);
+            for (int columnIndex = 0; columnIndex < columnCount; ++columnIndex) {
+                if (e.getColumn() != TableModelEvent.ALL_COLUMNS 
+                        && e.getColumn() != columnModel.getColumn(columnIndex).getModelIndex()) {
+                    continue;
+                }
+                for (int rowIndex = e.getFirstRow(); rowIndex <= lastRow; ++rowIndex) {
+                    updatedCells.set((rowIndex + headerRows) * columnCount + columnIndex);
+                }
+            }
+        }
+        
+        // Render replacement components.
+        Map updatedComponents = new HashMap();
+        for (int i = updatedCells.nextSetBit(0); i >= 0; i = updatedCells.nextSetBit(i + 1)) {
+            Component renderedComponent = renderCell(i / columnCount - headerRows, i % columnCount);
+            if (renderedComponent.getParent() == this) {
+                return false;
+            }
+            updatedComponents.put(new Integer(i), renderedComponent);
+        }
+        List addedComponents = new ArrayList();
+        for (int rowIndex = firstStructureRow; rowIndex < rowCount; ++rowIndex) {
+            for (int columnIndex = 0; columnIndex < columnCount; ++columnIndex) {
+                Component renderedComponent = renderCell(rowIndex, columnIndex);
+                if (renderedComponent.getParent() == this) {
+                    return false;
+                }
+                addedComponents.add(renderedComponent);
+            }
+        }
+        
+        try {
+            rendering = true;
+            int firstStructureIndex = (firstStructureRow + headerRows) * columnCount;
+            for (int i = getComponentCount() - 1; i >= firstStructureIndex; --i) {
+                remove(getComponent(i));
+            }
+            for (int i = updatedCells.nextSetBit(0); i >= 0; i = updatedCells.nextSetBit(i + 1)) {
+                remove(getComponent(i));
+                add((Component) updatedComponents.get(new Integer(i)), i);
+            }
+            for (int i = 0; i < addedComponents.size(); ++i) {
+                add((Component) addedComponents.get(i));
+            }
+        } finally {
+            rendering = false;
+        }
+        return true;
+    }
+    
+    /**
+     * Moves the rendered row window to the currently requested position,
+     * rendering rows scrolled into the window and removing rows scrolled out of
+     * it.  Rows which remain in the window keep their components.
+     * 
+     * @return true if the row window was moved, false if the table must
+     *         instead be fully re-rendered
+     */
+    private boolean doRenderRowWindow() {
+        int columnCount = columnModel.getColumnCount();
+        if (columnCount == 0 || getComponentCount() % columnCount != 0) {
+            return false;
+        }
+        int headerRows = isHeaderVisible() ? 1 : 0;
+        int rowCount = model.getRowCount();
+        int oldStart = renderedRowWindowStart;
+        int oldEnd = oldStart + getComponentCount() / columnCount - headerRows;
+        int newStart = getRowWindowStart(rowCount);
+        int newEnd = Math.min(rowCount, newStart + rowWindowSize);
+        if (oldEnd > rowCount || newStart >= oldEnd || newEnd <= oldStart) {
+            // No overlap between old and new windows.
+            return false;
+        }
+        
+        List leadingComponents = new ArrayList();
+        for (int rowIndex = newStart; rowIndex < oldStart; ++rowIndex) {
+            for (int columnIndex = 0; columnIndex < columnCount; ++columnIndex) {
+                leadingComponents.add(renderCell(rowIndex, columnIndex));
+            }
+        }
+        List trailingComponents = new ArrayList();
+        for (int rowIndex = oldEnd; rowIndex < newEnd; ++rowIndex) {
+            for (int columnIndex = 0; columnIndex < columnCount; ++columnIndex) {
+                trailingComponents.add(renderCell(rowIndex, columnIndex));
+            }
+        }
+        for (int i = 0; i < leadingComponents.size(); ++i) {
+            if (((Component) leadingComponents.get(i)).getParent() == this) {
+                return false;
+            }
+        }
+        for (int i = 0; i < trailingComponents.size(); ++i) {
+            if (((Component) trailingComponents.get(i)).getParent() == this) {
+                return false;
+            }
+        }
+        
+        try {
+            rendering = true;
+            int firstRowIndex = headerRows * columnCount;
+            for (int i = getComponentCount() - 1; i >= (newEnd - oldStart + headerRows) * columnCount; --i) {
+                remove(getComponent(i));
+            }
+            for (int i = (newStart - oldStart) * columnCount; i > 0; --i) {
+                remove(getComponent(firstRowIndex));
+            }
+            for (int i = 0; i < leadingComponents.size(); ++i) {
+                add((Component) leadingComponents.get(i), firstRowIndex + i);
+            }
+            for (int i = 0; i < trailingComponents.size(); ++i) {
+                add((Component) trailingComponents.get(i));
+            }
+        } finally {
+            rendering = false;
+        }
+        renderedRowWindowStart = newStart;
+        return true;
+    }
+    
+    /**
+     * Creates the component for a single table cell using the appropriate
+     * <code>TableCellRenderer</code>.
+     * 
+     * @param rowIndex the row index
+     * @param columnIndex the column index (in the <code>TableColumnModel</code>)
+     * @return the rendered component
+     */
+    private Component renderCell(int rowIndex, int columnIndex) {
+        TableColumn tableColumn = columnModel.getColumn(columnIndex);
+        int modelColumnIndex = tableColumn.getModelIndex();
+        TableCellRenderer renderer = tableColumn.getCellRenderer();
+        if (renderer == null) {
+            renderer = getDefaultRenderer(model.getColumnClass(modelColumnIndex));
+            if (renderer == null) {
+                renderer = DEFAULT_TABLE_CELL_RENDERER;
+            }
+        }
+        Object modelValue = model.getValueAt(modelColumnIndex, rowIndex);
+        Component renderedComponent = renderer.getTableCellRendererComponent(this, modelValue, modelColumnIndex, rowIndex);
+        if (renderedComponent == null || !renderedComponent.isVisible()) {
+            renderedComponent = new Label();
+        }
+        return renderedComponent;
+    }
+    
     /**
      * Re-renders changed rows.
      */
@@ -346,7 +608,10 @@ public class Table extends BorderedComponent {
             }
         }
         
-        for (int rowIndex = 0; rowIndex < rowCount; ++rowIndex) {
+        int rowStart = getRowWindowStart(rowCount);
+        int rowEnd = rowWindowSize == 0 ? rowCount : Math.min(rowCount, rowStart + rowWindowSize);
+        renderedRowWindowStart = rowStart;
+        for (int rowIndex = rowStart; rowIndex < rowEnd; ++rowIndex) {
             for (int columnIndex = 0; columnIndex < columnCount; ++columnIndex) {
                 int modelColumnIndex = tableColumns[columnIndex].getModelIndex();
                 Object modelValue = model.getValueAt(modelColumnIndex, rowIndex);
@@ -416,6 +681,19 @@ public class Table extends BorderedComponent {
         return (TableCellRenderer) defaultRendererMap.get(columnClass);
     }
     
+    /**
+     * Returns the height of the table.
+     * This property only supports <code>Extent</code>s with fixed 
+     * (i.e., not percent) units.  The height is only used when row 
+     * windowing is enabled, in which case the table scrolls within it.
+     * 
+     * @return the height
+     * @see #setRowWindowSize(int)
+     */
+    public Extent getHeight() {
+        return (Extent) get(PROPERTY_HEIGHT);
+    }
+    
     /**
      * Returns the default cell insets.
      * 
@@ -475,6 +753,52 @@ public class Table extends BorderedComponent {
         return (Color) get(PROPERTY_ROLLOVER_FOREGROUND);
     }
 
+    /**
+     * Returns the index of the first row of the model whose cells are 
+     * currently rendered as child components.  This value is 0 unless row 
+     * windowing is enabled.
+     * 
+     * @return the index of the first rendered row
+     */
+    public int getRenderedRowWindowStart() {
+        return renderedRowWindowStart;
+    }
+    
+    /**
+     * Returns the maximum number of rows whose cells are rendered as child 
+     * components, or 0 if all rows are rendered.
+     * 
+     * @return the row window size
+     * @see #setRowWindowSize(int)
+     */
+    public int getRowWindowSize() {
+        return rowWindowSize;
+    }
+    
+    /**
+     * Returns the requested index of the first row to be rendered when row
+     * windowing is enabled.
+     * 
+     * @return the requested row window start
+     */
+    public int getRowWindowStart() {
+        return rowWindowStart;
+    }
+    
+    /**
+     * Returns the index of the first row to render, bounded such that the 
+     * row window is filled where possible.
+     * 
+     * @param rowCount the number of rows in the model
+     * @return the index of the first row to render
+     */
+    private int getRowWindowStart(int rowCount) {
+        if (rowWindowSize == 0) {
+            return 0;
+        }
+        return Math.max(0, Math.min(rowWindowStart, rowCount - rowWindowSize));
+    }
+    
     /**
      * Returns the row selection background color.
      * 
@@ -545,6 +869,34 @@ public class Table extends BorderedComponent {
      */
     protected void invalidate() {
         valid = false;
+        pendingModelEvents = null;
+    }
+    
+    /**
+     * Marks rows of the table as needing to be re-rendered in response to a
+     * <code>TableModelEvent</code>.  If the table is otherwise valid, the event
+     * is stored such that only the affected rows are re-rendered.
+     * 
+     * @param e the <code>TableModelEvent</code> describing the changed rows,
+     *        or null if only the row window has moved
+     */
+    private void invalidateRows(TableModelEvent e) {
+        if (e == null) {
+            // Row window moved.
+            if (valid) {
+                valid = false;
+                pendingModelEvents = new ArrayList();
+            }
+            return;
+        }
+        if (valid) {
+            valid = false;
+            pendingModelEvents = new ArrayList();
+        } else if (pendingModelEvents == null) {
+            // Full re-render already required.
+            return;
+        }
+        pendingModelEvents.add(e);
     }
     
     /**
@@ -601,6 +953,8 @@ public class Table extends BorderedComponent {
             setSelectedIndices((int[]) inputValue);
         } else if (INPUT_ACTION.equals(inputName)) {
             fireActionEvent();
+        } else if (INPUT_ROW_WINDOW.equals(inputName) && inputValue instanceof Integer) {
+            setRowWindowStart(((Integer) inputValue).intValue());
         }
     }
     
@@ -729,6 +1083,19 @@ public class Table extends BorderedComponent {
         firePropertyChange(HEADER_VISIBLE_CHANGED_PROPERTY, Boolean.valueOf(oldValue), Boolean.valueOf(newValue));
     }
     
+    /**
+     * Sets the height of the table.
+     * This property only supports <code>Extent</code>s with fixed 
+     * (i.e., not percent) units.  The height is only used when row 
+     * windowing is enabled, in which case the table scrolls within it.
+     * 
+     * @param newValue the new height
+     * @see #setRowWindowSize(int)
+     */
+    public void setHeight(Extent newValue) {
+        set(PROPERTY_HEIGHT, newValue);
+    }
+    
     /**
      * Sets the default cell insets.
      * 
@@ -833,6 +1200,48 @@ public class Table extends BorderedComponent {
         firePropertyChange(SELECTION_CHANGED_PROPERTY, null, selectedIndices);
     }
 
+    /**
+     * Sets the maximum number of rows whose cells are rendered as child 
+     * components.  Enabling row windowing allows tables with very large 
+     * models to be displayed: only the rows within the window (which should 
+     * include a margin beyond the visible rows) are rendered, and the window
+     * is moved as the user scrolls the table.  A height should be set on a
+     * windowed table.
+     * 
+     * @param newValue the row window size, or 0 to render all rows
+     */
+    public void setRowWindowSize(int newValue) {
+        if (newValue < 0) {
+            throw new IllegalArgumentException("Row window size may not be negative.");
+        }
+        invalidate();
+        int oldValue = rowWindowSize;
+        rowWindowSize = newValue;
+        firePropertyChange(ROW_WINDOW_SIZE_CHANGED_PROPERTY, new Integer(oldValue), new Integer(newValue));
+    }
+    
+    /**
+     * Sets the requested index of the first row to be rendered when row
+     * windowing is enabled.  This method is invoked as the user scrolls
+     * a windowed table. 
+     * 
+     * @param newValue the new row window start
+     */
+    public void setRowWindowStart(int newValue) {
+        if (newValue < 0) {
+            newValue = 0;
+        }
+        int oldValue = rowWindowStart;
+        if (oldValue == newValue) {
+            return;
+        }
+        rowWindowStart = newValue;
+        if (rowWindowSize > 0) {
+            invalidateRows(null);
+        }
+        firePropertyChange(ROW_WINDOW_START_CHANGED_PROPERTY, new Integer(oldValue), new Integer(newValue));
+    }
+    
     /**
      * Sets the row selection background color.
      * 
@@ -915,7 +1324,11 @@ public class Table extends BorderedComponent {
         super.validate();
         while (!valid) {
             valid = true;
-            doRender();
+            List events = pendingModelEvents;
+            pendingModelEvents = null;
+            if (events == null || !isIncrementalRenderingSupported(getClass()) || !doRenderRows(events)) {
+                doRender();
+            }
         }
     }
 }
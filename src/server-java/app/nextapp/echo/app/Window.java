@@ -31,13 +31,17 @@ package nextapp.echo.app;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
+import java.util.WeakHashMap;
 
 import nextapp.echo.app.command.OpenEcho3WindowCommand;
 import nextapp.echo.app.update.ServerComponentUpdate;
@@ -69,6 +73,13 @@ public class Window extends Component {
      */
     private static final ThreadLocal contextStackLocal = new ThreadLocal();
     
+    /**
+     * Cache mapping <code>Component</code> classes to <code>Boolean</code>s 
+     * indicating whether they override <code>Component.validate()</code>.
+     * Weakly keyed such that component classes may be unloaded.
+     */
+    private static final Map classToValidatingMap = Collections.synchronizedMap(new WeakHashMap());
+    
     /**
      * Determines the current modal component by searching the entire hierarchy for modal components.
      * This operation is only performed when multiple visibly rendered components are registered as modal.
@@ -140,6 +151,20 @@ public class Window extends Component {
      * Mapping between component instances and <code>RenderState</code> objects.
      */
     private Map componentToRenderStateMap = new HashMap();
+    
+    /**
+     * The registered components whose classes override 
+     * <code>Component.validate()</code>, in registration order.
+     * This set is lazily built by <code>doValidation()</code> and is null 
+     * until then, e.g., after deserialization.
+     */
+    private transient Set validatingComponents;
+    
+    /**
+     * Validating components registered during the current invocation of 
+     * <code>doValidation()</code>, or null when validation is not in progress.
+     */
+    private transient List validationQueue;
 
   /**
    * The <code>UpdateManager</code> handling updates to/from this window.
@@ -653,6 +678,12 @@ private long nextId;
             component.assignRenderId(renderId);
         }
         renderIdToComponentMap.put(renderId, component);
+        if (validatingComponents != null && isValidating(component.getClass())) {
+            validatingComponents.add(component);
+            if (validationQueue != null) {
+                validationQueue.add(component);
+            }
+        }
         if (component instanceof ModalSupport && ((ModalSupport) component).isModal()) {
             setModal(component, true);
         }
@@ -672,6 +703,9 @@ private long nextId;
      * @see Component#register(ApplicationInstance, Window)
      */
     void unregisterComponent(Component component) {
+        if (validatingComponents != null) {
+            validatingComponents.remove(component);
+        }
     	if (componentsToRemove == null) {
     		componentsToRemove = new HashMap();
     	}
@@ -690,6 +724,9 @@ private long nextId;
     			Component component = (Component)entry.getValue();
     	        component.assignLastRenderId(renderId);
     			renderIdToComponentMap.remove(renderId);
+    			if (!component.isRegistered()) {
+    			    componentToRenderStateMap.remove(component);
+    			}
     	        if (component instanceof ModalSupport && ((ModalSupport) component).isModal()) {
     	            setModal(component, false);
     	        }
@@ -711,28 +748,150 @@ private long nextId;
     }
     
     /**
-     * Removes all <code>RenderState</code>s whose components are not
-     * registered.
+     * Validates this <code>Window</code> and every registered component whose
+     * class overrides <code>Component.validate()</code>.  Components which do 
+     * not override <code>validate()</code> are not visited, such that the cost
+     * of validation does not scale with the size of the hierarchy.
+     * Validating components registered as a result of another component's
+     * validation are validated in the same pass.
+     * This method is invoked by <code>ApplicationInstance.doValidation()</code>.
+     */
+    void doValidation() {
+        if (validatingComponents == null) {
+            validatingComponents = new LinkedHashSet();
+            indexValidatingComponents(this);
+        }
+        validate();
+        
+        validationQueue = new ArrayList();
+        try {
+            Object[] components = validatingComponents.toArray();
+            while (components.length > 0) {
+                for (int i = 0; i < components.length; ++i) {
+                    // Skip components unregistered by previous validations.
+                    if (validatingComponents.contains(components[i])) {
+                        ((Component) components[i]).validate();
+                    }
+                }
+                components = validationQueue.toArray();
+                validationQueue.clear();
+            }
+        } finally {
+            validationQueue = null;
+        }
+    }
+    
+    /**
+     * Adds the validating components of the specified hierarchy to 
+     * <code>validatingComponents</code>.
+     * 
+     * @param component the root of the hierarchy
+     */
+    private void indexValidatingComponents(Component component) {
+        if (component != this && isValidating(component.getClass())) {
+            validatingComponents.add(component);
+        }
+        int size = component.getComponentCount();
+        for (int index = 0; index < size; ++index) {
+            indexValidatingComponents(component.getComponent(index));
+        }
+    }
+    
+    /**
+     * Determines whether the specified <code>Component</code> class
+     * overrides <code>Component.validate()</code>.
+     * 
+     * @param componentClass the <code>Component</code> class
+     * @return true if the class overrides <code>validate()</code>
+     */
+    private static boolean isValidating(Class componentClass) {
+        Boolean validating = (Boolean) classToValidatingMap.get(componentClass);
+        if (validating == null) {
+            try {
+                validating = Boolean.valueOf(componentClass.getMethod("validate", (Class[]) null).getDeclaringClass() 
+                        != Component.class);
+            } catch (NoSuchMethodException ex) {
+                // Should not occur: validate() is declared by Component.
+                throw new RuntimeException(ex);
+            }
+            classToValidatingMap.put(componentClass, validating);
+        }
+        return validating.booleanValue();
+    }
+    
+    /**
+     * Removes all <code>RenderState</code>s whose components are being
+     * removed by the pending server updates or are no longer registered.
+     * <p>
+     * Only the components named by the pending updates are examined, such that
+     * the cost of this operation scales with the size of the update rather than
+     * with the number of stored <code>RenderState</code>s.  The 
+     * <code>RenderState</code>s of unregistered components are otherwise 
+     * discarded by <code>processComponentRemovals()</code>.
+     * Removed children which remain registered, i.e., those which are no
+     * longer rendered because they have been made invisible, are purged 
+     * along with all of their descendants.
+     * </p>
      */
     public void purgeRenderStates() {
+        if (componentToRenderStateMap.size() == 0) {
+            return;
+        }
+        
+        if (componentsToRemove != null) {
+            Iterator it = componentsToRemove.values().iterator();
+            while (it.hasNext()) {
+                Component component = (Component) it.next();
+                if (!component.isRegistered()) {
+                    componentToRenderStateMap.remove(component);
+                }
+            }
+        }
+        
         ServerComponentUpdate[] updates = getUpdateManager().getServerUpdateManager().getComponentUpdates();
-
-        Iterator it = componentToRenderStateMap.keySet().iterator();
-        while (it.hasNext()) {
-            Component component = (Component) it.next();
-            if (!component.isRegistered() || !component.isRenderVisible()) {
-                it.remove();
+        for (int i = 0; i < updates.length; ++i) {
+            if (!updates[i].hasRemovedChildren()) {
                 continue;
             }
-
-            for (int i = 0; i < updates.length; ++i) {
-                if (updates[i].hasRemovedDescendant(component.getRenderId())) {
-                    it.remove();
-                    continue;
-                }
+            removeRenderStates(updates[i].getRemovedChildren().values());
+            if (updates[i].hasRemovedDescendants()) {
+                removeRenderStates(updates[i].getRemovedDescendants().values());
             }
         }
     }
+    
+    /**
+     * Removes the <code>RenderState</code>s of the specified components.
+     * 
+     * @param components a collection of <code>Component</code>s
+     */
+    private void removeRenderStates(Collection components) {
+        Iterator it = components.iterator();
+        while (it.hasNext()) {
+            Component component = (Component) it.next();
+            if (component.isRegistered()) {
+                // Component is no longer rendered but remains in the hierarchy, e.g., because it has been made
+                // invisible: its descendants are not named by the update and would otherwise retain stale states.
+                removeRenderStatesRecursive(component);
+            } else {
+                componentToRenderStateMap.remove(component);
+            }
+        }
+    }
+    
+    /**
+     * Removes the <code>RenderState</code>s of the specified component and
+     * all of its descendants.
+     * 
+     * @param component the root component
+     */
+    private void removeRenderStatesRecursive(Component component) {
+        componentToRenderStateMap.remove(component);
+        int count = component.getComponentCount();
+        for (int i = 0; i < count && componentToRenderStateMap.size() > 0; ++i) {
+            removeRenderStatesRecursive(component.getComponent(i));
+        }
+    }
 
     /**
      * Clears all <code>RenderState</code> information.
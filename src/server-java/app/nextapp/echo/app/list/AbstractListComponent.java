@@ -30,6 +30,8 @@
 package nextapp.echo.app.list;
 
 import java.util.EventListener;
+import java.util.Iterator;
+import java.util.LinkedList;
 
 import nextapp.echo.app.Border;
 import nextapp.echo.app.BorderedComponent;
@@ -75,6 +77,12 @@ public abstract class AbstractListComponent extends BorderedComponent {
     public static final String PROPERTY_WIDTH = "width";
 
     public static final DefaultListCellRenderer DEFAULT_LIST_CELL_RENDERER = new DefaultListCellRenderer();
+    
+    /**
+     * Maximum number of recently received <code>ListDataEvent</code>s which will be retained for retrieval via 
+     * <code>getListDataEvents()</code>.
+     */
+    private static final int MAX_RETAINED_LIST_DATA_EVENTS = 64;
 
     /**
      * Local handler for list selection events.
@@ -104,21 +112,21 @@ public abstract class AbstractListComponent extends BorderedComponent {
          * @see nextapp.echo.app.event.ListDataListener#contentsChanged(nextapp.echo.app.event.ListDataEvent)
          */
         public void contentsChanged(ListDataEvent e) {
-            firePropertyChange(LIST_DATA_CHANGED_PROPERTY, null, null);
+            processListDataEvent(e);
         }
 
         /**
          * @see nextapp.echo.app.event.ListDataListener#intervalAdded(nextapp.echo.app.event.ListDataEvent)
          */
         public void intervalAdded(ListDataEvent e) {
-            firePropertyChange(LIST_DATA_CHANGED_PROPERTY, null, null);
+            processListDataEvent(e);
         }
 
         /**
          * @see nextapp.echo.app.event.ListDataListener#intervalRemoved(nextapp.echo.app.event.ListDataEvent)
          */
         public void intervalRemoved(ListDataEvent e) {
-            firePropertyChange(LIST_DATA_CHANGED_PROPERTY, null, null);
+            processListDataEvent(e);
         }
     };
     
@@ -126,6 +134,18 @@ public abstract class AbstractListComponent extends BorderedComponent {
     private ListModel model;
     private ListSelectionModel selectionModel;
     
+    /**
+     * The total number of <code>ListDataEvent</code>s received from the model(s) of this component, incremented as well
+     * whenever the model is replaced.
+     */
+    private int listDataEventCount = 0;
+    
+    /**
+     * The most recently received <code>ListDataEvent</code>s, oldest first, or null if no events have been received
+     * from the current model.
+     */
+    private transient LinkedList listDataEvents;
+    
     /**
      * Creates a new <code>AbstractListComponent</code> with default models.
      */
@@ -263,6 +283,42 @@ public abstract class AbstractListComponent extends BorderedComponent {
         return (Insets) get(PROPERTY_INSETS);
     }
     
+    /**
+     * Returns the number of <code>ListDataEvent</code>s which have been received from the model.
+     * Rendering peers may store this value and later provide it to <code>getListDataEvents()</code> in order to
+     * determine how the model has changed since it was last rendered.
+     * 
+     * @return the number of received events
+     */
+    public int getListDataEventCount() {
+        return listDataEventCount;
+    }
+
+    /**
+     * Returns the <code>ListDataEvent</code>s received from the model since <code>getListDataEventCount()</code>
+     * returned the specified value, in the order in which they were received.
+     * Only a limited number of recent events are retained.
+     * 
+     * @param eventCount a value previously returned by <code>getListDataEventCount()</code>
+     * @return the received events, or null if the events are not available, e.g., because they are no longer retained
+     *         or the model has been replaced, in which case the entire model should be considered changed
+     */
+    public ListDataEvent[] getListDataEvents(int eventCount) {
+        int count = listDataEventCount - eventCount;
+        if (count == 0) {
+            return new ListDataEvent[0];
+        }
+        if (count < 0 || listDataEvents == null || count > listDataEvents.size()) {
+            return null;
+        }
+        ListDataEvent[] events = new ListDataEvent[count];
+        Iterator it = listDataEvents.listIterator(listDataEvents.size() - count);
+        for (int i = 0; i < count; ++i) {
+            events[i] = (ListDataEvent) it.next();
+        }
+        return events;
+    }
+
     /**
      * Returns the model.
      * 
@@ -473,6 +529,23 @@ public abstract class AbstractListComponent extends BorderedComponent {
         set(PROPERTY_INSETS, newValue);
     }
     
+    /**
+     * Records a <code>ListDataEvent</code> received from the model and notifies listeners that the list data
+     * has changed.
+     * 
+     * @param e the event
+     */
+    private void processListDataEvent(ListDataEvent e) {
+        if (listDataEvents == null) {
+            listDataEvents = new LinkedList();
+        } else if (listDataEvents.size() == MAX_RETAINED_LIST_DATA_EVENTS) {
+            listDataEvents.removeFirst();
+        }
+        listDataEvents.add(e);
+        ++listDataEventCount;
+        firePropertyChange(LIST_DATA_CHANGED_PROPERTY, null, null);
+    }
+    
     /**
      * Sets the model.
      * The model may not be null.
@@ -489,6 +562,11 @@ public abstract class AbstractListComponent extends BorderedComponent {
         }
         newValue.addListDataListener(listDataHandler);
         model = newValue;
+        
+        // Events received from the previous model are not applicable to the new model.
+        listDataEvents = null;
+        ++listDataEventCount;
+        
         firePropertyChange(LIST_MODEL_CHANGED_PROPERTY, oldValue, newValue);
     }
     
@@ -47,6 +47,9 @@ implements ListModel, Serializable {
      * A storage facility for <code>EventListener</code>s.
      */
     private EventListenerList listenerList = new EventListenerList();
+    
+    /** Number of <code>ListDataEvent</code>s fired by the model, see <code>getModificationCount()</code>. */
+    private int modificationCount = 0;
  
     /**
      * Creates a new AbstractListModel.
@@ -72,6 +75,17 @@ implements ListModel, Serializable {
         return listenerList;
     }
 
+    /**
+     * Returns the number of modifications which have been made to the model, i.e., the number of 
+     * <code>ListDataEvent</code>s it has fired.  A renderer which has transmitted the content of the model may
+     * use this value to determine whether it must be transmitted again.
+     * 
+     * @return the modification count
+     */
+    public int getModificationCount() {
+        return modificationCount;
+    }
+    
     /**
      * Notifies listeners that the contents of the list have changed.
      * Subclasses <strong>must</strong> call this method 
@@ -81,6 +95,7 @@ implements ListModel, Serializable {
      * @param index1 the index of the last changed item 
      */ 
     protected void fireContentsChanged(int index0, int index1) {
+        ++modificationCount;
         ListDataEvent e = new ListDataEvent(this, ListDataEvent.CONTENTS_CHANGED, index0, index1);
 
         EventListener[] listeners = listenerList.getListeners(ListDataListener.class);
@@ -98,6 +113,7 @@ implements ListModel, Serializable {
      * @param index1 the index of the last added item
      */ 
     protected void fireIntervalAdded(int index0, int index1) {
+        ++modificationCount;
         ListDataEvent e = new ListDataEvent(this, ListDataEvent.INTERVAL_ADDED, index0, index1);
 
         EventListener[] listeners = listenerList.getListeners(ListDataListener.class);
@@ -115,6 +131,7 @@ implements ListModel, Serializable {
      * @param index1 the index of the last removed index 
      */
     protected void fireIntervalRemoved(int index0, int index1) {
+        ++modificationCount;
         ListDataEvent e = new ListDataEvent(this, ListDataEvent.INTERVAL_REMOVED, index0, index1);
 
         EventListener[] listeners = listenerList.getListeners(ListDataListener.class);
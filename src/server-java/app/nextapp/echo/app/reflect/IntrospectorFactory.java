@@ -30,20 +30,28 @@
 package nextapp.echo.app.reflect;
 
 import java.beans.Introspector;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import nextapp.echo.app.Component;
 
 /**
  * Factory for creating <code>ClassLoader</code>-specific <code>ObjectIntrospector</code> instances.
+ * Retrieval of previously created introspectors does not block.
  */
 public class IntrospectorFactory {
 
     /**
-     * A map containing references from class loaders to <code>ObjectIntrospector</code> instances.
+     * Key representing the bootstrap <code>ClassLoader</code> (<code>null</code>) in <code>classLoaderCache</code>.
      */
-    private static final Map classLoaderCache = new HashMap();
+    private static final Object BOOTSTRAP_CLASS_LOADER = new Object();
+    
+    /**
+     * A map containing references from class loaders to <code>ObjectIntrospector</code> stores, which map type
+     * names to <code>ObjectIntrospector</code> instances.
+     */
+    private static final ConcurrentMap classLoaderCache = new ConcurrentHashMap();
     
     /**
      * Creates a <b>new</b> <code>ObjectIntrospector</code> for a specific type
@@ -67,13 +75,14 @@ public class IntrospectorFactory {
      * @param classLoader the <code>ClassLoader</code>
      */
     public static void dispose(ClassLoader classLoader) {
-        synchronized (classLoaderCache) {
-            Map oiStore = (Map) classLoaderCache.remove(classLoader);
-            if (oiStore == null) {
-                throw new IllegalStateException("ObjectIntrospectorFactory does not exist for specified ClassLoader.");
-            }
-            Introspector.flushCaches();
+        Map oiStore = (Map) classLoaderCache.remove(getKey(classLoader));
+        if (oiStore == null) {
+            throw new IllegalStateException("ObjectIntrospectorFactory does not exist for specified ClassLoader.");
+        }
+        if (classLoader != null) {
+            PropertyMetadata.dispose(classLoader);
         }
+        Introspector.flushCaches();
     }
     
     /**
@@ -88,6 +97,11 @@ public class IntrospectorFactory {
      */
     public static ObjectIntrospector get(String typeName, ClassLoader classLoader) 
     throws ClassNotFoundException {
+        ConcurrentMap oiStore = getStore(classLoader);
+        ObjectIntrospector oi = (ObjectIntrospector) oiStore.get(typeName);
+        if (oi != null) {
+            return oi;
+        }
         return IntrospectorFactory.get(Class.forName(typeName, true, classLoader), classLoader);
     }
     
@@ -101,26 +115,48 @@ public class IntrospectorFactory {
      *         (a <code>ComponentIntrospector</code> in the event the type is an <code>Component</code>)
      */
     public static ObjectIntrospector get(Class type, ClassLoader classLoader) {
-        // Find or Create Object Introspector Store based on ClassLoader Cache.
-        Map oiStore;
-        synchronized (classLoaderCache) {
-            oiStore = (Map) classLoaderCache.get(classLoader);
-            if (oiStore == null) {
-                init(classLoader);
-                oiStore = (Map) classLoaderCache.get(classLoader);
+        ConcurrentMap oiStore = getStore(classLoader);
+        ObjectIntrospector oi = (ObjectIntrospector) oiStore.get(type.getName());
+        if (oi == null) {
+            // Introspectors are fully initialized on construction: in the event of a race, the first stored
+            // instance is used by all threads.
+            oi = createIntrospector(type, classLoader);
+            ObjectIntrospector existingOi = (ObjectIntrospector) oiStore.putIfAbsent(type.getName(), oi);
+            if (existingOi != null) {
+                oi = existingOi;
             }
         }
-        
-        // Find or Create Object Introspector from Object Introspector Store.
-        ObjectIntrospector oi;
-        synchronized (oiStore) {
-            oi =  (ObjectIntrospector) oiStore.get(type.getName());
-            if (oi == null) {
-                oi = createIntrospector(type, classLoader);
-                oiStore.put(type.getName(), oi);
+        return oi;
+    }
+    
+    /**
+     * Returns the <code>classLoaderCache</code> key of a <code>ClassLoader</code>.
+     * 
+     * @param classLoader the <code>ClassLoader</code>, possibly null
+     * @return the key
+     */
+    private static Object getKey(ClassLoader classLoader) {
+        return classLoader == null ? BOOTSTRAP_CLASS_LOADER : classLoader;
+    }
+    
+    /**
+     * Retrieves the <code>ObjectIntrospector</code> store for a <code>ClassLoader</code>, initializing the
+     * <code>IntrospectorFactory</code> for the <code>ClassLoader</code> if necessary.
+     * 
+     * @param classLoader the <code>ClassLoader</code>
+     * @return the store, mapping type names to <code>ObjectIntrospector</code>s
+     */
+    private static ConcurrentMap getStore(ClassLoader classLoader) {
+        Object key = getKey(classLoader);
+        ConcurrentMap oiStore = (ConcurrentMap) classLoaderCache.get(key);
+        if (oiStore == null) {
+            oiStore = new ConcurrentHashMap();
+            ConcurrentMap existingOiStore = (ConcurrentMap) classLoaderCache.putIfAbsent(key, oiStore);
+            if (existingOiStore != null) {
+                oiStore = existingOiStore;
             }
         }
-        return oi;
+        return oiStore;
     }
     
     /**
@@ -131,14 +167,8 @@ public class IntrospectorFactory {
      * @param classLoader the <code>ClassLoader</code>
      */
     public static void init(ClassLoader classLoader) {
-        synchronized (classLoaderCache) {
-            Map oiStore = (Map) classLoaderCache.get(classLoader);
-            if (oiStore != null) {
-                throw new IllegalStateException("ObjectIntrospectorFactory already initialized for specified ClassLoader.");
-            }
-            
-            oiStore = new HashMap();
-            classLoaderCache.put(classLoader, oiStore);
+        if (classLoaderCache.putIfAbsent(getKey(classLoader), new ConcurrentHashMap()) != null) {
+            throw new IllegalStateException("ObjectIntrospectorFactory already initialized for specified ClassLoader.");
         }
     }
 }
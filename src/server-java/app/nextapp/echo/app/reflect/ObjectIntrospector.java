@@ -63,14 +63,15 @@ public class ObjectIntrospector {
     /**
      * A <code>java.beans.BeanInfo</code> object used to introspect
      * information about the target <code>Object</code>.
+     * Lazily created, as property information is generally obtained from <code>PropertyMetadata</code>.
      */
     private BeanInfo beanInfo;
 
     /**
      * A mapping between the object's event set names and JavaBean
-     * <code>EventSetDescriptor</code>s.
+     * <code>EventSetDescriptor</code>s.  Lazily created.
      */
-    private Map eventSetDescriptorMap = new HashMap();
+    private Map eventSetDescriptorMap;
     
     /**
      * The <code>Class</code> of the analyzed introspected 
@@ -89,6 +90,19 @@ public class ObjectIntrospector {
      */
     private SortedMap propertyDescriptorMap = new TreeMap();
     
+    /**
+     * A mapping between the object's property names and their write methods (the indexed write methods of indexed
+     * properties).  The methods are resolved once, as <code>PropertyDescriptor</code> retrieves them on each 
+     * invocation.
+     */
+    private Map writeMethodMap = new HashMap();
+    
+    /**
+     * A mapping between the object's property names and their types (the indexed types of indexed properties),
+     * resolved once for the same reason.
+     */
+    private Map propertyClassMap = new HashMap();
+    
     /**
      * Creates a new <code>ObjectIntrospector</code> for the specified
      * type.
@@ -110,15 +124,12 @@ public class ObjectIntrospector {
     protected ObjectIntrospector(Class type) {
         super();
         objectClass = type;
-        try {
-            beanInfo = Introspector.getBeanInfo(objectClass, Introspector.IGNORE_ALL_BEANINFO);
-        } catch (IntrospectionException ex) {
-            // Should not occur.
-            throw new RuntimeException("Introspection Error", ex);
-        }
         
-        loadBeanPropertyData();
-        loadEventData();
+        PropertyDescriptor[] propertyDescriptors = PropertyMetadata.getPropertyDescriptors(objectClass);
+        if (propertyDescriptors == null) {
+            propertyDescriptors = getBeanInfo().getPropertyDescriptors();
+        }
+        loadBeanPropertyData(propertyDescriptors);
         loadConstants();
     }
     
@@ -170,7 +181,64 @@ public class ObjectIntrospector {
      * @return the <code>EventSetDescriptor</code> associated with the event set
      */
     public EventSetDescriptor getEventSetDescriptor(String eventSetName) {
-        return (EventSetDescriptor) eventSetDescriptorMap.get(eventSetName);
+        return (EventSetDescriptor) getEventSetDescriptorMap().get(eventSetName);
+    }
+    
+    /**
+     * Returns the mapping between the object's event set names and JavaBean <code>EventSetDescriptor</code>s,
+     * loading it if necessary.
+     * 
+     * @return the mapping
+     */
+    private synchronized Map getEventSetDescriptorMap() {
+        if (eventSetDescriptorMap == null) {
+            eventSetDescriptorMap = new HashMap();
+            EventSetDescriptor[] eventSetDescriptors = getBeanInfo().getEventSetDescriptors();
+            for (int index = 0; index < eventSetDescriptors.length; ++index) {
+                eventSetDescriptorMap.put(eventSetDescriptors[index].getName(), eventSetDescriptors[index]);
+            }
+        }
+        return eventSetDescriptorMap;
+    }
+    
+    /**
+     * Returns a copy of a method with access checks suppressed, such that the <code>Method</code> instance shared
+     * by the <code>java.beans</code> caches is not modified.  The method itself is returned if access checks may not
+     * be suppressed, e.g., due to a <code>SecurityManager</code> or, on Java 9 and later, module encapsulation
+     * (<code>InaccessibleObjectException</code>), in which case access checks are performed on invocation.
+     * 
+     * @param method the method
+     * @return the accessible copy of the method, or the method itself
+     */
+    private static Method getAccessibleMethod(Method method) {
+        try {
+            Method accessibleMethod = method.getDeclaringClass().getDeclaredMethod(method.getName(), 
+                    method.getParameterTypes());
+            accessibleMethod.setAccessible(true);
+            return accessibleMethod;
+        } catch (NoSuchMethodException ex) {
+            // Should not occur.
+            return method;
+        } catch (RuntimeException ex) {
+            return method;
+        }
+    }
+    
+    /**
+     * Returns the <code>java.beans.BeanInfo</code> of the object, creating it if necessary.
+     * 
+     * @return the <code>BeanInfo</code>
+     */
+    private synchronized BeanInfo getBeanInfo() {
+        if (beanInfo == null) {
+            try {
+                beanInfo = Introspector.getBeanInfo(objectClass, Introspector.IGNORE_ALL_BEANINFO);
+            } catch (IntrospectionException ex) {
+                // Should not occur.
+                throw new RuntimeException("Introspection Error", ex);
+            }
+        }
+        return beanInfo;
     }
     
     /**
@@ -179,7 +247,7 @@ public class ObjectIntrospector {
      * @return a <code>Set</code> containing the event set names of the object
      */
     public Set getEventSetNames() {
-        return Collections.unmodifiableSet(eventSetDescriptorMap.keySet());
+        return Collections.unmodifiableSet(getEventSetDescriptorMap().keySet());
     }
     
     /**
@@ -198,15 +266,11 @@ public class ObjectIntrospector {
      * @return the <code>Class</code> of the property
      */
     public Class getPropertyClass(String propertyName) {
-        PropertyDescriptor propertyDescriptor = getPropertyDescriptor(propertyName);
-        if (propertyDescriptor == null) {
+        Class propertyClass = (Class) propertyClassMap.get(propertyName);
+        if (propertyClass == null) {
             throw new IllegalArgumentException("Invalid property name: " + propertyName);
         }
-        if (propertyDescriptor instanceof IndexedPropertyDescriptor) {
-            return ((IndexedPropertyDescriptor) propertyDescriptor).getIndexedPropertyType();
-        } else {
-            return propertyDescriptor.getPropertyType();
-        }
+        return propertyClass;
     }
     
     /**
@@ -299,16 +363,7 @@ public class ObjectIntrospector {
      * @return the write method (if available)
      */
     public Method getWriteMethod(String propertyName) {
-        PropertyDescriptor propertyDescriptor = getPropertyDescriptor(propertyName);
-        if (propertyDescriptor == null) {
-            return null;
-        } else {
-            if (propertyDescriptor instanceof IndexedPropertyDescriptor) {
-                return ((IndexedPropertyDescriptor) propertyDescriptor).getIndexedWriteMethod();
-            } else {
-                return propertyDescriptor.getWriteMethod();
-            }
-        }
+        return (Method) writeMethodMap.get(propertyName);
     }
 
     /**
@@ -341,37 +396,32 @@ public class ObjectIntrospector {
     }
     /**
      * Initialization method to load property information.
+     * 
+     * @param propertyDescriptors the <code>PropertyDescriptor</code>s of the object
      */
-    private void loadBeanPropertyData() {
-        PropertyDescriptor[] propertyDescriptors = beanInfo.getPropertyDescriptors();
+    private void loadBeanPropertyData(PropertyDescriptor[] propertyDescriptors) {
         for (int index = 0; index < propertyDescriptors.length; ++index) {
             // Limit to mutable properties only.
             
+            Method writeMethod;
+            Class propertyClass;
             if (propertyDescriptors[index] instanceof IndexedPropertyDescriptor) {
-                if (((IndexedPropertyDescriptor) propertyDescriptors[index]).getIndexedWriteMethod() != null) {
-                    String name = propertyDescriptors[index].getName();
-                    
-                    // Store JavaBean PropertyDescriptor.
-                    propertyDescriptorMap.put(name, propertyDescriptors[index]);
-                }
+                writeMethod = ((IndexedPropertyDescriptor) propertyDescriptors[index]).getIndexedWriteMethod();
+                propertyClass = ((IndexedPropertyDescriptor) propertyDescriptors[index]).getIndexedPropertyType();
             } else {
-                if (propertyDescriptors[index].getWriteMethod() != null) {
-                    String name = propertyDescriptors[index].getName();
-                    
-                    // Store JavaBean PropertyDescriptor.
-                    propertyDescriptorMap.put(name, propertyDescriptors[index]);
-                }
+                writeMethod = propertyDescriptors[index].getWriteMethod();
+                propertyClass = propertyDescriptors[index].getPropertyType();
+            }
+            if (writeMethod != null) {
+                String name = propertyDescriptors[index].getName();
+                
+                // Store JavaBean PropertyDescriptor.
+                propertyDescriptorMap.put(name, propertyDescriptors[index]);
+                
+                // Store write method, suppressing access checks on its invocation where permitted.
+                writeMethodMap.put(name, getAccessibleMethod(writeMethod));
+                propertyClassMap.put(name, propertyClass);
             }
-        }
-    }
-    
-    /**
-     * Initialization method to load event related information.
-     */
-    private void loadEventData() {
-        EventSetDescriptor[] eventSetDescriptors = beanInfo.getEventSetDescriptors();
-        for (int index = 0; index < eventSetDescriptors.length; ++index) {
-            eventSetDescriptorMap.put(eventSetDescriptors[index].getName(), eventSetDescriptors[index]);
         }
     }
     
@@ -384,12 +434,10 @@ public class ObjectIntrospector {
      */
     public void setProperty(Object object, String propertyName, int index, Object propertyValue)
     throws IllegalArgumentException, IllegalAccessException, InvocationTargetException {
-        PropertyDescriptor propertyDescriptor = getPropertyDescriptor(propertyName);
-        if (propertyDescriptor instanceof IndexedPropertyDescriptor) {
-            Method writeMethod = ((IndexedPropertyDescriptor) propertyDescriptor).getIndexedWriteMethod();
-            writeMethod.invoke(object, new Object[]{new Integer(index), propertyValue});
+        Method writeMethod = getWriteMethod(propertyName);
+        if (isIndexedProperty(propertyName)) {
+            writeMethod.invoke(object, new Object[]{Integer.valueOf(index), propertyValue});
         } else {
-            Method writeMethod = propertyDescriptor.getWriteMethod();
             writeMethod.invoke(object, new Object[]{propertyValue});
         }
     }
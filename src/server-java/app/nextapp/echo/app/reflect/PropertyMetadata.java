@@ -0,0 +1,220 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+package nextapp.echo.app.reflect;
+
+import java.beans.IndexedPropertyDescriptor;
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringTokenizer;
+import java.util.WeakHashMap;
+
+import nextapp.echo.app.util.Log;
+import nextapp.echo.app.util.PropertiesDiscovery;
+
+/**
+ * Tables of mutable JavaBean properties, generated at build time by <code>PropertyMetadataGenerator</code>, 
+ * from which <code>ObjectIntrospector</code>s create <code>PropertyDescriptor</code>s without performing
+ * <code>java.beans.Introspector</code> analysis.
+ * <p>
+ * Tables are stored in properties files (which are discovered using <code>PropertiesDiscovery</code>) whose keys are
+ * class names and whose values are comma-delimited property entries.  Each property entry has the form
+ * <code>name:readMethod:writeMethod:type</code>, where the read method is blank if not available and the type is 
+ * the <code>Class.getName()</code> of the property type.  The names of indexed properties are suffixed with 
+ * <code>[]</code>, in which case the methods are the indexed read and write methods and the type is the indexed type.
+ */
+class PropertyMetadata {
+    
+    /** Name of the property table resource. */
+    static final String RESOURCE_NAME = "META-INF/nextapp/echo/PropertyMetadata.properties";
+    
+    /** Suffix appended to the names of indexed properties. */
+    private static final String INDEXED_SUFFIX = "[]";
+    
+    /** Mapping between primitive type names and types. */
+    private static final Map primitiveTypes = new HashMap();
+    static {
+        primitiveTypes.put("boolean", Boolean.TYPE);
+        primitiveTypes.put("byte", Byte.TYPE);
+        primitiveTypes.put("char", Character.TYPE);
+        primitiveTypes.put("double", Double.TYPE);
+        primitiveTypes.put("float", Float.TYPE);
+        primitiveTypes.put("int", Integer.TYPE);
+        primitiveTypes.put("long", Long.TYPE);
+        primitiveTypes.put("short", Short.TYPE);
+    }
+    
+    /** 
+     * Mapping between <code>ClassLoader</code>s and the property tables available to them.  Weakly keyed, such that
+     * a <code>ClassLoader</code> (e.g., that of a redeployed web application) is not retained if 
+     * <code>IntrospectorFactory.dispose()</code> is not invoked.
+     */
+    private static final Map classLoaderToTableMap = Collections.synchronizedMap(new WeakHashMap());
+    
+    /**
+     * Serializes property descriptors into a property table entry.
+     * 
+     * @param propertyDescriptors the descriptors of the mutable properties of a class
+     * @return the entry
+     */
+    static String format(PropertyDescriptor[] propertyDescriptors) {
+        StringBuffer out = new StringBuffer();
+        for (int i = 0; i < propertyDescriptors.length; ++i) {
+            Method readMethod, writeMethod;
+            Class type;
+            String name = propertyDescriptors[i].getName();
+            if (propertyDescriptors[i] instanceof IndexedPropertyDescriptor) {
+                IndexedPropertyDescriptor indexedDescriptor = (IndexedPropertyDescriptor) propertyDescriptors[i];
+                readMethod = indexedDescriptor.getIndexedReadMethod();
+                writeMethod = indexedDescriptor.getIndexedWriteMethod();
+                type = indexedDescriptor.getIndexedPropertyType();
+                name += INDEXED_SUFFIX;
+            } else {
+                readMethod = propertyDescriptors[i].getReadMethod();
+                writeMethod = propertyDescriptors[i].getWriteMethod();
+                type = propertyDescriptors[i].getPropertyType();
+            }
+            if (writeMethod == null) {
+                continue;
+            }
+            if (out.length() > 0) {
+                out.append(",");
+            }
+            out.append(name);
+            out.append(":");
+            out.append(readMethod == null ? "" : readMethod.getName());
+            out.append(":");
+            out.append(writeMethod.getName());
+            out.append(":");
+            out.append(type.getName());
+        }
+        return out.toString();
+    }
+    
+    /**
+     * Creates the <code>PropertyDescriptor</code>s of the mutable properties of a class from its property table 
+     * entry.
+     * 
+     * @param type the class
+     * @return the <code>PropertyDescriptor</code>s, or null if the class has no entry or the entry does not
+     *         match the class (in which case the class should be analyzed by <code>java.beans.Introspector</code>)
+     */
+    static PropertyDescriptor[] getPropertyDescriptors(Class type) {
+        if (type.getClassLoader() == null) {
+            return null;
+        }
+        String entry = (String) getTable(type.getClassLoader()).get(type.getName());
+        if (entry == null) {
+            return null;
+        }
+        try {
+            StringTokenizer st = new StringTokenizer(entry, ",");
+            PropertyDescriptor[] propertyDescriptors = new PropertyDescriptor[st.countTokens()];
+            for (int i = 0; i < propertyDescriptors.length; ++i) {
+                String[] fields = st.nextToken().split(":", -1);
+                if (fields.length != 4) {
+                    return null;
+                }
+                Class propertyType = getType(fields[3], type.getClassLoader());
+                if (fields[0].endsWith(INDEXED_SUFFIX)) {
+                    String name = fields[0].substring(0, fields[0].length() - INDEXED_SUFFIX.length());
+                    Method readMethod = fields[1].length() == 0 ? null : type.getMethod(fields[1], 
+                            new Class[]{Integer.TYPE});
+                    Method writeMethod = type.getMethod(fields[2], new Class[]{Integer.TYPE, propertyType});
+                    propertyDescriptors[i] = new IndexedPropertyDescriptor(name, null, null, readMethod, writeMethod);
+                } else {
+                    Method readMethod = fields[1].length() == 0 ? null : type.getMethod(fields[1], new Class[0]);
+                    Method writeMethod = type.getMethod(fields[2], new Class[]{propertyType});
+                    propertyDescriptors[i] = new PropertyDescriptor(fields[0], readMethod, writeMethod);
+                }
+            }
+            return propertyDescriptors;
+        } catch (ClassNotFoundException ex) {
+            return null;
+        } catch (NoSuchMethodException ex) {
+            return null;
+        } catch (IntrospectionException ex) {
+            return null;
+        }
+    }
+    
+    /**
+     * Returns the property table available to a <code>ClassLoader</code>, loading it if necessary.
+     * 
+     * @param classLoader the <code>ClassLoader</code>
+     * @return a mapping between class names and property table entries
+     */
+    private static Map getTable(ClassLoader classLoader) {
+        Map table = (Map) classLoaderToTableMap.get(classLoader);
+        if (table == null) {
+            try {
+                table = PropertiesDiscovery.loadProperties(RESOURCE_NAME, classLoader);
+            } catch (IOException ex) {
+                Log.log("Unable to load property metadata.", ex);
+                table = Collections.EMPTY_MAP;
+            }
+            classLoaderToTableMap.put(classLoader, table);
+        }
+        return table;
+    }
+    
+    /**
+     * Discards the property table loaded for a <code>ClassLoader</code>.
+     * 
+     * @param classLoader the <code>ClassLoader</code>
+     */
+    static void dispose(ClassLoader classLoader) {
+        classLoaderToTableMap.remove(classLoader);
+    }
+    
+    /**
+     * Resolves a type from its <code>Class.getName()</code>.
+     * 
+     * @param typeName the type name
+     * @param classLoader the <code>ClassLoader</code> from which the type should be loaded
+     * @return the type
+     * @throws ClassNotFoundException if the type cannot be found
+     */
+    private static Class getType(String typeName, ClassLoader classLoader) 
+    throws ClassNotFoundException {
+        Class type = (Class) primitiveTypes.get(typeName);
+        if (type == null) {
+            type = Class.forName(typeName, false, classLoader);
+        }
+        return type;
+    }
+    
+    /** Non-instantiable class. */
+    private PropertyMetadata() { }
+}
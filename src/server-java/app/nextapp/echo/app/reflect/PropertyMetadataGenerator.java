@@ -0,0 +1,121 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+package nextapp.echo.app.reflect;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Modifier;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import nextapp.echo.app.Component;
+import nextapp.echo.app.LayoutData;
+
+/**
+ * Build-time utility which generates the property tables of the <code>Component</code> and 
+ * <code>LayoutData</code> classes of a compiled class directory, such that <code>ObjectIntrospector</code>s 
+ * need not analyze these classes with <code>java.beans.Introspector</code> at runtime.
+ * <p>
+ * Usage: <code>PropertyMetadataGenerator classDirectory</code>.  The classes must be available on the
+ * <code>CLASSPATH</code>.  The table is written to <code>META-INF/nextapp/echo/PropertyMetadata.properties</code>
+ * within the class directory.
+ */
+public class PropertyMetadataGenerator {
+    
+    /**
+     * Entry point.
+     * 
+     * @param args the command line arguments (the class directory)
+     */
+    public static void main(String[] args) 
+    throws ClassNotFoundException, IntrospectionException, IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: PropertyMetadataGenerator classDirectory");
+            System.exit(1);
+        }
+        File classDirectory = new File(args[0]);
+        Map table = new TreeMap();
+        addClasses(table, classDirectory, "");
+        
+        File outputFile = new File(classDirectory, PropertyMetadata.RESOURCE_NAME);
+        outputFile.getParentFile().mkdirs();
+        Writer out = new OutputStreamWriter(new FileOutputStream(outputFile), "ISO-8859-1");
+        try {
+            out.write("# Generated by " + PropertyMetadataGenerator.class.getName() + ", do not edit.\n");
+            Iterator it = table.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry entry = (Map.Entry) it.next();
+                out.write(entry.getKey() + "=" + entry.getValue() + "\n");
+            }
+        } finally {
+            out.close();
+        }
+    }
+    
+    /**
+     * Adds the entries of the introspectable classes of a directory, and its subdirectories, to the property table.
+     * 
+     * @param table the property table, mapping class names to entries
+     * @param directory the directory
+     * @param packagePrefix the package name prefix of classes in the directory (empty, or ending with '.')
+     */
+    private static void addClasses(Map table, File directory, String packagePrefix) 
+    throws ClassNotFoundException, IntrospectionException {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        ClassLoader classLoader = PropertyMetadataGenerator.class.getClassLoader();
+        for (int i = 0; i < files.length; ++i) {
+            String fileName = files[i].getName();
+            if (files[i].isDirectory()) {
+                addClasses(table, files[i], packagePrefix + fileName + ".");
+            } else if (fileName.endsWith(".class")) {
+                String className = packagePrefix + fileName.substring(0, fileName.length() - ".class".length());
+                Class type = Class.forName(className, false, classLoader);
+                if (!Modifier.isPublic(type.getModifiers()) || type.isInterface()
+                        || !(Component.class.isAssignableFrom(type) || LayoutData.class.isAssignableFrom(type))) {
+                    continue;
+                }
+                table.put(className, PropertyMetadata.format(
+                        Introspector.getBeanInfo(type, Introspector.IGNORE_ALL_BEANINFO).getPropertyDescriptors()));
+            }
+        }
+    }
+    
+    /** Non-instantiable class. */
+    private PropertyMetadataGenerator() { }
+}
@@ -29,8 +29,8 @@
 
 package nextapp.echo.app.serial;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import nextapp.echo.app.util.PeerFactory;
 
@@ -47,7 +47,7 @@ implements PropertyPeerFactory {
     /**
      * Map of <code>ClassLoader</code>s to <code>SerialPeerFactory</code>s.
      */
-    private static final Map classLoaderToFactoryMap = new HashMap();
+    private static final Map classLoaderToFactoryMap = new ConcurrentHashMap();
     
     /**
      * Creates or retrieves a <code>SerialPeerFactory</code>.
@@ -57,8 +57,12 @@ implements PropertyPeerFactory {
      * @return the <code>SerialPeerFactory</code>
      */
     public static SerialPeerFactory forClassLoader(ClassLoader classLoader) {
+        SerialPeerFactory factory = (SerialPeerFactory) classLoaderToFactoryMap.get(classLoader);
+        if (factory != null) {
+            return factory;
+        }
         synchronized(classLoaderToFactoryMap) {
-            SerialPeerFactory factory = (SerialPeerFactory) classLoaderToFactoryMap.get(classLoader);
+            factory = (SerialPeerFactory) classLoaderToFactoryMap.get(classLoader);
             if (factory == null) {
                 factory = new SerialPeerFactory(classLoader);
                 classLoaderToFactoryMap.put(classLoader, factory);
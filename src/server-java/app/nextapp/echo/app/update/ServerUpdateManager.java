@@ -31,9 +31,7 @@ package nextapp.echo.app.update;
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -53,44 +51,23 @@ implements Serializable {
     /** Serial Version UID. */
     private static final long serialVersionUID = 20070101L;
 
+    /** Empty array of commands. */
+    private static final Command[] EMPTY_COMMAND_ARRAY = new Command[0];
+    
     /**
-     * <code>Comparator</code> to sort components by their depth in the 
-     * hierarchy.
+     * Returns the depth of the specified component in the hierarchy.
+     * 
+     * @param component the component
+     * @return the depth
      */
-    private static final Comparator hierarchyDepthUpdateComparator = new Comparator() {
-
-        /**
-         * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
-         */
-        public int compare(Object a, Object b) {
-            return getDepth(((ServerComponentUpdate) a).getParent()) - getDepth(((ServerComponentUpdate) b).getParent());
-        }
-        
-        /**
-         * @see java.lang.Object#equals(java.lang.Object)
-         */
-        public boolean equals(Object o) {
-            return false;
-        }
-        
-        /**
-         * Returns the depth of the specified component in the hierarchy.
-         * 
-         * @param component the component
-         * @return the depth
-         */
-        private int getDepth(Component component) {
-            int count = 0;
-            while (component != null) {
-                component = component.getParent();
-                ++count;
-            }
-            return count;
+    private static int getDepth(Component component) {
+        int count = 0;
+        while (component != null) {
+            component = component.getParent();
+            ++count;
         }
-    };
-    
-    /** Empty array of commands. */
-    private static final Command[] EMPTY_COMMAND_ARRAY = new Command[0];
+        return count;
+    }
     
     /** Map between application property names and <code>PropertyUpdate</code>s to the application. */
     private Map applicationUpdateMap;
@@ -200,14 +177,9 @@ implements Serializable {
             return new ServerComponentUpdate[]{fullRefreshUpdate};
         } else {
             if (cachedComponentUpdates == null) {
-                Collection hierarchyUpdates = componentUpdateMap.values();
-                cachedComponentUpdates = (ServerComponentUpdate[])
-                         hierarchyUpdates.toArray(new ServerComponentUpdate[hierarchyUpdates.size()]);
-                Arrays.sort(cachedComponentUpdates, hierarchyDepthUpdateComparator);
-                return cachedComponentUpdates;
-            } else {
-                return cachedComponentUpdates;
+                cachedComponentUpdates = sortByDepth(componentUpdateMap.values());
             }
+            return cachedComponentUpdates;
         }
     }
     
@@ -229,6 +201,9 @@ implements Serializable {
      * @return true if an ancestor of the component is being added
      */
     private boolean isAncestorBeingAdded(Component component) {
+        if (componentUpdateMap.size() == 0) {
+            return false;
+        }
         Component child = component;
         Component parent = component.getParent();
         while (parent != null) {
@@ -399,15 +374,55 @@ implements Serializable {
         // Search updated components for descendants of removed component.
         // Any found descendants will be removed and added to this update's 
         // list of removed descendants.
-        Iterator it = componentUpdateMap.keySet().iterator();
-        while (it.hasNext()) {
-            Component testComponent = (Component) it.next();
-            if (child.isAncestorOf(testComponent)) {
-                ServerComponentUpdate childUpdate = (ServerComponentUpdate) componentUpdateMap.get(testComponent);
-                update.appendRemovedDescendants(childUpdate);
-                it.remove();
+        if (componentUpdateMap.size() == 1) {
+            // Only the update of the parent is queued.
+            return;
+        }
+        List descendants = new ArrayList();
+        if (collectDescendants(child, descendants, componentUpdateMap.size())) {
+            // Removed hierarchy is smaller than update queue: look up each of its components.
+            for (int i = 0; i < descendants.size(); ++i) {
+                ServerComponentUpdate childUpdate = (ServerComponentUpdate) componentUpdateMap.remove(descendants.get(i));
+                if (childUpdate != null) {
+                    update.appendRemovedDescendants(childUpdate);
+                }
+            }
+        } else {
+            Iterator it = componentUpdateMap.keySet().iterator();
+            while (it.hasNext()) {
+                Component testComponent = (Component) it.next();
+                if (child.isAncestorOf(testComponent)) {
+                    ServerComponentUpdate childUpdate = (ServerComponentUpdate) componentUpdateMap.get(testComponent);
+                    update.appendRemovedDescendants(childUpdate);
+                    it.remove();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Collects the specified component and its descendants, stopping once more
+     * than <code>limit</code> components have been found.
+     * 
+     * @param component the root component
+     * @param descendants the list to which found components are added
+     * @param limit the maximum number of components to collect
+     * @return true if the entire hierarchy was collected, false if 
+     *         <code>limit</code> was exceeded
+     */
+    private static boolean collectDescendants(Component component, List descendants, int limit) {
+        descendants.add(component);
+        for (int i = 0; i < descendants.size(); ++i) {
+            Component current = (Component) descendants.get(i);
+            int count = current.getComponentCount();
+            if (descendants.size() + count > limit) {
+                return false;
+            }
+            for (int j = 0; j < count; ++j) {
+                descendants.add(current.getComponent(j));
             }
         }
+        return true;
     }
     
     /**
@@ -456,6 +471,41 @@ implements Serializable {
         }
     }
     
+    /**
+     * Returns the specified updates sorted by the depth of their parent 
+     * components within the hierarchy.  The depth of each update is computed 
+     * once, and updates of equal depth retain their relative order.
+     * 
+     * @param updates the <code>ServerComponentUpdate</code>s to sort
+     * @return the sorted updates
+     */
+    private static ServerComponentUpdate[] sortByDepth(Collection updates) {
+        ServerComponentUpdate[] sourceUpdates = (ServerComponentUpdate[]) 
+                updates.toArray(new ServerComponentUpdate[updates.size()]);
+        int[] depths = new int[sourceUpdates.length];
+        int maxDepth = 0;
+        for (int i = 0; i < sourceUpdates.length; ++i) {
+            depths[i] = getDepth(sourceUpdates[i].getParent());
+            if (depths[i] > maxDepth) {
+                maxDepth = depths[i];
+            }
+        }
+        
+        // Counting sort: offsets[depth] is the next output position for updates of that depth.
+        int[] offsets = new int[maxDepth + 2];
+        for (int i = 0; i < depths.length; ++i) {
+            ++offsets[depths[i] + 1];
+        }
+        for (int i = 1; i < offsets.length; ++i) {
+            offsets[i] += offsets[i - 1];
+        }
+        ServerComponentUpdate[] sortedUpdates = new ServerComponentUpdate[sourceUpdates.length];
+        for (int i = 0; i < sourceUpdates.length; ++i) {
+            sortedUpdates[offsets[depths[i]]++] = sourceUpdates[i];
+        }
+        return sortedUpdates;
+    }
+    
     /**
      * Removes all <code>ServerComponentUpdate</code>s from the manager,
      * resetting its state to zero.  This method is invoked by the
@@ -33,6 +33,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
@@ -51,6 +52,7 @@ import org.w3c.dom.DOMImplementation;
 import org.w3c.dom.Document;
 import org.w3c.dom.DocumentType;
 import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.w3c.dom.Text;
@@ -66,6 +68,12 @@ import com.habitsoft.xhtml.dtds.XhtmlEntityResolver;
  */
 public class DomUtil {
 
+    /**
+     * XML declaration written by <code>write()</code>, identical to that produced by the default JAXP
+     * <code>Transformer</code>.
+     */
+    public static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>";
+
     public static final Properties OUTPUT_PROPERTIES_INDENT;
     static {
         OUTPUT_PROPERTIES_INDENT = new Properties();
@@ -346,6 +354,166 @@ public class DomUtil {
         }
     }
 
+    /**
+     * Writes the <code>Document</code> to the specified <code>Writer</code> without the use of a JAXP 
+     * <code>Transformer</code>.  The output is identical to that produced by <code>save()</code> with
+     * no output properties for documents consisting of elements, attributes, text, CDATA sections, and
+     * comments, which is the subset of the DOM used for client/server synchronization messages.
+     * 
+     * @param document the <code>Document</code>
+     * @param w the <code>Writer</code>
+     * @throws IOException
+     */
+    public static void write(Document document, Writer w) 
+    throws IOException {
+        w.write(XML_DECLARATION);
+        writeNode(document.getDocumentElement(), w);
+    }
+    
+    /**
+     * Writes an <code>Element</code> and its descendants to the specified <code>Writer</code>, in the same
+     * format as <code>write(Document, Writer)</code> but without an XML declaration.
+     * 
+     * @param element the <code>Element</code>
+     * @param w the <code>Writer</code>
+     * @throws IOException
+     */
+    public static void write(Element element, Writer w) 
+    throws IOException {
+        writeNode(element, w);
+    }
+    
+    /**
+     * Writes an individual node (and its descendants) to a <code>Writer</code>.
+     * 
+     * @param node the node to write
+     * @param w the <code>Writer</code>
+     * @throws IOException
+     */
+    private static void writeNode(Node node, Writer w) 
+    throws IOException {
+        switch (node.getNodeType()) {
+        case Node.ELEMENT_NODE:
+            String name = node.getNodeName();
+            w.write('<');
+            w.write(name);
+            NamedNodeMap attributes = node.getAttributes();
+            int attributeCount = attributes.getLength();
+            // Namespace declarations are written ahead of other attributes, as is done by the JAXP Transformer.
+            for (int pass = 0; pass < 2; ++pass) {
+                for (int i = 0; i < attributeCount; ++i) {
+                    Node attribute = attributes.item(i);
+                    String attributeName = attribute.getNodeName();
+                    boolean namespaceDeclaration = attributeName.equals("xmlns") || attributeName.startsWith("xmlns:");
+                    if (namespaceDeclaration != (pass == 0)) {
+                        continue;
+                    }
+                    w.write(' ');
+                    w.write(attributeName);
+                    w.write("=\"");
+                    writeEscaped(attribute.getNodeValue(), w, true);
+                    w.write('"');
+                }
+            }
+            
+            // The start tag is closed lazily such that elements without content are rendered as empty elements.
+            boolean startTagOpen = true;
+            for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (startTagOpen) {
+                    if (child.getNodeType() == Node.TEXT_NODE && child.getNodeValue().length() == 0) {
+                        continue;
+                    }
+                    w.write('>');
+                    startTagOpen = false;
+                }
+                writeNode(child, w);
+            }
+            if (startTagOpen) {
+                w.write("/>");
+            } else {
+                w.write("</");
+                w.write(name);
+                w.write('>');
+            }
+            break;
+        case Node.TEXT_NODE:
+            writeEscaped(node.getNodeValue(), w, false);
+            break;
+        case Node.CDATA_SECTION_NODE:
+            w.write("<![CDATA[");
+            w.write(node.getNodeValue());
+            w.write("]]>");
+            break;
+        case Node.COMMENT_NODE:
+            w.write("<!--");
+            w.write(node.getNodeValue());
+            w.write("-->");
+            break;
+        }
+    }
+    
+    /**
+     * Writes character data to a <code>Writer</code>, escaping it as required for element content or
+     * attribute values.  Unescaped runs of characters are written in bulk.
+     * 
+     * @param value the character data
+     * @param w the <code>Writer</code>
+     * @param attribute true if the data is an attribute value, false if it is element content
+     * @throws IOException
+     */
+    public static void writeEscaped(String value, Writer w, boolean attribute) 
+    throws IOException {
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; ++i) {
+            char ch = value.charAt(i);
+            String entity;
+            switch (ch) {
+            case '&':
+                entity = "&amp;";
+                break;
+            case '<':
+                entity = "&lt;";
+                break;
+            case '>':
+                entity = "&gt;";
+                break;
+            case '"':
+                entity = attribute ? "&quot;" : null;
+                break;
+            case '\n':
+                entity = attribute ? "&#10;" : null;
+                break;
+            case '\t':
+                entity = attribute ? "&#9;" : null;
+                break;
+            default:
+                if (ch == '\r' || ch < 0x20 || (!attribute && ch >= 0x7f && ch <= 0x9f)) {
+                    entity = "&#" + (int) ch + ";";
+                } else if (Character.isHighSurrogate(ch) && i + 1 < length 
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    entity = "&#" + Character.toCodePoint(ch, value.charAt(i + 1)) + ";";
+                } else {
+                    entity = null;
+                }
+            }
+            if (entity != null) {
+                if (i > start) {
+                    w.write(value, start, i - start);
+                }
+                w.write(entity);
+                if (Character.isHighSurrogate(ch)) {
+                    // Skip low surrogate of pair.
+                    ++i;
+                }
+                start = i + 1;
+            }
+        }
+        if (length > start) {
+            w.write(value, start, length - start);
+        }
+    }
+
     /**
      * Sets the text content of a DOM <code>Element</code>.
      * 
@@ -33,6 +33,7 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import nextapp.echo.app.Component;
 
@@ -44,14 +45,42 @@ import nextapp.echo.app.Component;
  * names of the supported objects as its keys.  The values of the properties
  * file should contain the fully qualified class names of the peer objects.
  * A single instance of each peer class will be used to support ALL instances
- * of the supported class.
+ * of the supported class.  Peers are instantiated when first retrieved.
  */
 public class PeerFactory {
     
+    /**
+     * Value stored in the resolution caches to indicate that no peer is available for a class.
+     */
+    private static final Object NO_PEER = new Object();
+    
     /**
      * Maps a component (identified by its canonical name) to its peer
      */
-    private final Map<String, Object> objectClassNameToPeerMap = new HashMap<String, Object>();
+    private final Map<String, Object> objectClassNameToPeerMap = new ConcurrentHashMap<String, Object>();
+    
+    /**
+     * Maps a component (identified by its canonical name) to the class name of its peer, as specified by the
+     * peer bindings.  Peers are instantiated when first retrieved.
+     */
+    private final Map<String, String> objectClassNameToPeerClassNameMap = new HashMap<String, String>();
+    
+    /**
+     * Cache of resolved peers, including <code>NO_PEER</code> for classes without a peer, when 
+     * superclasses are searched.
+     */
+    private final Map<Class, Object> classToPeerCache = new ConcurrentHashMap<Class, Object>();
+    
+    /**
+     * Cache of resolved peers, including <code>NO_PEER</code> for classes without a peer, when 
+     * superclasses are not searched.
+     */
+    private final Map<Class, Object> classToExactPeerCache = new ConcurrentHashMap<Class, Object>();
+    
+    /**
+     * The <code>ClassLoader</code> from which the peer bindings were loaded.
+     */
+    private final ClassLoader classLoader;
     
     /**
      * Creates a new <code>PeerFactory</code>.
@@ -65,24 +94,47 @@ public class PeerFactory {
      *        resource file and for instantiating the peer singleton instances
      */
     public PeerFactory(String resourceName, ClassLoader classLoader) {
+        this.classLoader = classLoader;
         try {
             Map peerNameMap = PropertiesDiscovery.loadProperties(resourceName, classLoader);
             Iterator it = peerNameMap.keySet().iterator();
             while (it.hasNext()) {
-                String objectClassName = ((String) it.next()).trim();
+                String objectClassName = (String) it.next();
                 String peerClassName = ((String) peerNameMap.get(objectClassName)).trim();
-                Class<?> peerClass = classLoader.loadClass(peerClassName);
-                Object peer = peerClass.newInstance();
-                objectClassNameToPeerMap.put(objectClassName, peer);
+                objectClassNameToPeerClassNameMap.put(objectClassName.trim(), peerClassName);
             }
-        } catch (ClassNotFoundException ex) {
-            throw new RuntimeException("Unable to load synchronize peer bindings.", ex);
         } catch (IOException ex) {
             throw new RuntimeException("Unable to load synchronize peer bindings.", ex);
-        } catch (InstantiationException ex) {
-            throw new RuntimeException("Unable to load synchronize peer bindings.", ex);
-        } catch (IllegalAccessException ex) {
-            throw new RuntimeException("Unable to load synchronize peer bindings.", ex);
+        }
+    }
+    
+    /**
+     * Retrieves the peer bound to the class with the specified name, instantiating it if necessary.
+     * 
+     * @param objectClassName the name of the supported object class
+     * @return the peer, or null if none is bound to the class
+     */
+    private Object getPeer(String objectClassName) {
+        Object peer = objectClassNameToPeerMap.get(objectClassName);
+        if (peer != null || !objectClassNameToPeerClassNameMap.containsKey(objectClassName)) {
+            return peer;
+        }
+        synchronized (objectClassNameToPeerClassNameMap) {
+            peer = objectClassNameToPeerMap.get(objectClassName);
+            if (peer == null) {
+                try {
+                    Class<?> peerClass = classLoader.loadClass(objectClassNameToPeerClassNameMap.get(objectClassName));
+                    peer = peerClass.newInstance();
+                } catch (ClassNotFoundException ex) {
+                    throw new RuntimeException("Unable to load synchronize peer bindings.", ex);
+                } catch (InstantiationException ex) {
+                    throw new RuntimeException("Unable to load synchronize peer bindings.", ex);
+                } catch (IllegalAccessException ex) {
+                    throw new RuntimeException("Unable to load synchronize peer bindings.", ex);
+                }
+                objectClassNameToPeerMap.put(objectClassName, peer);
+            }
+            return peer;
         }
     }
     
@@ -98,9 +150,52 @@ public class PeerFactory {
      * @return the relevant peer, or null if none can be found
      */
     public Object getPeerForObject(Class objectClass, boolean searchSuperClasses) {
+        Map<Class, Object> cache = searchSuperClasses ? classToPeerCache : classToExactPeerCache;
+        Object peer = cache.get(objectClass);
+        if (peer == null) {
+            peer = resolvePeer(objectClass, searchSuperClasses);
+            if (isCacheable(objectClass)) {
+                cache.put(objectClass, peer == null ? NO_PEER : peer);
+            }
+            return peer;
+        }
+        return peer == NO_PEER ? null : peer;
+    }
+    
+    /**
+     * Determines whether the resolved peer of a class may be cached.
+     * Only classes visible to the <code>ClassLoader</code> of the factory are cached, such that the factory does
+     * not retain classes of other (e.g., child) <code>ClassLoader</code>s, preventing them from being unloaded.
+     * 
+     * @param objectClass the class
+     * @return true if the peer of the class may be cached
+     */
+    private boolean isCacheable(Class objectClass) {
+        ClassLoader objectClassLoader = objectClass.getClassLoader();
+        if (objectClassLoader == null) {
+            // Bootstrap class.
+            return true;
+        }
+        for (ClassLoader loader = classLoader; loader != null; loader = loader.getParent()) {
+            if (loader == objectClassLoader) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Searches the peer bindings for the peer of a class.
+     * 
+     * @param objectClass the supported object class
+     * @param searchSuperClasses flag indicating whether superclasses and interfaces should be searched
+     * @return the relevant peer, or null if none can be found
+     * @see #getPeerForObject(java.lang.Class, boolean)
+     */
+    private Object resolvePeer(Class objectClass, boolean searchSuperClasses) {
         Object peer = null;
         do {
-            peer = objectClassNameToPeerMap.get(objectClass.getName());
+            peer = getPeer(objectClass.getName());
             if (peer != null) {
                 return peer;
             }
@@ -126,5 +221,7 @@ public class PeerFactory {
      */
     public void registerPeer(Class<? extends Component> componentClass, Object peer) {
         objectClassNameToPeerMap.put(componentClass.getCanonicalName(), peer);
+        classToPeerCache.clear();
+        classToExactPeerCache.clear();
     }
 }
@@ -42,7 +42,7 @@ import org.eclipse.jetty.websocket.WebSocket;
  * @author chrismay
  *
  */
-public class JettyWebSocket extends ApplicationWebSocket implements WebSocket {
+public class JettyWebSocket extends ApplicationWebSocket implements WebSocket.OnTextMessage {
 
     private final class EchoConnection implements ApplicationWebSocket.Connection {
 
@@ -82,4 +82,10 @@ public class JettyWebSocket extends ApplicationWebSocket implements WebSocket {
     public void onClose(int i, String string) {
         this.processClose(i, string);
     }
+
+    @Override
+    public void onMessage(String data) {
+        // Client messages of synchronizations performed over the socket.
+        processMessage(data);
+    }
 }
\ No newline at end of file
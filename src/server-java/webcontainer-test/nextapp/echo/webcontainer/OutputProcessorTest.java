@@ -0,0 +1,83 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+package nextapp.echo.webcontainer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for <code>nextapp.echo.webcontainer.OutputProcessor</code>.
+ * Located in the <code>nextapp.echo.webcontainer</code> package as the tested class is package-private.
+ */
+public class OutputProcessorTest extends TestCase {
+    
+    /**
+     * Test rendering of replayed XML server messages.
+     */
+    public void testReplayXml() 
+    throws Exception {
+        ServerMessageHistory history = new ServerMessageHistory(3);
+        history.add(1, "<smsg i=\"1\"/>");
+        history.add(2, "<smsg i=\"2\"/>");
+        history.add(3, "<smsg i=\"3\"/>");
+        
+        StringWriter w = new StringWriter();
+        OutputProcessor.writeReplay(w, history.getMessagesSince(1, 3), false);
+        
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(
+                new ByteArrayInputStream(w.toString().getBytes("UTF-8")));
+        Element replayElement = document.getDocumentElement();
+        assertEquals("replay", replayElement.getNodeName());
+        assertEquals(2, replayElement.getElementsByTagName("smsg").getLength());
+        assertEquals("2", ((Element) replayElement.getElementsByTagName("smsg").item(0)).getAttribute("i"));
+        assertEquals("3", ((Element) replayElement.getElementsByTagName("smsg").item(1)).getAttribute("i"));
+    }
+    
+    /**
+     * Test rendering of replayed JSON server messages.
+     */
+    public void testReplayJson() 
+    throws IOException {
+        List messages = Arrays.asList(new String[] { "[\"smsg\",{\"i\":\"2\"}]", "[\"smsg\",{\"i\":\"3\"}]" });
+        StringWriter w = new StringWriter();
+        OutputProcessor.writeReplay(w, messages, true);
+        assertEquals("[\"replay\",[\"smsg\",{\"i\":\"2\"}],[\"smsg\",{\"i\":\"3\"}]]", w.toString());
+    }
+}
@@ -0,0 +1,148 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+
+package nextapp.echo.webcontainer;
+
+import nextapp.echo.app.MutableStyle;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for <code>nextapp.echo.webcontainer.ReferenceCache</code>.
+ * Located in the <code>nextapp.echo.webcontainer</code> package as the tested class is package-private.
+ */
+public class ReferenceCacheTest extends TestCase {
+    
+    /** The configured cache size, restored after each test. */
+    private long cacheSize;
+    
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    public void setUp() {
+        cacheSize = ServerConfiguration.SYNC_REFERENCE_CACHE_SIZE;
+        ServerConfiguration.SYNC_REFERENCE_CACHE_SIZE = 2;
+    }
+    
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    public void tearDown() {
+        ServerConfiguration.SYNC_REFERENCE_CACHE_SIZE = cacheSize;
+    }
+    
+    /**
+     * Test that least recently used property values are evicted once the configured size is exceeded, and that 
+     * evicted keys are reported once.
+     */
+    public void testPropertyEviction() {
+        ReferenceCache cache = new ReferenceCache();
+        String alphaKey = cache.addProperty("alpha", "<p>alpha</p>", 1);
+        String bravoKey = cache.addProperty("bravo", "<p>bravo</p>", 2);
+        assertEquals(alphaKey, cache.getPropertyKey("alpha", 3));
+        cache.addProperty("charlie", "<p>charlie</p>", 3);
+        
+        assertEquals(bravoKey, cache.consumeEvictedPropertyKeys());
+        assertNull(cache.consumeEvictedPropertyKeys());
+        assertNull(cache.getPropertyKey("bravo", 4));
+        assertNull(cache.getPropertyKey("bravo", "<p>bravo</p>", 4));
+        assertEquals(alphaKey, cache.getPropertyKey("alpha", 4));
+    }
+    
+    /**
+     * Test that property values referenced by the current transaction are not evicted.
+     */
+    public void testPropertyEvictionCurrentTransaction() {
+        ReferenceCache cache = new ReferenceCache();
+        String alphaKey = cache.addProperty("alpha", "<p>alpha</p>", 1);
+        String bravoKey = cache.addProperty("bravo", "<p>bravo</p>", 1);
+        String charlieKey = cache.addProperty("charlie", "<p>charlie</p>", 1);
+        assertNull(cache.consumeEvictedPropertyKeys());
+        
+        cache.addProperty("delta", "<p>delta</p>", 2);
+        assertEquals(alphaKey + "," + bravoKey, cache.consumeEvictedPropertyKeys());
+        assertEquals(charlieKey, cache.getPropertyKey("charlie", 3));
+    }
+    
+    /**
+     * Test reuse of property values by value and by content.
+     */
+    public void testPropertyReuse() {
+        ReferenceCache cache = new ReferenceCache();
+        assertNull(cache.getPropertyKey("alpha", 1));
+        assertNull(cache.getPropertyKey("alpha", "<p>a</p>", 1));
+        String key = cache.addProperty("alpha", "<p>a</p>", 1);
+        
+        assertEquals(key, cache.getPropertyKey(new String("alpha"), 2));
+        
+        // A different value with identical content is found by content, and thereafter by value.
+        assertNull(cache.getPropertyKey("alpha2", 2));
+        assertEquals(key, cache.getPropertyKey("alpha2", "<p>a</p>", 2));
+        assertEquals(key, cache.getPropertyKey("alpha2", 3));
+        
+        assertFalse(key.equals(cache.addProperty("bravo", "<p>b</p>", 3)));
+        assertNull(cache.consumeEvictedPropertyKeys());
+    }
+    
+    /**
+     * Test that a style which is modified after being transmitted is no longer referenced.
+     */
+    public void testStyleMutation() {
+        ReferenceCache cache = new ReferenceCache();
+        MutableStyle style = new MutableStyle();
+        style.set("alpha", "a");
+        String key = cache.addStyle(style);
+        assertEquals(key, cache.getStyleKey(style));
+        
+        style.set("alpha", "a2");
+        assertNull(cache.getStyleKey(style));
+        
+        String newKey = cache.addStyle(style);
+        assertFalse(key.equals(newKey));
+        assertEquals(newKey, cache.getStyleKey(style));
+    }
+    
+    /**
+     * Test reuse of styles by reference.
+     */
+    public void testStyleReuse() {
+        ReferenceCache cache = new ReferenceCache();
+        MutableStyle style = new MutableStyle();
+        style.set("alpha", "a");
+        assertNull(cache.getStyleKey(style));
+        String key = cache.addStyle(style);
+        assertEquals(key, cache.getStyleKey(style));
+        
+        MutableStyle otherStyle = new MutableStyle();
+        otherStyle.set("alpha", "a");
+        assertNull(cache.getStyleKey(otherStyle));
+        assertFalse(key.equals(cache.addStyle(otherStyle)));
+        assertEquals(key, cache.getStyleKey(style));
+    }
+}
@@ -0,0 +1,125 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+package nextapp.echo.webcontainer;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for <code>nextapp.echo.webcontainer.ServerMessageHistory</code>.
+ * Located in the <code>nextapp.echo.webcontainer</code> package as the tested class is package-private.
+ */
+public class ServerMessageHistoryTest extends TestCase {
+    
+    /**
+     * Test retrieval of missed messages.
+     */
+    public void testGetMessagesSince() {
+        ServerMessageHistory history = new ServerMessageHistory(3);
+        history.add(1, "m1");
+        history.add(2, "m2");
+        history.add(3, "m3");
+        
+        List messages = history.getMessagesSince(1, 3);
+        assertEquals(2, messages.size());
+        assertEquals("m2", messages.get(0));
+        assertEquals("m3", messages.get(1));
+        
+        messages = history.getMessagesSince(0, 3);
+        assertEquals(3, messages.size());
+        assertEquals("m1", messages.get(0));
+        
+        // Messages prior to the history are not available.
+        assertNull(history.getMessagesSince(-1, 3));
+        
+        // Client not behind.
+        assertNull(history.getMessagesSince(3, 3));
+        assertNull(history.getMessagesSince(4, 3));
+    }
+    
+    /**
+     * Test that the oldest messages are evicted once the maximum size is reached.
+     */
+    public void testEviction() {
+        ServerMessageHistory history = new ServerMessageHistory(2);
+        history.add(1, "m1");
+        history.add(2, "m2");
+        history.add(3, "m3");
+        
+        assertNull(history.getMessagesSince(0, 3));
+        List messages = history.getMessagesSince(1, 3);
+        assertEquals(2, messages.size());
+        assertEquals("m2", messages.get(0));
+        assertEquals("m3", messages.get(1));
+    }
+    
+    /**
+     * Test that messages are not provided when the history contains a gap, e.g., due to a message which
+     * was not retained.
+     */
+    public void testGap() {
+        ServerMessageHistory history = new ServerMessageHistory(5);
+        history.add(1, "m1");
+        history.add(3, "m3");
+        history.add(4, "m4");
+        
+        assertNull(history.getMessagesSince(1, 4));
+        List messages = history.getMessagesSince(2, 4);
+        assertEquals(2, messages.size());
+        assertEquals("m3", messages.get(0));
+    }
+    
+    /**
+     * Test that a history of size zero retains no messages.
+     */
+    public void testDisabled() {
+        ServerMessageHistory history = new ServerMessageHistory(0);
+        history.add(1, "m1");
+        assertNull(history.getMessagesSince(0, 1));
+    }
+    
+    /**
+     * Test retrieval of messages across overflow of transaction ids.
+     */
+    public void testWraparound() {
+        ServerMessageHistory history = new ServerMessageHistory(3);
+        history.add(Integer.MAX_VALUE - 1, "a");
+        history.add(Integer.MAX_VALUE, "b");
+        history.add(Integer.MIN_VALUE, "c");
+        
+        List messages = history.getMessagesSince(Integer.MAX_VALUE - 1, Integer.MIN_VALUE);
+        assertEquals(2, messages.size());
+        assertEquals("b", messages.get(0));
+        assertEquals("c", messages.get(1));
+        
+        assertNull(history.getMessagesSince(Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,299 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+
+package nextapp.echo.webcontainer;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import nextapp.echo.app.ApplicationInstance;
+import nextapp.echo.app.ContentPane;
+import nextapp.echo.app.Label;
+import nextapp.echo.app.Window;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for synchronizations performed over an <code>ApplicationWebSocket</code>.
+ * Located in the <code>nextapp.echo.webcontainer</code> package as the tested methods are package-private.
+ */
+public class WebSocketSynchronizationTest extends TestCase {
+    
+    /**
+     * Test <code>ApplicationInstance</code> displaying a single <code>Label</code>.
+     */
+    public static class TestApp extends ApplicationInstance {
+        
+        /**
+         * @see nextapp.echo.app.ApplicationInstance#init()
+         */
+        public Window init() {
+            Window window = new Window(this);
+            ContentPane content = new ContentPane();
+            content.add(new Label("WebSocket Label"));
+            window.setContent(content);
+            return window;
+        }
+    }
+    
+    /**
+     * Test servlet, which does not require a servlet container.
+     */
+    private static class TestServlet extends WebContainerServlet {
+
+        /**
+         * Creates a new <code>TestServlet</code> with the specified <code>WebSocketConnectionHandler</code>.
+         * 
+         * @param handler the handler
+         */
+        TestServlet(WebSocketConnectionHandler handler) {
+            super();
+            setWebSocketConnectionHandler(handler);
+        }
+
+        /**
+         * @see javax.servlet.GenericServlet#getServletName()
+         */
+        public String getServletName() {
+            return "TestServlet";
+        }
+        
+        /**
+         * @see nextapp.echo.webcontainer.WebContainerServlet#newApplicationInstance()
+         */
+        public ApplicationInstance newApplicationInstance() {
+            return new TestApp();
+        }
+    }
+    
+    /**
+     * <code>ApplicationWebSocket</code> implementation.
+     */
+    private static class TestWebSocket extends ApplicationWebSocket { }
+    
+    /**
+     * <code>ApplicationWebSocket.Connection</code> recording sent messages.
+     */
+    private static class TestConnection 
+    implements ApplicationWebSocket.Connection {
+        
+        /** The sent messages. */
+        private List sentMessages = new ArrayList();
+        
+        /**
+         * @see nextapp.echo.webcontainer.ApplicationWebSocket.Connection#close()
+         */
+        public void close() { }
+        
+        /**
+         * @see nextapp.echo.webcontainer.ApplicationWebSocket.Connection#close(int, java.lang.String)
+         */
+        public void close(int code, String message) { }
+        
+        /**
+         * @see nextapp.echo.webcontainer.ApplicationWebSocket.Connection#isOpen()
+         */
+        public boolean isOpen() {
+            return true;
+        }
+        
+        /**
+         * @see nextapp.echo.webcontainer.ApplicationWebSocket.Connection#sendMessage(java.lang.String)
+         */
+        public void sendMessage(String string) throws IOException {
+            sentMessages.add(string);
+        }
+    }
+    
+    /**
+     * Creates a proxy implementing the specified servlet API interface, returning values from the specified map 
+     * keyed by method name, or null.
+     * 
+     * @param type the interface
+     * @param values map between method names and return values
+     * @return the proxy
+     */
+    private static Object createProxy(Class type, final Map values) {
+        return Proxy.newProxyInstance(WebSocketSynchronizationTest.class.getClassLoader(), new Class[] { type }, 
+                new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ("equals".equals(method.getName())) {
+                    return Boolean.valueOf(proxy == args[0]);
+                } else if ("hashCode".equals(method.getName())) {
+                    return new Integer(System.identityHashCode(proxy));
+                }
+                Object value = values.get(method.getName());
+                if (value instanceof InvocationHandler) {
+                    try {
+                        return ((InvocationHandler) value).invoke(proxy, method, args);
+                    } catch (Throwable ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+                if (value == null && method.getReturnType() == Boolean.TYPE) {
+                    return Boolean.FALSE;
+                }
+                return value;
+            }
+        });
+    }
+    
+    /** The test servlet. */
+    private TestServlet servlet;
+    
+    /** The <code>ApplicationWebSocket</code> created by the handler. */
+    private TestWebSocket webSocket;
+    
+    /** The connection of the socket. */
+    private TestConnection connection;
+    
+    /** The <code>HttpServletRequest</code> which established the WebSocket. */
+    private HttpServletRequest request;
+
+    /** The saved value of <code>ServerConfiguration.SYNC_WEBSOCKET_ENABLED</code>. */
+    private boolean savedWebSocketEnabled;
+    
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    public void setUp() 
+    throws Exception {
+        savedWebSocketEnabled = ServerConfiguration.SYNC_WEBSOCKET_ENABLED;
+        ServerConfiguration.SYNC_WEBSOCKET_ENABLED = true;
+        
+        final Map sessionAttributes = new HashMap();
+        Map sessionValues = new HashMap();
+        sessionValues.put("getAttribute", new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return sessionAttributes.get(args[0]);
+            }
+        });
+        sessionValues.put("setAttribute", new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                sessionAttributes.put(args[0], args[1]);
+                return null;
+            }
+        });
+        final HttpSession session = (HttpSession) createProxy(HttpSession.class, sessionValues);
+        
+        Map requestValues = new HashMap();
+        requestValues.put("getSession", session);
+        requestValues.put("getRequestURI", "/app");
+        requestValues.put("getRequestURL", new StringBuffer("http://localhost/app"));
+        requestValues.put("getRemoteHost", "localhost");
+        requestValues.put("getParameterMap", Collections.EMPTY_MAP);
+        requestValues.put("getLocales", new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return Collections.enumeration(Collections.singletonList(Locale.US));
+            }
+        });
+        requestValues.put("isUserInRole", Boolean.TRUE);
+        request = (HttpServletRequest) createProxy(HttpServletRequest.class, requestValues);
+        
+        webSocket = new TestWebSocket();
+        WebSocketConnectionHandler handler = new WebSocketConnectionHandler() {
+            public ApplicationWebSocket newApplicationWebSocket(ApplicationInstance applicationInstance) {
+                return webSocket;
+            }
+        };
+        servlet = new TestServlet(handler);
+        
+        // Create the user instance as is done by the initial HTTP request for the window page.
+        HttpServletResponse response = (HttpServletResponse) createProxy(HttpServletResponse.class, new HashMap());
+        Connection httpConnection = new Connection(servlet, request, response);
+        UserInstanceContainer.newInstance(httpConnection).loadUserInstance(null, null);
+        
+        // Establish the socket.
+        assertSame(webSocket, handler.process(servlet, request, null));
+        connection = new TestConnection();
+        webSocket.processOpen(connection);
+    }
+    
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    public void tearDown() {
+        ServerConfiguration.SYNC_WEBSOCKET_ENABLED = savedWebSocketEnabled;
+    }
+    
+    /**
+     * Test that the initial and subsequent synchronizations are performed over the socket.
+     */
+    public void testSynchronization() {
+        webSocket.processMessage("<cmsg xmlns=\"http://www.nextapp.com/products/echo/svrmsg/clientmessage.3.0\" "
+                + "t=\"init\" i=\"0\" wid=\"a_0\"/>");
+        assertEquals(1, connection.sentMessages.size());
+        String serverMessage = (String) connection.sentMessages.get(0);
+        assertTrue(serverMessage, serverMessage.indexOf("<smsg") != -1);
+        assertTrue(serverMessage, serverMessage.indexOf("WebSocket Label") != -1);
+        // Synchronization over the socket is advertised independent of server push.
+        assertTrue(serverMessage, serverMessage.indexOf("ws-sync=\"true\"") != -1);
+        assertTrue(serverMessage, serverMessage.indexOf("async-interval") == -1);
+        
+        webSocket.processMessage("<cmsg xmlns=\"http://www.nextapp.com/products/echo/svrmsg/clientmessage.3.0\" "
+                + "i=\"1\" wid=\"a_0\"/>");
+        assertEquals(2, connection.sentMessages.size());
+        serverMessage = (String) connection.sentMessages.get(1);
+        assertTrue(serverMessage, serverMessage.indexOf("<smsg") != -1);
+        assertTrue(serverMessage, serverMessage.indexOf("WebSocket Label") == -1);
+    }
+    
+    /**
+     * Test that the handshake request is not retained by the connection used to process synchronizations.
+     */
+    public void testDetachedRequest() {
+        WebSocketConnection conn = webSocket.getWebSocketConnection();
+        assertNull(conn.getRequest());
+        assertNotNull(conn.getSession());
+        assertEquals("http://localhost/app", conn.getRequestUrl());
+        assertEquals(Locale.US, conn.getLocales()[0]);
+        assertFalse(conn.isUserInRole("admin"));
+    }
+    
+    /**
+     * Test that an error message is sent in response to an invalid client message.
+     */
+    public void testInvalidMessage() {
+        webSocket.processMessage("<invalid");
+        assertEquals(1, connection.sentMessages.size());
+        assertTrue(((String) connection.sentMessages.get(0)).startsWith("Server Exception. ID: "));
+    }
+}
@@ -0,0 +1,302 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+
+package nextapp.echo.webcontainer;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import nextapp.echo.app.ApplicationInstance;
+import nextapp.echo.app.ContentPane;
+import nextapp.echo.app.Label;
+import nextapp.echo.app.Window;
+import nextapp.echo.webcontainer.service.WindowHtmlService;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the HTML page rendered by <code>nextapp.echo.webcontainer.service.WindowHtmlService</code>.
+ * Located in the <code>nextapp.echo.webcontainer</code> package as requests are processed using package-private
+ * methods.
+ */
+public class WindowHtmlServiceTest extends TestCase {
+    
+    /** Text of the displayed <code>Label</code>, containing markup-significant characters. */
+    private static final String LABEL_TEXT = "Embedded </script> & Label";
+    
+    /** Pattern matching the arguments of the <code>Echo.Boot.bootEmbedded()</code> invocation. */
+    private static final Pattern BOOT_EMBEDDED_PATTERN 
+            = Pattern.compile("Echo\\.Boot\\.bootEmbedded\\('/app', false, '([^']*)', '([^']*)'\\);");
+    
+    /** Pattern matching window identifiers. */
+    private static final Pattern WINDOW_ID_PATTERN = Pattern.compile("[0-9a-f]+\\.[0-9a-f]+");
+    
+    /**
+     * Test <code>ApplicationInstance</code> displaying a single <code>Label</code>.
+     */
+    public static class TestApp extends ApplicationInstance {
+        
+        /**
+         * @see nextapp.echo.app.ApplicationInstance#init()
+         */
+        public Window init() {
+            Window window = new Window(this);
+            ContentPane content = new ContentPane();
+            content.add(new Label(LABEL_TEXT));
+            window.setContent(content);
+            return window;
+        }
+    }
+    
+    /**
+     * Test servlet, which does not require a servlet container.
+     */
+    private static class TestServlet extends WebContainerServlet {
+
+        /**
+         * @see javax.servlet.GenericServlet#getServletName()
+         */
+        public String getServletName() {
+            return "TestServlet";
+        }
+        
+        /**
+         * @see nextapp.echo.webcontainer.WebContainerServlet#newApplicationInstance()
+         */
+        public ApplicationInstance newApplicationInstance() {
+            return new TestApp();
+        }
+    }
+    
+    /**
+     * Creates a proxy implementing the specified servlet API interface, returning values from the specified map 
+     * keyed by method name, or null.
+     * 
+     * @param type the interface
+     * @param values map between method names and return values
+     * @return the proxy
+     */
+    private static Object createProxy(Class type, final Map values) {
+        return Proxy.newProxyInstance(WindowHtmlServiceTest.class.getClassLoader(), new Class[] { type }, 
+                new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ("equals".equals(method.getName())) {
+                    return Boolean.valueOf(proxy == args[0]);
+                } else if ("hashCode".equals(method.getName())) {
+                    return new Integer(System.identityHashCode(proxy));
+                }
+                Object value = values.get(method.getName());
+                if (value instanceof InvocationHandler) {
+                    try {
+                        return ((InvocationHandler) value).invoke(proxy, method, args);
+                    } catch (Throwable ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+                if (value == null && method.getReturnType() == Boolean.TYPE) {
+                    return Boolean.FALSE;
+                }
+                return value;
+            }
+        });
+    }
+    
+    /** The saved value of <code>ServerConfiguration.WINDOW_EMBED_INITIAL_MESSAGE</code>. */
+    private boolean savedEmbedInitialMessage;
+    
+    /** The saved value of <code>ServerConfiguration.SYNC_JSON_ENABLED</code>. */
+    private boolean savedJsonEnabled;
+    
+    /** The saved network outage message of the <code>WindowHtmlService</code>. */
+    private String savedNetworkOutageMsg;
+    
+    /**
+     * Renders the HTML page in response to a request for a new application.
+     * 
+     * @return the rendered page
+     */
+    private String renderPage() 
+    throws Exception {
+        final Map sessionAttributes = new HashMap();
+        Map sessionValues = new HashMap();
+        sessionValues.put("getAttribute", new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return sessionAttributes.get(args[0]);
+            }
+        });
+        sessionValues.put("setAttribute", new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                sessionAttributes.put(args[0], args[1]);
+                return null;
+            }
+        });
+        final HttpSession session = (HttpSession) createProxy(HttpSession.class, sessionValues);
+        
+        Map requestValues = new HashMap();
+        requestValues.put("getSession", new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                // Emulate a new session: no session exists until one is created.
+                return sessionAttributes.isEmpty() && (args == null || !((Boolean) args[0]).booleanValue()) 
+                        ? null : session;
+            }
+        });
+        requestValues.put("getRequestURI", "/app");
+        requestValues.put("getRequestURL", new StringBuffer("http://localhost/app"));
+        requestValues.put("getRemoteHost", "localhost");
+        requestValues.put("getParameterMap", Collections.EMPTY_MAP);
+        requestValues.put("getHeader", new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return "User-Agent".equals(args[0]) ? "Mozilla/5.0 (Test)" : null;
+            }
+        });
+        requestValues.put("getLocales", new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return Collections.enumeration(Collections.singletonList(Locale.US));
+            }
+        });
+        HttpServletRequest request = (HttpServletRequest) createProxy(HttpServletRequest.class, requestValues);
+
+        StringWriter out = new StringWriter();
+        Map responseValues = new HashMap();
+        responseValues.put("getWriter", new PrintWriter(out));
+        HttpServletResponse response = (HttpServletResponse) createProxy(HttpServletResponse.class, responseValues);
+        
+        new TestServlet().process(request, response);
+        response.getWriter().flush();
+        return out.toString();
+    }
+    
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    public void setUp() {
+        savedEmbedInitialMessage = ServerConfiguration.WINDOW_EMBED_INITIAL_MESSAGE;
+        savedJsonEnabled = ServerConfiguration.SYNC_JSON_ENABLED;
+        savedNetworkOutageMsg = WindowHtmlService.INSTANCE.getNetworkOutageMsg();
+    }
+    
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    public void tearDown() {
+        ServerConfiguration.WINDOW_EMBED_INITIAL_MESSAGE = savedEmbedInitialMessage;
+        ServerConfiguration.SYNC_JSON_ENABLED = savedJsonEnabled;
+        WindowHtmlService.INSTANCE.setNetworkOutageMsg(savedNetworkOutageMsg);
+    }
+    
+    /**
+     * Test that the initial server message is rendered in JSON form and embedded in the page, along with the
+     * window identifiers created for the client.
+     */
+    public void testEmbeddedInitialMessage() 
+    throws Exception {
+        ServerConfiguration.WINDOW_EMBED_INITIAL_MESSAGE = true;
+        ServerConfiguration.SYNC_JSON_ENABLED = true;
+        String page = renderPage();
+        
+        Matcher bootMatcher = BOOT_EMBEDDED_PATTERN.matcher(page);
+        assertTrue(page, bootMatcher.find());
+        String clientWindowId = bootMatcher.group(1);
+        String appWindowId = bootMatcher.group(2);
+        assertTrue(clientWindowId, WINDOW_ID_PATTERN.matcher(clientWindowId).matches());
+        assertTrue(appWindowId, WINDOW_ID_PATTERN.matcher(appWindowId).matches());
+        assertFalse(clientWindowId.equals(appWindowId));
+        
+        int scriptStart = page.indexOf("Echo.Boot.initialServerMessage = [\"smsg\"");
+        assertTrue(page, scriptStart != -1);
+        int scriptEnd = page.indexOf("</script>", scriptStart);
+        assertTrue(page, scriptEnd != -1);
+        String script = page.substring(scriptStart, scriptEnd);
+        
+        // The label text is present, with markup-significant characters escaped as JSON unicode escapes.
+        assertTrue(script, script.indexOf("Embedded \\u003c/script\\u003e \\u0026 Label") != -1);
+        assertEquals(-1, script.indexOf('<'));
+        assertEquals(-1, script.indexOf('&'));
+        assertTrue(script.endsWith("];"));
+    }
+    
+    /**
+     * Test that the initial server message is not embedded unless JSON server messages are enabled.
+     */
+    public void testEmbeddedInitialMessageRequiresJson() 
+    throws Exception {
+        ServerConfiguration.WINDOW_EMBED_INITIAL_MESSAGE = true;
+        ServerConfiguration.SYNC_JSON_ENABLED = false;
+        String page = renderPage();
+        assertTrue(page, page.indexOf("Echo.Boot.boot('/app', '") != -1);
+        assertEquals(page, -1, page.indexOf("initialServerMessage"));
+        assertEquals(page, -1, page.indexOf("bootEmbedded"));
+    }
+    
+    /**
+     * Test the rendered page: the static template content, and per-request content written into its slots, 
+     * including script content, which must be written verbatim.
+     */
+    public void testPage() 
+    throws Exception {
+        ServerConfiguration.WINDOW_EMBED_INITIAL_MESSAGE = false;
+        WindowHtmlService.INSTANCE.setNetworkOutageMsg("Retry & reload </b>\r\ud83d\ude00");
+        String page = renderPage();
+        
+        assertTrue(page, page.startsWith("<!DOCTYPE html PUBLIC \"" 
+                + WindowHtmlService.XHTML_1_0_TRANSITIONAL_PUBLIC_ID + "\""));
+        assertEquals(page, -1, page.indexOf("<?xml"));
+        assertEquals(page, -1, page.indexOf("echo.slot."));
+        assertTrue(page, page.indexOf("<title> </title>") != -1);
+        assertTrue(page, page.indexOf("<script type=\"text/javascript\" src=\"/app?sid=Echo.Boot\"> </script>") != -1);
+        
+        // Script content is written verbatim, other than "</" being written as "<\/".
+        assertTrue(page, page.indexOf("<script type=\"text/javascript\">var networkOutageMsg = "
+                + "\"Retry & reload <\\/b>\r\ud83d\ude00\";</script>") != -1);
+        
+        // The onload attribute invokes the boot script.
+        int onloadStart = page.indexOf("onload=\"");
+        assertTrue(page, onloadStart != -1);
+        String onload = page.substring(onloadStart, page.indexOf('"', onloadStart + 8) + 1);
+        assertTrue(onload, onload.startsWith("onload=\"Echo.Boot.boot('/app', '"));
+        assertTrue(onload, onload.endsWith(", false);\""));
+        
+        assertTrue(page, page.indexOf("<div id=\"approot\" style=\"position:absolute;width:100%;height:100%;\"") != -1
+                || page.indexOf("<div style=\"position:absolute;width:100%;height:100%;\" id=\"approot\"") != -1);
+        assertTrue(page, page.trim().endsWith("</html>"));
+    }
+}
@@ -0,0 +1,107 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+
+package nextapp.echo.webcontainer.service;
+
+import java.io.StringWriter;
+import java.util.Properties;
+
+import javax.xml.transform.OutputKeys;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import nextapp.echo.app.util.DomUtil;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for <code>nextapp.echo.webcontainer.service.WindowHtmlTemplate</code>.
+ * Located in the <code>nextapp.echo.webcontainer.service</code> package as the tested class is package-private.
+ */
+public class WindowHtmlTemplateTest extends TestCase {
+    
+    /** Output properties omitting the XML declaration and indentation. */
+    private static final Properties OUTPUT_PROPERTIES = new Properties();
+    static {
+        OUTPUT_PROPERTIES.setProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+        OUTPUT_PROPERTIES.setProperty(OutputKeys.INDENT, "no");
+    }
+    
+    /**
+     * Creates a template document with an element content slot (0) in the head, an attribute slot (1) on the body,
+     * and an element content slot (2) in the body.
+     * 
+     * @return the document
+     */
+    private static Document createDocument() {
+        Document document = DomUtil.createDocument("html", null, null, WindowHtmlService.XHTML_1_0_NAMESPACE_URI);
+        Element headElement = document.createElement("head");
+        headElement.appendChild(WindowHtmlTemplate.createSlot(document, 0));
+        document.getDocumentElement().appendChild(headElement);
+        Element bodyElement = document.createElement("body");
+        bodyElement.setAttribute("onload", WindowHtmlTemplate.getSlotMarker(1));
+        bodyElement.appendChild(document.createTextNode("a & b"));
+        bodyElement.appendChild(WindowHtmlTemplate.createSlot(document, 2));
+        document.getDocumentElement().appendChild(bodyElement);
+        return document;
+    }
+    
+    /**
+     * Test that an invalid slot number is rejected.
+     */
+    public void testInvalidSlot() 
+    throws Exception {
+        try {
+            new WindowHtmlTemplate(createDocument(), OUTPUT_PROPERTIES, 2);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // Expected.
+        }
+    }
+    
+    /**
+     * Test that slot content is written verbatim in place of the slot markers, and that static content is escaped.
+     */
+    public void testWrite() 
+    throws Exception {
+        WindowHtmlTemplate template = new WindowHtmlTemplate(createDocument(), OUTPUT_PROPERTIES, 3);
+        StringWriter w = new StringWriter();
+        template.write(w, new String[] { "<script>var a = 1 < 2 && \"\ud83d\ude00\";</script>", "boot(&quot;x&quot;);", 
+                "<div id=\"root\"></div>" });
+        assertEquals("<html xmlns=\"http://www.w3.org/1999/xhtml\"><head><script>var a = 1 < 2 && \"\ud83d\ude00\";</script></head>"
+                + "<body onload=\"boot(&quot;x&quot;);\">a &amp; b<div id=\"root\"></div></body></html>", 
+                w.toString().trim());
+        
+        // The template may be reused; null slot values are rendered as empty.
+        w = new StringWriter();
+        template.write(w, new String[3]);
+        assertEquals("<html xmlns=\"http://www.w3.org/1999/xhtml\"><head></head><body onload=\"\">a &amp; b</body></html>", w.toString().trim());
+    }
+}
@@ -0,0 +1,276 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+
+package nextapp.echo.webcontainer.sync.component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import nextapp.echo.app.ListBox;
+import nextapp.echo.app.event.ListDataEvent;
+import nextapp.echo.app.list.AbstractListModel;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for the incremental list data updates of <code>AbstractListComponentPeer</code>.
+ * Located in the <code>nextapp.echo.webcontainer.sync.component</code> package as the tested method is 
+ * package-private.
+ */
+public class AbstractListComponentPeerTest extends TestCase {
+    
+    /**
+     * <code>ListModel</code> implementation supporting insertion, removal, and replacement of ranges of items.
+     */
+    private static class TestListModel extends AbstractListModel {
+        
+        /** The items. */
+        private List items = new ArrayList();
+        
+        /** Counter used to generate distinct item values. */
+        private int nextItem = 0;
+        
+        /**
+         * Inserts new items.
+         * 
+         * @param index the index at which to insert the items
+         * @param count the number of items to insert
+         */
+        public void add(int index, int count) {
+            for (int i = 0; i < count; ++i) {
+                items.add(index + i, "item" + nextItem++);
+            }
+            fireIntervalAdded(index, index + count - 1);
+        }
+        
+        /**
+         * Replaces existing items with new items.
+         * 
+         * @param index the index of the first item to replace
+         * @param count the number of items to replace
+         */
+        public void change(int index, int count) {
+            for (int i = 0; i < count; ++i) {
+                items.set(index + i, "item" + nextItem++);
+            }
+            fireContentsChanged(index, index + count - 1);
+        }
+        
+        /**
+         * @see nextapp.echo.app.list.ListModel#get(int)
+         */
+        public Object get(int index) {
+            return items.get(index);
+        }
+        
+        /**
+         * Removes existing items.
+         * 
+         * @param index the index of the first item to remove
+         * @param count the number of items to remove
+         */
+        public void remove(int index, int count) {
+            for (int i = 0; i < count; ++i) {
+                items.remove(index);
+            }
+            fireIntervalRemoved(index, index + count - 1);
+        }
+        
+        /**
+         * @see nextapp.echo.app.list.ListModel#size()
+         */
+        public int size() {
+            return items.size();
+        }
+    }
+    
+    /** The test model. */
+    private TestListModel model;
+    
+    /** A list component displaying the test model. */
+    private ListBox listBox;
+    
+    /** The items of the model at the time it was last "rendered". */
+    private List renderedItems;
+    
+    /** The list data event count of the list component at the time the model was last "rendered". */
+    private int renderedEventCount;
+    
+    /**
+     * Applies the delta computed for the events received by the list component since the model was last "rendered"
+     * to the rendered items, and verifies that the result is identical to the current state of the model.
+     */
+    private void assertDelta() {
+        ListDataEvent[] events = listBox.getListDataEvents(renderedEventCount);
+        int[] delta = AbstractListComponentPeer.createListDataDelta(events, model.size());
+        assertNotNull(delta);
+        assertTrue(delta[0] >= 0);
+        assertTrue(delta[1] >= 0);
+        assertTrue(delta[2] >= 0);
+        
+        List spliced = new ArrayList(renderedItems);
+        for (int i = 0; i < delta[1]; ++i) {
+            spliced.remove(delta[0]);
+        }
+        for (int i = 0; i < delta[2]; ++i) {
+            spliced.add(delta[0] + i, model.get(delta[0] + i));
+        }
+        assertEquals(model.items, spliced);
+        
+        render();
+    }
+    
+    /**
+     * Records the current state of the model as rendered.
+     */
+    private void render() {
+        renderedItems = new ArrayList(model.items);
+        renderedEventCount = listBox.getListDataEventCount();
+    }
+    
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    public void setUp() {
+        model = new TestListModel();
+        model.add(0, 10);
+        listBox = new ListBox(model);
+        render();
+    }
+    
+    /**
+     * Test addition of items.
+     */
+    public void testAdd() {
+        model.add(0, 2);
+        assertDelta();
+        model.add(12, 1);
+        assertDelta();
+        model.add(5, 3);
+        model.add(4, 1);
+        model.add(16, 1);
+        assertDelta();
+    }
+    
+    /**
+     * Test replacement of items.
+     */
+    public void testChange() {
+        model.change(3, 2);
+        assertDelta();
+        model.change(9, 1);
+        model.change(0, 1);
+        assertDelta();
+    }
+    
+    /**
+     * Test that a delta cannot be computed for events which are inconsistent with the model.
+     */
+    public void testInvalidEvents() {
+        ListDataEvent[] events = new ListDataEvent[] { 
+                new ListDataEvent(model, ListDataEvent.INTERVAL_ADDED, 12, 12) };
+        assertNull(AbstractListComponentPeer.createListDataDelta(events, 10));
+        events = new ListDataEvent[] { 
+                new ListDataEvent(model, ListDataEvent.CONTENTS_CHANGED, 5, 10) };
+        assertNull(AbstractListComponentPeer.createListDataDelta(events, 10));
+    }
+    
+    /**
+     * Test mixed sequences of additions, removals, and replacements.
+     */
+    public void testMixed() {
+        model.add(2, 3);
+        model.remove(0, 4);
+        model.change(5, 2);
+        assertDelta();
+        model.remove(8, 1);
+        model.add(0, 1);
+        assertDelta();
+        model.change(1, 1);
+        model.remove(1, 1);
+        model.add(1, 1);
+        assertDelta();
+        model.remove(0, model.size());
+        assertDelta();
+        model.add(0, 4);
+        model.remove(1, 2);
+        assertDelta();
+    }
+    
+    /**
+     * Test that an empty delta is computed when the model has not changed.
+     */
+    public void testNoChanges() {
+        int[] delta = AbstractListComponentPeer.createListDataDelta(new ListDataEvent[0], model.size());
+        assertEquals(0, delta[1]);
+        assertEquals(0, delta[2]);
+    }
+    
+    /**
+     * Test random sequences of additions, removals, and replacements.
+     */
+    public void testRandom() {
+        Random random = new Random(20090101L);
+        for (int iteration = 0; iteration < 500; ++iteration) {
+            int eventCount = 1 + random.nextInt(8);
+            for (int i = 0; i < eventCount; ++i) {
+                int size = model.size();
+                int operation = size == 0 ? 0 : random.nextInt(3);
+                switch (operation) {
+                case 0:
+                    model.add(random.nextInt(size + 1), 1 + random.nextInt(3));
+                    break;
+                case 1:
+                    int index = random.nextInt(size);
+                    model.remove(index, 1 + random.nextInt(Math.min(3, size - index)));
+                    break;
+                default:
+                    index = random.nextInt(size);
+                    model.change(index, 1 + random.nextInt(Math.min(3, size - index)));
+                }
+            }
+            assertDelta();
+        }
+    }
+    
+    /**
+     * Test removal of items.
+     */
+    public void testRemove() {
+        model.remove(0, 2);
+        assertDelta();
+        model.remove(7, 1);
+        assertDelta();
+        model.remove(2, 1);
+        model.remove(3, 2);
+        model.remove(0, 1);
+        assertDelta();
+    }
+}
@@ -0,0 +1,175 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+
+package nextapp.echo.webcontainer.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import junit.framework.TestCase;
+import nextapp.echo.webcontainer.util.CompressingWriter;
+
+/**
+ * Unit test for <code>nextapp.echo.webcontainer.util.CompressingWriter</code>.
+ */
+public class CompressingWriterTest extends TestCase {
+    
+    /** Text containing characters which are encoded as multiple bytes in UTF-8. */
+    private static final String TEXT = "<smsg>\u00e4\u00f6\u00fc \u20ac \u3042</smsg>";
+    
+    /** Headers set on the response. */
+    private Map headers;
+    
+    /** Output written to the response <code>Writer</code>. */
+    private StringWriter writerOutput;
+    
+    /** Output written to the response <code>OutputStream</code>. */
+    private ByteArrayOutputStream streamOutput;
+    
+    /** The response. */
+    private HttpServletResponse response;
+    
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    public void setUp() {
+        headers = new HashMap();
+        writerOutput = new StringWriter();
+        streamOutput = new ByteArrayOutputStream();
+        final PrintWriter printWriter = new PrintWriter(writerOutput);
+        final ServletOutputStream servletOutputStream = new ServletOutputStream() {
+            public void write(int b) {
+                streamOutput.write(b);
+            }
+        };
+        response = (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(), 
+                new Class[] { HttpServletResponse.class }, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ("getWriter".equals(method.getName())) {
+                    return printWriter;
+                } else if ("getOutputStream".equals(method.getName())) {
+                    return servletOutputStream;
+                } else if ("setHeader".equals(method.getName()) || "addHeader".equals(method.getName())) {
+                    headers.put(args[0], args[1]);
+                }
+                return null;
+            }
+        });
+    }
+    
+    /**
+     * Decompresses the GZip-compressed response output.
+     * 
+     * @return the decompressed output
+     */
+    private String decompress() 
+    throws IOException {
+        Reader in = new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(streamOutput.toByteArray())), 
+                "UTF-8");
+        StringBuffer out = new StringBuffer();
+        int ch;
+        while ((ch = in.read()) != -1) {
+            out.append((char) ch);
+        }
+        in.close();
+        return out.toString();
+    }
+    
+    /**
+     * Test that output exceeding the threshold is compressed, and decompresses to the written text.
+     */
+    public void testAboveThreshold() 
+    throws IOException {
+        CompressingWriter writer = new CompressingWriter(response, "UTF-8", 8, -1);
+        writer.write(TEXT.substring(0, 4));
+        writer.write(TEXT.charAt(4));
+        writer.write(TEXT.toCharArray(), 5, TEXT.length() - 5);
+        writer.close();
+        
+        assertEquals("gzip", headers.get("Content-Encoding"));
+        assertEquals("Accept-Encoding", headers.get("Vary"));
+        assertEquals("", writerOutput.toString());
+        assertEquals(TEXT, decompress());
+    }
+    
+    /**
+     * Test that output not exceeding the threshold is written uncompressed, without a <code>Content-Encoding</code>.
+     */
+    public void testBelowThreshold() 
+    throws IOException {
+        CompressingWriter writer = new CompressingWriter(response, "UTF-8", TEXT.length(), -1);
+        writer.write(TEXT.substring(0, 4));
+        writer.write(TEXT.charAt(4));
+        writer.write(TEXT.toCharArray(), 5, TEXT.length() - 5);
+        writer.flush();
+        assertEquals("", writerOutput.toString());
+        writer.close();
+        
+        assertNull(headers.get("Content-Encoding"));
+        assertEquals(TEXT, writerOutput.toString());
+        assertEquals(0, streamOutput.size());
+    }
+    
+    /**
+     * Test successive compressed responses on one thread (reusing its <code>Deflater</code>) with differing
+     * compression levels, including output much larger than the compressor's buffer.
+     */
+    public void testRepeatedCompression() 
+    throws IOException {
+        StringBuffer text = new StringBuffer();
+        for (int i = 0; i < 5000; ++i) {
+            text.append(i);
+            text.append(TEXT);
+        }
+        int[] levels = new int[] { 9, 0, -1 };
+        for (int i = 0; i < levels.length; ++i) {
+            setUp();
+            CompressingWriter writer = new CompressingWriter(response, "UTF-8", 100, levels[i]);
+            writer.write(text.toString());
+            writer.close();
+            assertEquals("gzip", headers.get("Content-Encoding"));
+            assertEquals(text.toString(), decompress());
+        }
+    }
+}
@@ -0,0 +1,321 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+package nextapp.echo.webcontainer.test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import nextapp.echo.app.util.DomUtil;
+import nextapp.echo.webcontainer.util.JsonDomWriter;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for <code>nextapp.echo.webcontainer.util.JsonDomWriter</code>. 
+ */
+public class JsonDomWriterTest extends TestCase {
+    
+    /**
+     * Minimal reader of the JSON subset produced by <code>JsonDomWriter</code>: arrays, objects, and strings.
+     * Arrays are read as <code>List</code>s, objects as <code>Map</code>s.
+     */
+    private static class JsonReader {
+        
+        /** The JSON text. */
+        private String text;
+        
+        /** The current position. */
+        private int position = 0;
+        
+        /**
+         * Creates a new <code>JsonReader</code>.
+         * 
+         * @param text the JSON text
+         */
+        JsonReader(String text) {
+            this.text = text;
+        }
+        
+        /**
+         * Reads the value at the current position.
+         * 
+         * @return the value
+         */
+        Object readValue() {
+            char ch = text.charAt(position);
+            switch (ch) {
+            case '[':
+                List list = new ArrayList();
+                ++position;
+                while (text.charAt(position) != ']') {
+                    if (!list.isEmpty()) {
+                        expect(',');
+                    }
+                    list.add(readValue());
+                }
+                ++position;
+                return list;
+            case '{':
+                Map map = new LinkedHashMap();
+                ++position;
+                while (text.charAt(position) != '}') {
+                    if (!map.isEmpty()) {
+                        expect(',');
+                    }
+                    String name = readString();
+                    expect(':');
+                    map.put(name, readString());
+                }
+                ++position;
+                return map;
+            case '"':
+                return readString();
+            default:
+                throw new IllegalArgumentException("Unexpected character at " + position + ": " + ch);
+            }
+        }
+        
+        /**
+         * Reads a string literal at the current position.
+         * 
+         * @return the string value
+         */
+        private String readString() {
+            expect('"');
+            StringBuffer out = new StringBuffer();
+            char ch;
+            while ((ch = text.charAt(position++)) != '"') {
+                if (ch < 0x20 || ch == '<' || ch == '>' || ch == '&' || ch == 0x2028 || ch == 0x2029) {
+                    throw new IllegalArgumentException("Unescaped character at " + (position - 1) + ": " + (int) ch);
+                }
+                if (ch != '\\') {
+                    out.append(ch);
+                    continue;
+                }
+                ch = text.charAt(position++);
+                switch (ch) {
+                case 'n':
+                    out.append('\n');
+                    break;
+                case 'r':
+                    out.append('\r');
+                    break;
+                case 't':
+                    out.append('\t');
+                    break;
+                case 'u':
+                    out.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    position += 4;
+                    break;
+                default:
+                    out.append(ch);
+                }
+            }
+            return out.toString();
+        }
+        
+        /**
+         * Verifies and skips the character at the current position.
+         * 
+         * @param ch the expected character
+         */
+        private void expect(char ch) {
+            if (text.charAt(position) != ch) {
+                throw new IllegalArgumentException("Expected " + ch + " at " + position);
+            }
+            ++position;
+        }
+    }
+    
+    /**
+     * Asserts that a node read from JSON output is equivalent to the written DOM node.  Comments and empty text
+     * nodes of the written DOM are not rendered, and CDATA sections are rendered as text.
+     * 
+     * @param element the written DOM element
+     * @param value the element read from the JSON output
+     */
+    private static void assertEquivalent(Element element, Object value) {
+        List list = (List) value;
+        assertEquals(element.getNodeName(), list.get(0));
+        int index = 1;
+        if (element.getAttributes().getLength() > 0) {
+            Map attributes = (Map) list.get(index++);
+            assertEquals(element.getAttributes().getLength(), attributes.size());
+            Iterator it = attributes.keySet().iterator();
+            while (it.hasNext()) {
+                String name = (String) it.next();
+                assertTrue(element.hasAttribute(name));
+                assertEquals(element.getAttribute(name), attributes.get(name));
+            }
+        }
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            switch (child.getNodeType()) {
+            case Node.ELEMENT_NODE:
+                assertEquivalent((Element) child, list.get(index++));
+                break;
+            case Node.TEXT_NODE:
+            case Node.CDATA_SECTION_NODE:
+                if (child.getNodeValue().length() > 0) {
+                    assertEquals(child.getNodeValue(), list.get(index++));
+                }
+                break;
+            }
+        }
+        assertEquals(list.size(), index);
+    }
+    
+    /**
+     * Writes a document as JSON, reads the output, and verifies that it is equivalent to the document.
+     * 
+     * @param document the document
+     */
+    private static void assertRoundTrip(Document document) 
+    throws IOException {
+        StringWriter w = new StringWriter();
+        JsonDomWriter.write(document, w);
+        JsonReader reader = new JsonReader(w.toString());
+        assertEquivalent(document.getDocumentElement(), reader.readValue());
+        assertEquals(w.toString().length(), reader.position);
+    }
+    
+    /**
+     * Test escaping of attribute names and values.
+     */
+    public void testAttributeEscaping() 
+    throws IOException {
+        Document document = DomUtil.createDocument("smsg", null, null, null);
+        Element element = document.getDocumentElement();
+        element.setAttribute("q", "\"quoted\" 'single'");
+        element.setAttribute("b", "back\\slash");
+        element.setAttribute("c", "tab\tcr\rlf\n\u001f\u2029");
+        
+        StringWriter w = new StringWriter();
+        JsonDomWriter.write(document, w);
+        String json = w.toString();
+        assertTrue(json, json.indexOf("\"q\":\"\\\"quoted\\\" 'single'\"") != -1);
+        assertTrue(json, json.indexOf("\"b\":\"back\\\\slash\"") != -1);
+        assertTrue(json, json.indexOf("\"c\":\"tab\\tcr\\rlf\\n\\u001f\\u2029\"") != -1);
+        assertRoundTrip(document);
+    }
+    
+    /**
+     * Test round trip of nested elements with mixed content.
+     */
+    public void testMixedContentRoundTrip() 
+    throws IOException {
+        Document document = DomUtil.createDocument("smsg", null, null, null);
+        Element root = document.getDocumentElement();
+        root.setAttribute("i", "1");
+        root.appendChild(document.createTextNode("leading "));
+        Element group = document.createElement("group");
+        group.setAttribute("i", "update");
+        root.appendChild(group);
+        root.appendChild(document.createTextNode(" trailing"));
+        
+        Element p = document.createElement("p");
+        p.setAttribute("n", "text");
+        p.appendChild(document.createTextNode("one"));
+        p.appendChild(document.createComment("not rendered"));
+        p.appendChild(document.createTextNode(""));
+        p.appendChild(document.createCDATASection("<two> & \"three\""));
+        Element nested = document.createElement("b");
+        nested.appendChild(document.createTextNode("bold"));
+        nested.appendChild(document.createElement("empty"));
+        p.appendChild(nested);
+        p.appendChild(document.createTextNode("\u00e9\uD83D\uDE00\u0000"));
+        group.appendChild(p);
+        
+        Element deep = group;
+        for (int i = 0; i < 20; ++i) {
+            Element child = document.createElement("d");
+            child.setAttribute("level", Integer.toString(i));
+            deep.appendChild(child);
+            deep = child;
+        }
+        deep.appendChild(document.createTextNode("bottom"));
+        
+        assertRoundTrip(document);
+    }
+    
+    /**
+     * Test escaping of text content.
+     */
+    public void testTextEscaping() 
+    throws IOException {
+        Document document = DomUtil.createDocument("smsg", null, null, null);
+        document.getDocumentElement().appendChild(document.createTextNode("\t\r\u0000\u001f /\\\"</script>"));
+        
+        StringWriter w = new StringWriter();
+        JsonDomWriter.write(document, w);
+        assertEquals("[\"smsg\",\"\\t\\r\\u0000\\u001f /\\\\\\\"\\u003c/script\\u003e\"]", w.toString());
+        assertRoundTrip(document);
+    }
+    
+    public void testWrite() 
+    throws IOException {
+        Document document = DomUtil.createDocument("smsg", null, null, null);
+        Element groupElement = document.createElement("group");
+        document.getDocumentElement().appendChild(groupElement);
+        Element pElement = document.createElement("p");
+        pElement.setAttribute("n", "text");
+        pElement.appendChild(document.createTextNode("a\"b\\c\n\u0001\u2028"));
+        groupElement.appendChild(pElement);
+        groupElement.appendChild(document.createElement("empty"));
+        
+        StringWriter w = new StringWriter();
+        JsonDomWriter.write(document, w);
+        assertEquals("[\"smsg\",[\"group\",[\"p\",{\"n\":\"text\"},\"a\\\"b\\\\c\\n\\u0001\\u2028\"],[\"empty\"]]]", 
+                w.toString());
+    }
+    
+    /**
+     * Test that output may be embedded in an HTML script element: markup characters are escaped and
+     * non-ASCII characters are written unescaped.
+     */
+    public void testWriteMarkupCharacters() 
+    throws IOException {
+        Document document = DomUtil.createDocument("smsg", null, null, null);
+        document.getDocumentElement().setAttribute("t", "</script>&");
+        document.getDocumentElement().appendChild(document.createTextNode("\uD83D\uDE00\u00e9"));
+        
+        StringWriter w = new StringWriter();
+        JsonDomWriter.write(document, w);
+        assertEquals("[\"smsg\",{\"t\":\"\\u003c/script\\u003e\\u0026\"},\"\uD83D\uDE00\u00e9\"]", w.toString());
+    }
+}
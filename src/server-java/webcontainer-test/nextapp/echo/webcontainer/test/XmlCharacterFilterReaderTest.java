@@ -0,0 +1,74 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+package nextapp.echo.webcontainer.test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import nextapp.echo.webcontainer.util.XmlCharacterFilterReader;
+import junit.framework.TestCase;
+
+/**
+ * Unit test for <code>nextapp.echo.webcontainer.util.XmlCharacterFilterReader</code>. 
+ */
+public class XmlCharacterFilterReaderTest extends TestCase {
+    
+    private static String readFully(Reader reader, int bufferSize) 
+    throws IOException {
+        StringBuffer out = new StringBuffer();
+        char[] buffer = new char[bufferSize];
+        int charsRead;
+        while ((charsRead = reader.read(buffer, 0, bufferSize)) != -1) {
+            out.append(buffer, 0, charsRead);
+        }
+        return out.toString();
+    }
+
+    public void testBulkRead() 
+    throws IOException {
+        String in = "<cmsg>\u0000a\tb\u0001\u0002c\r\nd\ufffee\uffff</cmsg>";
+        assertEquals("<cmsg>a\tbc\r\nde</cmsg>", readFully(new XmlCharacterFilterReader(new StringReader(in)), 4096));
+    }
+    
+    public void testInvalidOnlyBuffer() 
+    throws IOException {
+        // A buffer-sized run of invalid characters must not be reported as end of stream.
+        String in = "a\u0001\u0001\u0001\u0001b";
+        assertEquals("ab", readFully(new XmlCharacterFilterReader(new StringReader(in)), 1));
+    }
+    
+    public void testSingleCharacterRead() 
+    throws IOException {
+        Reader reader = new XmlCharacterFilterReader(new StringReader("\u0001x\u0002"));
+        assertEquals('x', reader.read());
+        assertEquals(-1, reader.read());
+    }
+}
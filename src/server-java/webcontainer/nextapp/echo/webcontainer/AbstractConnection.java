@@ -29,9 +29,15 @@
 
 package nextapp.echo.webcontainer;
 
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import javax.servlet.GenericServlet;
+import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
@@ -63,6 +69,38 @@ public abstract class AbstractConnection {
     
     protected Map propertyMap;
     protected String uiid = null;
+    
+    /**
+     * Snapshot of request data, retained in place of the request by connections which outlive their request. 
+     * Null while the request is available.
+     * 
+     * @see #detachRequest()
+     */
+    private RequestSnapshot requestSnapshot;
+    
+    /**
+     * Request data retained by a connection once its request has been detached.
+     */
+    private static class RequestSnapshot {
+        
+        /** The <code>HttpSession</code>. */
+        private HttpSession session;
+        
+        /** The cookies of the request. */
+        private Cookie[] cookies;
+        
+        /** The authenticated user. */
+        private Principal userPrincipal;
+        
+        /** The preferred locales of the client. */
+        private Locale[] locales;
+        
+        /** The remote host name. */
+        private String remoteHost;
+        
+        /** The request URL, excluding query string. */
+        private String requestUrl;
+    }
 
     /**
      * Creates a <code>connection</code> object that will handle the given 
@@ -89,6 +127,50 @@ public abstract class AbstractConnection {
         }
     }
     
+    /**
+     * Creates a <code>connection</code> object which shares the servlet, request, and 
+     * <code>UserInstance</code> of an existing connection.
+     * 
+     * @param source the connection to share state with
+     */
+    protected AbstractConnection(AbstractConnection source) {
+        super();
+        
+        this.servlet = source.servlet;
+        this.request = source.request;
+        this.requestSnapshot = source.requestSnapshot;
+        this.uiid = source.uiid;
+        this.userInstanceContainer = source.userInstanceContainer;
+        this.userInstance = source.userInstance;
+    }
+    
+    /**
+     * Replaces the request of the connection with a snapshot of the request data provided by this class, such that 
+     * the request is no longer referenced.  Connections which outlive their request, e.g., 
+     * <code>WebSocketConnection</code>s, must invoke this method before the request has completed, as the container 
+     * may recycle the request object thereafter.  <code>getRequest()</code> returns null once the request has been
+     * detached.
+     */
+    protected void detachRequest() {
+        if (request == null) {
+            return;
+        }
+        RequestSnapshot snapshot = new RequestSnapshot();
+        snapshot.session = request.getSession(false);
+        snapshot.cookies = request.getCookies();
+        snapshot.userPrincipal = request.getUserPrincipal();
+        List localeList = new ArrayList();
+        Enumeration localeEnum = request.getLocales();
+        while (localeEnum.hasMoreElements()) {
+            localeList.add(localeEnum.nextElement());
+        }
+        snapshot.locales = (Locale[]) localeList.toArray(new Locale[localeList.size()]);
+        snapshot.remoteHost = request.getRemoteHost();
+        snapshot.requestUrl = request.getRequestURL().toString();
+        requestSnapshot = snapshot;
+        request = null;
+    }
+    
     /**
      * Disposes of the <code>UserInstance</code> associated with this 
      * <code>Connection</code>.
@@ -130,17 +212,83 @@ public abstract class AbstractConnection {
         propertyMap.put(key, value);
     }
 
+    /**
+     * Returns the cookies of the request.
+     * 
+     * @return the cookies, or null if the request contained none
+     */
+    public Cookie[] getCookies() {
+        return request == null ? requestSnapshot.cookies : request.getCookies();
+    }
+    
+    /**
+     * Returns the preferred locales of the client, in decreasing order of preference.
+     * 
+     * @return the locales
+     */
+    public Locale[] getLocales() {
+        if (request == null) {
+            return requestSnapshot.locales;
+        }
+        List localeList = new ArrayList();
+        Enumeration localeEnum = request.getLocales();
+        while (localeEnum.hasMoreElements()) {
+            localeList.add(localeEnum.nextElement());
+        }
+        return (Locale[]) localeList.toArray(new Locale[localeList.size()]);
+    }
+    
+    /**
+     * Returns the remote host name of the client.
+     * 
+     * @return the remote host name
+     */
+    public String getRemoteHost() {
+        return request == null ? requestSnapshot.remoteHost : request.getRemoteHost();
+    }
+    
     /**
      * Returns the <code>HttpServletRequest</code> wrapped by this 
      * <code>Connection</code>.
      *
      * @return the <code>HttpServletRequest</code> wrapped by this 
-     *         <code>Connection</code>
+     *         <code>Connection</code>, or null if the request has been detached
+     *         (e.g., for a synchronization performed over a WebSocket)
+     * @see #detachRequest()
      */
     public HttpServletRequest getRequest() {
         return request;
     }
     
+    /**
+     * Returns the URL of the request, excluding the query string.
+     * 
+     * @return the request URL
+     */
+    public String getRequestUrl() {
+        return request == null ? requestSnapshot.requestUrl : request.getRequestURL().toString();
+    }
+    
+    /**
+     * Returns the <code>HttpSession</code> of the request, creating it if necessary (unless the request has been
+     * detached).
+     * 
+     * @return the <code>HttpSession</code>, or null if the request has been detached and no session existed 
+     *         when it was detached
+     */
+    public HttpSession getSession() {
+        return request == null ? requestSnapshot.session : request.getSession();
+    }
+    
+    /**
+     * Returns the authenticated user of the request.
+     * 
+     * @return the authenticated user, or null if the user has not been authenticated
+     */
+    public Principal getUserPrincipal() {
+        return request == null ? requestSnapshot.userPrincipal : request.getUserPrincipal();
+    }
+    
     /**
      * Returns the <code>HttpServlet</code> wrapped by this 
      * <code>Connection</code>.
@@ -169,10 +317,8 @@ public abstract class AbstractConnection {
             return null;
         }
         
-        synchronized(userInstanceContainer) {
-            if (userInstance == null && windowId != null) {
-                userInstance = userInstanceContainer.loadUserInstance(windowId, initId);
-            }
+        if (userInstance == null && windowId != null) {
+            userInstance = userInstanceContainer.loadUserInstance(windowId, initId);
         }
         
         return userInstance;
@@ -182,5 +328,16 @@ public abstract class AbstractConnection {
         return userInstanceContainer;
     }
     
+    /**
+     * Determines whether the authenticated user of the request is included in the specified role.
+     * Role membership cannot be determined once the request has been detached, in which case false is returned.
+     * 
+     * @param role the role name
+     * @return true if the user is included in the role
+     */
+    public boolean isUserInRole(String role) {
+        return request == null ? false : request.isUserInRole(role);
+    }
+    
     protected abstract void storeUiid();
 }
\ No newline at end of file
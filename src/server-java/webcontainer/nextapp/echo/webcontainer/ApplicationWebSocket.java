@@ -52,6 +52,9 @@ public abstract class ApplicationWebSocket {
     
     private Connection conn = null;
     
+    /** The <code>WebSocketConnection</code> which established the socket, used to process synchronizations. */
+    private WebSocketConnection webSocketConnection = null;
+    
     protected final void processOpen(ApplicationWebSocket.Connection connection) {
         if (conn != null && conn.isOpen()) {
             conn.close(SYNC_CLOSE_CODE, "UserInstance open new socket!");
@@ -63,7 +66,42 @@ public abstract class ApplicationWebSocket {
         conn = null;
     }
     
-    final void sendMessage(String message) {
+    /**
+     * Processes a text message received from the client.  Implementations should invoke this method for each
+     * text message received over the socket.  The client sends its client messages over the socket when 
+     * WebSocket synchronization is enabled (see <code>ServerConfiguration.SYNC_WEBSOCKET_ENABLED</code>), in which 
+     * case the synchronization is processed and the resulting server message is sent in response.
+     * 
+     * @param message the received message
+     */
+    protected final void processMessage(String message) {
+        if (webSocketConnection == null) {
+            Log.log("WebSocket message received before socket initialization, ignoring.");
+            return;
+        }
+        WebContainerServlet servlet = (WebContainerServlet) webSocketConnection.getServlet();
+        sendMessage(servlet.processWebSocketSynchronization(webSocketConnection, message));
+    }
+    
+    /**
+     * Sets the <code>WebSocketConnection</code> which established the socket.
+     * 
+     * @param webSocketConnection the <code>WebSocketConnection</code>
+     */
+    final void setWebSocketConnection(WebSocketConnection webSocketConnection) {
+        this.webSocketConnection = webSocketConnection;
+    }
+    
+    /**
+     * Returns the <code>WebSocketConnection</code> which established the socket.
+     * 
+     * @return the <code>WebSocketConnection</code>, or null if the socket has not been initialized
+     */
+    final WebSocketConnection getWebSocketConnection() {
+        return webSocketConnection;
+    }
+    
+    final synchronized void sendMessage(String message) {
         try {
             conn.sendMessage(message);
         } catch (IOException ex) {
@@ -34,10 +34,10 @@ import java.util.HashMap;
 import java.util.Map;
 
 import nextapp.echo.app.util.Context;
-import nextapp.echo.app.util.DomUtil;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 
 /**
  * The incoming XML message which synchronizes the state of the server to that of the client.
@@ -194,9 +194,13 @@ public class ClientMessage {
      */
     public void process(Context context)
     throws IOException {
-        Element[] dirElements = DomUtil.getChildElementsByTagName(document.getDocumentElement(), "dir");
-        for (int i = 0; i < dirElements.length; ++i) {
-            String processorName = dirElements[i].getAttribute("proc");
+        // Directives are dispatched in document order directly from the DOM, without collecting them first.
+        for (Node node = document.getDocumentElement().getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node.getNodeType() != Node.ELEMENT_NODE || !"dir".equals(node.getNodeName())) {
+                continue;
+            }
+            Element dirElement = (Element) node;
+            String processorName = dirElement.getAttribute("proc");
             
             // Find processor class, first check local cache, then 
             Class processorClass = (Class) processorNameToClass.get(processorName);
@@ -206,7 +210,7 @@ public class ClientMessage {
 
             try {
                 Processor processor = (Processor) processorClass.newInstance();
-                processor.process(context, dirElements[i], getApplicationWindowId());
+                processor.process(context, dirElement, getApplicationWindowId());
             } catch (InstantiationException ex) {
                 throw new SynchronizationException("Cannot instantiate process class: " + processorClass.getName(), ex);
             } catch (IllegalAccessException ex) {
@@ -197,6 +197,11 @@ implements Serializable {
      */
     public static final String REMOTE_HOST = "remoteHost";
     
+    /**
+     * Flag indicating that the client is capable of processing server messages encoded as JSON.
+     */
+    public static final String SERVER_MESSAGE_JSON = "serverMessageJson";
+    
     /**
      * The client's time offset from UTC in minutes.
      */
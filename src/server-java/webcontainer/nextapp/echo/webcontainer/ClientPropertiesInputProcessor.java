@@ -30,12 +30,8 @@
 package nextapp.echo.webcontainer;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
 import nextapp.echo.app.serial.PropertyPeerFactory;
@@ -93,6 +89,8 @@ implements ClientMessage.Processor {
         m.put(ClientProperties.ENGINE_VERSION_MAJOR, Integer.class);
         m.put(ClientProperties.ENGINE_VERSION_MINOR, Integer.class);
         
+        m.put(ClientProperties.SERVER_MESSAGE_JSON, Boolean.class);
+        
         TYPE_MAP = Collections.unmodifiableMap(m);
     }
     
@@ -104,13 +102,8 @@ implements ClientMessage.Processor {
         ClientProperties clientProperties = new ClientProperties();
         Connection conn = WebContainerServlet.getActiveConnection();
         
-        Enumeration localeEnum = conn.getRequest().getLocales();
-        List localeList = new ArrayList();
-        while (localeEnum.hasMoreElements()) {
-            localeList.add(localeEnum.nextElement());
-        }
-        clientProperties.setProperty(ClientProperties.LOCALES, localeList.toArray(new Locale[localeList.size()]));
-        clientProperties.setProperty(ClientProperties.REMOTE_HOST, conn.getRequest().getRemoteHost());
+        clientProperties.setProperty(ClientProperties.LOCALES, conn.getLocales());
+        clientProperties.setProperty(ClientProperties.REMOTE_HOST, conn.getRemoteHost());
         
         PropertyPeerFactory propertyPeerFactory = (PropertyPeerFactory) context.get(PropertyPeerFactory.class);
         Element[] pElements = DomUtil.getChildElementsByTagName(dirElement, "p");
@@ -269,6 +269,8 @@ public interface ComponentSynchronizePeer {
      * multiple components (and assuming the rendered property value is reasonably large).
      * The property value must implement both <code>equals()</code> and <code>hashCode()</code> or
      * the same reference must be used for reference-based rendering to be effective.
+     * Keys of referenced values are retained across server messages, such that values must only be equal if
+     * they render identical content.
      * Rendering-by-reference is often best used for rendering model properties, e.g., a
      * <code>ListModel</code> that might be used by several listboxes on the same screen.
      * 
@@ -32,6 +32,8 @@ package nextapp.echo.webcontainer;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -43,6 +45,12 @@ import javax.servlet.http.HttpSession;
 public class Connection extends AbstractConnection {
   
     private final HttpServletResponse response;
+    
+    /** Source of the client message, for a synchronization performed over a WebSocket. */
+    private Reader webSocketReader;
+    
+    /** Destination of the server message, for a synchronization performed over a WebSocket. */
+    private PrintWriter webSocketWriter;
   
     /**
      * Creates a <code>HTTPConnection</code> object that will handle the given 
@@ -66,6 +74,24 @@ public class Connection extends AbstractConnection {
         }
     }
     
+    /**
+     * Creates a <code>Connection</code> for a client-server synchronization performed over a WebSocket, or 
+     * performed by the server to render an initial server message embedded in the application's HTML page.
+     * Such connections have no <code>HttpServletResponse</code>: the client message is read from the provided
+     * <code>Reader</code> and the server message is written to the provided <code>Writer</code>.
+     * 
+     * @param source the connection over which the synchronization is performed, i.e., the 
+     *        <code>WebSocketConnection</code> or the <code>Connection</code> of the HTML page request
+     * @param reader the source of the client message
+     * @param writer the destination of the server message
+     */
+    Connection(AbstractConnection source, Reader reader, Writer writer) {
+        super(source);
+        this.response = null;
+        this.webSocketReader = reader;
+        this.webSocketWriter = new PrintWriter(writer);
+    }
+    
     protected void storeUiid() {
         WebContainerServlet webContainerServlet = (WebContainerServlet) this.servlet;
         if (webContainerServlet.getInstanceMode() == WebContainerServlet.INSTANCE_MODE_WINDOW) {
@@ -97,6 +123,9 @@ public class Connection extends AbstractConnection {
      *         generate a response to the client
      */
     public OutputStream getOutputStream() {
+        if (response == null) {
+            throw new WebContainerServletException("OutputStream not available for WebSocket connection.");
+        }
         try {
             return response.getOutputStream();
         } catch (IOException ex) {
@@ -104,12 +133,24 @@ public class Connection extends AbstractConnection {
         }
     }
     
+    /**
+     * Returns the <code>Reader</code> from which the client message should be read, in the case of a
+     * synchronization performed over a WebSocket.
+     * 
+     * @return the <code>Reader</code>, or null if the client message should be read from the 
+     *         <code>HttpServletRequest</code>
+     */
+    public Reader getWebSocketReader() {
+        return webSocketReader;
+    }
+    
     /**
      * Returns the <code>HttpServletResponse</code> wrapped by this 
      * <code>HTTPConnection</code>.
      *
      * @return the <code>HttpServletResponse</code> wrapped by this 
-     *         <code>HTTPConnection</code>
+     *         <code>HTTPConnection</code>, or null in the case of a synchronization
+     *         performed over a WebSocket
      */
     public HttpServletResponse getResponse() {
         return response;
@@ -134,6 +175,9 @@ public class Connection extends AbstractConnection {
      *         generate a response to the client
      */
     public PrintWriter getWriter() {
+        if (response == null) {
+            return webSocketWriter;
+        }
         try {
             return response.getWriter();
         } catch (IOException ex) {
@@ -149,6 +193,10 @@ public class Connection extends AbstractConnection {
      * @param contentType the content type of the response
      */
     public void setContentType(ContentType contentType) {
+        if (response == null) {
+            // Content type is determined by the client from the message content for WebSocket connections.
+            return;
+        }
         UserInstance userInstance = getUserInstance();
         if (contentType.isBinary() || userInstance == null) {
             response.setContentType(contentType.getMimeType());
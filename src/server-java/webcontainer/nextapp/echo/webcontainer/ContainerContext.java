@@ -122,6 +122,14 @@ public interface ContainerContext {
     /**
      * Determines if the authenticated user is in the specified logical "role",
      * by querying the inbound servlet request. 
+     * <p>
+     * When synchronizations are performed over a WebSocket (see 
+     * <code>ServerConfiguration.SYNC_WEBSOCKET_ENABLED</code>), there is no
+     * inbound servlet request: role membership cannot be determined, and this
+     * method returns false.  Applications relying on role membership should
+     * determine it during an HTTP request, e.g., in 
+     * <code>ApplicationInstance.init()</code>, and retain the result.
+     * </p>
      */
     public boolean isUserInRole(String role);
 
@@ -91,7 +91,7 @@ implements ContainerContext, Serializable {
         if (conn == null) {
             return null;
         } else {
-            return conn.getRequest().getCookies();
+            return conn.getCookies();
         }
     }
     
@@ -131,7 +131,7 @@ implements ContainerContext, Serializable {
         if (conn == null) {
             return null;
         } else {
-            return conn.getRequest().getUserPrincipal();
+            return conn.getUserPrincipal();
         }
     }
     
@@ -143,7 +143,7 @@ implements ContainerContext, Serializable {
         if (conn == null) {
             return false;
         } else {
-            return conn.getRequest().isUserInRole(role);
+            return conn.isUserInRole(role);
         }
     }
     
@@ -32,8 +32,11 @@ package nextapp.echo.webcontainer;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.List;
 import java.util.regex.Pattern;
 
+import javax.servlet.http.HttpSession;
+
 import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
 
@@ -97,6 +100,9 @@ public class InputProcessor {
     /** The incoming <code>ClientMessage</code> provided to the context. */
     private ClientMessage clientMessage;
     
+    /** Serialized server messages to be replayed to a client which failed to receive them, if any. */
+    private List replayMessages;
+    
     /**
      * Creates a new <code>InputProcessor</code>.
      * 
@@ -108,7 +114,12 @@ public class InputProcessor {
         super();
         this.syncState = syncState;
         this.conn = conn;
-        Document document = XmlRequestParser.parse(conn.getRequest(), conn.getUserInstanceContainer().getCharacterEncoding());        
+        Document document;
+        if (conn.getResponse() != null) {
+            document = XmlRequestParser.parse(conn.getRequest(), conn.getUserInstanceContainer().getCharacterEncoding());
+        } else {
+            document = XmlRequestParser.parse(conn.getWebSocketReader());
+        }
         clientMessage = new ClientMessage(document);
     }
     
@@ -138,6 +149,18 @@ public class InputProcessor {
     	return clientMessage.getApplicationWindowId();
     }
     
+    /**
+     * Returns the serialized server messages which should be replayed to the client in lieu of processing its input
+     * and rendering a new server message.  Replay is performed when the client's transaction id reveals that it
+     * did not receive recent server messages (e.g., due to a lost response, after which the client retransmits its
+     * message) and the messages are available from the <code>ServerMessageHistory</code> of the <code>Window</code>.
+     * 
+     * @return the messages to replay, in order, or null if no replay is required
+     */
+    public List getReplayMessages() {
+        return replayMessages;
+    }
+    
     /**
      * Processes input to the application, parsing a client message provided in the <code>Connection</code>.
      * Verifies client/server are in sync, and performs full refresh if they are not.
@@ -148,9 +171,10 @@ public class InputProcessor {
     throws IOException {
         ApplicationInstance appInstance = ApplicationInstance.getActive();
         // log unusual application instance id
-        if (conn.getRequest().getSession().getAttribute("applicationInstanceId") != null) {
-            if (!conn.getRequest().getSession().getAttribute("applicationInstanceId").equals(appInstance.getContextProperty("applicationInstanceId"))) {
-                Log.log("Application Instance ID on session does not match ID of active instance.  ID on session=" + conn.getRequest().getSession().getAttribute("applicationInstanceId") + ".  ID of Application Instance=" + appInstance.getContextProperty("applicationInstanceId"));
+        HttpSession session = conn.getSession();
+        if (session != null && session.getAttribute("applicationInstanceId") != null) {
+            if (!session.getAttribute("applicationInstanceId").equals(appInstance.getContextProperty("applicationInstanceId"))) {
+                Log.log("Application Instance ID on session does not match ID of active instance.  ID on session=" + session.getAttribute("applicationInstanceId") + ".  ID of Application Instance=" + appInstance.getContextProperty("applicationInstanceId"));
             }
         }
         // Validate window identifier to prevent malicious use
@@ -178,12 +202,18 @@ public class InputProcessor {
             // Flag full refresh if initializing.
             updateManager.getServerUpdateManager().processFullRefresh();
         } else if (clientMessage.getTransactionId() != Window.getActive().getCurrentTransactionId()) {
-            // Flag full refresh for an out of sync client.
-            updateManager.getServerUpdateManager().processFullRefresh();
-            this.syncState.setOutOfSync();
+            // Replay missed messages to an out of sync client if possible (its message having been processed 
+            // when originally received), otherwise flag full refresh.
+            replayMessages = WindowRenderState.forWindow(Window.getActive()).getServerMessageHistory().getMessagesSince(
+                    clientMessage.getTransactionId(), Window.getActive().getCurrentTransactionId());
+            if (replayMessages == null) {
+                updateManager.getServerUpdateManager().processFullRefresh();
+                this.syncState.setOutOfSync();
+            }
             if (ServerConfiguration.DEBUG_PRINT_MESSAGES_TO_CONSOLE) {
                 Log.log("Client out of sync: client id = " + clientMessage.getTransactionId() + 
-                        ", server id = " + Window.getActive().getCurrentTransactionId());
+                        ", server id = " + Window.getActive().getCurrentTransactionId() + 
+                        (replayMessages == null ? "" : ", replaying " + replayMessages.size() + " message(s)"));
             }
         }
         
@@ -209,7 +239,7 @@ public class InputProcessor {
             }
         }
         
-        if (!syncState.isOutOfSync()) {
+        if (!syncState.isOutOfSync() && replayMessages == null) {
             // Only process the client message if client/server are synchronized.
             clientMessage.process(context);
         }
@@ -32,9 +32,13 @@ package nextapp.echo.webcontainer;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
@@ -42,6 +46,8 @@ import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.Map.Entry;
 
+import javax.servlet.http.HttpServletRequest;
+
 import nextapp.echo.app.ApplicationInstance;
 import nextapp.echo.app.Command;
 import nextapp.echo.app.Component;
@@ -59,6 +65,8 @@ import nextapp.echo.app.update.ServerUpdateManager;
 import nextapp.echo.app.util.Context;
 import nextapp.echo.app.util.DomUtil;
 import nextapp.echo.app.util.Log;
+import nextapp.echo.webcontainer.util.CompressingWriter;
+import nextapp.echo.webcontainer.util.JsonDomWriter;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -121,9 +129,9 @@ class OutputProcessor {
     private Context context;
     private PropertyPeerFactory propertyPeerFactory;
     private Document document;
-    private int nextPropertyKey = 0;
+    private WindowRenderState windowRenderState;
+    private ReferenceCache referenceCache;
     private Map propertyValueToKeyMap = null;
-    private int nextStyleKey = 0;
     private Map styleValueToKeyMap = null;
     private Element rpElement;
     private Element rsElement;
@@ -131,6 +139,88 @@ class OutputProcessor {
     
     private ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
 
+    /**
+     * <code>Writer</code> which writes to another <code>Writer</code>, retaining a copy of the written content 
+     * up to a maximum length.
+     */
+    private static class RecordingWriter extends Writer {
+        
+        /** The target <code>Writer</code>. */
+        private Writer writer;
+        
+        /** The maximum length of the recording. */
+        private int maxLength;
+        
+        /** The recording, or null if the maximum length has been exceeded. */
+        private StringBuffer recording = new StringBuffer();
+        
+        /**
+         * Creates a new <code>RecordingWriter</code>.
+         * 
+         * @param writer the target <code>Writer</code>
+         * @param maxLength the maximum length of the recording
+         */
+        RecordingWriter(Writer writer, int maxLength) {
+            super();
+            this.writer = writer;
+            this.maxLength = maxLength;
+        }
+        
+        /**
+         * Returns the recorded content.
+         * 
+         * @return the recorded content, or null if its length exceeded the maximum
+         */
+        String getRecording() {
+            return recording == null ? null : recording.toString();
+        }
+        
+        /**
+         * @see java.io.Writer#write(char[], int, int)
+         */
+        public void write(char[] cbuf, int off, int len) 
+        throws IOException {
+            writer.write(cbuf, off, len);
+            if (recording != null) {
+                if (recording.length() + len > maxLength) {
+                    recording = null;
+                } else {
+                    recording.append(cbuf, off, len);
+                }
+            }
+        }
+        
+        /**
+         * @see java.io.Writer#write(java.lang.String, int, int)
+         */
+        public void write(String str, int off, int len) 
+        throws IOException {
+            writer.write(str, off, len);
+            if (recording != null) {
+                if (recording.length() + len > maxLength) {
+                    recording = null;
+                } else {
+                    recording.append(str, off, off + len);
+                }
+            }
+        }
+        
+        /**
+         * @see java.io.Writer#flush()
+         */
+        public void flush() 
+        throws IOException {
+            writer.flush();
+        }
+        
+        /**
+         * Does nothing: the target <code>Writer</code> is not closed.
+         * 
+         * @see java.io.Writer#close()
+         */
+        public void close() { }
+    }
+    
     /**
      * Creates a new <code>OutputProcessor</code>.
      * 
@@ -146,6 +236,8 @@ class OutputProcessor {
         context = new OutputContext();
         userInstance = conn.getUserInstance();
         serverUpdateManager = Window.getActive().getUpdateManager().getServerUpdateManager();
+        windowRenderState = WindowRenderState.forWindow(Window.getActive());
+        referenceCache = windowRenderState.getReferenceCache();
         propertyPeerFactory = PropertySerialPeerFactory.forClassLoader(classLoader);
     }
         
@@ -177,12 +269,26 @@ class OutputProcessor {
             throw new SynchronizationException("Cannot serialize server state.", ex);
         }
         
-        try {
-            // Render DOM to <code>PrintWriter</code>.
-            conn.setContentType(ContentType.TEXT_XML);
-            DomUtil.save(serverMessage.getDocument(), conn.getWriter(), null);
-        } catch (SAXException ex) {
-            throw new SynchronizationException("Cannot serialize server state.", ex);
+        // Render DOM to <code>PrintWriter</code>.
+        boolean json = isJsonOutput();
+        conn.setContentType(json ? ContentType.APPLICATION_JSON : ContentType.TEXT_XML);
+        Writer writer = createWriter();
+        if (json) {
+            renderServerMessage(writer, json);
+        } else if (ServerConfiguration.SYNC_TRANSFORMER_OUTPUT) {
+            try {
+                PrintWriter pw = new PrintWriter(writer);
+                DomUtil.save(serverMessage.getDocument(), pw, null);
+                pw.flush();
+            } catch (SAXException ex) {
+                throw new SynchronizationException("Cannot serialize server state.", ex);
+            }
+        } else {
+            writer.write(DomUtil.XML_DECLARATION);
+            renderServerMessage(writer, json);
+        }
+        if (writer instanceof CompressingWriter) {
+            writer.close();
         }
         
         if (ServerConfiguration.DEBUG_PRINT_MESSAGES_TO_CONSOLE) {
@@ -210,14 +316,148 @@ class OutputProcessor {
         }
     }
     
+    /**
+     * Renders previously transmitted server messages which the client has not received, in place of a new
+     * server message.  The messages are wrapped in a "replay" element (or its JSON equivalent), and are processed
+     * by the client in sequence.
+     * 
+     * @param messages the serialized messages, in transaction order, as provided by 
+     *        <code>InputProcessor.getReplayMessages()</code>
+     */
+    public void processReplay(List messages) 
+    throws IOException {
+        boolean json = isJsonOutput();
+        conn.setContentType(json ? ContentType.APPLICATION_JSON : ContentType.TEXT_XML);
+        Writer writer = createWriter();
+        writeReplay(writer, messages, json);
+        if (writer instanceof CompressingWriter) {
+            writer.close();
+        }
+    }
+    
+    /**
+     * Writes a replay of previously transmitted server messages.
+     * 
+     * @param writer the <code>Writer</code>
+     * @param messages the serialized messages, in transaction order
+     * @param json flag indicating whether the messages are rendered as JSON
+     */
+    static void writeReplay(Writer writer, List messages, boolean json) 
+    throws IOException {
+        writer.write(json ? "[\"replay\"" : DomUtil.XML_DECLARATION + "<replay>");
+        Iterator it = messages.iterator();
+        while (it.hasNext()) {
+            if (json) {
+                writer.write(',');
+            }
+            writer.write((String) it.next());
+        }
+        writer.write(json ? "]" : "</replay>");
+    }
+    
+    /**
+     * Creates the <code>Writer</code> to which the response is rendered: a <code>CompressingWriter</code> if 
+     * the response may be compressed, otherwise the <code>Writer</code> of the <code>Connection</code>.
+     * A <code>CompressingWriter</code> must be closed to complete the response.
+     * 
+     * @return the <code>Writer</code>
+     */
+    private Writer createWriter() 
+    throws IOException {
+        if (isCompressedOutput()) {
+            return new CompressingWriter(conn.getResponse(), userInstance.getCharacterEncoding(), 
+                    (int) ServerConfiguration.SYNC_COMPRESSION_THRESHOLD, (int) ServerConfiguration.SYNC_COMPRESSION_LEVEL);
+        } else {
+            return conn.getWriter();
+        }
+    }
+    
+    /**
+     * Writes the server message element (without an XML declaration) to the specified <code>Writer</code>, 
+     * retaining it in the <code>ServerMessageHistory</code> of the <code>Window</code> for replay, if enabled.
+     * The message is streamed to the <code>Writer</code> in either case; a copy is retained only if it does not exceed
+     * <code>ServerConfiguration.SYNC_HISTORY_MAX_LENGTH</code>.
+     * 
+     * @param writer the <code>Writer</code>
+     * @param json flag indicating whether the message should be rendered as JSON
+     */
+    private void renderServerMessage(Writer writer, boolean json) 
+    throws IOException {
+        if (ServerConfiguration.SYNC_HISTORY_SIZE > 0) {
+            RecordingWriter recordingWriter = new RecordingWriter(writer, (int) ServerConfiguration.SYNC_HISTORY_MAX_LENGTH);
+            writeServerMessage(recordingWriter, json);
+            String message = recordingWriter.getRecording();
+            if (message != null) {
+                windowRenderState.getServerMessageHistory().add(Window.getActive().getCurrentTransactionId(), message);
+            }
+        } else {
+            writeServerMessage(writer, json);
+        }
+    }
+    
+    /**
+     * Writes the server message element (without an XML declaration) to the specified <code>Writer</code>.
+     * 
+     * @param writer the <code>Writer</code>
+     * @param json flag indicating whether the message should be rendered as JSON
+     */
+    private void writeServerMessage(Writer writer, boolean json) 
+    throws IOException {
+        if (json) {
+            JsonDomWriter.write(document, writer);
+        } else {
+            DomUtil.write(document.getDocumentElement(), writer);
+        }
+    }
+    
+    /**
+     * Determines whether the server message may be GZIP-compressed, i.e., whether compression is enabled, the 
+     * message is being sent in an HTTP response, and the client accepts GZIP-encoded content.
+     * Compression is not used for Internet Explorer unless <code>ServerConfiguration.ALLOW_IE_COMPRESSION</code>
+     * is set, as with <code>JavaScriptService</code>.
+     * 
+     * @return true if the server message may be compressed
+     */
+    private boolean isCompressedOutput() {
+        if (ServerConfiguration.SYNC_COMPRESSION_THRESHOLD < 0 || conn.getResponse() == null) {
+            return false;
+        }
+        HttpServletRequest request = conn.getRequest();
+        String userAgent = request.getHeader("user-agent");
+        if (!ServerConfiguration.ALLOW_IE_COMPRESSION && userAgent != null && userAgent.indexOf("MSIE") != -1) {
+            return false;
+        }
+        String acceptEncoding = request.getHeader("accept-encoding");
+        return acceptEncoding != null && acceptEncoding.indexOf("gzip") != -1;
+    }
+    
+    /**
+     * Determines whether the server message should be rendered as JSON, i.e., whether JSON output is enabled and 
+     * the client has indicated support for it in its <code>ClientProperties</code>.
+     * 
+     * @return true if the server message should be rendered as JSON
+     */
+    private boolean isJsonOutput() {
+        if (!ServerConfiguration.SYNC_JSON_ENABLED) {
+            return false;
+        }
+        ClientProperties clientProperties = userInstance.getClientProperties();
+        return clientProperties != null && clientProperties.getBoolean(ClientProperties.SERVER_MESSAGE_JSON);
+    }
+    
     /**
      * Renders asynchronous callback settings to server message.
+     * Synchronization over a WebSocket is advertised independently of these settings, such that it is used 
+     * whenever enabled, whether or not server push is in use.
      */
     private void renderAsyncState() {
         if (Window.getActive().hasTaskQueues() && userInstance.getApplicationInstance().getActiveWindows().length > 1) {
             serverMessage.setAttribute("async-interval", Integer.toString(userInstance.getCallbackInterval()));
             serverMessage.setAttribute("ws-enable", Boolean.toString(conn.getServlet().hasWebSocketConnectionHandler()));
         }
+        if (ServerConfiguration.SYNC_WEBSOCKET_ENABLED && conn.getServlet().hasWebSocketConnectionHandler()) {
+            serverMessage.setAttribute("ws-sync", "true");
+        }
     }
     
     /**
@@ -555,11 +795,6 @@ class OutputProcessor {
         String propertyKey = null;
         Element propertyDataElement;
         if (propertyValue != null && componentPeer.isOutputPropertyReferenced(context, c, propertyName)) {
-            if (rpElement == null) {
-                // Create "reference property" container element ("rp").
-                rpElement = serverMessage.addDirective(ServerMessage.GROUP_ID_INIT, "CSyncUp", "rp");
-            }
-            
             if (propertyValueToKeyMap == null) {
                 propertyValueToKeyMap = new HashMap();
             } else {
@@ -567,16 +802,16 @@ class OutputProcessor {
             }
             
             if (propertyKey == null) {
-                propertyKey = Integer.toString(nextPropertyKey++);
+                propertyKey = renderReferencedProperty(c, propertyValue);
+                if (propertyKey == null) {
+                    // Unsupported property: do nothing.
+                    return;
+                }
                 propertyValueToKeyMap.put(propertyValue, propertyKey);
-
-                propertyDataElement = document.createElement("p");
-                propertyDataElement.setAttribute("i", propertyKey);
-                
-                rpElement.appendChild(propertyDataElement);
-            } else {
-                propertyDataElement = null;
             }
+            
+            // Value is rendered (or was rendered previously) in "rp" directive.
+            propertyDataElement = null;
 
             pElement.setAttribute("r", propertyKey);
         } else {
@@ -617,6 +852,60 @@ class OutputProcessor {
         parentElement.appendChild(pElement);
     }
     
+    /**
+     * Renders a referenced property value to the "rp" directive, unless an equal value or a value with identical 
+     * content was transmitted to the client previously, in which case the existing key is returned.
+     * 
+     * @param c the component
+     * @param propertyValue the property value (non-null)
+     * @return the key of the referenced value, or null if the value type is not supported
+     * @throws SerialException
+     */
+    private String renderReferencedProperty(Component c, Object propertyValue) 
+    throws SerialException {
+        // Determine if an equal value has been transmitted previously, in which case it need not be rendered.
+        int transactionId = Window.getActive().getCurrentTransactionId();
+        String propertyKey = referenceCache.getPropertyKey(propertyValue, transactionId);
+        if (propertyKey != null) {
+            return propertyKey;
+        }
+        
+        SerialPropertyPeer propertySyncPeer = propertyPeerFactory.getPeerForProperty(propertyValue.getClass());
+        if (propertySyncPeer == null) {
+            return null;
+        }
+        
+        Element propertyDataElement = document.createElement("p");
+        propertySyncPeer.toXml(context, c.getClass(), propertyDataElement, propertyValue);
+        
+        // Determine if identical content has been transmitted previously.
+        StringWriter contentWriter = new StringWriter();
+        try {
+            DomUtil.write(propertyDataElement, contentWriter);
+        } catch (IOException ex) {
+            // Should not occur.
+            throw new SerialException("Cannot render referenced property.", ex);
+        }
+        String content = contentWriter.toString();
+        propertyKey = referenceCache.getPropertyKey(propertyValue, content, transactionId);
+        if (propertyKey != null) {
+            return propertyKey;
+        }
+        
+        propertyKey = referenceCache.addProperty(propertyValue, content, transactionId);
+        if (rpElement == null) {
+            // Create "reference property" container element ("rp").
+            rpElement = serverMessage.addDirective(ServerMessage.GROUP_ID_INIT, "CSyncUp", "rp");
+        }
+        String evictedKeys = referenceCache.consumeEvictedPropertyKeys();
+        if (evictedKeys != null) {
+            rpElement.setAttribute("x", evictedKeys);
+        }
+        propertyDataElement.setAttribute("i", propertyKey);
+        rpElement.appendChild(propertyDataElement);
+        return propertyKey;
+    }
+    
     /**
      * Renders the full state of a specific component.
      * 
@@ -713,8 +1002,8 @@ class OutputProcessor {
     
     /**
      * Sets the directly referenced style of a component.
-     * If the style has not been rendered in the current synchronization message,
-     * it will be added to it.
+     * If the style has not been rendered in the current synchronization message or 
+     * a previous synchronization message, it will be added to it.
      */
     private void renderComponentStyle(Element element, Component c, boolean required) 
     throws SerialException {
@@ -726,10 +1015,6 @@ class OutputProcessor {
             return;
         }
         
-        if (rsElement == null) {
-            rsElement = serverMessage.addDirective(ServerMessage.GROUP_ID_INIT, "CSyncUp", "rs");
-        }
-
         String styleKey = null;
         if (styleValueToKeyMap == null) {
             styleValueToKeyMap = new HashMap();
@@ -737,15 +1022,24 @@ class OutputProcessor {
             styleKey = (String) styleValueToKeyMap.get(style);
         }
         
+        if (styleKey == null && !required) {
+            // Use style transmitted in a previous synchronization, if available.
+            // Styles are always retransmitted when explicitly reset on a component (required flag). 
+            styleKey = referenceCache.getStyleKey(style);
+        }
+        
         if (styleKey == null) {
-            styleKey = Integer.toString(nextStyleKey++);
-            styleValueToKeyMap.put(style, styleKey);
+            if (rsElement == null) {
+                rsElement = serverMessage.addDirective(ServerMessage.GROUP_ID_INIT, "CSyncUp", "rs");
+            }
+            styleKey = referenceCache.addStyle(style);
 
             Element sElement = document.createElement("s");
             sElement.setAttribute("i", styleKey);
             renderStyle(c.getClass(), sElement, style);
             rsElement.appendChild(sElement);
         }
+        styleValueToKeyMap.put(style, styleKey);
         
         Element srElement = document.createElement("sr");
         srElement.appendChild(document.createTextNode(styleKey));
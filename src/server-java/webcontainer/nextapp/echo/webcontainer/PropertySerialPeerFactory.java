@@ -29,8 +29,8 @@
 
 package nextapp.echo.webcontainer;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import nextapp.echo.app.serial.PropertyPeerFactory;
 import nextapp.echo.app.serial.SerialPropertyPeer;
@@ -49,7 +49,7 @@ implements PropertyPeerFactory {
     /**
      * Map of <code>ClassLoader</code>s to <code>SerialPeerFactory</code>s.
      */
-    private static final Map classLoaderToFactoryMap = new HashMap();
+    private static final Map classLoaderToFactoryMap = new ConcurrentHashMap();
     
     /**
      * Creates or retrieves a <code>SerialPeerFactory</code>.
@@ -59,8 +59,12 @@ implements PropertyPeerFactory {
      * @return the <code>SerialPeerFactory</code>
      */
     public static PropertySerialPeerFactory forClassLoader(ClassLoader classLoader) {
+        PropertySerialPeerFactory factory = (PropertySerialPeerFactory) classLoaderToFactoryMap.get(classLoader);
+        if (factory != null) {
+            return factory;
+        }
         synchronized(classLoaderToFactoryMap) {
-            PropertySerialPeerFactory factory = (PropertySerialPeerFactory) classLoaderToFactoryMap.get(classLoader);
+            factory = (PropertySerialPeerFactory) classLoaderToFactoryMap.get(classLoader);
             if (factory == null) {
                 factory = new PropertySerialPeerFactory(classLoader);
                 classLoaderToFactoryMap.put(classLoader, factory);
@@ -0,0 +1,321 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+package nextapp.echo.webcontainer;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import nextapp.echo.app.MutableStyle;
+import nextapp.echo.app.Style;
+
+/**
+ * Per-<code>Window</code> record of referenced styles and referenced property values which have been transmitted
+ * to the client, such that they may be referenced by key in subsequent server messages rather than being 
+ * retransmitted.  The client retains the referenced values until the next full refresh.
+ * <p>
+ * The cache is stored in the <code>WindowRenderState</code>, and is thus discarded whenever render states are 
+ * cleared, i.e., on a full refresh.
+ * <p>
+ * Styles are identified by reference, together with their modification count in the case of 
+ * <code>MutableStyle</code>s, such that a shared style which is modified after being transmitted is transmitted 
+ * again (with a new key) the next time it is rendered.
+ * <p>
+ * Referenced property values are identified by their rendered content, which is required as such values 
+ * (e.g., list data) are typically views of mutable models.  Each entry additionally records the property value
+ * itself, such that a value which is <code>equal</code> to a previously transmitted value may be found without 
+ * being rendered.  Property values must therefore only be equal if they render identical content.
+ * The number of retained property values is limited by <code>ServerConfiguration.SYNC_REFERENCE_CACHE_SIZE</code>.
+ */
+class ReferenceCache 
+implements Serializable {
+
+    /** Serial Version UID. */
+    private static final long serialVersionUID = 20070101L;
+    
+    /**
+     * Cache entry describing a referenced property value.
+     */
+    private static class PropertyEntry 
+    implements Serializable {
+        
+        /** Serial Version UID. */
+        private static final long serialVersionUID = 20070101L;
+
+        /** The key of the value. */
+        private String key;
+        
+        /** The rendered content of the value. */
+        private String content;
+        
+        /** The property value, if known.  Not retained on serialization. */
+        private transient Object value;
+        
+        /** The id of the last transaction in which the value was referenced. */
+        private int transactionId;
+        
+        /**
+         * Creates a new <code>PropertyEntry</code>.
+         * 
+         * @param key the key
+         * @param content the rendered content
+         * @param value the property value
+         * @param transactionId the transaction id
+         */
+        PropertyEntry(String key, String content, Object value, int transactionId) {
+            super();
+            this.key = key;
+            this.content = content;
+            this.value = value;
+            this.transactionId = transactionId;
+        }
+    }
+    
+    /**
+     * Cache entry describing a referenced style.
+     */
+    private static class StyleEntry {
+        
+        /** The key of the style. */
+        private String key;
+        
+        /** The modification count of the style at the time it was transmitted. */
+        private long modificationCount;
+        
+        /**
+         * Creates a new <code>StyleEntry</code>.
+         * 
+         * @param key the key
+         * @param modificationCount the modification count of the style
+         */
+        StyleEntry(String key, long modificationCount) {
+            super();
+            this.key = key;
+            this.modificationCount = modificationCount;
+        }
+    }
+    
+    /**
+     * Returns the modification count of a style.
+     * 
+     * @param style the style
+     * @return the modification count, or 0 if the style is not a <code>MutableStyle</code>
+     */
+    private static long getModificationCount(Style style) {
+        return style instanceof MutableStyle ? ((MutableStyle) style).getModificationCount() : 0;
+    }
+    
+    /** The next key to assign to a referenced property value. */
+    private int nextPropertyKey = 0;
+    
+    /** The next key to assign to a referenced style. */
+    private int nextStyleKey = 0;
+    
+    /** 
+     * Mapping between rendered content of referenced property values and <code>PropertyEntry</code>s, in 
+     * least-recently-used order.
+     */
+    private LinkedHashMap propertyContentToEntryMap = new LinkedHashMap(16, 0.75f, true);
+    
+    /** 
+     * Mapping between referenced property values and <code>PropertyEntry</code>s.  Not retained on serialization, 
+     * in which case values are located by content until they are next referenced.
+     */
+    private transient Map propertyValueToEntryMap;
+    
+    /** Keys of referenced property values which have been evicted and not yet reported to the client. */
+    private List evictedPropertyKeys;
+    
+    /** 
+     * Mapping between referenced <code>Style</code>s and <code>StyleEntry</code>s.  Not retained on serialization, 
+     * in which case styles are simply retransmitted with new keys. 
+     */
+    private transient Map styleToEntryMap;
+    
+    /**
+     * Adds a referenced property value.
+     * 
+     * @param value the property value
+     * @param content the rendered content of the value
+     * @param transactionId the current transaction id
+     * @return the key assigned to the value
+     */
+    String addProperty(Object value, String content, int transactionId) {
+        String key = Integer.toString(nextPropertyKey++);
+        PropertyEntry entry = new PropertyEntry(key, content, value, transactionId);
+        propertyContentToEntryMap.put(content, entry);
+        storePropertyValue(entry, value);
+        
+        // Evict least recently used values which were not referenced by the current transaction.
+        int maximumSize = (int) ServerConfiguration.SYNC_REFERENCE_CACHE_SIZE;
+        Iterator it = propertyContentToEntryMap.values().iterator();
+        while (propertyContentToEntryMap.size() > maximumSize) {
+            PropertyEntry eldest = (PropertyEntry) it.next();
+            if (eldest.transactionId == transactionId) {
+                break;
+            }
+            it.remove();
+            removePropertyValue(eldest);
+            if (evictedPropertyKeys == null) {
+                evictedPropertyKeys = new ArrayList();
+            }
+            evictedPropertyKeys.add(eldest.key);
+        }
+        
+        return key;
+    }
+    
+    /**
+     * Adds a referenced style.
+     * 
+     * @param style the style
+     * @return the key assigned to the style
+     */
+    String addStyle(Style style) {
+        if (styleToEntryMap == null) {
+            styleToEntryMap = new WeakHashMap();
+        }
+        String key = Integer.toString(nextStyleKey++);
+        styleToEntryMap.put(style, new StyleEntry(key, getModificationCount(style)));
+        return key;
+    }
+    
+    /**
+     * Returns the keys of evicted property values which have not been reported to the client, and clears them.
+     * 
+     * @return the evicted keys, as a comma-delimited string, or null if no keys have been evicted
+     */
+    String consumeEvictedPropertyKeys() {
+        if (evictedPropertyKeys == null) {
+            return null;
+        }
+        StringBuffer out = new StringBuffer();
+        Iterator it = evictedPropertyKeys.iterator();
+        while (it.hasNext()) {
+            out.append(it.next());
+            if (it.hasNext()) {
+                out.append(",");
+            }
+        }
+        evictedPropertyKeys = null;
+        return out.toString();
+    }
+    
+    /**
+     * Returns the key of a previously transmitted referenced property value with identical rendered content, 
+     * marking it as referenced by the current transaction.
+     * 
+     * @param value the property value, which will be associated with the existing key
+     * @param content the rendered content of the value
+     * @param transactionId the current transaction id
+     * @return the key, or null if no value with identical content has been transmitted
+     */
+    String getPropertyKey(Object value, String content, int transactionId) {
+        PropertyEntry entry = (PropertyEntry) propertyContentToEntryMap.get(content);
+        if (entry == null) {
+            return null;
+        }
+        entry.transactionId = transactionId;
+        storePropertyValue(entry, value);
+        return entry.key;
+    }
+    
+    /**
+     * Returns the key of a previously transmitted referenced property value which is equal to the specified value, 
+     * marking it as referenced by the current transaction.
+     * 
+     * @param value the property value
+     * @param transactionId the current transaction id
+     * @return the key, or null if no equal value has been transmitted
+     */
+    String getPropertyKey(Object value, int transactionId) {
+        if (propertyValueToEntryMap == null) {
+            return null;
+        }
+        PropertyEntry entry = (PropertyEntry) propertyValueToEntryMap.get(value);
+        if (entry == null) {
+            return null;
+        }
+        // Retrieve by content to update least-recently-used order.
+        propertyContentToEntryMap.get(entry.content);
+        entry.transactionId = transactionId;
+        return entry.key;
+    }
+    
+    /**
+     * Returns the key of a previously transmitted referenced style.
+     * 
+     * @param style the style
+     * @return the key, or null if the style has not been transmitted, or has been modified since it was transmitted
+     */
+    String getStyleKey(Style style) {
+        if (styleToEntryMap == null) {
+            return null;
+        }
+        StyleEntry entry = (StyleEntry) styleToEntryMap.get(style);
+        if (entry == null || entry.modificationCount != getModificationCount(style)) {
+            return null;
+        }
+        return entry.key;
+    }
+    
+    /**
+     * Removes the association between an entry and its property value, if any.
+     * 
+     * @param entry the entry
+     */
+    private void removePropertyValue(PropertyEntry entry) {
+        if (entry.value != null && propertyValueToEntryMap.get(entry.value) == entry) {
+            propertyValueToEntryMap.remove(entry.value);
+        }
+        entry.value = null;
+    }
+    
+    /**
+     * Associates a property value with an entry, replacing the value previously associated with the entry.
+     * 
+     * @param entry the entry
+     * @param value the property value
+     */
+    private void storePropertyValue(PropertyEntry entry, Object value) {
+        if (propertyValueToEntryMap == null) {
+            propertyValueToEntryMap = new HashMap();
+        } else {
+            removePropertyValue(entry);
+        }
+        entry.value = value;
+        propertyValueToEntryMap.put(value, entry);
+    }
+}
@@ -51,6 +51,92 @@ public class ServerConfiguration {
      */
     public static String DEBUG_PRINT_MESSAGES_TO_DIRECTORY;
 
+    /**
+     * Toggle to render server messages using a JAXP <code>Transformer</code> rather than the streaming
+     * serializer via property 'echo.sync.transformer'.  Intended for debugging only.
+     */
+    public static boolean SYNC_TRANSFORMER_OUTPUT;
+    
+    /**
+     * Toggle to allow server messages to be sent as JSON to clients which support it via property 'echo.sync.json'.
+     * Disabled by default: JSON server messages are presented to client-side peers through a DOM subset (see 
+     * <code>Echo.RemoteClient.JsonDocument</code>), which third-party peers may not be limited to.
+     */
+    public static boolean SYNC_JSON_ENABLED;
+    
+    /**
+     * Toggle to allow clients to perform synchronizations over an open WebSocket rather than HTTP 
+     * via property 'echo.sync.websocket'.
+     * Synchronizations performed over a WebSocket have no servlet request: 
+     * <code>ContainerContext.isUserInRole()</code> returns false during such synchronizations.
+     */
+    public static boolean SYNC_WEBSOCKET_ENABLED;
+    
+    /**
+     * Toggle to enable Servlet 3.0 asynchronous long-polling of the asynchronous monitor service via property 
+     * 'echo.async.longpoll'.  Requires a Servlet 3.0 container, with asynchronous support enabled for the servlet.
+     */
+    public static boolean ASYNC_MONITOR_LONG_POLL;
+    
+    /**
+     * Time in milliseconds a long-poll request to the asynchronous monitor service is held while awaiting a task
+     * via property 'echo.async.longpoll.timeout'.
+     */
+    public static long ASYNC_MONITOR_LONG_POLL_TIMEOUT;
+    
+    /**
+     * Size in characters above which synchronization responses are GZIP-compressed (for clients which accept it)
+     * via property 'echo.sync.compression.threshold'.  A negative value disables compression.
+     */
+    public static long SYNC_COMPRESSION_THRESHOLD;
+    
+    /**
+     * Compression level (0-9, or -1 for the default level) used to compress synchronization responses
+     * via property 'echo.sync.compression.level'.
+     */
+    public static long SYNC_COMPRESSION_LEVEL;
+    
+    /**
+     * Number of recently transmitted server messages retained by each <code>Window</code>, such that they may be 
+     * replayed to a client which failed to receive them rather than performing a full refresh, 
+     * via property 'echo.sync.history.size'.  A value of zero (the default) disables retention.
+     */
+    public static long SYNC_HISTORY_SIZE;
+    
+    /**
+     * Maximum length, in characters, of a server message retained for replay (see <code>SYNC_HISTORY_SIZE</code>), 
+     * via property 'echo.sync.history.maxlength'.  Longer messages are not retained, such that a client which 
+     * misses one receives a full refresh.
+     */
+    public static long SYNC_HISTORY_MAX_LENGTH;
+    
+    /**
+     * Maximum number of referenced property values (e.g., list data) whose keys are retained by each 
+     * <code>Window</code> for reuse in subsequent server messages via property 'echo.sync.referencecache.size'.
+     * Values referenced by the current server message are retained even if the limit is exceeded.
+     */
+    public static long SYNC_REFERENCE_CACHE_SIZE;
+    
+    /**
+     * Toggle to perform the initial synchronization of a new application on the server and embed the resulting 
+     * server message in the HTML page, eliminating the initial synchronization request, via property 
+     * 'echo.window.embedinit'.  Applies only to new sessions of servlets operating in 
+     * <code>INSTANCE_MODE_SINGLE</code>, and requires JSON server messages to be enabled.  The 
+     * <code>ClientProperties</code> of the initial synchronization are derived from the HTTP request alone; the 
+     * complete properties are provided by the client in a subsequent synchronization.
+     */
+    public static boolean WINDOW_EMBED_INITIAL_MESSAGE;
+    
+    /**
+     * Toggle to synchronize each <code>Window</code> of an <code>ApplicationInstance</code> under its own lock, 
+     * such that multiple windows of one application may be synchronized concurrently, via property 
+     * 'echo.sync.windowlocking'.  When disabled, all synchronizations of a <code>UserInstance</code> are serialized.
+     * Applications enabling this option must not modify the components of one <code>Window</code> from code 
+     * executing on behalf of another, but should instead enqueue a task to a task queue of the target 
+     * <code>Window</code>.
+     */
+    public static boolean SYNC_WINDOW_LOCKING;
+
     /**
      * Toggle to enable GZIP compression for MS IE Browser via property 'echo.allowiecompression'
      */
@@ -121,6 +207,18 @@ public class ServerConfiguration {
         CSS_CACHING_ENABLED = getConfigValue("echo.css.enablecaching", initParameters, false);
         CSS_CACHE_SECONDS = getConfigValue("echo.css.cacheseconds", initParameters, -1L);
         DEBUG_PRINT_MESSAGES_TO_DIRECTORY = getConfigValue("echo.syncdumpdir", initParameters, null);
+        SYNC_TRANSFORMER_OUTPUT = getConfigValue("echo.sync.transformer", initParameters, false);
+        SYNC_JSON_ENABLED = getConfigValue("echo.sync.json", initParameters, false);
+        SYNC_WEBSOCKET_ENABLED = getConfigValue("echo.sync.websocket", initParameters, false);
+        ASYNC_MONITOR_LONG_POLL = getConfigValue("echo.async.longpoll", initParameters, false);
+        ASYNC_MONITOR_LONG_POLL_TIMEOUT = getConfigValue("echo.async.longpoll.timeout", initParameters, 30000L);
+        SYNC_COMPRESSION_THRESHOLD = getConfigValue("echo.sync.compression.threshold", initParameters, 4096L);
+        SYNC_COMPRESSION_LEVEL = getConfigValue("echo.sync.compression.level", initParameters, -1L);
+        SYNC_HISTORY_SIZE = getConfigValue("echo.sync.history.size", initParameters, 0L);
+        SYNC_HISTORY_MAX_LENGTH = getConfigValue("echo.sync.history.maxlength", initParameters, 65536L);
+        SYNC_REFERENCE_CACHE_SIZE = getConfigValue("echo.sync.referencecache.size", initParameters, 64L);
+        WINDOW_EMBED_INITIAL_MESSAGE = getConfigValue("echo.window.embedinit", initParameters, false);
+        SYNC_WINDOW_LOCKING = getConfigValue("echo.sync.windowlocking", initParameters, false);
     }
 
     /**
@@ -0,0 +1,125 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+package nextapp.echo.webcontainer;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-<code>Window</code> record of the most recently transmitted serialized server messages, keyed by transaction id.
+ * Used to replay messages to a client whose transaction id reveals that it did not receive them (e.g., due to a 
+ * lost response), rather than performing a full refresh.
+ * <p>
+ * The number of retained messages is specified by <code>ServerConfiguration.SYNC_HISTORY_SIZE</code>.
+ * The history is stored in the <code>WindowRenderState</code>, and is thus discarded on a full refresh
+ * (the full refresh message itself being the first entry of the new history).  Retained messages are not
+ * serialized with the session: a client which missed messages sent prior to session passivation receives a full 
+ * refresh.
+ */
+class ServerMessageHistory 
+implements Serializable {
+
+    /** Serial Version UID. */
+    private static final long serialVersionUID = 20070101L;
+    
+    /** The maximum number of retained messages. */
+    private int maxSize;
+    
+    /** 
+     * Mapping from <code>Integer</code> transaction ids to serialized server message <code>String</code>s, 
+     * in order of transmission.  Lazily created.
+     */
+    private transient Map transactionIdToMessageMap;
+    
+    /**
+     * Creates a new <code>ServerMessageHistory</code>.
+     * 
+     * @param maxSize the maximum number of retained messages
+     */
+    ServerMessageHistory(int maxSize) {
+        super();
+        this.maxSize = maxSize;
+    }
+    
+    /**
+     * Records a transmitted server message.
+     * 
+     * @param transactionId the transaction id of the message
+     * @param message the serialized message
+     */
+    void add(int transactionId, String message) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (transactionIdToMessageMap == null) {
+            transactionIdToMessageMap = new LinkedHashMap() {
+                
+                /** Serial Version UID. */
+                private static final long serialVersionUID = 20070101L;
+
+                /**
+                 * @see java.util.LinkedHashMap#removeEldestEntry(java.util.Map.Entry)
+                 */
+                protected boolean removeEldestEntry(Map.Entry eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+        transactionIdToMessageMap.put(new Integer(transactionId), message);
+    }
+    
+    /**
+     * Returns the messages which a client at the specified transaction id has not received, in order, if all are 
+     * available.  Transaction ids are compared such that the history remains usable across integer overflow.
+     * 
+     * @param clientTransactionId the last transaction id received by the client
+     * @param currentTransactionId the current transaction id of the <code>Window</code>
+     * @return the missed serialized messages, or null if the client is not behind or the history does not contain
+     *         all of them
+     */
+    List getMessagesSince(int clientTransactionId, int currentTransactionId) {
+        int count = currentTransactionId - clientTransactionId;
+        if (count <= 0 || transactionIdToMessageMap == null || count > transactionIdToMessageMap.size()) {
+            return null;
+        }
+        List messages = new ArrayList(count);
+        for (int i = 1; i <= count; ++i) {
+            String message = (String) transactionIdToMessageMap.get(new Integer(clientTransactionId + i));
+            if (message == null) {
+                return null;
+            }
+            messages.add(message);
+        }
+        return messages;
+    }
+}
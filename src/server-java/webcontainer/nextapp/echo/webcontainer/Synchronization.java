@@ -30,6 +30,8 @@
 package nextapp.echo.webcontainer;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.servlet.http.HttpServletResponse;
 
@@ -91,6 +93,7 @@ implements SynchronizationState {
      *  <li>Initializes the <code>UserInstance</code> if it is new.</li>
      *  <li>Activates the <code>ApplicationInstance</code>.</li>
      *  <li>Processes input to the connection using an <code>InputProcessor</code>.</li>
+     *  <li>Replays missed server messages to an out-of-sync client, if possible, in lieu of the following.</li>
      *  <li>Generates output for the connection using an <code>OutputProcessor</code>.</li>
      *  <li>Purges updates from the <code>UpdateManager</code> (which were processed by the <code>OutputProcessor</code>.</li>
      *  <li>Deactivates the <code>ApplicationInstance</code>.</li>
@@ -104,6 +107,10 @@ implements SynchronizationState {
             inputProcessor = createInputProcessor(conn);
         } catch (InvalidXmlException ex) {
             // Invalid request made.
+            if (conn.getResponse() == null) {
+                // Synchronization performed over WebSocket: no status code is available.
+                throw ex;
+            }
             Log.log("Invalid XML Received, returning 400/Bad Request.", ex);
             conn.getResponse().sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid XML");
             return;
@@ -111,55 +118,119 @@ implements SynchronizationState {
         
         userInstance = conn.getUserInstance(inputProcessor.getWindowId(), inputProcessor.getInitId());
 
-        synchronized(userInstance) {
-            boolean initRequired = !userInstance.isInitialized();
-            
-            if (initRequired) {
-                // Initialize user instance.
-                userInstance.initHTTP(conn);
-            }
-
-            userInstance.setActive(true);
-            userInstance.prepareApplicationInstance(inputProcessor.getApplicationWindowId());
+        if (ServerConfiguration.SYNC_WINDOW_LOCKING) {
+            ReentrantLock windowLock = userInstance.getWindowLock(inputProcessor.getApplicationWindowId());
+            windowLock.lock();
             try {
-                // Process client input.
-                inputProcessor.process();
-                Window.getActive().updateLastUpdateTime();
+                processWindow(true);
+            } finally {
+                windowLock.unlock();
+            }
+        } else {
+            synchronized (userInstance) {
+                processWindow(false);
+            }
+        }
+    }
+    
+    /**
+     * Performs the synchronization of the target window.
+     * Invoked by <code>process()</code> while holding the lock of the target window, which is the 
+     * <code>UserInstance</code> itself unless per-window locking is enabled.  State shared between the windows of
+     * the application is only accessed while holding the <code>UserInstance</code> lock.
+     * 
+     * @param windowLocking flag indicating whether per-window locking is enabled, in which case other windows may
+     *        be concurrently synchronized
+     * @throws IOException
+     */
+    private void processWindow(boolean windowLocking)
+    throws IOException {
+        try {
+            synchronized (userInstance) {
+                boolean initRequired = !userInstance.isInitialized();
                 
-                // Manage render states.
-                if (Window.getActive().getUpdateManager().getServerUpdateManager().isFullRefreshRequired()) {
-                	Window.getActive().clearRenderStates();
-                } else {
-                	Window.getActive().purgeRenderStates();
+                if (initRequired) {
+                    // Initialize user instance.
+                    userInstance.initHTTP(conn);
                 }
-                
-                // Render updates.
-                OutputProcessor outputProcessor = createOutputProcessor();
-                outputProcessor.process();
-                
+    
+                userInstance.setActive(true);
+                userInstance.prepareApplicationInstance(inputProcessor.getApplicationWindowId());
+            }
+            
+            // Process client input.
+            inputProcessor.process();
+            Window.getActive().updateLastUpdateTime();
+            
+            // Replay missed server messages to the client, in which case its input has not been processed
+            // and there is no new output to render.
+            List replayMessages = inputProcessor.getReplayMessages();
+            if (replayMessages != null) {
+                createOutputProcessor().processReplay(replayMessages);
+                return;
+            }
+            
+            // Manage render states.
+            if (Window.getActive().getUpdateManager().getServerUpdateManager().isFullRefreshRequired()) {
+            	Window.getActive().clearRenderStates();
+            } else {
+            	Window.getActive().purgeRenderStates();
+            }
+            
+            // Render updates.
+            OutputProcessor outputProcessor = createOutputProcessor();
+            outputProcessor.process();
+            
+            synchronized (userInstance) {
                 Window [] ws = ApplicationInstance.getActive().getWindows();
                 for (int i = 0; i < ws.length; i++) {
-                    if (ws[i] != Window.getActive()) {
-                        ServerUpdateManager sum = ws[i].getUpdateManager().getServerUpdateManager();
-                        Command[] commands = sum.getCommands();
-                        if (!sum.isEmpty() 
-                              || (commands != null && commands.length > 0)) {
-                            ws[i].getUpdateManager().applyAsyncUpdates();
+                    if (ws[i] == Window.getActive()) {
+                        ws[i].processComponentRemovals();
+                    } else if (windowLocking) {
+                        // Windows being synchronized by other threads apply their own updates and process their own
+                        // removals.
+                        ReentrantLock lock = userInstance.getWindowLock(ws[i].getId());
+                        if (lock.tryLock()) {
+                            try {
+                                processInactiveWindow(ws[i]);
+                            } finally {
+                                lock.unlock();
+                            }
                         }
+                    } else {
+                        processInactiveWindow(ws[i]);
                     }
-                    ws[i].processComponentRemovals();
                 }
-
+    
                 // if this window is closing, de-reference it so we don't leak memory
                 ApplicationInstance.getActive().removeIfClosing(Window.getActive());
-                
-                // Purge updates.
-                Window.getActive().getUpdateManager().purge();
-            } finally {
-            	Window.setActive(null);
-                userInstance.setActive(false);
+                if (windowLocking && ApplicationInstance.getActive().getWindow(Window.getActive().getId()) == null) {
+                    userInstance.removeWindowLock(Window.getActive().getId());
+                }
             }
+            
+            // Purge updates.
+            Window.getActive().getUpdateManager().purge();
+        } finally {
+        	Window.setActive(null);
+            userInstance.setActive(false);
+        }
+    }
+    
+    /**
+     * Applies pending asynchronous updates to and processes component removals of a window other than the window
+     * being synchronized.
+     * 
+     * @param window the window
+     */
+    private void processInactiveWindow(Window window) {
+        ServerUpdateManager sum = window.getUpdateManager().getServerUpdateManager();
+        Command[] commands = sum.getCommands();
+        if (!sum.isEmpty() 
+              || (commands != null && commands.length > 0)) {
+            window.getUpdateManager().applyAsyncUpdates();
         }
+        window.processComponentRemovals();
     }
     
     protected InputProcessor createInputProcessor(Connection conn) throws IOException {
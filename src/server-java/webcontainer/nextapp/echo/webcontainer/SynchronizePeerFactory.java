@@ -29,8 +29,8 @@
 
 package nextapp.echo.webcontainer;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import nextapp.echo.app.Component;
 import nextapp.echo.app.util.PeerFactory;
@@ -49,7 +49,8 @@ public class SynchronizePeerFactory {
             = new PeerFactory(RESOURCE_NAME, Thread.currentThread().getContextClassLoader());
 
     /** Peer factory for retrieving synchronization peers. */
-    private static final Map<Class, ComponentSynchronizePeer> peerRegistry = new HashMap<Class, ComponentSynchronizePeer>();
+    private static final Map<Class, ComponentSynchronizePeer> peerRegistry 
+            = new ConcurrentHashMap<Class, ComponentSynchronizePeer>();
 
     /**
      * Non-instantiable class.
@@ -39,6 +39,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.servlet.http.HttpSession;
 
@@ -122,7 +123,9 @@ public class UserInstance implements Serializable {
                     UserInstance.this.applicationWebSocket.sendMessage(AsyncMonitorService.REQUEST_SYNC_ATTR);
                 }
             } else if (ApplicationInstance.STYLE_SHEET_CHANGED_PROPERTY.equals(propertyName)) {
-                updatedPropertyNames.add(ApplicationInstance.STYLE_SHEET_CHANGED_PROPERTY);
+                synchronized (UserInstance.this) {
+                    updatedPropertyNames.add(ApplicationInstance.STYLE_SHEET_CHANGED_PROPERTY);
+                }
             }
         }
     };
@@ -158,6 +161,14 @@ public class UserInstance implements Serializable {
      * Map of <code>TaskQueueHandle</code>s to callback intervals.
      */
     private transient Map taskQueueToCallbackIntervalMap;
+    
+    /**
+     * Mapping between application window identifiers and the <code>ReentrantLock</code>s used to synchronize the
+     * corresponding windows.  Created on demand.
+     * 
+     * @see #getWindowLock(java.lang.String)
+     */
+    private transient Map windowLocks;
        
     /**
      * Creates a new <code>UserInstance</code>.
@@ -428,7 +439,7 @@ public class UserInstance implements Serializable {
      * Returns an iterator over updated property names.
      * Invoked by OutputProcessor.
      */
-    Iterator getUpdatedPropertyNames() {
+    synchronized Iterator getUpdatedPropertyNames() {
         if (updatedPropertyNames.size() == 0) {
             return Collections.EMPTY_SET.iterator();
         } else {
@@ -479,6 +490,26 @@ public class UserInstance implements Serializable {
         initialized = true;
     }
 
+    /**
+     * Returns the lock used to synchronize the application window with the specified identifier when 
+     * per-window locking is enabled.
+     * 
+     * @param applicationWindowId the application window identifier
+     * @return the lock
+     * @see ServerConfiguration#SYNC_WINDOW_LOCKING
+     */
+    synchronized ReentrantLock getWindowLock(String applicationWindowId) {
+        if (windowLocks == null) {
+            windowLocks = new HashMap();
+        }
+        ReentrantLock lock = (ReentrantLock) windowLocks.get(applicationWindowId);
+        if (lock == null) {
+            lock = new ReentrantLock();
+            windowLocks.put(applicationWindowId, lock);
+        }
+        return lock;
+    }
+    
     /**
      * Determines if the <code>UserInstance</code> has been initialized, 
      * i.e., whether its <code>init()</code> method has been invoked.
@@ -515,6 +546,18 @@ public class UserInstance implements Serializable {
         }
     }
 
+    /**
+     * Discards the lock of an application window which is no longer present.
+     * 
+     * @param applicationWindowId the application window identifier
+     * @see #getWindowLock(java.lang.String)
+     */
+    synchronized void removeWindowLock(String applicationWindowId) {
+        if (windowLocks != null) {
+            windowLocks.remove(applicationWindowId);
+        }
+    }
+    
     /**
      * Sets the contained <code>ApplicationInstance</code> active or inactive.
      * 
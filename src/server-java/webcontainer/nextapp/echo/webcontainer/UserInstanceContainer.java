@@ -1,9 +1,14 @@
 package nextapp.echo.webcontainer;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.servlet.http.HttpSession;
 import javax.servlet.http.HttpSessionActivationListener;
@@ -15,10 +20,19 @@ import nextapp.echo.webcontainer.service.StringVersionService;
 
 /**
  * Container / manager of all <code>UserInstance</code> objects in the servlet session.
+ * Lookups of existing <code>UserInstance</code>s do not block, such that concurrent requests of a session
+ * are not serialized by the container.
  */
 public class UserInstanceContainer 
 implements HttpSessionActivationListener, HttpSessionBindingListener, Serializable {
     
+    /** 
+     * Serial Version UID.
+     * Retains the value computed for the class prior to the removal of <code>synchronized</code> modifiers, such that
+     * previously serialized sessions remain compatible.
+     */
+    private static final long serialVersionUID = -6541642574940271838L;
+    
     /**
      * Creates a new Web Application Container instance using the provided
      * client <code>Connection</code>.  The instance will automatically
@@ -31,6 +45,41 @@ implements HttpSessionActivationListener, HttpSessionBindingListener, Serializab
         return new UserInstanceContainer(conn);
     }
     
+    /**
+     * The serialized form of the container, in which identifier maps are stored as <code>HashMap</code>s 
+     * (permitting <code>null</code> keys), as was the case prior to the introduction of 
+     * <code>ConcurrentHashMap</code>s.
+     * 
+     * @see #writeObject(java.io.ObjectOutputStream)
+     */
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("nextUserInstanceId", Integer.TYPE),
+        new ObjectStreamField("nextInitId", Integer.TYPE),
+        new ObjectStreamField("characterEncoding", String.class),
+        new ObjectStreamField("servletUri", String.class),
+        new ObjectStreamField("clientWindowIdToUserInstance", Map.class),
+        new ObjectStreamField("idToUserInstance", Map.class),
+        new ObjectStreamField("initIdToInitialRequestParameterMap", Map.class),
+        new ObjectStreamField("windowSpecificUserInstances", Boolean.TYPE)
+    };
+    
+    /**
+     * Key under which a <code>null</code> identifier is stored in the <code>ConcurrentHashMap</code>s of the 
+     * container, which do not support <code>null</code> keys.
+     * Applicable to <code>UserInstance</code>s of servlets which do not use window-specific instances.
+     */
+    private static final String NULL_KEY = "\u0000";
+    
+    /**
+     * Returns the map key representing an identifier.
+     * 
+     * @param id the identifier, possibly null
+     * @return the key
+     */
+    private static String toKey(String id) {
+        return id == null ? NULL_KEY : id;
+    }
+    
     /**
      * Sequential <code>UserInstance</code> identifier generator.
      */
@@ -54,18 +103,18 @@ implements HttpSessionActivationListener, HttpSessionBindingListener, Serializab
     /**
      * Mapping between client-generated unique browser window identifiers and <code>UserInstance</code> values.
      */
-    private Map clientWindowIdToUserInstance = new HashMap();
+    private Map clientWindowIdToUserInstance = new ConcurrentHashMap();
     
     /**
      * Mapping between <code>UserInstance</code> identifiers and <code>UserInstance</code> values.
      */
-    private Map idToUserInstance = new HashMap();
+    private Map idToUserInstance = new ConcurrentHashMap();
     
     /**
      * Mapping between initial request identifiers (as returned by <code>createInitId()</code>) and maps of initial
      * requested parameters retrieved from <code>HttpServletRequest.getParameterMap()</code>.
      */
-    private Map initIdToInitialRequestParameterMap = new HashMap();
+    private Map initIdToInitialRequestParameterMap = new ConcurrentHashMap();
     
     /**
      * The containing <code>HttpSession</code>.
@@ -107,7 +156,10 @@ implements HttpSessionActivationListener, HttpSessionBindingListener, Serializab
      */
     public String createInitId(Connection conn) {
         Map parameterMap = new HashMap(conn.getRequest().getParameterMap());
-        String initId = new Integer(nextInitId++).toString();
+        String initId;
+        synchronized (this) {
+            initId = new Integer(nextInitId++).toString();
+        }
         initIdToInitialRequestParameterMap.put(initId, parameterMap);
         return initId;
     }
@@ -117,8 +169,8 @@ implements HttpSessionActivationListener, HttpSessionBindingListener, Serializab
      * to start up, or is already started.
      * @return
      */
-    public synchronized boolean hasActiveInstances() {
-        return initIdToInitialRequestParameterMap.size() > 0 || clientWindowIdToUserInstance.size() > 0;
+    public boolean hasActiveInstances() {
+        return !initIdToInitialRequestParameterMap.isEmpty() || !clientWindowIdToUserInstance.isEmpty();
     }
     
     /**
@@ -138,25 +190,32 @@ implements HttpSessionActivationListener, HttpSessionBindingListener, Serializab
      *        request identifier
      * @return the existing or created <code>UserInstance</code>
      */
-    public synchronized UserInstance loadUserInstance(String clientWindowId, String initId) {
+    public UserInstance loadUserInstance(String clientWindowId, String initId) {
         if (!windowSpecificUserInstances) {
             clientWindowId = null;
         }
-        UserInstance userInstance = (UserInstance) clientWindowIdToUserInstance.get(clientWindowId);
-        if (userInstance == null) {
-            String uiid;
-            
-            if (windowSpecificUserInstances) {
-                uiid = new Integer(nextUserInstanceId++).toString();
-            } else {
-                uiid = null;
+        UserInstance userInstance = (UserInstance) clientWindowIdToUserInstance.get(toKey(clientWindowId));
+        if (userInstance != null) {
+            return userInstance;
+        }
+        synchronized (this) {
+            // Re-check, as the instance may have been created by a concurrent request.
+            userInstance = (UserInstance) clientWindowIdToUserInstance.get(toKey(clientWindowId));
+            if (userInstance == null) {
+                String uiid;
+                
+                if (windowSpecificUserInstances) {
+                    uiid = new Integer(nextUserInstanceId++).toString();
+                } else {
+                    uiid = null;
+                }
+                Map initialRequestParameterMap = (Map) initIdToInitialRequestParameterMap.remove(toKey(uiid));
+                userInstance = createUserInstance(uiid, clientWindowId, initialRequestParameterMap); 
+                idToUserInstance.put(toKey(userInstance.getId()), userInstance);
+                clientWindowIdToUserInstance.put(toKey(clientWindowId), userInstance);
             }
-            Map initialRequestParameterMap = (Map) initIdToInitialRequestParameterMap.remove(uiid);
-            userInstance = createUserInstance(uiid, clientWindowId, initialRequestParameterMap); 
-            clientWindowIdToUserInstance.put(clientWindowId, userInstance);
-            idToUserInstance.put(userInstance.getId(), userInstance);
+            return userInstance;
         }
-        return userInstance;
     }
     
     protected UserInstance createUserInstance(String uiid, String clientWindowId, Map initialRequestParameterMap) {
@@ -169,10 +228,10 @@ implements HttpSessionActivationListener, HttpSessionBindingListener, Serializab
      * 
      * @param userInstance the instance to unload
      */
-    synchronized void unloadUserInstance(UserInstance userInstance) {
+    void unloadUserInstance(UserInstance userInstance) {
         userInstance.dispose();
-        clientWindowIdToUserInstance.remove(userInstance.getClientWindowId());
-        idToUserInstance.remove(userInstance.getId());
+        clientWindowIdToUserInstance.remove(toKey(userInstance.getClientWindowId()));
+        idToUserInstance.remove(toKey(userInstance.getId()));
     }
     
     /**
@@ -182,8 +241,8 @@ implements HttpSessionActivationListener, HttpSessionBindingListener, Serializab
      *        the <code>UserInstance</code>'s <code>getId()</code> method
      * @return the <code>UserInstance</code>, or null if none exists
      */
-    synchronized UserInstance getUserInstanceById(String id) {
-        return (UserInstance) idToUserInstance.get(id);
+    UserInstance getUserInstanceById(String id) {
+        return (UserInstance) idToUserInstance.get(toKey(id));
     }
     
     /**
@@ -309,7 +368,7 @@ implements HttpSessionActivationListener, HttpSessionBindingListener, Serializab
      * Recreates reference to session.
      * Notifies <code>ApplicationInstance</code> of activation.
      */
-    public synchronized void sessionDidActivate(HttpSessionEvent e) {
+    public void sessionDidActivate(HttpSessionEvent e) {
         session = e.getSession();
         Iterator it = idToUserInstance.values().iterator();
         while (it.hasNext()) {
@@ -326,7 +385,7 @@ implements HttpSessionActivationListener, HttpSessionBindingListener, Serializab
      * Notifies <code>ApplicationInstance</code> of passivation.
      * Discards reference to session.
      */
-    public synchronized void sessionWillPassivate(HttpSessionEvent e) {
+    public void sessionWillPassivate(HttpSessionEvent e) {
         Iterator it = idToUserInstance.values().iterator();
         while (it.hasNext()) {
             UserInstance userInstance = (UserInstance) it.next();
@@ -358,4 +417,74 @@ implements HttpSessionActivationListener, HttpSessionBindingListener, Serializab
         dispose();
         session = null;
     }
+    
+    /**
+     * Copies a map keyed by identifiers into a <code>HashMap</code>, restoring <code>null</code> identifiers.
+     * 
+     * @param map the map to copy
+     * @return the <code>HashMap</code>
+     */
+    private static Map toHashMap(Map map) {
+        Map hashMap = new HashMap();
+        Iterator it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry entry = (Map.Entry) it.next();
+            hashMap.put(NULL_KEY.equals(entry.getKey()) ? null : entry.getKey(), entry.getValue());
+        }
+        return hashMap;
+    }
+    
+    /**
+     * Copies a map keyed by identifiers, possibly <code>null</code>, into a <code>ConcurrentHashMap</code>.
+     * 
+     * @param map the map to copy
+     * @return the <code>ConcurrentHashMap</code>
+     */
+    private static Map toConcurrentMap(Map map) {
+        Map concurrentMap = new ConcurrentHashMap();
+        Iterator it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry entry = (Map.Entry) it.next();
+            concurrentMap.put(toKey((String) entry.getKey()), entry.getValue());
+        }
+        return concurrentMap;
+    }
+
+    /**
+     * @see java.io.Serializable
+     * 
+     * Reads the persistent fields, converting the identifier maps to <code>ConcurrentHashMap</code>s.
+     */
+    private void readObject(ObjectInputStream in)
+    throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        nextUserInstanceId = fields.get("nextUserInstanceId", 0);
+        nextInitId = fields.get("nextInitId", 0);
+        characterEncoding = (String) fields.get("characterEncoding", "UTF-8");
+        servletUri = (String) fields.get("servletUri", null);
+        windowSpecificUserInstances = fields.get("windowSpecificUserInstances", false);
+        clientWindowIdToUserInstance = toConcurrentMap((Map) fields.get("clientWindowIdToUserInstance", new HashMap()));
+        idToUserInstance = toConcurrentMap((Map) fields.get("idToUserInstance", new HashMap()));
+        initIdToInitialRequestParameterMap = toConcurrentMap((Map) fields.get("initIdToInitialRequestParameterMap", 
+                new HashMap()));
+    }
+
+    /**
+     * @see java.io.Serializable
+     * 
+     * Writes the persistent fields, storing the identifier maps as <code>HashMap</code>s.
+     */
+    private synchronized void writeObject(ObjectOutputStream out) 
+    throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("nextUserInstanceId", nextUserInstanceId);
+        fields.put("nextInitId", nextInitId);
+        fields.put("characterEncoding", characterEncoding);
+        fields.put("servletUri", servletUri);
+        fields.put("windowSpecificUserInstances", windowSpecificUserInstances);
+        fields.put("clientWindowIdToUserInstance", toHashMap(clientWindowIdToUserInstance));
+        fields.put("idToUserInstance", toHashMap(idToUserInstance));
+        fields.put("initIdToInitialRequestParameterMap", toHashMap(initIdToInitialRequestParameterMap));
+        out.writeFields();
+    }
 }
@@ -30,6 +30,8 @@
 package nextapp.echo.webcontainer;
 
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -510,6 +512,85 @@ public abstract class WebContainerServlet extends HttpServlet {
         }
     }
     
+    /**
+     * Performs a client-server synchronization on behalf of a client which has not yet loaded, such that the 
+     * resulting server message may be embedded in the HTML page rendered to it.  The synchronization is processed 
+     * as though the specified client message had been received over the connection.
+     * 
+     * @param conn the <code>Connection</code> of the HTML page request
+     * @param clientMessage the client message
+     * @return the server message
+     * @throws IOException
+     */
+    public String processEmbeddedSynchronization(Connection conn, String clientMessage) 
+    throws IOException {
+        StringWriter out = new StringWriter();
+        Connection syncConn = new Connection(conn, new StringReader(clientMessage), out);
+        try {
+            activeConnection.set(syncConn);
+            Synchronization sync = new Synchronization(syncConn);
+            sync.process();
+            syncConn.getWriter().flush();
+            return out.toString();
+        } catch (IOException ex) {
+            // The user instance created by the synchronization is not referenced by the page request's connection.
+            syncConn.disposeUserInstance();
+            throw ex;
+        } catch (RuntimeException ex) {
+            syncConn.disposeUserInstance();
+            throw ex;
+        } finally {
+            activeConnection.set(conn);
+        }
+    }
+    
+    /**
+     * Processes a client-server synchronization received over a WebSocket.
+     * 
+     * @param webSocketConnection the <code>WebSocketConnection</code> over which the client message was received
+     * @param clientMessage the client message
+     * @return the server message, or an error message in the event the synchronization fails
+     */
+    String processWebSocketSynchronization(WebSocketConnection webSocketConnection, String clientMessage) {
+        Connection conn = null;
+        StringWriter out = new StringWriter();
+        try {
+            conn = new Connection(webSocketConnection, new StringReader(clientMessage), out);
+            activeConnection.set(conn);
+            Synchronization sync = new Synchronization(conn);
+            sync.process();
+            conn.getWriter().flush();
+            return out.toString();
+        } catch (IOException ex) {
+            return processWebSocketError(conn, ex);
+        } catch (RuntimeException ex) {
+            return processWebSocketError(conn, ex);
+        } finally {
+            activeConnection.set(null);
+        }
+    }
+    
+    /**
+     * Exception handler for processWebSocketSynchronization() method.  Disposes of the user instance, as is done 
+     * for synchronizations made over HTTP.
+     * 
+     * @param conn the <code>Connection</code> (may be null) 
+     * @param ex the exception
+     * @return the error message to send to the client
+     */
+    private String processWebSocketError(Connection conn, Exception ex) {
+        if (conn != null) {
+            try {
+                conn.disposeUserInstance();
+            } catch (RuntimeException ex2) {
+                Log.log("Disposal of user instance due to exception in processing failed due to an error in disposal", ex2);
+            }
+        }
+        String exceptionId = Uid.generateUidString();
+        Log.log("Server Exception. ID: " + exceptionId, ex);
+        return "Server Exception. ID: " + exceptionId;
+    }
+    
     /**
      * Exception handler for process() method. The current implementation writes an Exception ID to the client.
      * 
@@ -81,7 +81,7 @@ public class WebSocketConnection extends AbstractConnection {
     public void preInit(UserInstanceContainer userInstanceContainer) {
         this.userInstanceContainer = userInstanceContainer;
         userInstance = userInstanceContainer.getUserInstanceById(uiid);
-        final HttpSession session = request.getSession();
+        final HttpSession session = getSession();
         session.setAttribute(getUserInstanceContainerSessionKey(this.servlet), userInstanceContainer);
     }
 
@@ -90,7 +90,7 @@ public class WebSocketConnection extends AbstractConnection {
             throw new Error("WebSocketConnection is not preinitialized!");
         }
         applicationWebSocket = appws;
-        final HttpSession session = request.getSession();
+        final HttpSession session = getSession();
         session.setAttribute(getWebSocketSessionKey(this.servlet), this.applicationWebSocket);
         userInstance.initWebSocket(this);
     }
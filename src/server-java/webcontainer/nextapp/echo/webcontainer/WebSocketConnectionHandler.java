@@ -68,8 +68,16 @@ public abstract class WebSocketConnectionHandler {
                 String key = AbstractConnection.getUserInstanceContainerSessionKey(this.parent);
                 UserInstanceContainer userInstanceContainer = (UserInstanceContainer) session.getAttribute(key);
                 conn.preInit(userInstanceContainer);
+            }
+            if (conn.getApplicationWebSocket() == null) {
+                // First socket of the session: the user instance has typically been loaded by a prior HTTP request.
                 conn.postInit(newApplicationWebSocket(conn.getUserInstance().getApplicationInstance()));
             }
+            if (conn.getApplicationWebSocket() != null) {
+                conn.getApplicationWebSocket().setWebSocketConnection(conn);
+            }
+            // The container may recycle the request once the handshake has completed.
+            conn.detachRequest();
         } catch (Exception ex) {
             String exceptionId = Uid.generateUidString();
             Log.log("Server Exception. ID: " + exceptionId, ex);
@@ -0,0 +1,85 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+package nextapp.echo.webcontainer;
+
+import nextapp.echo.app.RenderState;
+import nextapp.echo.app.Window;
+
+/**
+ * Webcontainer rendering state pertaining to a <code>Window</code> as a whole, rather than to a specific component.
+ * Stored as the <code>RenderState</code> of the <code>Window</code> itself, and thus discarded whenever render states 
+ * are cleared, i.e., on a full refresh.
+ */
+class WindowRenderState 
+implements RenderState {
+
+    /** Serial Version UID. */
+    private static final long serialVersionUID = 20070101L;
+
+    /**
+     * Retrieves the <code>WindowRenderState</code> of a <code>Window</code>, creating it if necessary.
+     * 
+     * @param window the <code>Window</code>
+     * @return the <code>WindowRenderState</code>
+     */
+    static WindowRenderState forWindow(Window window) {
+        WindowRenderState windowRenderState = (WindowRenderState) window.getRenderState(window);
+        if (windowRenderState == null) {
+            windowRenderState = new WindowRenderState();
+            window.setRenderState(window, windowRenderState);
+        }
+        return windowRenderState;
+    }
+    
+    /** Referenced styles and property values which have been transmitted to the client. */
+    private ReferenceCache referenceCache = new ReferenceCache();
+    
+    /** Recently transmitted server messages. */
+    private ServerMessageHistory serverMessageHistory = 
+            new ServerMessageHistory((int) ServerConfiguration.SYNC_HISTORY_SIZE);
+    
+    /**
+     * Returns the <code>ReferenceCache</code>.
+     * 
+     * @return the <code>ReferenceCache</code>
+     */
+    ReferenceCache getReferenceCache() {
+        return referenceCache;
+    }
+    
+    /**
+     * Returns the <code>ServerMessageHistory</code>.
+     * 
+     * @return the <code>ServerMessageHistory</code>
+     */
+    ServerMessageHistory getServerMessageHistory() {
+        return serverMessageHistory;
+    }
+}
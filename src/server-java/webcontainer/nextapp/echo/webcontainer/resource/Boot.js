@@ -46,6 +46,42 @@ Echo.Boot = {
         client.sync();
     },
     
+    /**
+     * Initial server message rendered by the server and embedded in the page (in JSON form), 
+     * used by <code>bootEmbedded()</code>.
+     */
+    initialServerMessage: null,
+    
+    /**
+     * Boots a remote client using the initial server message embedded in the page 
+     * (<code>Echo.Boot.initialServerMessage</code>) rather than performing an initial synchronization.
+     * The client adopts the window identifiers under which the server performed the synchronization.
+     * 
+     * @param {String} serverBaseUrl the servlet URL
+     * @param {Boolean} debug flag indicating whether debug capabilities should be enabled
+     * @param {String} windowId the server-assigned client window identifier
+     * @param {String} appWindowId the server-assigned application window identifier
+     */
+    bootEmbedded: function(serverBaseUrl, debug, windowId, appWindowId) {
+        Core.Web.init();
+        
+        if (debug && window.Echo.DebugConsole) {
+            Echo.DebugConsole.install();
+        }
+        
+        // Store identifiers in window name, such that they are retained if the window is reloaded.
+        window.name = (window.name || "").replace(/;EchoWindowId=[^;]*;/i, "").replace(/;EchoAppWindowId=[^;]*;/i, "") +
+                ";EchoWindowId=" + windowId + ";" + ";EchoAppWindowId=" + appWindowId + ";";
+        Echo.Client.appWindowId = appWindowId;
+        
+        var client = new Echo.RemoteClient(serverBaseUrl, null, windowId, null);
+        for (var i = 0; i < Echo.Boot._initMethods.length; ++i) {
+            Echo.Boot._initMethods[i](client);
+        }
+        client.processEmbeddedServerMessage(Echo.Boot.initialServerMessage);
+        Echo.Boot.initialServerMessage = null;
+    },
+    
     /**
      * Boots a remote client on a specific window of an existing application.
      * 
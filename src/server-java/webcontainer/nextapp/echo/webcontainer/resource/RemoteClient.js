@@ -95,6 +95,16 @@ Echo.RemoteClient = Core.extend(Echo.Client, {
      */
     _urlMappings: null,
     
+    /**
+     * Mapping between referenced property ids and values, retained across synchronizations until a full refresh.
+     */
+    _referencedProperties: null,
+    
+    /**
+     * Mapping between referenced style ids and styles, retained across synchronizations until a full refresh.
+     */
+    _referencedStyles: null,
+    
     /**
      * Queue of commands to be executed.  Each command occupies two
      * indices, first index is the command peer, second is the command data.
@@ -649,6 +659,46 @@ Echo.RemoteClient = Core.extend(Echo.Client, {
         }
     },
     
+    /**
+     * Retrieves the server message document from a synchronization response.
+     * Server messages are sent as JSON if the client reported support for it in its client properties, in which case
+     * a lightweight <code>Echo.RemoteClient.JsonDocument</code> is returned in place of an XML DOM.
+     * 
+     * @param {Core.Web.HttpConnection} conn the connection
+     * @return the response document, or null if none is available
+     */
+    _getResponseDocument: function(conn) {
+        var contentType = conn.getResponseHeader("Content-Type");
+        if (contentType && contentType.indexOf("application/json") === 0) {
+            try {
+                return new Echo.RemoteClient.JsonDocument(JSON.parse(conn.getResponseText()));
+            } catch (ex) {
+                return null;
+            }
+        }
+        return conn.getResponseXml();
+    },
+    
+    /**
+     * Processes an initial server message which was rendered by the server and embedded in the application's HTML page,
+     * in lieu of performing an initial synchronization.  The client properties, which were not available to the server
+     * when the message was rendered, are sent in a synchronization performed once the message has been processed.
+     * 
+     * @param serverMessage the server message, in JSON form
+     */
+    processEmbeddedServerMessage: function(serverMessage) {
+        this._clientMessage._renderClientProperties();
+        var syncListener = Core.method(this, function() {
+            this.removeServerUpdateCompleteListener(syncListener);
+            this._syncRequested = true;
+            Core.Web.Scheduler.run(Core.method(this, this.sync));
+        });
+        this.addServerUpdateCompleteListener(syncListener);
+        this._transactionInProgress = true;
+        this._processSyncResponse({ type: "response", document: new Echo.RemoteClient.JsonDocument(serverMessage), 
+                valid: true });
+    },
+    
     /**
      * Process a response to a client-server synchronization.
      * 
@@ -658,8 +708,8 @@ Echo.RemoteClient = Core.extend(Echo.Client, {
         if (Echo.Client.profilingTimer) {
             Echo.Client.profilingTimer.mark("syn");
         }
-        // Retrieve response document.
-        var responseDocument = e.source.getResponseXml();
+        // Retrieve response document (provided directly in the case of an embedded server message).
+        var responseDocument = e.document || this._getResponseDocument(e.source);
         
         // Verify that response document exists and is valid.
         if (!e.valid || !responseDocument || !responseDocument.documentElement) {
@@ -668,6 +718,12 @@ Echo.RemoteClient = Core.extend(Echo.Client, {
             return;
         }
         
+        if (responseDocument.documentElement.nodeName == "replay") {
+            // Server is replaying messages which were not received by this client.
+            this._processReplay(Core.Web.DOM.getChildElementsByTagName(responseDocument.documentElement, "smsg"), 0);
+            return;
+        }
+        
         var initMessage = false;
         // If this is the first ServerMessage received, initialize the client
         // This step will create the application, determine where in the DOM the application should be
@@ -698,6 +754,27 @@ Echo.RemoteClient = Core.extend(Echo.Client, {
         serverMessage.process();
     },
     
+    /**
+     * Processes server messages replayed by the server after this client failed to receive them (e.g., due to a lost
+     * response).  Each message is processed once processing of its predecessor has completed.
+     * 
+     * @param {Array} messageElements the replayed server message elements
+     * @param {Number} index the index of the message element to process
+     */
+    _processReplay: function(messageElements, index) {
+        var serverMessage = new Echo.RemoteClient.ServerMessage(this, { documentElement: messageElements[index] });
+        this.transactionId = serverMessage.transactionId;
+        if (index < messageElements.length - 1) {
+            serverMessage.addCompletionListener(Core.method(this, function() {
+                this._processReplay(messageElements, index + 1);
+            }));
+        } else {
+            serverMessage.addCompletionListener(Core.method(this, this._processSyncComplete));
+        }
+        this._processServerMessage = true;
+        serverMessage.process();
+    },
+    
     _removeLoadingScreen: function() {
         var loadingElement = document.getElementById("loadingDiv");
         if (loadingElement) {
@@ -757,19 +834,34 @@ Echo.RemoteClient = Core.extend(Echo.Client, {
         }
         this._syncInitTime = new Date().getTime();
 
-        var conn = new Core.Web.HttpConnection(this.getServiceUrl("Echo.Sync"), "POST",
-                this._clientMessage._renderXml(), "text/xml;charset=utf-8");
+        var clientMessageDocument = this._clientMessage._renderXml();
         
         this._lastClientMessage = this._clientMessage;
         
         // Create new client message.
         this._clientMessage = new Echo.RemoteClient.ClientMessage(this, null, null);
 
-        conn.addResponseListener(Core.method(this, this._processSyncResponse));
-        
         // Profiling Timer (Un-comment to enable, comment to disable).
         Echo.Client.profilingTimer = new Echo.Client.Timer();
         
+        if (this._asyncManager && this._asyncManager._isSyncAvailable()) {
+            // Synchronize over the asynchronous manager's connection (i.e., an open WebSocket).
+            this._asyncManager._sync(clientMessageDocument);
+            return;
+        }
+        
+        this._syncHttp(clientMessageDocument);
+    },
+    
+    /**
+     * Sends a client message to the server in an HTTP request to the synchronization service.
+     * 
+     * @param {Document} clientMessageDocument the client message
+     */
+    _syncHttp: function(clientMessageDocument) {
+        var conn = new Core.Web.HttpConnection(this.getServiceUrl("Echo.Sync"), "POST",
+                clientMessageDocument, "text/xml;charset=utf-8");
+        conn.addResponseListener(Core.method(this, this._processSyncResponse));
         conn.connect();
     }
 });
@@ -845,6 +937,24 @@ Echo.RemoteClient.AbstractAsyncManager = Core.extend({
     $abstract: true,
 
     $virtual: {
+        /**
+          * Determines whether client-server synchronizations may be performed using <code>_sync()</code>.
+          * 
+          * @return true if synchronizations may be performed by the asynchronous manager
+          * @type Boolean
+          */
+        _isSyncAvailable: function() {
+            return false;
+        },
+        
+        /**
+          * Performs a client-server synchronization, invoking <code>Echo.RemoteClient._processSyncResponse()</code> 
+          * with the response.  Only invoked if <code>_isSyncAvailable()</code> returns true.
+          * 
+          * @param {Document} clientMessageDocument the client message
+          */
+        _sync: function(clientMessageDocument) { },
+
         /**
           * Starts server polling for asynchronous tasks.
           */
@@ -874,7 +984,14 @@ Echo.RemoteClient.WebSocketAsyncManager = Core.extend(Echo.RemoteClient.Abstract
         /**
          * Close code when application instance is disposed.
          */
-        DISPOSE_CLOSE_CODE: 8806
+        DISPOSE_CLOSE_CODE: 8806,
+        
+        /**
+         * Time, in milliseconds, to wait for the response to a synchronization performed over the WebSocket, 
+         * after which the synchronization is repeated over HTTP.
+         * @type Number
+         */
+        SYNC_TIMEOUT: 30000
     },
     
     /**
@@ -895,6 +1012,38 @@ Echo.RemoteClient.WebSocketAsyncManager = Core.extend(Echo.RemoteClient.Abstract
      */
     _unsync: null,    
 
+    /**
+     * Flag indicating whether the server accepts client-server synchronizations over the WebSocket.
+     * @type Boolean
+     */
+    _syncEnabled: false,
+    
+    /**
+     * Flag indicating whether a client-server synchronization is awaiting a response over the WebSocket.
+     * @type Boolean
+     */
+    _syncInProgress: false,
+    
+    /**
+     * The client message of the synchronization in progress, retained to repeat it over HTTP in the event
+     * no response is received.
+     * @type Document
+     */
+    _syncDocument: null,
+    
+    /**
+     * Runnable which falls back to HTTP if no response to the synchronization in progress is received in time.
+     * @type Core.Web.Scheduler.Runnable
+     */
+    _syncTimeoutRunnable: null,
+    
+    /**
+     * Flag indicating whether a synchronization over the WebSocket has timed out, in which case all further 
+     * synchronizations are performed over HTTP.
+     * @type Boolean
+     */
+    _syncTimedOut: false,
+
     /** 
      * Creates a new asynchronous manager basedon Core.Web.WebSocketConnection.
      *
@@ -960,10 +1109,18 @@ Echo.RemoteClient.WebSocketAsyncManager = Core.extend(Echo.RemoteClient.Abstract
                     if (!this._executeSync()) {
                         this._unsync = true;
                     }
+                } else if (this._syncInProgress) {
+                    this._endSync();
+                    this._processSyncMessage(e.data.data);
                 }
                 break;
             case Core.Web.WebSocketConnection.EVENT_CLOSE:
-                if (e.data.code == Echo.RemoteClient.WebSocketAsyncManager.DISPOSE_CLOSE_CODE) {
+                if (this._syncInProgress) {
+                    // Response to synchronization has been lost.
+                    this._endSync();
+                    this._client._transactionInProgress = false;
+                    this._notifyForNetworkError();
+                } else if (e.data.code == Echo.RemoteClient.WebSocketAsyncManager.DISPOSE_CLOSE_CODE) {
                     this._client.fail(e.data.reason);
                 } else if (e.data.code == Echo.RemoteClient.WebSocketAsyncManager.SYNC_CLOSE_CODE || 
                         ++this._failedConnectAttempts >= Echo.RemoteClient.AbstractAsyncManager.MAX_CONNECT_ATTEMPTS) {
@@ -973,10 +1130,87 @@ Echo.RemoteClient.WebSocketAsyncManager = Core.extend(Echo.RemoteClient.Abstract
                 }
                 break;
             case Core.Web.WebSocketConnection.EVENT_ERROR:
+                if (this._syncInProgress) {
+                    this._endSync();
+                    this._client._transactionInProgress = false;
+                }
                 this._notifyForNetworkError();
                 break;
         }
     },
+    
+    /** @see Echo.RemoteClient.AbstractAsyncManager#_isSyncAvailable */
+    _isSyncAvailable: function() {
+        return this._syncEnabled && !this._syncTimedOut && this._wsConnection.isOpen();
+    },
+    
+    /** @see Echo.RemoteClient.AbstractAsyncManager#_sync */
+    _sync: function(clientMessageDocument) {
+        this._syncInProgress = true;
+        this._syncDocument = clientMessageDocument;
+        this._syncTimeoutRunnable = Core.Web.Scheduler.run(Core.method(this, this._processSyncTimeout), 
+                Echo.RemoteClient.WebSocketAsyncManager.SYNC_TIMEOUT);
+        this._wsConnection.sendData(new XMLSerializer().serializeToString(clientMessageDocument));
+    },
+    
+    /**
+     * Marks the synchronization in progress as complete, cancelling its timeout.
+     */
+    _endSync: function() {
+        this._syncInProgress = false;
+        this._syncDocument = null;
+        if (this._syncTimeoutRunnable) {
+            Core.Web.Scheduler.remove(this._syncTimeoutRunnable);
+            this._syncTimeoutRunnable = null;
+        }
+    },
+    
+    /**
+     * Invoked when no response to a synchronization performed over the WebSocket has been received within
+     * <code>SYNC_TIMEOUT</code>.  Repeats the synchronization over HTTP, and disables synchronization over the 
+     * WebSocket, which remains in use for server push notifications.  A late response is ignored.
+     */
+    _processSyncTimeout: function() {
+        this._syncTimeoutRunnable = null;
+        if (!this._syncInProgress) {
+            return;
+        }
+        var clientMessageDocument = this._syncDocument;
+        this._endSync();
+        this._syncTimedOut = true;
+        this._client._syncHttp(clientMessageDocument);
+    },
+    
+    /**
+     * Processes a server message received over the WebSocket in response to a synchronization.
+     * The message is provided to <code>Echo.RemoteClient._processSyncResponse()</code> in the form of an 
+     * <code>HttpConnection</code> response event.
+     * 
+     * @param {String} text the received message
+     */
+    _processSyncMessage: function(text) {
+        var source = {
+            getResponseHeader: function(header) {
+                // Server messages are sent as JSON arrays or XML documents.
+                return header == "Content-Type" && text.charAt(0) == "[" ? "application/json" : null;
+            },
+            getResponseText: function() {
+                return text;
+            },
+            getResponseXml: function() {
+                if (text.indexOf("<") !== 0) {
+                    return null;
+                }
+                var responseDocument = new DOMParser().parseFromString(text, "text/xml");
+                if (!responseDocument || !responseDocument.documentElement || 
+                        responseDocument.documentElement.nodeName == "parsererror") {
+                    return null;
+                }
+                return responseDocument;
+            }
+        };
+        this._client._processSyncResponse({ type: "response", source: source, valid: true });
+    },
 
     /**
      * Call when synchronization finished.
@@ -1021,6 +1255,12 @@ Echo.RemoteClient.HTTPAsyncManager = Core.extend(Echo.RemoteClient.AbstractAsync
      * @type Core.Web.Scheduler.Runnable
      */
     _runnable: null,
+    
+    /**
+     * Flag indicating whether server polling is started.
+     * @type Boolean
+     */
+    _running: false,
 
     /** 
      * Creates a new asynchronous manager basedon Core.Web.HttpConnection.
@@ -1060,6 +1300,13 @@ Echo.RemoteClient.HTTPAsyncManager = Core.extend(Echo.RemoteClient.AbstractAsync
                 }
                 return;
             }
+            if (responseDocument.documentElement.getAttribute("long-poll") == "true") {
+                // Server held the request until its long-poll timeout expired: poll again immediately.
+                if (this._running) {
+                    this._pollServerForUpdates();
+                }
+                return;
+            }
         } else if (++this._failedConnectAttempts >= Echo.RemoteClient.AbstractAsyncManager.MAX_CONNECT_ATTEMPTS) {
         	this._client._handleInvalidPollResponse(e); 
         	this._start();
@@ -1083,6 +1330,7 @@ Echo.RemoteClient.HTTPAsyncManager = Core.extend(Echo.RemoteClient.AbstractAsync
      */
     _start: function() {
         this._failedConnectAttempts = 0;
+        this._running = true;
         Core.Web.Scheduler.add(this._runnable);
     },
     
@@ -1090,6 +1338,7 @@ Echo.RemoteClient.HTTPAsyncManager = Core.extend(Echo.RemoteClient.AbstractAsync
      * Stops server polling for asynchronous tasks.
      */
     _stop: function() {
+        this._running = false;
         Core.Web.Scheduler.remove(this._runnable);
     }
 });
@@ -1320,7 +1569,9 @@ Echo.RemoteClient.ClientMessage = Core.extend({
             enginePresto: env.ENGINE_PRESTO,
             engineWebKit: env.ENGINE_WEBKIT,
             engineVersionMajor: env.ENGINE_VERSION_MAJOR,
-            engineVersionMinor: env.ENGINE_VERSION_MINOR
+            engineVersionMinor: env.ENGINE_VERSION_MINOR,
+            
+            serverMessageJson: !!(window.JSON && window.JSON.parse)
         });
     },
     
@@ -1403,6 +1654,236 @@ Echo.RemoteClient.CommandExec = Core.extend({
     }
 });
 
+/**
+ * Read-only document built from a JSON-encoded server message.
+ * Provides the following subset of the XML DOM API, such that directive processors and serial property translators 
+ * may process it as they would an XML DOM:
+ * <ul>
+ *  <li>Document: <code>nodeType</code>, <code>documentElement</code>, <code>getElementsByTagName()</code></li>
+ *  <li>All nodes: <code>nodeType</code>, <code>nodeName</code>, <code>ownerDocument</code>, <code>parentNode</code>,
+ *   <code>previousSibling</code>, <code>nextSibling</code></li>
+ *  <li>Elements: <code>firstChild</code>, <code>lastChild</code>, <code>childNodes</code> (an array), 
+ *   <code>hasChildNodes()</code>, <code>getAttribute()</code>, <code>hasAttribute()</code>, 
+ *   <code>getElementsByTagName()</code></li>
+ *  <li>Text nodes: <code>data</code>, <code>nodeValue</code></li>
+ * </ul>
+ * Nodes may not be modified.  Peers which require other DOM features should be used with XML server messages, 
+ * i.e., with <code>ServerConfiguration.SYNC_JSON_ENABLED</code> (property 'echo.sync.json') disabled.
+ * <p>
+ * Elements are encoded as arrays, the first item of which is the element name, the optional second item of which
+ * is an object containing attributes, and the remaining items of which are child elements (arrays) or text (strings).
+ */
+Echo.RemoteClient.JsonDocument = Core.extend({
+
+    $static: {
+    
+        /**
+         * Element node.
+         * 
+         * @param {Array} data the JSON element data
+         * @param parentNode the parent node
+         */
+        Element: Core.extend({
+            
+            /** Node type. */
+            nodeType: 1,
+            
+            /** Element name. */
+            nodeName: null,
+            
+            /** Owner document. */
+            ownerDocument: null,
+            
+            /** Parent node. */
+            parentNode: null,
+            
+            /** First child node. */
+            firstChild: null,
+            
+            /** Last child node. */
+            lastChild: null,
+            
+            /** Previous sibling node. */
+            previousSibling: null,
+            
+            /** Next sibling node. */
+            nextSibling: null,
+            
+            /** 
+             * Child nodes.
+             * @type Array
+             */
+            childNodes: null,
+            
+            /** Attribute name/value map. */
+            _attributes: null,
+            
+            $construct: function(data, parentNode, ownerDocument) {
+                this.nodeName = data[0];
+                this.parentNode = parentNode;
+                this.ownerDocument = ownerDocument;
+                this.childNodes = [];
+                var i = 1;
+                if (data.length > 1 && typeof data[1] == "object" && !(data[1] instanceof Array)) {
+                    this._attributes = data[1];
+                    i = 2;
+                }
+                for (; i < data.length; ++i) {
+                    var node = typeof data[i] == "string" ? 
+                            new Echo.RemoteClient.JsonDocument.Text(data[i], this, ownerDocument) :
+                            new Echo.RemoteClient.JsonDocument.Element(data[i], this, ownerDocument);
+                    if (this.lastChild) {
+                        this.lastChild.nextSibling = node;
+                        node.previousSibling = this.lastChild;
+                    } else {
+                        this.firstChild = node;
+                    }
+                    this.lastChild = node;
+                    this.childNodes.push(node);
+                }
+            },
+            
+            /**
+             * Collects descendant elements with the specified name, in document order.
+             * 
+             * @param {String} name the element name, or "*" to collect all elements
+             * @param {Array} elements the array to which elements should be added
+             */
+            _collectElementsByTagName: function(name, elements) {
+                for (var node = this.firstChild; node; node = node.nextSibling) {
+                    if (node.nodeType == 1) {
+                        if (name == "*" || node.nodeName == name) {
+                            elements.push(node);
+                        }
+                        node._collectElementsByTagName(name, elements);
+                    }
+                }
+            },
+            
+            /**
+             * Returns the value of an attribute.
+             * 
+             * @param {String} name the attribute name
+             * @return the attribute value, or null if it is not set
+             * @type String
+             */
+            getAttribute: function(name) {
+                if (this._attributes && this._attributes.hasOwnProperty(name)) {
+                    return this._attributes[name];
+                }
+                return null;
+            },
+            
+            /**
+             * Returns the descendant elements with the specified name, in document order.
+             * 
+             * @param {String} name the element name, or "*" to return all descendant elements
+             * @return the elements
+             * @type Array
+             */
+            getElementsByTagName: function(name) {
+                var elements = [];
+                this._collectElementsByTagName(name, elements);
+                return elements;
+            },
+            
+            /**
+             * Determines if an attribute is set.
+             * 
+             * @param {String} name the attribute name
+             * @return true if the attribute is set
+             * @type Boolean
+             */
+            hasAttribute: function(name) {
+                return !!this._attributes && this._attributes.hasOwnProperty(name);
+            },
+            
+            /**
+             * Determines if the element has child nodes.
+             * 
+             * @return true if the element has child nodes
+             * @type Boolean
+             */
+            hasChildNodes: function() {
+                return this.firstChild != null;
+            }
+        }),
+        
+        /**
+         * Text node.
+         * 
+         * @param {String} data the text
+         * @param parentNode the parent node
+         */
+        Text: Core.extend({
+            
+            /** Node type. */
+            nodeType: 3,
+            
+            /** Node name. */
+            nodeName: "#text",
+            
+            /** Owner document. */
+            ownerDocument: null,
+            
+            /** Parent node. */
+            parentNode: null,
+            
+            /** Previous sibling node. */
+            previousSibling: null,
+            
+            /** Next sibling node. */
+            nextSibling: null,
+            
+            /** Text content. */
+            data: null,
+            
+            /** Text content. */
+            nodeValue: null,
+            
+            $construct: function(data, parentNode, ownerDocument) {
+                this.data = this.nodeValue = data;
+                this.parentNode = parentNode;
+                this.ownerDocument = ownerDocument;
+            }
+        })
+    },
+    
+    /** Node type. */
+    nodeType: 9,
+    
+    /** 
+     * The document element.
+     * @type Echo.RemoteClient.JsonDocument.Element
+     */
+    documentElement: null,
+    
+    /**
+     * Creates a new <code>JsonDocument</code>.
+     * 
+     * @param {Array} data the parsed JSON server message
+     */
+    $construct: function(data) {
+        this.documentElement = new Echo.RemoteClient.JsonDocument.Element(data, this, this);
+    },
+    
+    /**
+     * Returns the elements of the document with the specified name, in document order.
+     * 
+     * @param {String} name the element name, or "*" to return all elements
+     * @return the elements
+     * @type Array
+     */
+    getElementsByTagName: function(name) {
+        var elements = [];
+        if (name == "*" || this.documentElement.nodeName == name) {
+            elements.push(this.documentElement);
+        }
+        this.documentElement._collectElementsByTagName(name, elements);
+        return elements;
+    }
+});
+
 /**
  * Server message processing facility.
  * Parses XML DOM of message received from server, first loading required modules and then delegating to registered server message
@@ -1556,11 +2037,23 @@ Echo.RemoteClient.ServerMessage = Core.extend({
             // Start server push listener if required.
             var async_interval = parseInt(this.document.documentElement.getAttribute("async-interval"), 10);
             var ws_enable = this.document.documentElement.getAttribute("ws-enable") == "true";
-            if (async_interval) {
+            var ws_sync = this.document.documentElement.getAttribute("ws-sync") == "true";
+            if (ws_sync && !async_interval && Core.Web.WebSocketConnection.isAvailable()) {
+                // Synchronize over a WebSocket, regardless of whether server push is in use.
+                if (!(this.client._asyncManager instanceof Echo.RemoteClient.WebSocketAsyncManager)) {
+                    if (this.client._asyncManager) {
+                        this.client._asyncManager._stop(true);
+                    }
+                    this.client._asyncManager = new Echo.RemoteClient.WebSocketAsyncManager(this.client);
+                }
+                this.client._asyncManager._syncEnabled = true;
+                this.client._asyncManager._start();
+            } else if (async_interval) {
                 if (Core.Web.WebSocketConnection.isAvailable() && ws_enable) {
                     if (!this.client._asyncManager) {
                         this.client._asyncManager = new Echo.RemoteClient.WebSocketAsyncManager(this.client);
                     }
+                    this.client._asyncManager._syncEnabled = ws_sync;
                 } else {
                     if (!this.client._asyncManager) {
                         this.client._asyncManager = new Echo.RemoteClient.HTTPAsyncManager(this.client);
@@ -1708,6 +2201,9 @@ Echo.RemoteClient.ComponentSyncInitProcessor = Core.extend(Echo.RemoteClient.Dir
         while (element) {
             if (element.nodeType == 1 && element.nodeName == "cl") {
                 this.client.application.rootComponent.removeAll();
+                // Referenced properties and styles are retransmitted following a full refresh.
+                this.client._referencedProperties = null;
+                this.client._referencedStyles = null;
             }
             element = element.nextSibling;
         }
@@ -1819,16 +2315,31 @@ Echo.RemoteClient.ComponentSyncUpdateProcessor = Core.extend(Echo.RemoteClient.D
         Echo.RemoteClient.ServerMessage.addProcessor("CSyncUp", this);
     },
     
-    /** Mapping between referenced property ids and values. */
+    /** 
+     * Mapping between referenced property ids and values. 
+     * Shared with the client, as referenced properties are retained across synchronizations. 
+     */
     _propertyMap : null,
 
-    /** Mapping between referenced style ids and values. */
+    /** 
+     * Mapping between referenced style ids and values.
+     * Shared with the client, as referenced styles are retained across synchronizations. 
+     */
     _styleMap: null,
     
     /** @see #Echo.RemoteClient.DirectiveProcessor#process */
     process: function(dirElement) {
         var element;
         
+        if (!this.client._referencedProperties) {
+            this.client._referencedProperties = {};
+        }
+        if (!this.client._referencedStyles) {
+            this.client._referencedStyles = {};
+        }
+        this._propertyMap = this.client._referencedProperties;
+        this._styleMap = this.client._referencedStyles;
+        
         element = dirElement.firstChild;
         while (element) {
             if (element.nodeType == 1) {
@@ -1849,6 +2360,15 @@ Echo.RemoteClient.ComponentSyncUpdateProcessor = Core.extend(Echo.RemoteClient.D
      * @param {Element} rpElement the directive element 
      */
     _processReferencedProperties: function(rpElement) {
+        // Remove properties which are no longer referenced by the server.
+        var evictedIds = rpElement.getAttribute("x");
+        if (evictedIds) {
+            evictedIds = evictedIds.split(",");
+            for (var i = 0; i < evictedIds.length; ++i) {
+                delete this._propertyMap[evictedIds[i]];
+            }
+        }
+        
         var propertyElement = rpElement.firstChild;
         while (propertyElement) {
             if (propertyElement.nodeName == "p") {
@@ -1858,11 +2378,7 @@ Echo.RemoteClient.ComponentSyncUpdateProcessor = Core.extend(Echo.RemoteClient.D
                 if (!translator) {
                     throw new Error("Translator not available for property type: " + propertyType);
                 }
-                var propertyValue = translator.toProperty(this.client, propertyElement);
-                if (!this._propertyMap) {
-                    this._propertyMap = {};
-                }
-                this._propertyMap[propertyId] = propertyValue;
+                this._propertyMap[propertyId] = translator.toProperty(this.client, propertyElement);
             }
             propertyElement = propertyElement.nextSibling;
         }
@@ -1884,9 +2400,6 @@ Echo.RemoteClient.ComponentSyncUpdateProcessor = Core.extend(Echo.RemoteClient.D
                     Echo.Serial.loadProperty(this.client, propertyElement, null, style, this._propertyMap);
                     propertyElement = propertyElement.nextSibling;
                 }
-                if (!this._styleMap) {
-                    this._styleMap = {};
-                }
                 this._styleMap[styleId] = style;
             }
             styleElement = styleElement.nextSibling;
@@ -1947,7 +2460,7 @@ Echo.RemoteClient.ComponentSyncUpdateProcessor = Core.extend(Echo.RemoteClient.D
                     break;
                 case "sr": // Style reference update
                     if (element.firstChild) {
-                        parentComponent.setStyle(this._styleMap ? this._styleMap[element.firstChild.nodeValue] : null);
+                        parentComponent.setStyle(this._styleMap[element.firstChild.nodeValue]);
                     } else {
                         parentComponent.setStyle(null);
                     }
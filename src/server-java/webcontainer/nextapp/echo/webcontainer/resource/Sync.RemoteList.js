@@ -52,6 +52,18 @@ Echo.Sync._ListComponentMixins = {
      */
     updateListData: function(listData) {
         this.set("items", listData.items);
+    },
+    
+    /**
+     * Updates the <code>items</code> property of the list component by replacing a range of its current items
+     * as specified by the given <code>listDataDelta</code> object.  Invoked by server-side synchronization peer directly.
+     * 
+     * @param {Echo.Sync.RemoteListDataDelta} listDataDelta the list data delta
+     */
+    updateListDataDelta: function(listDataDelta) {
+        var items = this.get("items") || [];
+        this.set("items", items.slice(0, listDataDelta.index).concat(listDataDelta.items, 
+                items.slice(listDataDelta.index + listDataDelta.removeCount)));
     }
 };
 
@@ -152,6 +164,43 @@ Echo.Sync.RemoteListData = Core.extend({
     }
 });
     
+/**
+ * Incremental update to remote list data, replacing a range of items.
+ */
+Echo.Sync.RemoteListDataDelta = Core.extend({
+
+    /**
+     * The index of the first replaced item.
+     * @type Number
+     */
+    index: null,
+    
+    /**
+     * The number of items to remove.
+     * @type Number
+     */
+    removeCount: null,
+    
+    /**
+     * The items to insert.
+     * @type Array
+     */
+    items: null,
+    
+    /** 
+     * Creates a new <code>RemoteListDataDelta</code>.
+     * 
+     * @param {Number} index the index of the first replaced item
+     * @param {Number} removeCount the number of items to remove
+     * @param {Array} items the items to insert
+     */
+    $construct: function(index, removeCount, items) { 
+        this.index = index;
+        this.removeCount = removeCount;
+        this.items = items;
+    }
+});
+    
 /**
  * List data property translator singleton.
  */
@@ -161,6 +210,18 @@ Echo.Sync.RemoteListDataTranslator = Core.extend(Echo.Serial.PropertyTranslator,
     
         /** @see Echo.Serial.PropertyTranslator#toProperty */
         toProperty: function(client, propertyElement) {
+            return new Echo.Sync.RemoteListData(this.toItems(client, propertyElement));
+        },
+        
+        /**
+         * Translates the "e" child elements of a property element into an array of items.
+         * 
+         * @param {Echo.Client} client the client
+         * @param {Element} propertyElement the property element
+         * @return the items
+         * @type Array
+         */
+        toItems: function(client, propertyElement) {
             var items = [];
             var eElement = propertyElement.firstChild;
             while (eElement) {
@@ -185,7 +246,7 @@ Echo.Sync.RemoteListDataTranslator = Core.extend(Echo.Serial.PropertyTranslator,
                 items.push(item);
                 eElement = eElement.nextSibling;
             }
-            return new Echo.Sync.RemoteListData(items);
+            return items;
         }
     },
     
@@ -193,3 +254,23 @@ Echo.Sync.RemoteListDataTranslator = Core.extend(Echo.Serial.PropertyTranslator,
         Echo.Serial.addPropertyTranslator("RemoteListData", this);
     }
 });
+
+/**
+ * List data delta property translator singleton.
+ */
+Echo.Sync.RemoteListDataDeltaTranslator = Core.extend(Echo.Serial.PropertyTranslator, {
+        
+    $static: {
+    
+        /** @see Echo.Serial.PropertyTranslator#toProperty */
+        toProperty: function(client, propertyElement) {
+            return new Echo.Sync.RemoteListDataDelta(parseInt(propertyElement.getAttribute("i"), 10),
+                    parseInt(propertyElement.getAttribute("r"), 10),
+                    Echo.Sync.RemoteListDataTranslator.toItems(client, propertyElement));
+        }
+    },
+    
+    $load: function() {
+        Echo.Serial.addPropertyTranslator("RemoteListDataDelta", this);
+    }
+});
@@ -55,7 +55,13 @@ Echo.Sync.RemoteTableSync = Core.extend(Echo.Render.ComponentSync, {
          * Array of properties which may be updated without full re-render.
          * @type Array
          */
-        _supportedPartialProperties: ["selection"]
+        _supportedPartialProperties: ["selection"],
+        
+        /**
+         * Array of properties which may be updated along with added/removed children without full re-render.
+         * @type Array
+         */
+        _supportedChildUpdateProperties: ["selection", "rowCount", "columnCount"]
     },
     
     $load: function() {
@@ -74,6 +80,43 @@ Echo.Sync.RemoteTableSync = Core.extend(Echo.Render.ComponentSync, {
      */
     _columnWidths: null,
     
+    /**
+     * Number of rows in the table model.  Equal to <code>_rowCount</code> (the number of rendered rows) unless row
+     * windowing is enabled.
+     * @type Number
+     */
+    _totalRowCount: 0,
+    
+    /**
+     * Maximum number of rendered rows, 0 if row windowing is disabled.
+     * @type Number
+     */
+    _windowSize: 0,
+    
+    /**
+     * Model index of the first rendered row.
+     * @type Number
+     */
+    _windowStart: 0,
+    
+    /**
+     * Row window start most recently requested from the server.
+     * @type Number
+     */
+    _requestedWindowStart: null,
+    
+    /**
+     * Measured height of a table row, in pixels.  Used to size the scrolling region of a windowed table.
+     * @type Number
+     */
+    _rowHeight: 20,
+    
+    /**
+     * Scroll position to be restored once a windowed table has been re-rendered.
+     * @type Number
+     */
+    _scrollTop: null,
+    
     /** Constructor. */
     $construct: function() {
         this.selectionModel = null;
@@ -92,33 +135,37 @@ Echo.Sync.RemoteTableSync = Core.extend(Echo.Render.ComponentSync, {
             if (this._rowCount === 0) {
                 return;
             }
-            var mouseEnterLeaveSupport = Core.Web.Env.PROPRIETARY_EVENT_MOUSE_ENTER_LEAVE_SUPPORTED;
-            var enterEvent = mouseEnterLeaveSupport ? "mouseenter" : "mouseover";
-            var exitEvent = mouseEnterLeaveSupport ? "mouseleave" : "mouseout";
             var rowOffset = (this._headerVisible ? 1 : 0);
-            var rolloverEnterRef = Core.method(this, this._processRolloverEnter);
-            var rolloverExitRef = Core.method(this, this._processRolloverExit);
-            var clickRef = Core.method(this, this._processClick);
-            
             for (var rowIndex = 0; rowIndex < this._rowCount; ++rowIndex) {
-                var tr = this._table.rows[rowIndex + rowOffset];
-                if (this._rolloverEnabled) {
-                    Core.Web.Event.add(tr, enterEvent, rolloverEnterRef, false);
-                    Core.Web.Event.add(tr, exitEvent, rolloverExitRef, false);
-                }
-                if (this._selectionEnabled) {
-                    Core.Web.Event.add(tr, "click", clickRef, false);
-                    Core.Web.Event.Selection.disable(tr);
-                }
+                this._addRowEventListeners(this._table.rows[rowIndex + rowOffset]);
             }
         }
     },
     
+    /**
+     * Adds event listeners to a single table row.
+     * 
+     * @param {Element} tr the TR table row element
+     */
+    _addRowEventListeners: function(tr) {
+        if (this._rolloverEnabled) {
+            var mouseEnterLeaveSupport = Core.Web.Env.PROPRIETARY_EVENT_MOUSE_ENTER_LEAVE_SUPPORTED;
+            Core.Web.Event.add(tr, mouseEnterLeaveSupport ? "mouseenter" : "mouseover", 
+                    Core.method(this, this._processRolloverEnter), false);
+            Core.Web.Event.add(tr, mouseEnterLeaveSupport ? "mouseleave" : "mouseout", 
+                    Core.method(this, this._processRolloverExit), false);
+        }
+        if (this._selectionEnabled) {
+            Core.Web.Event.add(tr, "click", Core.method(this, this._processClick), false);
+            Core.Web.Event.Selection.disable(tr);
+        }
+    },
+    
     /**
      * Deselects all selected rows.
      */
     _clearSelected: function() {
-        for (var i = 0; i < this._rowCount; ++i) {
+        for (var i = 0; i < this._totalRowCount; ++i) {
             if (this.selectionModel.isSelectedIndex(i)) {
                 this._setSelected(i, false);
             }
@@ -160,7 +207,7 @@ Echo.Sync.RemoteTableSync = Core.extend(Echo.Render.ComponentSync, {
         var index = this._headerVisible ? -1 : 0;
         while (testElement) {
             if (testElement == element) {
-                return index;
+                return index == -1 ? -1 : index + this._windowStart;
             }
             testElement = testElement.nextSibling;
             ++index;
@@ -212,6 +259,30 @@ Echo.Sync.RemoteTableSync = Core.extend(Echo.Render.ComponentSync, {
         this.component.doAction();
     },
     
+    /**
+     * Processes a scroll event on a windowed table, requesting the server to move the row window when the visible
+     * rows approach its edges.
+     */
+    _processScroll: function(e) {
+        if (!this.client || !this._rowHeight) {
+            return;
+        }
+        var visibleRows = Math.ceil(this._div.clientHeight / this._rowHeight);
+        var firstVisibleRow = Math.floor(this._div.scrollTop / this._rowHeight);
+        var margin = Math.max(0, Math.floor((this._windowSize - visibleRows) / 2));
+        var threshold = Math.floor(margin / 2);
+        var windowEnd = this._windowStart + this._rowCount;
+        
+        if ((this._windowStart > 0 && firstVisibleRow < this._windowStart + threshold) || 
+                (windowEnd < this._totalRowCount && firstVisibleRow + visibleRows > windowEnd - threshold)) {
+            var windowStart = Math.max(0, firstVisibleRow - margin);
+            if (windowStart != this._requestedWindowStart) {
+                this._requestedWindowStart = windowStart;
+                this.component.fireEvent({type: "rowWindow", source: this.component, data: windowStart});
+            }
+        }
+    },
+    
     /**
      * Processes a mouse rollover enter event on a table row.
      */
@@ -253,7 +324,18 @@ Echo.Sync.RemoteTableSync = Core.extend(Echo.Render.ComponentSync, {
     /** @see Echo.Render.ComponentSync#renderAdd */
     renderAdd: function(update, parentElement) {
         this._columnCount = parseInt(this.component.render("columnCount"), 10);
-        this._rowCount = parseInt(this.component.render("rowCount"), 10);
+        this._totalRowCount = parseInt(this.component.render("rowCount"), 10);
+        this._windowSize = parseInt(this.component.render("rowWindowSize", 0), 10);
+        this._headerVisible = this.component.get("headerVisible");
+        if (this._windowSize > 0) {
+            this._windowStart = parseInt(this.component.render("rowWindowStart", 0), 10);
+            this._rowCount = this._columnCount === 0 ? 0 : 
+                    this.component.getComponentCount() / this._columnCount - (this._headerVisible ? 1 : 0);
+        } else {
+            this._windowStart = 0;
+            this._rowCount = this._totalRowCount;
+        }
+        this._requestedWindowStart = this._windowStart;
         this._selectionEnabled = this.component.render("selectionEnabled");
         this._rolloverEnabled = this.component.render("rolloverEnabled");
         
@@ -264,8 +346,6 @@ Echo.Sync.RemoteTableSync = Core.extend(Echo.Render.ComponentSync, {
         this._defaultInsets = this.component.render("insets", 0);
         this._defaultPixelInsets = Echo.Sync.Insets.toPixels(this._defaultInsets);
         this._defaultCellPadding = Echo.Sync.Insets.toCssValue(this._defaultInsets);
-        
-        this._headerVisible = this.component.get("headerVisible");
     
         if (this._selectionEnabled) {
             this.selectionModel = new Echo.Sync.RemoteTable.ListSelectionModel(
@@ -333,7 +413,20 @@ Echo.Sync.RemoteTableSync = Core.extend(Echo.Render.ComponentSync, {
         }
         
         this._table.appendChild(this._tbody);
-        this._div.appendChild(this._table);
+        if (this._windowSize > 0) {
+            // Render windowed table within a scrolling region sized to contain all rows of the model.
+            this._div.style.display = "block";
+            this._div.style.overflow = "auto";
+            Echo.Sync.Extent.render(this.component.render("height"), this._div, "height", false, false);
+            this._scrollContentDiv = document.createElement("div");
+            this._scrollContentDiv.style.position = "relative";
+            this._table.style.position = "absolute";
+            this._scrollContentDiv.appendChild(this._table);
+            this._div.appendChild(this._scrollContentDiv);
+            Core.Web.Event.add(this._div, "scroll", Core.method(this, this._processScroll), false);
+        } else {
+            this._div.appendChild(this._table);
+        }
         parentElement.appendChild(this._div);
         
         var trPrototype = this._createRowPrototype();
@@ -352,8 +445,30 @@ Echo.Sync.RemoteTableSync = Core.extend(Echo.Render.ComponentSync, {
         this._addEventListeners();
     },
     
+    /** @see Echo.Render.ComponentSync#renderDisplay */
+    renderDisplay: function() {
+        if (this._windowSize === 0) {
+            return;
+        }
+        var rowOffset = this._headerVisible ? 1 : 0;
+        if (this._tbody.childNodes.length > rowOffset && this._tbody.childNodes[rowOffset].offsetHeight) {
+            this._rowHeight = this._tbody.childNodes[rowOffset].offsetHeight;
+        }
+        var headerHeight = this._headerVisible ? this._tbody.firstChild.offsetHeight : 0;
+        this._scrollContentDiv.style.height = (headerHeight + this._totalRowCount * this._rowHeight) + "px";
+        this._table.style.top = (this._windowStart * this._rowHeight) + "px";
+        if (this._scrollTop != null) {
+            this._div.scrollTop = this._scrollTop;
+            this._scrollTop = null;
+        }
+    },
+    
     /** @see Echo.Render.ComponentSync#renderDispose */
     renderDispose: function(update) {
+        if (this._windowSize > 0) {
+            Core.Web.Event.removeAll(this._div);
+            this._scrollContentDiv = null;
+        }
         this._columnWidths = null;
         if (this._rolloverEnabled || this._selectionEnabled) {
             var tr = this._tbody.firstChild;
@@ -375,6 +490,11 @@ Echo.Sync.RemoteTableSync = Core.extend(Echo.Render.ComponentSync, {
      * @param {Number} rowIndex the index of the row
      */
     _renderRowStyle: function(rowIndex) {
+        rowIndex -= this._windowStart;
+        if (rowIndex < 0 || rowIndex >= this._rowCount) {
+            // Row is not rendered.
+            return;
+        }
         var tableRowIndex = rowIndex + (this._headerVisible ? 1 : 0);
         if (tableRowIndex >= this._tbody.childNodes.length) {
             return;
@@ -436,30 +556,119 @@ Echo.Sync.RemoteTableSync = Core.extend(Echo.Render.ComponentSync, {
         
         while (columnIndex < this._columnCount) {
             var child = this.component.getComponent((rowIndex + (this._headerVisible ? 1 : 0)) * this._columnCount + columnIndex);
-            var layoutData = child.render("layoutData");
-            
-            if (layoutData) {
-                if (Core.Web.Env.QUIRK_TABLE_CELL_WIDTH_EXCLUDES_PADDING && this._columnWidths && 
-                        this._columnWidths[columnIndex]) { 
-                    var cellInsets = Echo.Sync.Insets.toPixels(layoutData.insets);
-                    if (this._defaultPixelInsets.left + this._defaultPixelInsets.right < cellInsets.left + cellInsets.right) {
-                        td.style.width = (this._columnWidths[columnIndex] - cellInsets.left - cellInsets.right) + "px";
-                    }
-                }
-                Echo.Sync.Insets.render(layoutData.insets, td, "padding");
-                Echo.Sync.Alignment.render(layoutData.alignment, td, true, this.component);
-                Echo.Sync.FillImage.render(layoutData.backgroundImage, td);
-                Echo.Sync.Color.render(layoutData.background, td, "backgroundColor");
-            }
-    
-            Echo.Render.renderComponentAdd(update, child, td);
-            
+            this._renderCell(update, child, td, columnIndex);
             ++columnIndex;
             td = td.nextSibling;
         }
         return tr;
     },
     
+    /**
+     * Renders a child component into a table cell.
+     *
+     * @param {Echo.Update.ComponentUpdate} update the update
+     * @param {Echo.Component} child the child component
+     * @param {Element} td the TD element, created from the row prototype
+     * @param {Number} columnIndex the index of the column
+     */
+    _renderCell: function(update, child, td, columnIndex) {
+        var layoutData = child.render("layoutData");
+        
+        if (layoutData) {
+            if (Core.Web.Env.QUIRK_TABLE_CELL_WIDTH_EXCLUDES_PADDING && this._columnWidths && 
+                    this._columnWidths[columnIndex]) { 
+                var cellInsets = Echo.Sync.Insets.toPixels(layoutData.insets);
+                if (this._defaultPixelInsets.left + this._defaultPixelInsets.right < cellInsets.left + cellInsets.right) {
+                    td.style.width = (this._columnWidths[columnIndex] - cellInsets.left - cellInsets.right) + "px";
+                }
+            }
+            Echo.Sync.Insets.render(layoutData.insets, td, "padding");
+            Echo.Sync.Alignment.render(layoutData.alignment, td, true, this.component);
+            Echo.Sync.FillImage.render(layoutData.backgroundImage, td);
+            Echo.Sync.Color.render(layoutData.background, td, "backgroundColor");
+        }
+
+        Echo.Render.renderComponentAdd(update, child, td);
+    },
+    
+    /**
+     * Renders an update in which cell components have been added or removed, replacing only the affected cells and
+     * appending or removing rows as required.  Removed children have already been disposed by the renderer.
+     * 
+     * @param {Echo.Update.ComponentUpdate} update the update
+     * @return true if the update was rendered, false if a full render is required
+     * @type Boolean
+     */
+    _renderChildUpdate: function(update) {
+        if (this._windowSize > 0 || update.hasUpdatedLayoutDataChildren() || !Core.Arrays.containsAll(
+                Echo.Sync.RemoteTableSync._supportedChildUpdateProperties, update.getUpdatedPropertyNames(), true)) {
+            return false;
+        }
+        if (parseInt(this.component.render("columnCount"), 10) != this._columnCount || this._columnCount === 0) {
+            return false;
+        }
+        
+        var i, rowIndex, tr;
+        var rowOffset = this._headerVisible ? 1 : 0;
+        var rowCount = parseInt(this.component.render("rowCount"), 10);
+        if (parseInt(this.component.render("rowWindowSize", 0), 10) !== 0) {
+            return false;
+        }
+        this._totalRowCount = rowCount;
+        var retainedRowCount = Math.min(rowCount, this._rowCount);
+        var addedChildren = update.getAddedChildren() || [];
+        var trPrototype = this._createRowPrototype();
+        
+        // Replace cells of added children in existing rows.
+        var updatedRows = {};
+        for (i = 0; i < addedChildren.length; ++i) {
+            var index = this.component.indexOf(addedChildren[i]);
+            rowIndex = Math.floor(index / this._columnCount) - rowOffset;
+            if (rowIndex < 0) {
+                // Header changes require full render.
+                return false;
+            }
+            if (rowIndex < retainedRowCount) {
+                var columnIndex = index % this._columnCount;
+                tr = this._tbody.childNodes[rowIndex + rowOffset];
+                var td = trPrototype.childNodes[columnIndex].cloneNode(false);
+                this._renderCell(update, addedChildren[i], td, columnIndex);
+                tr.replaceChild(td, tr.childNodes[columnIndex]);
+                updatedRows[rowIndex] = true;
+            }
+        }
+        
+        // Remove deleted rows.
+        while (this._rowCount > rowCount) {
+            tr = this._tbody.childNodes[this._rowCount - 1 + rowOffset];
+            Core.Web.Event.removeAll(tr);
+            this._tbody.removeChild(tr);
+            --this._rowCount;
+        }
+        
+        // Append inserted rows.
+        while (this._rowCount < rowCount) {
+            tr = this._renderRow(update, this._rowCount, trPrototype);
+            this._tbody.appendChild(tr);
+            if (this.component.isRenderEnabled()) {
+                this._addRowEventListeners(tr);
+            }
+            updatedRows[this._rowCount] = true;
+            ++this._rowCount;
+        }
+        
+        if (this._selectionEnabled) {
+            var selectionUpdate = update.getUpdatedProperty("selection");
+            if (selectionUpdate) {
+                this._setSelectedFromProperty(selectionUpdate.newValue, true);
+            }
+            for (rowIndex in updatedRows) {
+                this._renderRowStyle(parseInt(rowIndex, 10));
+            }
+        }
+        return true;
+    },
+    
     /** @see Echo.Render.ComponentSync#renderUpdate */
     renderUpdate: function(update) {
         if (!update.hasUpdatedLayoutDataChildren() && !update.getAddedChildren() && !update.getRemovedChildren()) {
@@ -475,7 +684,13 @@ Echo.Sync.RemoteTableSync = Core.extend(Echo.Render.ComponentSync, {
                 return false;
             }
         }
+        if (this._renderChildUpdate(update)) {
+            return false;
+        }
         // full update
+        if (this._windowSize > 0) {
+            this._scrollTop = this._div.scrollTop;
+        }
         var element = this._div;
         var containerElement = element.parentNode;
         Echo.Render.renderComponentDispose(update, update.parent);
@@ -0,0 +1,153 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+package nextapp.echo.webcontainer.service;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.IOException;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+
+import nextapp.echo.app.Window;
+import nextapp.echo.app.util.Log;
+import nextapp.echo.webcontainer.Connection;
+import nextapp.echo.webcontainer.ServerConfiguration;
+
+/**
+ * A parked asynchronous monitor request, which is held open using Servlet 3.0 asynchronous processing until a task 
+ * is enqueued in the monitored <code>Window</code> or the long-poll timeout expires.
+ * No container thread is held while the request is parked.
+ * <p>
+ * This class is only loaded when long-polling is enabled, such that the service remains usable in Servlet 2.5 
+ * containers.  Instances are deliberately not <code>Serializable</code>, such that they are not persisted with
+ * the <code>Window</code>'s listeners.
+ */
+class AsyncMonitorLongPoll 
+implements AsyncListener, PropertyChangeListener {
+    
+    /**
+     * Parks an asynchronous monitor request.
+     * 
+     * @param conn the <code>Connection</code> of the request
+     * @param window the monitored <code>Window</code>
+     */
+    static void park(Connection conn, Window window) {
+        AsyncContext asyncContext = conn.getRequest().startAsync();
+        asyncContext.setTimeout(ServerConfiguration.ASYNC_MONITOR_LONG_POLL_TIMEOUT);
+        AsyncMonitorLongPoll longPoll = new AsyncMonitorLongPoll(asyncContext, window);
+        asyncContext.addListener(longPoll);
+        window.addPropertyChangeListener(Window.LAST_ENQUEUE_TASK_PROPERTY, longPoll);
+        
+        // Resume immediately if a task was enqueued prior to the listener being registered.
+        if (window.hasQueuedTasks()) {
+            longPoll.resume(true);
+        }
+    }
+    
+    /** The <code>AsyncContext</code> of the parked request. */
+    private AsyncContext asyncContext;
+    
+    /** The monitored <code>Window</code>. */
+    private Window window;
+    
+    /** Flag indicating whether the request has been resumed. */
+    private boolean resumed = false;
+    
+    /**
+     * Creates a new <code>AsyncMonitorLongPoll</code>.
+     * 
+     * @param asyncContext the <code>AsyncContext</code> of the parked request
+     * @param window the monitored <code>Window</code>
+     */
+    private AsyncMonitorLongPoll(AsyncContext asyncContext, Window window) {
+        super();
+        this.asyncContext = asyncContext;
+        this.window = window;
+    }
+    
+    /**
+     * Completes the parked request, rendering the asynchronous monitor response.
+     * Only the first invocation has any effect.
+     * 
+     * @param requestSync flag indicating whether the client should synchronize
+     */
+    private void resume(boolean requestSync) {
+        synchronized (this) {
+            if (resumed) {
+                return;
+            }
+            resumed = true;
+        }
+        window.removePropertyChangeListener(Window.LAST_ENQUEUE_TASK_PROPERTY, this);
+        try {
+            AsyncMonitorService.writeResponse(asyncContext.getResponse().getWriter(), requestSync, true);
+        } catch (IOException ex) {
+            Log.log("Cannot render asynchronous monitor response.", ex);
+        } finally {
+            asyncContext.complete();
+        }
+    }
+    
+    /**
+     * @see java.beans.PropertyChangeListener#propertyChange(java.beans.PropertyChangeEvent)
+     */
+    public void propertyChange(PropertyChangeEvent e) {
+        resume(true);
+    }
+
+    /**
+     * @see javax.servlet.AsyncListener#onComplete(javax.servlet.AsyncEvent)
+     */
+    public void onComplete(AsyncEvent e) {
+        // Ensure listener is removed in the event the request was completed by the container.
+        window.removePropertyChangeListener(Window.LAST_ENQUEUE_TASK_PROPERTY, this);
+    }
+
+    /**
+     * @see javax.servlet.AsyncListener#onError(javax.servlet.AsyncEvent)
+     */
+    public void onError(AsyncEvent e) {
+        window.removePropertyChangeListener(Window.LAST_ENQUEUE_TASK_PROPERTY, this);
+    }
+
+    /**
+     * @see javax.servlet.AsyncListener#onStartAsync(javax.servlet.AsyncEvent)
+     */
+    public void onStartAsync(AsyncEvent e) { }
+
+    /**
+     * @see javax.servlet.AsyncListener#onTimeout(javax.servlet.AsyncEvent)
+     */
+    public void onTimeout(AsyncEvent e) {
+        resume(false);
+    }
+}
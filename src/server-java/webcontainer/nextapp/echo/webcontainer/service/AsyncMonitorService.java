@@ -31,11 +31,13 @@ package nextapp.echo.webcontainer.service;
 
 
 import java.io.IOException;
+import java.io.Writer;
 
 import nextapp.echo.app.ApplicationInstance;
 import nextapp.echo.app.Window;
 import nextapp.echo.webcontainer.Connection;
 import nextapp.echo.webcontainer.ContentType;
+import nextapp.echo.webcontainer.ServerConfiguration;
 import nextapp.echo.webcontainer.Service;
 import nextapp.echo.webcontainer.UserInstance;
 import nextapp.echo.webcontainer.UserInstanceContainer;
@@ -47,6 +49,9 @@ import nextapp.echo.webcontainer.WebContainerServlet;
  * performed since the last server interaction, such that the client might
  * resynchronize with the server.
  * <p>
+ * If long-polling is enabled (see <code>ServerConfiguration.ASYNC_MONITOR_LONG_POLL</code>) and supported by 
+ * the container, requests are held open until a task is enqueued or the long-poll timeout expires.
+ * <p>
  * An instance of this service must be registered with the 
  * <code>ServiceRegistry</code> if asynchronous polling is required.
  */
@@ -105,11 +110,33 @@ implements Service {
             w.updateLastUpdateTime();
         }
         boolean hasQueuedTasks = w!= null && w.hasQueuedTasks();
-        conn.getWriter().write("<async-monitor " + 
+        if (!hasQueuedTasks && w != null && ServerConfiguration.ASYNC_MONITOR_LONG_POLL 
+                && conn.getRequest().isAsyncSupported()) {
+            // Hold the request until a task is enqueued, without holding the container thread.
+            AsyncMonitorLongPoll.park(conn, w);
+            return;
+        }
+        writeResponse(conn.getWriter(), hasQueuedTasks, false);
+    }
+    
+    /**
+     * Writes the asynchronous monitor response.
+     * 
+     * @param w the <code>Writer</code>
+     * @param requestSync flag indicating whether the client should synchronize
+     * @param longPoll flag indicating that the response was held open until a task was enqueued or a timeout 
+     *        expired, such that the client may poll again immediately
+     * @throws IOException
+     */
+    static void writeResponse(Writer w, boolean requestSync, boolean longPoll) 
+    throws IOException {
+        w.write("<async-monitor " + 
         		REQUEST_SYNC_ATTR + 
         		"=\"" + 
-        		Boolean.toString(hasQueuedTasks) + 
-        		"\"/>");
+        		Boolean.toString(requestSync) + 
+        		"\"" + 
+        		(longPoll ? " long-poll=\"true\"" : "") + 
+        		"/>");
     }
     
     private void errorIfNull(Object o) {
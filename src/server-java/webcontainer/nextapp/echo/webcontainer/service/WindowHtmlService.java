@@ -30,6 +30,9 @@
 package nextapp.echo.webcontainer.service;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.security.SecureRandom;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.Properties;
@@ -43,7 +46,6 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.w3c.dom.Text;
 import org.xml.sax.SAXException;
 
 import nextapp.echo.app.ApplicationInstance;
@@ -89,17 +91,40 @@ implements Service {
     
     private String networkOutageMsg;
     
+    /** Namespace URI of client messages. */
+    private static final String CLIENT_MESSAGE_NAMESPACE_URI = "http://www.nextapp.com/products/echo/svrmsg/clientmessage.3.0";
+    
+    /** 
+     * Random number generator, used to create window identifiers.  Identifiers of embedded windows are created by the
+     * server and must not be predictable, as are those created by <code>java.util.Random</code>.
+     */
+    private static final SecureRandom random = new SecureRandom();
+    
+    /** Template slot for the Internet Explorer 8 compatibility mode meta element. */
+    private static final int SLOT_IE_META = 0;
+    
+    /** Template slot for per-request head content. */
+    private static final int SLOT_HEAD = 1;
+    
+    /** Template slot for the value of the body element's onload attribute. */
+    private static final int SLOT_ONLOAD = 2;
+    
+    /** Template slot for the identifier of the root element. */
+    private static final int SLOT_ROOT_ID = 3;
+    
+    /** Number of template slots. */
+    private static final int SLOT_COUNT = 4;
+    
+    /** The compiled page template, created on first use. */
+    private volatile WindowHtmlTemplate template;
+    
     /**
-     * Create a new root window HTML document.
+     * Creates the static structure of the root window HTML document, from which the <code>WindowHtmlTemplate</code>
+     * is compiled.  Per-request content is represented by slots.
      * 
-     * @param conn the <code>Connection</code>
-     * @param debug flag indicating whether debug capabilities should be enabled
      * @return the created document
      */
-    private Document createHtmlDocument(Connection conn, boolean debug) {
-        UserInstanceContainer userInstanceContainer = conn.getUserInstanceContainer();
-        String userAgent = conn.getRequest().getHeader("User-Agent");
-        
+    private Document createTemplateDocument() {
         Document document = null;
         // only used when a document is created from scratch
         Element htmlElement = null;
@@ -176,12 +201,9 @@ implements Service {
 	            metaCompElement.setAttribute("content", "IE=edge");
 	            headElement.appendChild(metaCompElement);
 	        }
-	        else if (userAgent != null && USER_AGENT_MSIE8.matcher(userAgent).find()) {
-	            // Force Internet Explorer 8 standards-compliant mode.
-	            Element metaCompElement = document.createElement("meta");
-	            metaCompElement.setAttribute("http-equiv", "X-UA-Compatible");
-	            metaCompElement.setAttribute("content", "IE=8");
-	            headElement.appendChild(metaCompElement);
+	        else {
+	            // Internet Explorer 8 standards-compliant mode is forced based on user agent.
+	            headElement.appendChild(WindowHtmlTemplate.createSlot(document, SLOT_IE_META));
 	        }
 	
 	        // Force UTF-8 document code for IE9. See http://echo.nextapp.com/site/node/6658
@@ -201,67 +223,7 @@ implements Service {
 	        
         }
 
-        Element scriptElement = document.createElement("script");
-        Text textNode = document.createTextNode(" ");
-        scriptElement.appendChild(textNode);
-        scriptElement.setAttribute("type", "text/javascript");
-        scriptElement.setAttribute("src", userInstanceContainer.getServiceUri(BootService.SERVICE, null));
-        headElement.appendChild(scriptElement);
-        
-        // If a request to the server fails due to a dropped connection / inaccessible server then we show 
-        // a network outage message, asking the user to retry.
-        Element globalVarsScriptElement = document.createElement("script");
-        Text networkOutageMsgTextNode = document.createTextNode("var networkOutageMsg = \"" + getNetworkOutageMsg() + "\";");
-        globalVarsScriptElement.appendChild(networkOutageMsgTextNode);
-        globalVarsScriptElement.setAttribute("type", "text/javascript");
-        headElement.appendChild(globalVarsScriptElement);
-
-        WebContainerServlet servlet = conn.getServlet();
-        
-        // Include application-provided initialization scripts.
-        Iterator scriptIt = servlet.getInitScripts();
-        if (scriptIt != null) {
-            while (scriptIt.hasNext()) {
-                Service scriptService = (Service) scriptIt.next();
-                scriptElement = document.createElement("script");
-                textNode = document.createTextNode(" ");
-                scriptElement.appendChild(textNode);
-                scriptElement.setAttribute("type", "text/javascript");
-                scriptElement.setAttribute("src", userInstanceContainer.getServiceUri(scriptService, null));
-                headElement.appendChild(scriptElement);
-            }
-        }
-
-        // Include application-provided stylesheet(s).
-        Iterator styleSheetIt = servlet.getInitStyleSheets();
-        if (styleSheetIt != null) {
-            while (styleSheetIt.hasNext()) {
-                Service styleSheetService = (Service) styleSheetIt.next();
-                Element linkElement = document.createElement("link");
-                linkElement.setAttribute("rel", "StyleSheet");
-                linkElement.setAttribute("type", "text/css");
-                linkElement.setAttribute("href", userInstanceContainer.getServiceUri(styleSheetService, null));
-                if(styleSheetService instanceof CSSStyleSheetService)
-                    linkElement.setAttribute("MEDIA", ((CSSStyleSheetService)styleSheetService).getMediaCSV());
-                headElement.appendChild(linkElement);
-                
-                Node linkTextNode = document.createTextNode(" ");
-                linkElement.appendChild(linkTextNode);
-            }
-        }
-        
-
-        styleSheetIt = servlet.getCssFileNames();
-        if (styleSheetIt != null) {
-            while (styleSheetIt.hasNext()) {
-                String styleSheetService = (String) styleSheetIt.next();
-                Element linkElement = document.createElement("link");
-                linkElement.setAttribute("rel", "StyleSheet");
-                linkElement.setAttribute("type", "text/css");
-                linkElement.setAttribute("href", resolveCSSLink(styleSheetService));
-                headElement.appendChild(linkElement);
-            }
-        }
+        headElement.appendChild(WindowHtmlTemplate.createSlot(document, SLOT_HEAD));
 
         if (createdDocument) {
 	        bodyElement = document.createElement("body");
@@ -269,21 +231,14 @@ implements Service {
 	        htmlElement.appendChild(bodyElement);
         }
         
-        String windowId = conn.getRequest().getParameter(WebContainerServlet.APPLICATION_WINDOW_ID_PARAMETER);
-        if (windowId == null) {
-        	bodyElement.setAttribute("onload", "Echo.Boot.boot('" + userInstanceContainer.getServletUri() + "', '" + 
-        		userInstanceContainer.createInitId(conn) + "', " + debug + ");");
-        } else {
-        	bodyElement.setAttribute("onload", "Echo.Boot.bootWindow('" + userInstanceContainer.getServletUri() + "', " + debug + ", '" + 
-        			conn.getRequest().getParameter(WebContainerServlet.USER_INSTANCE_ID_PARAMETER) + "', '" + windowId + "');");
-        }
+        bodyElement.setAttribute("onload", WindowHtmlTemplate.getSlotMarker(SLOT_ONLOAD));
         bodyElement.setAttribute("style",
                 "height:100%;width:100%;margin:0px;padding:0px;" +
                 "font-family:verdana, arial, helvetica, sans-serif;font-size:10pt");
 
         Element rootDivElement = document.createElement("div");
         rootDivElement.setAttribute("style", "position:absolute;width:100%;height:100%;");
-        rootDivElement.setAttribute("id", userInstanceContainer.getRootHtmlElementId());
+        rootDivElement.setAttribute("id", WindowHtmlTemplate.getSlotMarker(SLOT_ROOT_ID));
         bodyElement.appendChild(rootDivElement);
 
         // Add a <noscript> element that shows up when JavaScript is disabled in the browser (and echo therefore
@@ -305,6 +260,93 @@ implements Service {
         return document;
     }
     
+    /**
+     * Determines whether the initial server message should be rendered by the server and embedded in the page, 
+     * i.e., whether this feature is enabled and the request is for a new application of a servlet operating in 
+     * <code>INSTANCE_MODE_SINGLE</code>.  (In <code>INSTANCE_MODE_WINDOW</code> the server cannot determine whether
+     * the request is a reload of a window whose <code>UserInstance</code> should be retained.)
+     * 
+     * @param conn the <code>Connection</code>
+     * @return true if the initial server message should be embedded
+     */
+    private boolean isInitialMessageEmbedded(Connection conn) {
+        return ServerConfiguration.WINDOW_EMBED_INITIAL_MESSAGE && ServerConfiguration.SYNC_JSON_ENABLED 
+                && conn.getServlet().getInstanceMode() == WebContainerServlet.INSTANCE_MODE_SINGLE
+                && conn.getUserInstance() == null;
+    }
+    
+    /**
+     * Creates a window identifier, in the format of those generated by the client, with a random part obtained from a
+     * <code>SecureRandom</code>.
+     * 
+     * @return the identifier
+     */
+    private static String createWindowId() {
+        return Long.toHexString(System.currentTimeMillis()) + "." + Long.toHexString(random.nextLong());
+    }
+    
+    /**
+     * Performs the initial synchronization of the application, returning the server message in JSON form, 
+     * suitable for embedding in a <code>script</code> element.  The initial client message is synthesized, 
+     * providing only those <code>ClientProperties</code> which may be derived from the HTTP request.
+     * 
+     * @param conn the <code>Connection</code>
+     * @param clientWindowId the client window identifier to be adopted by the client
+     * @param appWindowId the application window identifier to be adopted by the client
+     * @param initId the initialization identifier
+     * @return the server message
+     * @throws IOException
+     */
+    private String renderInitialServerMessage(Connection conn, String clientWindowId, String appWindowId, String initId) 
+    throws IOException {
+        Document clientMessageDocument = DomUtil.createDocument("cmsg", null, null, CLIENT_MESSAGE_NAMESPACE_URI);
+        Element cmsgElement = clientMessageDocument.getDocumentElement();
+        cmsgElement.setAttribute("t", ClientMessage.TYPE_INITIALIZE);
+        cmsgElement.setAttribute("w", clientWindowId);
+        cmsgElement.setAttribute("ii", initId);
+        cmsgElement.setAttribute("wid", appWindowId);
+        cmsgElement.setAttribute("i", "0");
+        Element dirElement = clientMessageDocument.createElement("dir");
+        dirElement.setAttribute("proc", "ClientProperties");
+        cmsgElement.appendChild(dirElement);
+        String userAgent = conn.getRequest().getHeader("User-Agent");
+        if (userAgent != null) {
+            Element pElement = clientMessageDocument.createElement("p");
+            pElement.setAttribute("n", ClientProperties.NAVIGATOR_USER_AGENT);
+            pElement.appendChild(clientMessageDocument.createTextNode(userAgent));
+            dirElement.appendChild(pElement);
+        }
+        Element pElement = clientMessageDocument.createElement("p");
+        pElement.setAttribute("n", ClientProperties.SERVER_MESSAGE_JSON);
+        pElement.appendChild(clientMessageDocument.createTextNode("true"));
+        dirElement.appendChild(pElement);
+        
+        StringWriter clientMessage = new StringWriter();
+        DomUtil.write(clientMessageDocument, clientMessage);
+        String serverMessage = conn.getServlet().processEmbeddedSynchronization(conn, clientMessage.toString());
+
+        // Escape markup-significant characters (which may only occur within JSON strings), such that the message
+        // may be rendered as script text without further escaping.
+        StringBuffer out = new StringBuffer(serverMessage.length());
+        for (int i = 0; i < serverMessage.length(); ++i) {
+            char ch = serverMessage.charAt(i);
+            switch (ch) {
+            case '<':
+                out.append("\\u003c");
+                break;
+            case '>':
+                out.append("\\u003e");
+                break;
+            case '&':
+                out.append("\\u0026");
+                break;
+            default:
+                out.append(ch);
+            }
+        }
+        return out.toString();
+    }
+    
     /**
      * @see Service#getId()
      */
@@ -320,16 +362,197 @@ implements Service {
     }
 
     /**
+     * Returns the compiled page template, creating it if necessary.
+     * 
+     * @return the <code>WindowHtmlTemplate</code>
+     * @throws IOException
+     */
+    private WindowHtmlTemplate getTemplate() 
+    throws IOException {
+        WindowHtmlTemplate template = this.template;
+        if (template == null) {
+            synchronized (this) {
+                if (this.template == null) {
+                    try {
+                        this.template = new WindowHtmlTemplate(createTemplateDocument(), OUTPUT_PROPERTIES, SLOT_COUNT);
+                    } catch (SAXException ex) {
+                        throw new SynchronizationException("Failed to write HTML document.", ex);
+                    }
+                }
+                template = this.template;
+            }
+        }
+        return template;
+    }
+    
+    /**
+     * Renders per-request head content: the boot script, global variables, application-provided initialization 
+     * scripts and stylesheets, and the initial server message (if embedded).
+     * 
+     * @param conn the <code>Connection</code>
+     * @param initialServerMessage the initial server message to embed, or null
+     * @return the rendered content
+     * @throws IOException
+     */
+    private String renderHeadContent(Connection conn, String initialServerMessage) 
+    throws IOException {
+        UserInstanceContainer userInstanceContainer = conn.getUserInstanceContainer();
+        WebContainerServlet servlet = conn.getServlet();
+        StringWriter w = new StringWriter();
+        
+        writeElement(w, "script", new String[] { "type", "text/javascript", 
+                "src", userInstanceContainer.getServiceUri(BootService.SERVICE, null) }, " ");
+        
+        // If a request to the server fails due to a dropped connection / inaccessible server then we show 
+        // a network outage message, asking the user to retry.
+        writeElement(w, "script", new String[] { "type", "text/javascript" }, 
+                "var networkOutageMsg = \"" + getNetworkOutageMsg() + "\";");
+
+        // Include application-provided initialization scripts.
+        Iterator scriptIt = servlet.getInitScripts();
+        if (scriptIt != null) {
+            while (scriptIt.hasNext()) {
+                Service scriptService = (Service) scriptIt.next();
+                writeElement(w, "script", new String[] { "type", "text/javascript", 
+                        "src", userInstanceContainer.getServiceUri(scriptService, null) }, " ");
+            }
+        }
+
+        // Include application-provided stylesheet(s).
+        Iterator styleSheetIt = servlet.getInitStyleSheets();
+        if (styleSheetIt != null) {
+            while (styleSheetIt.hasNext()) {
+                Service styleSheetService = (Service) styleSheetIt.next();
+                String media = styleSheetService instanceof CSSStyleSheetService 
+                        ? ((CSSStyleSheetService) styleSheetService).getMediaCSV() : null;
+                writeElement(w, "link", new String[] { "rel", "StyleSheet", "type", "text/css", 
+                        "href", userInstanceContainer.getServiceUri(styleSheetService, null), "MEDIA", media }, " ");
+            }
+        }
+
+        styleSheetIt = servlet.getCssFileNames();
+        if (styleSheetIt != null) {
+            while (styleSheetIt.hasNext()) {
+                String styleSheetService = (String) styleSheetIt.next();
+                writeElement(w, "link", new String[] { "rel", "StyleSheet", "type", "text/css", 
+                        "href", resolveCSSLink(styleSheetService) }, null);
+            }
+        }
+        
+        if (initialServerMessage != null) {
+            writeElement(w, "script", new String[] { "type", "text/javascript" }, 
+                    "Echo.Boot.initialServerMessage = " + initialServerMessage + ";");
+        }
+        
+        return w.toString();
+    }
+    
+    /**
+     * Writes an element with the specified attributes and text content.
+     * The content of <code>script</code> elements is written verbatim, as the content of such elements is not
+     * decoded by browsers parsing an HTML document.
+     * 
+     * @param w the <code>Writer</code>
+     * @param name the element name
+     * @param attributes alternating attribute names and values; attributes with null values are not rendered
+     * @param text the text content, or null to render an empty element
+     * @throws IOException
+     */
+    private static void writeElement(Writer w, String name, String[] attributes, String text) 
+    throws IOException {
+        w.write('<');
+        w.write(name);
+        for (int i = 0; i < attributes.length; i += 2) {
+            if (attributes[i + 1] == null) {
+                continue;
+            }
+            w.write(' ');
+            w.write(attributes[i]);
+            w.write("=\"");
+            DomUtil.writeEscaped(attributes[i + 1], w, true);
+            w.write('"');
+        }
+        if (text == null) {
+            w.write("/>");
+        } else {
+            w.write('>');
+            if ("script".equals(name)) {
+                writeScript(text, w);
+            } else {
+                DomUtil.writeEscaped(text, w, false);
+            }
+            w.write("</");
+            w.write(name);
+            w.write('>');
+        }
+    }
+    
+    /**
+     * Writes script content.  Occurrences of "&lt;/" are written as "&lt;\/" to prevent the content from
+     * terminating the <code>script</code> element.  Scripts rendered by this service contain "&lt;/" only within 
+     * string literals, where the sequences are equivalent.
+     * 
+     * @param script the script
+     * @param w the <code>Writer</code>
+     * @throws IOException
+     */
+    private static void writeScript(String script, Writer w) 
+    throws IOException {
+        int start = 0;
+        int index;
+        while ((index = script.indexOf("</", start)) != -1) {
+            w.write(script, start, index + 1 - start);
+            w.write('\\');
+            start = index + 1;
+        }
+        w.write(script, start, script.length() - start);
+    }
+    
+    /**
+     * Renders the page by writing per-request content into the slots of the compiled page template.
+     * 
      * @see Service#service(nextapp.echo.webcontainer.Connection)
      */
     public void service(Connection conn) throws IOException {
-        try {
-            Document document = createHtmlDocument(conn, ServerConfiguration.DEBUG);
-            conn.setContentType(ContentType.TEXT_HTML);
-            DomUtil.save(document, conn.getWriter(), OUTPUT_PROPERTIES);
-        } catch (SAXException ex) {
-            throw new SynchronizationException("Failed to write HTML document.", ex);
+        UserInstanceContainer userInstanceContainer = conn.getUserInstanceContainer();
+        boolean debug = ServerConfiguration.DEBUG;
+        String[] slotValues = new String[SLOT_COUNT];
+        
+        String userAgent = conn.getRequest().getHeader("User-Agent");
+        if (userAgent != null && USER_AGENT_MSIE8.matcher(userAgent).find()) {
+            // Force Internet Explorer 8 standards-compliant mode.
+            slotValues[SLOT_IE_META] = "<meta http-equiv=\"X-UA-Compatible\" content=\"IE=8\"/>";
         }
+        
+        String onload;
+        String initialServerMessage = null;
+        String windowId = conn.getRequest().getParameter(WebContainerServlet.APPLICATION_WINDOW_ID_PARAMETER);
+        if (windowId == null && isInitialMessageEmbedded(conn)) {
+            String clientWindowId = createWindowId();
+            String appWindowId = createWindowId();
+            initialServerMessage = renderInitialServerMessage(conn, clientWindowId, appWindowId, 
+                    userInstanceContainer.createInitId(conn));
+            onload = "Echo.Boot.bootEmbedded('" + userInstanceContainer.getServletUri() + "', " + 
+                    debug + ", '" + clientWindowId + "', '" + appWindowId + "');";
+        } else if (windowId == null) {
+            onload = "Echo.Boot.boot('" + userInstanceContainer.getServletUri() + "', '" + 
+                    userInstanceContainer.createInitId(conn) + "', " + debug + ");";
+        } else {
+            onload = "Echo.Boot.bootWindow('" + userInstanceContainer.getServletUri() + "', " + debug + ", '" + 
+                    conn.getRequest().getParameter(WebContainerServlet.USER_INSTANCE_ID_PARAMETER) + "', '" + windowId + "');";
+        }
+        
+        slotValues[SLOT_HEAD] = renderHeadContent(conn, initialServerMessage);
+        StringWriter escaped = new StringWriter();
+        DomUtil.writeEscaped(onload, escaped, true);
+        slotValues[SLOT_ONLOAD] = escaped.toString();
+        escaped = new StringWriter();
+        DomUtil.writeEscaped(userInstanceContainer.getRootHtmlElementId(), escaped, true);
+        slotValues[SLOT_ROOT_ID] = escaped.toString();
+        
+        WindowHtmlTemplate template = getTemplate();
+        conn.setContentType(ContentType.TEXT_HTML);
+        template.write(conn.getWriter(), slotValues);
     }
 
     public void setNetworkOutageMsg(String networkOutageMsg) {
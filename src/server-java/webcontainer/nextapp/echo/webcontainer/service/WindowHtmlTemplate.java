@@ -0,0 +1,148 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+package nextapp.echo.webcontainer.service;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import nextapp.echo.app.util.DomUtil;
+
+import org.w3c.dom.Comment;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+/**
+ * A compiled HTML page template: the static markup of a document, serialized once, interspersed with numbered slots 
+ * into which per-request content is written.  Slots are marked in the source document either by comment nodes 
+ * (for element content), created by <code>createSlot()</code>, or by attribute values (for attribute content), 
+ * provided by <code>getSlotMarker()</code>.  Slot content is written verbatim, and must thus be escaped as 
+ * appropriate by the caller.
+ */
+class WindowHtmlTemplate {
+    
+    /** Prefix of slot markers. */
+    private static final String SLOT_MARKER_PREFIX = "echo.slot.";
+
+    /**
+     * Returns the marker identifying a slot in a template document.
+     * 
+     * @param slot the slot number
+     * @return the marker
+     */
+    static String getSlotMarker(int slot) {
+        return SLOT_MARKER_PREFIX + slot + ".";
+    }
+    
+    /**
+     * Creates a comment node marking an element content slot in a template document.
+     * 
+     * @param document the template document
+     * @param slot the slot number
+     * @return the comment node
+     */
+    static Comment createSlot(Document document, int slot) {
+        return document.createComment(getSlotMarker(slot));
+    }
+    
+    /** The static markup segments: the content of each slot is written following the segment of the same index. */
+    private String[] segments;
+    
+    /** The slot numbers, in order of occurrence. */
+    private int[] slots;
+    
+    /**
+     * Creates a new <code>WindowHtmlTemplate</code>.
+     * 
+     * @param document the template document
+     * @param outputProperties the output properties with which the document should be serialized
+     * @param slotCount the number of available slots
+     * @throws SAXException
+     */
+    WindowHtmlTemplate(Document document, Properties outputProperties, int slotCount) 
+    throws SAXException {
+        super();
+        StringWriter out = new StringWriter();
+        PrintWriter pw = new PrintWriter(out);
+        DomUtil.save(document, pw, outputProperties);
+        pw.flush();
+        String markup = out.toString();
+        
+        List segmentList = new ArrayList();
+        List slotList = new ArrayList();
+        int position = 0;
+        int markerStart;
+        while ((markerStart = markup.indexOf(SLOT_MARKER_PREFIX, position)) != -1) {
+            int numberStart = markerStart + SLOT_MARKER_PREFIX.length();
+            int markerEnd = markup.indexOf('.', numberStart) + 1;
+            int slot = Integer.parseInt(markup.substring(numberStart, markerEnd - 1));
+            if (slot < 0 || slot >= slotCount) {
+                throw new IllegalArgumentException("Invalid template slot: " + slot);
+            }
+            if (markup.startsWith("<!--", markerStart - 4) && markup.startsWith("-->", markerEnd)) {
+                // Element content slot: replace entire comment.
+                markerStart -= 4;
+                markerEnd += 3;
+            }
+            segmentList.add(markup.substring(position, markerStart));
+            slotList.add(new Integer(slot));
+            position = markerEnd;
+        }
+        segmentList.add(markup.substring(position));
+        
+        segments = (String[]) segmentList.toArray(new String[segmentList.size()]);
+        slots = new int[slotList.size()];
+        for (int i = 0; i < slots.length; ++i) {
+            slots[i] = ((Integer) slotList.get(i)).intValue();
+        }
+    }
+    
+    /**
+     * Writes the template, with the specified slot content.
+     * 
+     * @param w the <code>Writer</code>
+     * @param slotValues the content of each slot, indexed by slot number; null values are rendered as empty
+     * @throws IOException
+     */
+    void write(Writer w, String[] slotValues) 
+    throws IOException {
+        for (int i = 0; i < slots.length; ++i) {
+            w.write(segments[i]);
+            if (slotValues[slots[i]] != null) {
+                w.write(slotValues[slots[i]]);
+            }
+        }
+        w.write(segments[slots.length]);
+    }
+}
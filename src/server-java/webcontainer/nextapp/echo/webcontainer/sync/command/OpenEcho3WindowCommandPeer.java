@@ -62,7 +62,7 @@ extends AbstractCommandSynchronizePeer {
             public Object getProperty(Context context, Command command) {
             	Window w = ((OpenEcho3WindowCommand) command).getWindow();
             	
-                return WebContainerServlet.getActiveConnection().getRequest().getRequestURL() 
+                return WebContainerServlet.getActiveConnection().getRequestUrl() 
                     + "?sid=" 
                     + WebContainerServlet.SERVICE_ID_NEW_WINDOW 
                     + "&wid=" 
@@ -38,7 +38,10 @@ import org.w3c.dom.Element;
 
 import nextapp.echo.app.Component;
 import nextapp.echo.app.Font;
+import nextapp.echo.app.Window;
+import nextapp.echo.app.event.ListDataEvent;
 import nextapp.echo.app.list.AbstractListComponent;
+import nextapp.echo.app.list.AbstractListModel;
 import nextapp.echo.app.list.ListCellRenderer;
 import nextapp.echo.app.list.ListModel;
 import nextapp.echo.app.list.StyledListCell;
@@ -51,6 +54,7 @@ import nextapp.echo.app.update.ClientUpdateManager;
 import nextapp.echo.app.update.ServerComponentUpdate;
 import nextapp.echo.app.util.Context;
 import nextapp.echo.webcontainer.AbstractComponentSynchronizePeer;
+import nextapp.echo.webcontainer.RenderState;
 import nextapp.echo.webcontainer.ServerMessage;
 import nextapp.echo.webcontainer.Service;
 import nextapp.echo.webcontainer.WebContainerServlet;
@@ -65,12 +69,21 @@ public class AbstractListComponentPeer extends AbstractComponentSynchronizePeer
     /**
      * Property object describing rendered list data, 
      * i.e., the <code>ListModel</code> and <code>ListCellRenderer</code>. 
+     * Instances are equal if they describe the same model in the same state, rendered by the same renderer, such that
+     * they may be rendered by reference across server messages.  The state of a model is known only if it is derived 
+     * from <code>AbstractListModel</code>; instances describing other models are equal only to themselves.
      */
     private class ListData {
 
         /** The <code>ListModel</code>. */
         private ListModel model;
         
+        /** 
+         * The modification count of the model, as returned by <code>AbstractListModel.getModificationCount()</code>,
+         * or -1 if the model is not an <code>AbstractListModel</code>.
+         */
+        private int modelModificationCount;
+        
         /** The <code>ListCellRenderer</code>. */
         private ListCellRenderer renderer;
         
@@ -86,6 +99,8 @@ public class AbstractListComponentPeer extends AbstractComponentSynchronizePeer
             super();
             this.listComponent = component;
             this.model = component.getModel();
+            this.modelModificationCount = model instanceof AbstractListModel 
+                    ? ((AbstractListModel) model).getModificationCount() : -1;
             this.renderer = component.getCellRenderer();
         }
 
@@ -93,10 +108,17 @@ public class AbstractListComponentPeer extends AbstractComponentSynchronizePeer
          * @see java.lang.Object#equals(java.lang.Object)
          */
         public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
             if (!(o instanceof ListData)) {
                 return false;
             }
             ListData that = (ListData) o;
+            
+            if (this.modelModificationCount == -1 || this.modelModificationCount != that.modelModificationCount) {
+                return false;
+            }
 
             if (!(this.model == that.model 
                     || (this.model != null && this.model.equals(that.model)))) {
@@ -118,6 +140,75 @@ public class AbstractListComponentPeer extends AbstractComponentSynchronizePeer
             return (model == null ? 0 : model.hashCode()) | (renderer == null ? 0 : renderer.hashCode());
         }
     }
+    
+    /**
+     * Property object describing an incremental update to rendered list data.
+     * The client is directed to replace a range of previously rendered items with a range of items of the 
+     * current <code>ListModel</code>.
+     */
+    private class ListDataDelta {
+        
+        /** The rendered list data. */
+        private ListData listData;
+        
+        /** The index of the first replaced item. */
+        private int index;
+        
+        /** The number of previously rendered items to remove. */
+        private int removeCount;
+        
+        /** The number of items of the current model to insert. */
+        private int insertCount;
+
+        /**
+         * Creates a new <code>ListDataDelta</code>.
+         * 
+         * @param component the list component
+         * @param index the index of the first replaced item
+         * @param removeCount the number of previously rendered items to remove
+         * @param insertCount the number of items of the current model to insert
+         */
+        ListDataDelta(AbstractListComponent component, int index, int removeCount, int insertCount) {
+            super();
+            this.listData = new ListData(component);
+            this.index = index;
+            this.removeCount = removeCount;
+            this.insertCount = insertCount;
+        }
+    }
+    
+    /**
+     * <code>RenderState</code> implementation storing the <code>ListDataEvent</code> count of the list component at the 
+     * time its list data was last rendered.
+     */
+    private static class ListRenderState 
+    implements RenderState {
+        
+        /** Serial Version UID. */
+        private static final long serialVersionUID = 20070101L;
+
+        /** The list data event count, as returned by <code>AbstractListComponent.getListDataEventCount()</code>. */
+        private int listDataEventCount;
+        
+        /** 
+         * The most recently computed delta from the rendered list data, retained such that it is only computed once 
+         * per update.
+         */
+        private transient ListDataDelta listDataDelta;
+        
+        /** The list data event count of the list component at the time <code>listDataDelta</code> was computed. */
+        private int listDataDeltaEventCount;
+        
+        /**
+         * Creates a new <code>ListRenderState</code>.
+         * 
+         * @param listDataEventCount the list data event count
+         */
+        ListRenderState(int listDataEventCount) {
+            super();
+            this.listDataEventCount = listDataEventCount;
+        }
+    }
 
     /**
      * Server-to-client serialization peer for <code>ListData</code> objects.
@@ -140,42 +231,42 @@ public class AbstractListComponentPeer extends AbstractComponentSynchronizePeer
          */
         public void toXml(Context context, Class objectClass, Element propertyElement, Object propertyValue) 
         throws SerialException {
-            SerialPropertyPeer fontPeer = null;
-            SerialContext serialContext = ((SerialContext) context.get(SerialContext.class));
-            Document document = serialContext.getDocument();
             ListData listData = (ListData) propertyValue; 
             propertyElement.setAttribute("t", "RemoteListData");
-            int size = listData.model.size();
-            for (int i = 0; i < size; ++i) {
-                Element eElement = document.createElement("e");
-                Object value = listData.model.get(i);
-                Object cell = listData.renderer.getListCellRendererComponent(listData.listComponent, value, i);
+            renderItems(context, propertyElement, listData, 0, listData.model.size());
+        }
+    }
 
-                eElement.setAttribute("t", String.valueOf(cell));
-                propertyElement.appendChild(eElement);
+    /**
+     * Server-to-client serialization peer for <code>ListDataDelta</code> objects.
+     */
+    public static class ListDataDeltaPeer 
+    implements SerialPropertyPeer {
 
-                if (cell instanceof StyledListCell) {
-                    StyledListCell styledCell = (StyledListCell) cell;
-                    if (styledCell.getBackground() != null) {
-                        eElement.setAttribute("b", ColorPeer.toString(styledCell.getBackground()));
-                    }
-                    if (styledCell.getForeground() != null) {
-                        eElement.setAttribute("f", ColorPeer.toString(styledCell.getForeground()));
-                    }
-                    if (styledCell.getFont() != null) {
-                        if (fontPeer == null) {
-                            PropertyPeerFactory propertyPeerFactory = (PropertyPeerFactory) context.get(PropertyPeerFactory.class);
-                            fontPeer = propertyPeerFactory.getPeerForProperty(Font.class);
-                        }
-                        Element fontElement = document.createElement("p");
-                        eElement.appendChild(fontElement);
-                        fontPeer.toXml(context, Font.class, fontElement, styledCell.getFont());
-                    }
-                }
-            }
+        /**
+         * @see nextapp.echo.app.serial.SerialPropertyPeer#toProperty(nextapp.echo.app.util.Context, 
+         *      java.lang.Class, org.w3c.dom.Element)
+         */
+        public Object toProperty(Context context, Class objectClass, Element propertyElement) 
+        throws SerialException {
+            throw new UnsupportedOperationException();
         }
-    }
 
+        /**
+         * @see nextapp.echo.app.serial.SerialPropertyPeer#toXml(nextapp.echo.app.util.Context, 
+         *      java.lang.Class, org.w3c.dom.Element, java.lang.Object)
+         */
+        public void toXml(Context context, Class objectClass, Element propertyElement, Object propertyValue) 
+        throws SerialException {
+            ListDataDelta listDataDelta = (ListDataDelta) propertyValue; 
+            propertyElement.setAttribute("t", "RemoteListDataDelta");
+            propertyElement.setAttribute("i", Integer.toString(listDataDelta.index));
+            propertyElement.setAttribute("r", Integer.toString(listDataDelta.removeCount));
+            renderItems(context, propertyElement, listDataDelta.listData, listDataDelta.index, 
+                    listDataDelta.insertCount);
+        }
+    }
+    
     /** The associated client-side JavaScript module <code>Service</code>. */
     private static final Service LIST_COMPONENT_SERVICE = JavaScriptService.forResources("Echo.ListComponent",
             new String[] { "nextapp/echo/webcontainer/resource/Sync.List.js",
@@ -184,6 +275,12 @@ public class AbstractListComponentPeer extends AbstractComponentSynchronizePeer
     /** The non-style virtual "data" property, a <code>ListData</code> which represents rendered model information. */
     private static final String PROPERTY_DATA = "data";
     
+    /** 
+     * The non-style virtual "dataDelta" property, a <code>ListDataDelta</code> which represents an incremental update
+     * to rendered model information.
+     */
+    private static final String PROPERTY_DATA_DELTA = "dataDelta";
+    
     /** The non-style selection state property. */
     private static final String PROPERTY_SELECTION = "selection";
     
@@ -194,6 +291,50 @@ public class AbstractListComponentPeer extends AbstractComponentSynchronizePeer
         WebContainerServlet.getServiceRegistry().add(LIST_COMPONENT_SERVICE);
     }
     
+    /**
+     * Renders items of a list component as "e" elements.
+     * 
+     * @param context the relevant <code>Context</code>
+     * @param propertyElement the property element to which the item elements should be appended
+     * @param listData the rendered list data
+     * @param index the index of the first item to render
+     * @param count the number of items to render
+     * @throws SerialException
+     */
+    private static void renderItems(Context context, Element propertyElement, ListData listData, int index, int count) 
+    throws SerialException {
+        SerialPropertyPeer fontPeer = null;
+        SerialContext serialContext = ((SerialContext) context.get(SerialContext.class));
+        Document document = serialContext.getDocument();
+        for (int i = index; i < index + count; ++i) {
+            Element eElement = document.createElement("e");
+            Object value = listData.model.get(i);
+            Object cell = listData.renderer.getListCellRendererComponent(listData.listComponent, value, i);
+
+            eElement.setAttribute("t", String.valueOf(cell));
+            propertyElement.appendChild(eElement);
+
+            if (cell instanceof StyledListCell) {
+                StyledListCell styledCell = (StyledListCell) cell;
+                if (styledCell.getBackground() != null) {
+                    eElement.setAttribute("b", ColorPeer.toString(styledCell.getBackground()));
+                }
+                if (styledCell.getForeground() != null) {
+                    eElement.setAttribute("f", ColorPeer.toString(styledCell.getForeground()));
+                }
+                if (styledCell.getFont() != null) {
+                    if (fontPeer == null) {
+                        PropertyPeerFactory propertyPeerFactory = (PropertyPeerFactory) context.get(PropertyPeerFactory.class);
+                        fontPeer = propertyPeerFactory.getPeerForProperty(Font.class);
+                    }
+                    Element fontElement = document.createElement("p");
+                    eElement.appendChild(fontElement);
+                    fontPeer.toXml(context, Font.class, fontElement, styledCell.getFont());
+                }
+            }
+        }
+    }
+    
     /**
      * Default constructor.
      * Installs additional output properties.
@@ -214,6 +355,120 @@ public class AbstractListComponentPeer extends AbstractComponentSynchronizePeer
         });
     }
 
+    /**
+     * Determines the range of items which must be replaced to bring a rendered list up to date with its model,
+     * based on the <code>ListDataEvent</code>s the model has fired since the list was rendered.
+     * The changed items are described as a single range, such that the update can be rendered using the current 
+     * state of the model.
+     * 
+     * @param events the <code>ListDataEvent</code>s fired since the list was rendered, oldest first
+     * @param currentSize the current size of the model
+     * @return a three element array containing the index of the first replaced item, the number of rendered items to
+     *         remove, and the number of items of the current model to insert, or null if the changes cannot be 
+     *         determined
+     */
+    static int[] createListDataDelta(ListDataEvent[] events, int currentSize) {
+        // Determine size of model when last rendered.
+        int renderedSize = currentSize;
+        for (int i = 0; i < events.length; ++i) {
+            int count = Math.abs(events[i].getIndex1() - events[i].getIndex0()) + 1;
+            if (events[i].getType() == ListDataEvent.INTERVAL_ADDED) {
+                renderedSize -= count;
+            } else if (events[i].getType() == ListDataEvent.INTERVAL_REMOVED) {
+                renderedSize += count;
+            }
+        }
+        
+        // Determine range of changed items [start, end) in the current model.  All items before start and all items
+        // after end are unchanged since the model was last rendered.
+        int size = renderedSize;
+        int start = -1;
+        int end = -1;
+        for (int i = 0; i < events.length; ++i) {
+            int index0 = Math.min(events[i].getIndex0(), events[i].getIndex1());
+            int index1 = Math.max(events[i].getIndex0(), events[i].getIndex1());
+            int count = index1 - index0 + 1;
+            if (index0 < 0) {
+                return null;
+            }
+            switch (events[i].getType()) {
+            case ListDataEvent.INTERVAL_ADDED:
+                if (index0 > size) {
+                    return null;
+                }
+                size += count;
+                if (start == -1) {
+                    start = index0;
+                    end = index0 + count;
+                } else {
+                    start = Math.min(start, index0);
+                    end = Math.max(end, index0) + count;
+                }
+                break;
+            case ListDataEvent.INTERVAL_REMOVED:
+                if (index1 >= size) {
+                    return null;
+                }
+                size -= count;
+                if (start == -1) {
+                    start = index0;
+                    end = index0;
+                } else {
+                    start = Math.min(start > index1 ? start - count : Math.min(start, index0), index0);
+                    end = Math.max(end > index1 ? end - count : Math.min(end, index0), index0);
+                }
+                break;
+            default:
+                if (index1 >= size) {
+                    return null;
+                }
+                if (start == -1) {
+                    start = index0;
+                    end = index1 + 1;
+                } else {
+                    start = Math.min(start, index0);
+                    end = Math.max(end, index1 + 1);
+                }
+            }
+        }
+        
+        if (start == -1) {
+            start = end = size;
+        }
+        return new int[] { start, renderedSize - start - (size - end), end - start };
+    }
+    
+    /**
+     * Returns a <code>ListDataDelta</code> describing the changes to the model of a list component since its list
+     * data was last rendered, based on the <code>ListDataEvent</code>s it has received since that time.
+     * The delta is stored in the component's <code>ListRenderState</code>, such that it is computed only once
+     * when both determining and rendering updated properties.
+     * 
+     * @param listComponent the list component
+     * @return the delta, or null if the changes cannot be determined and the list data must be rendered in full
+     */
+    private ListDataDelta getListDataDelta(AbstractListComponent listComponent) {
+        ListRenderState renderState = (ListRenderState) Window.getActive().getRenderState(listComponent);
+        if (renderState == null) {
+            return null;
+        }
+        int eventCount = listComponent.getListDataEventCount();
+        if (renderState.listDataDelta != null && renderState.listDataDeltaEventCount == eventCount) {
+            return renderState.listDataDelta;
+        }
+        ListDataEvent[] events = listComponent.getListDataEvents(renderState.listDataEventCount);
+        if (events == null) {
+            return null;
+        }
+        int[] delta = createListDataDelta(events, listComponent.getModel().size());
+        if (delta == null) {
+            return null;
+        }
+        renderState.listDataDelta = new ListDataDelta(listComponent, delta[0], delta[1], delta[2]);
+        renderState.listDataDeltaEventCount = eventCount;
+        return renderState.listDataDelta;
+    }
+    
     /**
      * @see nextapp.echo.webcontainer.ComponentSynchronizePeer#getClientComponentType(boolean)
      */
@@ -245,7 +500,14 @@ public class AbstractListComponentPeer extends AbstractComponentSynchronizePeer
      */
     public Object getOutputProperty(Context context, Component component, String propertyName, int propertyIndex) {
         if (PROPERTY_DATA.equals(propertyName)) {
-            return new ListData((AbstractListComponent) component);
+            AbstractListComponent listComponent = (AbstractListComponent) component;
+            Window.getActive().setRenderState(component, new ListRenderState(listComponent.getListDataEventCount()));
+            return new ListData(listComponent);
+        } else if (PROPERTY_DATA_DELTA.equals(propertyName)) {
+            AbstractListComponent listComponent = (AbstractListComponent) component;
+            ListDataDelta listDataDelta = getListDataDelta(listComponent);
+            Window.getActive().setRenderState(component, new ListRenderState(listComponent.getListDataEventCount()));
+            return listDataDelta;
         } else if (PROPERTY_SELECTION.equals(propertyName)) {
             return ListSelectionUtil.toString(((AbstractListComponent) component).getSelectionModel(),
                     ((AbstractListComponent) component).getModel().size());
@@ -263,6 +525,8 @@ public class AbstractListComponentPeer extends AbstractComponentSynchronizePeer
     public String getOutputPropertyMethodName(Context context, Component component, String propertyName) {
         if (PROPERTY_DATA.equals(propertyName)) {
             return "updateListData";
+        } else if (PROPERTY_DATA_DELTA.equals(propertyName)) {
+            return "updateListDataDelta";
         } else if (PROPERTY_SELECTION.equals(propertyName)) {
             return "setSelectionString";
         }
@@ -281,9 +545,15 @@ public class AbstractListComponentPeer extends AbstractComponentSynchronizePeer
             additionalPropertyNames.add(PROPERTY_SELECTION_MODE);
         }
         if (update.hasUpdatedProperty(AbstractListComponent.LIST_MODEL_CHANGED_PROPERTY) ||
-                update.hasUpdatedProperty(AbstractListComponent.LIST_DATA_CHANGED_PROPERTY) ||
                 update.hasUpdatedProperty(AbstractListComponent.LIST_CELL_RENDERER_CHANGED_PROPERTY)) {
             additionalPropertyNames.add(PROPERTY_DATA);
+        } else if (update.hasUpdatedProperty(AbstractListComponent.LIST_DATA_CHANGED_PROPERTY)) {
+            // Render changes to model incrementally if possible.
+            if (getListDataDelta((AbstractListComponent) component) == null) {
+                additionalPropertyNames.add(PROPERTY_DATA);
+            } else {
+                additionalPropertyNames.add(PROPERTY_DATA_DELTA);
+            }
         }
         return new MultiIterator(new Iterator[]{
                 super.getUpdatedOutputPropertyNames(context, component, update), 
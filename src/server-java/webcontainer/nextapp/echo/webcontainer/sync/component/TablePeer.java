@@ -68,6 +68,12 @@ public class TablePeer extends AbstractComponentSynchronizePeer {
     /** Non-style row count property, describing number of row in <code>TableModel</code>. */
     private static final String PROPERTY_ROW_COUNT = "rowCount";
     
+    /** Non-style property describing the maximum number of rendered rows, 0 if all rows are rendered. */
+    private static final String PROPERTY_ROW_WINDOW_SIZE = "rowWindowSize";
+    
+    /** Non-style property describing the index of the first rendered row. */
+    private static final String PROPERTY_ROW_WINDOW_START = "rowWindowStart";
+    
     /** Non-style property describing current selection. */
     private static final String PROPERTY_SELECTION = "selection";
     
@@ -86,6 +92,8 @@ public class TablePeer extends AbstractComponentSynchronizePeer {
         addOutputProperty(PROPERTY_COLUMN_WIDTH, true);
         addOutputProperty(PROPERTY_HEADER_VISIBLE);
         addOutputProperty(PROPERTY_ROW_COUNT);
+        addOutputProperty(PROPERTY_ROW_WINDOW_SIZE);
+        addOutputProperty(PROPERTY_ROW_WINDOW_START);
         addOutputProperty(PROPERTY_SELECTION);
         addOutputProperty(PROPERTY_SELECTION_MODE);
         
@@ -94,6 +102,12 @@ public class TablePeer extends AbstractComponentSynchronizePeer {
                 return ((Table) component).hasActionListeners();
             }
         });
+        addEvent(new AbstractComponentSynchronizePeer.EventPeer(Table.INPUT_ROW_WINDOW, Table.ROW_WINDOW_SIZE_CHANGED_PROPERTY, 
+                Integer.class) {
+            public boolean hasListeners(Context context, Component component) {
+                return ((Table) component).getRowWindowSize() > 0;
+            }
+        });
     }
     
     /**
@@ -134,6 +148,10 @@ public class TablePeer extends AbstractComponentSynchronizePeer {
             return Boolean.valueOf(table.isHeaderVisible());
         } else if (PROPERTY_ROW_COUNT.equals(propertyName)) {
             return new Integer(table.getModel().getRowCount());
+        } else if (PROPERTY_ROW_WINDOW_SIZE.equals(propertyName)) {
+            return new Integer(table.getRowWindowSize());
+        } else if (PROPERTY_ROW_WINDOW_START.equals(propertyName)) {
+            return new Integer(table.getRenderedRowWindowStart());
         } else if (PROPERTY_SELECTION.equals(propertyName)) {
             return ListSelectionUtil.toString(table.getSelectionModel(), table.getModel().getRowCount());
         } else if (PROPERTY_SELECTION_MODE.equals(propertyName)) {
@@ -184,6 +202,10 @@ public class TablePeer extends AbstractComponentSynchronizePeer {
         if (update.hasUpdatedProperty(Table.MODEL_CHANGED_PROPERTY) || update.hasAddedChildren() || update.hasRemovedChildren()) {
             additionalPropertyNames.add(PROPERTY_ROW_COUNT);
             additionalPropertyNames.add(PROPERTY_COLUMN_COUNT);
+            if (((Table) component).getRowWindowSize() > 0 
+                    && !update.hasUpdatedProperty(Table.ROW_WINDOW_START_CHANGED_PROPERTY)) {
+                additionalPropertyNames.add(PROPERTY_ROW_WINDOW_START);
+            }
         }
         if (update.hasUpdatedProperty(PROPERTY_SELECTION)) {
             additionalPropertyNames.add(PROPERTY_SELECTION_MODE);
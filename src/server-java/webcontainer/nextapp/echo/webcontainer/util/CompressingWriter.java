@@ -0,0 +1,260 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+package nextapp.echo.webcontainer.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * A <code>Writer</code> which renders output to an <code>HttpServletResponse</code>, GZip-compressing it in the 
+ * event that it exceeds a specified size threshold.  Output is buffered until the threshold is exceeded, at which 
+ * point the <code>Content-Encoding</code> header is set and the buffered and subsequent output is streamed through 
+ * the compressor.  Output which does not exceed the threshold is written uncompressed when the 
+ * <code>Writer</code> is closed.
+ * <p>
+ * The <code>Deflater</code> used for compression is retained and reused by the rendering thread.
+ * The <code>Writer</code> must be closed to complete the response.
+ */
+public class CompressingWriter extends Writer {
+    
+    /** Per-thread <code>Deflater</code>s. */
+    private static final ThreadLocal deflaters = new ThreadLocal();
+    
+    /** GZip header: magic number, deflate compression method, no flags, no modification time, unknown OS. */
+    private static final byte[] GZIP_HEADER = new byte[] { 
+            (byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+    
+    /**
+     * Returns the current thread's <code>Deflater</code>, reset and configured to the specified level.
+     * 
+     * @param level the compression level
+     * @return the <code>Deflater</code>
+     */
+    private static Deflater getDeflater(int level) {
+        Deflater deflater = (Deflater) deflaters.get();
+        if (deflater == null) {
+            deflater = new Deflater(level, true);
+            deflaters.set(deflater);
+        } else {
+            deflater.reset();
+            deflater.setLevel(level);
+        }
+        return deflater;
+    }
+    
+    /**
+     * GZip output stream which uses a provided (reusable) <code>Deflater</code>, rather than allocating a new one
+     * as does <code>java.util.zip.GZIPOutputStream</code>.
+     */
+    private static class GZipOutputStream extends DeflaterOutputStream {
+        
+        /** Checksum of uncompressed data. */
+        private CRC32 crc = new CRC32();
+        
+        /** 
+         * Creates a new <code>GZipOutputStream</code>, writing the GZip header.
+         * 
+         * @param out the target <code>OutputStream</code>
+         * @param deflater the <code>Deflater</code>
+         * @throws IOException
+         */
+        GZipOutputStream(OutputStream out, Deflater deflater) 
+        throws IOException {
+            super(out, deflater, 8192);
+            out.write(GZIP_HEADER);
+        }
+        
+        /**
+         * @see java.util.zip.DeflaterOutputStream#write(byte[], int, int)
+         */
+        public void write(byte[] b, int off, int len) 
+        throws IOException {
+            super.write(b, off, len);
+            crc.update(b, off, len);
+        }
+        
+        /**
+         * Finishes compression, writing the GZip trailer.
+         * 
+         * @see java.util.zip.DeflaterOutputStream#finish()
+         */
+        public void finish() 
+        throws IOException {
+            super.finish();
+            writeInt((int) crc.getValue());
+            writeInt(def.getTotalIn());
+        }
+        
+        /**
+         * Writes an integer in little-endian byte order.
+         * 
+         * @param i the integer
+         * @throws IOException
+         */
+        private void writeInt(int i) 
+        throws IOException {
+            out.write(i & 0xff);
+            out.write((i >> 8) & 0xff);
+            out.write((i >> 16) & 0xff);
+            out.write((i >> 24) & 0xff);
+        }
+    }
+    
+    /** The response. */
+    private HttpServletResponse response;
+    
+    /** The character encoding of the response. */
+    private String characterEncoding;
+    
+    /** The compression level. */
+    private int level;
+    
+    /** Buffer of output written prior to the threshold being exceeded. */
+    private char[] buffer;
+    
+    /** Number of characters in the buffer. */
+    private int count = 0;
+    
+    /** The compressing <code>Writer</code>, created when the threshold is exceeded. */
+    private Writer compressedWriter;
+    
+    /**
+     * Creates a new <code>CompressingWriter</code>.
+     * 
+     * @param response the <code>HttpServletResponse</code>
+     * @param characterEncoding the character encoding of the response
+     * @param threshold the number of characters which must be exceeded for output to be compressed
+     * @param level the compression level, 0-9, or -1 for the default level
+     */
+    public CompressingWriter(HttpServletResponse response, String characterEncoding, int threshold, int level) {
+        super();
+        this.response = response;
+        this.characterEncoding = characterEncoding;
+        this.level = level;
+        buffer = new char[threshold];
+    }
+
+    /**
+     * @see java.io.Writer#close()
+     */
+    public void close() 
+    throws IOException {
+        if (compressedWriter == null) {
+            Writer w = response.getWriter();
+            w.write(buffer, 0, count);
+            w.flush();
+        } else {
+            compressedWriter.close();
+        }
+        buffer = null;
+    }
+
+    /**
+     * Flushes compressed output, if output is being compressed.  Uncompressed output is not written until the 
+     * <code>Writer</code> is closed.
+     * 
+     * @see java.io.Writer#flush()
+     */
+    public void flush() 
+    throws IOException {
+        if (compressedWriter != null) {
+            compressedWriter.flush();
+        }
+    }
+    
+    /**
+     * Begins compression, writing any buffered output to the compressor.
+     * 
+     * @throws IOException
+     */
+    private void startCompression() 
+    throws IOException {
+        response.setHeader("Content-Encoding", "gzip");
+        response.addHeader("Vary", "Accept-Encoding");
+        compressedWriter = new OutputStreamWriter(new GZipOutputStream(response.getOutputStream(), getDeflater(level)), 
+                characterEncoding);
+        compressedWriter.write(buffer, 0, count);
+        count = 0;
+    }
+
+    /**
+     * @see java.io.Writer#write(char[], int, int)
+     */
+    public void write(char[] cbuf, int off, int len) 
+    throws IOException {
+        if (compressedWriter == null) {
+            if (count + len <= buffer.length) {
+                System.arraycopy(cbuf, off, buffer, count, len);
+                count += len;
+                return;
+            }
+            startCompression();
+        }
+        compressedWriter.write(cbuf, off, len);
+    }
+    
+    /**
+     * @see java.io.Writer#write(java.lang.String, int, int)
+     */
+    public void write(String str, int off, int len) 
+    throws IOException {
+        if (compressedWriter == null) {
+            if (count + len <= buffer.length) {
+                str.getChars(off, off + len, buffer, count);
+                count += len;
+                return;
+            }
+            startCompression();
+        }
+        compressedWriter.write(str, off, len);
+    }
+    
+    /**
+     * @see java.io.Writer#write(int)
+     */
+    public void write(int c) 
+    throws IOException {
+        if (compressedWriter == null) {
+            if (count < buffer.length) {
+                buffer[count++] = (char) c;
+                return;
+            }
+            startCompression();
+        }
+        compressedWriter.write(c);
+    }
+}
@@ -0,0 +1,167 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+package nextapp.echo.webcontainer.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Writes an XML DOM as JSON, such that it may be parsed by the client using <code>JSON.parse()</code> rather than an
+ * XML parser.
+ * <p>
+ * Each element is rendered as an array whose first item is the element name, whose second item is an object containing 
+ * the attributes of the element (omitted if the element has no attributes), and whose remaining items are the child
+ * nodes of the element.  Text and CDATA nodes are rendered as strings.  Comments are not rendered.
+ * For example, <code>&lt;p n="text" t="s"&gt;hello&lt;/p&gt;</code> is rendered as 
+ * <code>["p",{"n":"text","t":"s"},"hello"]</code>.
+ */
+public class JsonDomWriter {
+    
+    /** Hexadecimal digits, for rendering unicode escapes. */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    
+    /**
+     * Writes the <code>Document</code> to the specified <code>Writer</code>.
+     * 
+     * @param document the <code>Document</code>
+     * @param w the <code>Writer</code>
+     * @throws IOException
+     */
+    public static void write(Document document, Writer w) 
+    throws IOException {
+        writeElement(document.getDocumentElement(), w);
+    }
+    
+    /**
+     * Writes an element (and its descendants).
+     * 
+     * @param element the element
+     * @param w the <code>Writer</code>
+     * @throws IOException
+     */
+    private static void writeElement(Node element, Writer w) 
+    throws IOException {
+        w.write('[');
+        writeString(element.getNodeName(), w);
+        NamedNodeMap attributes = element.getAttributes();
+        int attributeCount = attributes.getLength();
+        if (attributeCount > 0) {
+            w.write(",{");
+            for (int i = 0; i < attributeCount; ++i) {
+                Node attribute = attributes.item(i);
+                if (i > 0) {
+                    w.write(',');
+                }
+                writeString(attribute.getNodeName(), w);
+                w.write(':');
+                writeString(attribute.getNodeValue(), w);
+            }
+            w.write('}');
+        }
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            switch (child.getNodeType()) {
+            case Node.ELEMENT_NODE:
+                w.write(',');
+                writeElement(child, w);
+                break;
+            case Node.TEXT_NODE:
+            case Node.CDATA_SECTION_NODE:
+                String text = child.getNodeValue();
+                if (text.length() > 0) {
+                    w.write(',');
+                    writeString(text, w);
+                }
+                break;
+            }
+        }
+        w.write(']');
+    }
+    
+    /**
+     * Writes a JSON string literal, escaping as required.  Unescaped runs of characters are written in bulk.
+     * 
+     * @param value the string value
+     * @param w the <code>Writer</code>
+     * @throws IOException
+     */
+    private static void writeString(String value, Writer w) 
+    throws IOException {
+        w.write('"');
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; ++i) {
+            char ch = value.charAt(i);
+            if (ch >= 0x20 && ch != '"' && ch != '\\' && ch != '<' && ch != '>' && ch != '&' 
+                    && ch != 0x2028 && ch != 0x2029) {
+                continue;
+            }
+            if (i > start) {
+                w.write(value, start, i - start);
+            }
+            switch (ch) {
+            case '"':
+                w.write("\\\"");
+                break;
+            case '\\':
+                w.write("\\\\");
+                break;
+            case '\n':
+                w.write("\\n");
+                break;
+            case '\r':
+                w.write("\\r");
+                break;
+            case '\t':
+                w.write("\\t");
+                break;
+            default:
+                // Control characters, line/paragraph separators (which are invalid in JavaScript string literals), and
+                // HTML markup characters (such that the output may be embedded in an HTML script element).
+                w.write("\\u");
+                w.write(HEX[(ch >> 12) & 0xf]);
+                w.write(HEX[(ch >> 8) & 0xf]);
+                w.write(HEX[(ch >> 4) & 0xf]);
+                w.write(HEX[ch & 0xf]);
+            }
+            start = i + 1;
+        }
+        if (length > start) {
+            w.write(value, start, length - start);
+        }
+        w.write('"');
+    }
+    
+    /** Non-instantiable class. */
+    private JsonDomWriter() { }
+}
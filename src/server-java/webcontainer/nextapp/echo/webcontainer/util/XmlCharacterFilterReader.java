@@ -0,0 +1,135 @@
+/* 
+ * This file is part of the Echo Web Application Framework (hereinafter "Echo").
+ * Copyright (C) 2002-2009 NextApp, Inc.
+ *
+ * Version: MPL 1.1/GPL 2.0/LGPL 2.1
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * either the GNU General Public License Version 2 or later (the "GPL"), or
+ * the GNU Lesser General Public License Version 2.1 or later (the "LGPL"),
+ * in which case the provisions of the GPL or the LGPL are applicable instead
+ * of those above. If you wish to allow use of your version of this file only
+ * under the terms of either the GPL or the LGPL, and not to allow others to
+ * use your version of this file under the terms of the MPL, indicate your
+ * decision by deleting the provisions above and replace them with the notice
+ * and other provisions required by the GPL or the LGPL. If you do not delete
+ * the provisions above, a recipient may use your version of this file under
+ * the terms of any one of the MPL, the GPL or the LGPL.
+ */
+
+package nextapp.echo.webcontainer.util;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A <code>Reader</code> which removes characters that may not legally appear in an XML document from the 
+ * underlying stream as it is read.  Used to parse browser input, which may contain such characters, without
+ * first buffering the entire request. 
+ */
+public class XmlCharacterFilterReader extends FilterReader {
+    
+    /**
+     * Determines whether a character may appear in an XML document.
+     * 
+     * @param ch the character
+     * @return true if the character is valid
+     */
+    public static boolean isValid(char ch) {
+        return ch == 0x9 || ch == 0xA || ch == 0xD || (ch >= 0x20 && ch <= 0xD7FF) || (ch >= 0xE000 && ch <= 0xFFFD);
+    }
+
+    /**
+     * Creates a new <code>XmlCharacterFilterReader</code>.
+     * 
+     * @param in the <code>Reader</code> to filter
+     */
+    public XmlCharacterFilterReader(Reader in) {
+        super(in);
+    }
+    
+    /**
+     * @see java.io.FilterReader#read()
+     */
+    public int read() 
+    throws IOException {
+        int ch;
+        do {
+            ch = in.read();
+        } while (ch != -1 && !isValid((char) ch));
+        return ch;
+    }
+    
+    /**
+     * @see java.io.FilterReader#read(char[], int, int)
+     */
+    public int read(char[] buffer, int offset, int length) 
+    throws IOException {
+        int count;
+        do {
+            count = in.read(buffer, offset, length);
+            if (count <= 0) {
+                return count;
+            }
+            
+            // Compact valid characters to the front of the range.
+            int end = offset + count;
+            int validEnd = offset;
+            for (int i = offset; i < end; ++i) {
+                if (isValid(buffer[i])) {
+                    buffer[validEnd++] = buffer[i];
+                }
+            }
+            count = validEnd - offset;
+        } while (count == 0);
+        return count;
+    }
+    
+    /**
+     * @see java.io.FilterReader#skip(long)
+     */
+    public long skip(long n) 
+    throws IOException {
+        long skipped = 0;
+        while (skipped < n && read() != -1) {
+            ++skipped;
+        }
+        return skipped;
+    }
+
+    /**
+     * Mark is not supported, as filtered positions do not correspond to those of the underlying stream.
+     * 
+     * @see java.io.FilterReader#markSupported()
+     */
+    public boolean markSupported() {
+        return false;
+    }
+    
+    /**
+     * @see java.io.FilterReader#mark(int)
+     */
+    public void mark(int readAheadLimit) 
+    throws IOException {
+        throw new IOException("mark() not supported.");
+    }
+    
+    /**
+     * @see java.io.FilterReader#reset()
+     */
+    public void reset() 
+    throws IOException {
+        throw new IOException("reset() not supported.");
+    }
+}
@@ -29,14 +29,16 @@
 
 package nextapp.echo.webcontainer.util;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 
 import javax.servlet.http.HttpServletRequest;
 
 import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 import nextapp.echo.app.util.DomUtil;
@@ -62,81 +64,24 @@ public class XmlRequestParser {
     }
     
     /**
-     * Trims an XML String to work around the issue 
+     * Reads the entirety of a <code>Reader</code> into a trimmed String to work around the issue 
      * of the XML parser crashing on trailing whitespace.   This issue is present 
      * with requests from Konqueror/KHTML browsers. 
      * 
-     * @param in the String to clean
-     * @param characterEncoding the character encoding of returned stream
-     * @return a cleaned version of the stream, as a 
-     *         <code>ByteArrayInputStream</code>.
+     * @param in the <code>Reader</code> to clean
+     * @return a cleaned version of the input, as a <code>Reader</code>
      */
-    private static InputStream cleanXmlInputStream(String in, String characterEncoding) 
-    throws IOException{
-    	byte[] out = in.trim().getBytes(characterEncoding);
-    	        
-    	return new ByteArrayInputStream(out);
-    }
-        
-    /**
-     * Removes invalid characters that are not convertible to xml
-     * @param in the String to convert
-     * @param characterEncoding the character encoding of the String 
-     * @return a cleaned version of the stream, as a 
-     *         <code>ByteArrayInputStream</code>.
-     * @throws IOException
-     */
-    private static InputStream 
-            removeInvalidCharacters(String in, String characterEncoding) 
-            throws IOException{
-        
-        StringBuffer out = new StringBuffer(); // Used to hold the output.
-        char current; // Used to reference the current character.
-
-        for (int i = 0; i < in.length(); i++) {
-            current = in.charAt(i);
-            if ((current == 0x9) ||
-                (current == 0xA) ||
-                (current == 0xD) ||
-                ((current >= 0x20) && (current <= 0xD7FF)) ||
-                ((current >= 0xE000) && (current <= 0xFFFD)))
-                out.append(current);
+    private static Reader cleanXmlReader(Reader in) 
+    throws IOException {
+        StringBuffer out = new StringBuffer();
+        char[] buffer = new char[4096];
+        int charsRead;
+        while ((charsRead = in.read(buffer)) > 0) {
+            out.append(buffer, 0, charsRead);
         }
-        
-        return new ByteArrayInputStream(out.toString().getBytes(characterEncoding));
+        return new StringReader(out.toString().trim());
     }
         
-    /**
-     * Converts the {@link InputStream} into a String
-     * @param in InputString to convert
-     * @param characterEncoding encoding to convert String with
-     * @return a String converted from the InputString argument
-     * @throws IOException
-     */
-    private static String inputStreamToString(InputStream in, String characterEncoding) 
-            throws IOException {
-        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
-        
-        byte[] buffer = new byte[4096];
-        int bytesRead = 0;
-        
-        try {
-            do {
-                bytesRead = in.read(buffer);
-                if (bytesRead > 0) {
-                    byteOut.write(buffer, 0, bytesRead);
-                }
-            } while (bytesRead > 0);
-        } finally {
-            if (in != null) { try { in.close(); } catch (IOException ex) { } } 
-        }
-        
-        in.close();
-        
-        byte[] data = byteOut.toByteArray();
-        return new String(data, characterEncoding);
-    }
-    
     /**
      * Generates a DOM representation of the XML input POSTed to a servlet.
      * 
@@ -150,17 +95,16 @@ public class XmlRequestParser {
             throws IOException {
         
         InputStream in = request.getInputStream();
-        String inStr = inputStreamToString(in, characterEncoding);
-        in = removeInvalidCharacters(inStr, characterEncoding);
-        
         try {
+            // Decode and filter invalid characters while the parser consumes the request, rather than buffering it.
+            Reader reader = new XmlCharacterFilterReader(new InputStreamReader(in, characterEncoding));
             String userAgent = request.getHeader("user-agent");
             if (userAgent != null && userAgent.indexOf("onqueror") != -1) {
                 // Invoke XML 'cleaner', but only for  user agents that contain the string "onqueror",
                 // such as Konqueror, for example.
-                in = cleanXmlInputStream(inStr, characterEncoding);
+                reader = cleanXmlReader(reader);
             }
-            return DomUtil.getDocumentBuilder().parse(in);
+            return DomUtil.getDocumentBuilder().parse(new InputSource(reader));
         } catch (final SAXException ex) {
             throw new InvalidXmlException("Provided InputStream cannot be parsed.", ex);
         } catch (final IOException ex) {
@@ -169,4 +113,23 @@ public class XmlRequestParser {
             if (in != null) { try { in.close(); } catch (IOException ex) { } }
         }
     }
+    
+    /**
+     * Generates a DOM representation of XML input provided by a <code>Reader</code>, e.g., a client message 
+     * received over a WebSocket.
+     * 
+     * @param in the <code>Reader</code> providing the XML input
+     * @return a DOM representation of the XML input
+     * @throws IOException if the input is invalid
+     */
+    public static Document parse(Reader in) 
+            throws IOException {
+        try {
+            return DomUtil.getDocumentBuilder().parse(new InputSource(new XmlCharacterFilterReader(in)));
+        } catch (final SAXException ex) {
+            throw new InvalidXmlException("Provided Reader cannot be parsed.", ex);
+        } catch (final IOException ex) {
+            throw new InvalidXmlException("Provided Reader cannot be parsed.", ex);
+        }
+    }
 }